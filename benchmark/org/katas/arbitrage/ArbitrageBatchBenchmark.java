@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.arbitrage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.katas.common.BlackholeResultSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link Arbitrage#processLines()} on a large batch of small currency exchange tables
+ * with a varying number of threads, to measure how well solving many independent tables scales.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArbitrageBatchBenchmark {
+
+  private static final int TABLES = 100000;
+
+  /** The number of tables that can be solved at the same time. */
+  @Param({ "1", "2", "4", "8" })
+  public int parallelism;
+
+  private List<String> lines;
+
+  /**
+   * Generates the currency exchange tables, each of which has between 3 and 5 currencies.
+   */
+  @Setup
+  public void generateTables() {
+    Random random = new Random(TABLES);
+    this.lines = new ArrayList<String>();
+    for (int table = 0; table < TABLES; table++) {
+      int dimension = 3 + random.nextInt(3);
+      this.lines.add(Integer.toString(dimension));
+      for (int row = 0; row < dimension; row++) {
+        StringBuilder builder = new StringBuilder();
+        for (int column = 0; column < dimension - 1; column++) {
+          double rate = 0.5 + random.nextDouble() * 1.5;
+          builder.append(column == 0 ? "" : " ").append(String.format(Locale.US, "%.4f", rate));
+        }
+        this.lines.add(builder.toString());
+      }
+    }
+  }
+
+  /**
+   * Finds the most profitable exchange sequence for each table.
+   * 
+   * @param blackhole Consumes the output.
+   */
+  @Benchmark
+  public void processLines(Blackhole blackhole) {
+    Arbitrage arbitrage = new Arbitrage();
+    arbitrage.setParallelism(this.parallelism);
+    arbitrage.setResultSink(new BlackholeResultSink(blackhole));
+    arbitrage.setLines(this.lines);
+    arbitrage.processLines();
+  }
+}
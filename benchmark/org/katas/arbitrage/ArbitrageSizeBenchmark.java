@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.arbitrage;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link ArbitrageDetector#findBestExchange(ExchangeTable)} on the worst case for its
+ * size: a table whose only profitable sequence visits every currency once, so that walks of every
+ * length up to the number of currencies have to be found. The time grows as N<sup>4</sup> and the
+ * memory as N<sup>3</sup>.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArbitrageSizeBenchmark {
+
+  /** The number of currencies in the table. */
+  @Param({ "25", "50", "100", "200", "300" })
+  public int dimension;
+
+  private ExchangeTable table;
+
+  /**
+   * Generates a table in which each currency buys slightly more of the next one, and every other
+   * exchange loses half of the money, so only the cycle through all of the currencies is
+   * profitable.
+   */
+  @Setup
+  public void generateTable() {
+    this.table = new ExchangeTable(this.dimension);
+    for (int from = 0; from < this.dimension; from++) {
+      for (int to = 0; to < this.dimension; to++) {
+        if (from != to) {
+          this.table.setRate(from, to, (to == (from + 1) % this.dimension) ? 1.001 : 0.5);
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds the most profitable exchange sequence in the table.
+   * 
+   * @return The exchange sequence.
+   */
+  @Benchmark
+  public CurrencyExchange findBestExchange() {
+    return ArbitrageDetector.findBestExchange(this.table);
+  }
+}
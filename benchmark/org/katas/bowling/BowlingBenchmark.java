@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.bowling;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link Bowling#getScore(String)} on randomly generated bowling records.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BowlingBenchmark {
+
+  /** The number of bowling records scored per operation. */
+  @Param({ "100", "10000" })
+  public int games;
+
+  private String[] records;
+
+  /**
+   * Generates the bowling records. Records that <code>getScore</code> rejects are discarded, so
+   * every record that is benchmarked is valid.
+   */
+  @Setup
+  public void generateRecords() {
+    Random random = new Random(this.games);
+    this.records = new String[this.games];
+    for (int count = 0; count < this.games;) {
+      String record = generateRecord(random);
+      try {
+        Bowling.getScore(record);
+        this.records[count++] = record;
+      }
+      catch (IllegalArgumentException e) {
+        continue;
+      }
+    }
+  }
+
+  /**
+   * Generates a random bowling record.
+   * 
+   * @param random The source of randomness.
+   * @return A bowling record.
+   */
+  private static String generateRecord(Random random) {
+    StringBuilder builder = new StringBuilder();
+    for (int frame = 1; frame <= 10; frame++) {
+      if (random.nextInt(10) < 3) {
+        builder.append('X');
+        if (frame == 10) {
+          builder.append('X').append('X');
+        }
+        continue;
+      }
+      int first = random.nextInt(10);
+      builder.append(toChar(first));
+      if (random.nextInt(10) < 3) {
+        builder.append('/');
+        if (frame == 10) {
+          builder.append(toChar(random.nextInt(10)));
+        }
+      }
+      else {
+        builder.append(toChar(random.nextInt(10 - first)));
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Converts the number of pins knocked down into a character in a bowling record.
+   * 
+   * @param pins The number of pins knocked down.
+   * @return The character that represents the number of pins knocked down.
+   */
+  private static char toChar(int pins) {
+    return (pins == 0) ? '-' : (char) ('0' + pins);
+  }
+
+  /**
+   * Scores all of the bowling records.
+   * 
+   * @return The sum of the scores.
+   */
+  @Benchmark
+  public int getScore() {
+    int total = 0;
+    for (String record : this.records) {
+      total += Bowling.getScore(record);
+    }
+    return total;
+  }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.calculator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.katas.common.BlackholeResultSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link CrazyCalculator#processLines()} on randomly generated expressions.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CrazyCalculatorBenchmark {
+
+  private static final int EXPRESSIONS = 100;
+
+  /** The rules from the kata description: @ is +, + is -, - is *, and / is /. */
+  private static final String[] RULES = { "+@1L", "-+3R", "*-2R", "//2R" };
+
+  /** The crazy operators used in the expressions; division is left out to avoid dividing by 0. */
+  private static final String OPERATORS = "@@-";
+
+  /** The number of operands in each expression. */
+  @Param({ "2", "8", "32" })
+  public int operands;
+
+  private List<String> lines;
+
+  /**
+   * Generates one set of rules followed by expressions of single digits and crazy operators.
+   */
+  @Setup
+  public void generateExpressions() {
+    Random random = new Random(this.operands);
+    this.lines = new ArrayList<String>();
+    this.lines.add("1");
+    this.lines.add("");
+    for (String rule : RULES) {
+      this.lines.add(rule);
+    }
+    for (int count = 0; count < EXPRESSIONS; count++) {
+      StringBuilder builder = new StringBuilder();
+      builder.append(1 + random.nextInt(9));
+      for (int index = 1; index < this.operands; index++) {
+        builder.append(OPERATORS.charAt(random.nextInt(OPERATORS.length())));
+        builder.append(1 + random.nextInt(9));
+      }
+      this.lines.add(builder.toString());
+    }
+  }
+
+  /**
+   * Calculates all of the expressions.
+   * 
+   * @param blackhole Consumes the output.
+   */
+  @Benchmark
+  public void processLines(Blackhole blackhole) {
+    CrazyCalculator calculator = new CrazyCalculator();
+    calculator.setParallelism(1);
+    calculator.setResultSink(new BlackholeResultSink(blackhole));
+    calculator.setLines(this.lines);
+    calculator.processLines();
+  }
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A result sink that hands everything a kata prints to a JMH <code>Blackhole</code>, so that
+ * benchmarks measure how fast results are produced rather than how fast they are written.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class BlackholeResultSink implements ResultSink {
+
+  private final Blackhole blackhole;
+
+  /**
+   * Creates a new BlackholeResultSink.
+   * 
+   * @param blackhole The blackhole that consumes the results.
+   */
+  public BlackholeResultSink(Blackhole blackhole) {
+    this.blackhole = blackhole;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(CharSequence chars) {
+    this.blackhole.consume(chars);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(char c) {
+    this.blackhole.consume(c);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(long value) {
+    this.blackhole.consume(value);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void println(CharSequence chars) {
+    this.blackhole.consume(chars);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void println() {
+    this.blackhole.consume('\n');
+  }
+
+  /** Does nothing; the results have already been consumed. */
+  @Override
+  public void flush() {
+    // Nothing to flush.
+  }
+}
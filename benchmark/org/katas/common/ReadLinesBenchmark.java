@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Compares the <code>BufferedReader</code> that <code>KataUtils.readLines</code> used to use with
+ * {@link MappedLineReader}. Each size given on the command line, in megabytes, is benchmarked
+ * against a generated file of that size; the default sizes are 10 MB, 1 GB, and 10 GB. Lines are
+ * only counted, never stored, so that files larger than the heap can be read in.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class ReadLinesBenchmark {
+
+  private static final long MEGABYTE = 1024L * 1024L;
+  private static final String[] DEFAULT_SIZES = { "10", "1024", "10240" };
+
+  /**
+   * This class cannot be instantiated nor extended.
+   */
+  private ReadLinesBenchmark() {
+    // Empty constructor.
+  }
+
+  /**
+   * Writes a file of the given size that contains lines of random digits and spaces.
+   * 
+   * @param file The file to write.
+   * @param size The size of the file in bytes.
+   * @throws IOException If the file could not be written.
+   */
+  private static void generate(File file, long size) throws IOException {
+    Random random = new Random(size);
+    byte[] line = new byte[81];
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+      for (long written = 0; written < size;) {
+        int length = 20 + random.nextInt(60);
+        for (int index = 0; index < length; index++) {
+          line[index] = (byte) ((index % 6 == 5) ? ' ' : '0' + random.nextInt(10));
+        }
+        line[length] = '\n';
+        int count = (int) Math.min(length + 1, size - written);
+        out.write(line, 0, count);
+        written += count;
+      }
+    }
+  }
+
+  /**
+   * Reads in the given file with a <code>BufferedReader</code>.
+   * 
+   * @param file The file to read in.
+   * @return The total number of characters read in.
+   * @throws IOException If the file could not be read.
+   */
+  private static long readWithBufferedReader(File file) throws IOException {
+    long total = 0;
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(new FileInputStream(file), "ASCII"))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        total += line.length();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Reads in and decodes every line of the given file with a {@link MappedLineReader}.
+   * 
+   * @param file The file to read in.
+   * @return The total number of characters read in.
+   * @throws IOException If the file could not be read.
+   */
+  private static long readWithMappedReader(File file) throws IOException {
+    long total = 0;
+    try (MappedLineReader reader =
+        new MappedLineReader(file.getPath(), StandardCharsets.US_ASCII)) {
+      while (reader.hasNext()) {
+        total += reader.next().length();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Splits the given file into lines with a {@link MappedLineReader} without decoding them.
+   * 
+   * @param file The file to read in.
+   * @return The total number of bytes in all of the lines.
+   * @throws IOException If the file could not be read.
+   */
+  private static long splitWithMappedReader(File file) throws IOException {
+    long total = 0;
+    try (MappedLineReader reader =
+        new MappedLineReader(file.getPath(), StandardCharsets.US_ASCII)) {
+      while (reader.hasNext()) {
+        ByteBuffer bytes = reader.nextBytes();
+        total += bytes.remaining();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Prints the time it took to read in a file and the throughput.
+   * 
+   * @param name The name of the reader.
+   * @param file The file that was read in.
+   * @param start The time at which reading started, in nanoseconds.
+   * @param total The total number of characters read in.
+   */
+  private static void report(String name, File file, long start, long total) {
+    double seconds = (System.nanoTime() - start) / 1e9;
+    double megabytes = file.length() / (double) MEGABYTE;
+    System.out.printf("%-24s %10.3f s %10.1f MB/s  (%d chars)%n", name, seconds, megabytes
+        / seconds, total);
+  }
+
+  /**
+   * The main program; benchmarks both readers against a file of each of the given sizes.
+   * 
+   * @param args The file sizes in megabytes; 10 MB, 1 GB, and 10 GB if none are given.
+   * @throws IOException If a file could not be written or read in.
+   */
+  public static void main(String... args) throws IOException {
+    String[] sizes = (args.length == 0) ? DEFAULT_SIZES : args;
+    for (String size : sizes) {
+      File file = File.createTempFile("readlines-" + size + "mb-", ".kata");
+      file.deleteOnExit();
+      try {
+        generate(file, Long.parseLong(size) * MEGABYTE);
+        System.out.println("File size: " + size + " MB");
+        // Warm up both code paths once before measuring.
+        readWithBufferedReader(file);
+        readWithMappedReader(file);
+
+        long start = System.nanoTime();
+        long total = readWithBufferedReader(file);
+        report("BufferedReader", file, start, total);
+
+        start = System.nanoTime();
+        total = readWithMappedReader(file);
+        report("MappedLineReader", file, start, total);
+
+        start = System.nanoTime();
+        total = splitWithMappedReader(file);
+        report("MappedLineReader bytes", file, start, total);
+        System.out.println();
+      }
+      finally {
+        if (!file.delete()) {
+          System.err.println("Unable to delete " + file);
+        }
+      }
+    }
+  }
+}
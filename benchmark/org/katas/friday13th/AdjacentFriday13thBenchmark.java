@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.friday13th;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link AdjacentFriday13th#find(Date)} on random dates between 1900 and 2100.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AdjacentFriday13thBenchmark {
+
+  /** January 1, 1900, in milliseconds since the epoch. */
+  private static final long START = -2208988800000L;
+
+  /** The number of days between January 1, 1900 and January 1, 2100. */
+  private static final int DAYS = 73049;
+
+  /** The number of dates looked up per operation. */
+  @Param({ "1", "100", "10000" })
+  public int dates;
+
+  private Date[] targets;
+
+  /**
+   * Generates the dates.
+   */
+  @Setup
+  public void generateDates() {
+    Random random = new Random(this.dates);
+    this.targets = new Date[this.dates];
+    for (int index = 0; index < this.targets.length; index++) {
+      long day = random.nextInt(DAYS);
+      this.targets[index] = new Date(START + day * AdjacentFriday13th.DAY_IN_MILLISECONDS);
+    }
+  }
+
+  /**
+   * Finds the nearest Friday the 13th for each date.
+   * 
+   * @return The sum of the dates that were found, so that no lookup can be optimized away.
+   */
+  @Benchmark
+  public long find() {
+    long total = 0;
+    for (Date target : this.targets) {
+      total += AdjacentFriday13th.find(target).getTime();
+    }
+    return total;
+  }
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.keywords;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.katas.common.BlackholeResultSink;
+import org.katas.common.InputGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link KeyWordInContext#processLines()} and {@link KeyWord#processLines()} on randomly
+ * generated titles.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeyWordBenchmark {
+
+  /** The number of titles. */
+  @Param({ "10", "100", "1000" })
+  public int titles;
+
+  private List<String> titlesInContext;
+  private List<String> titlesAndProfiles;
+
+  /**
+   * Generates the titles, once with the words to ignore and once with one profile for every
+   * hundred titles.
+   */
+  @Setup
+  public void generateTitles() {
+    this.titlesInContext = InputGenerator.KEY_WORD_IN_CONTEXT.generateLines(this.titles,
+        this.titles);
+    this.titlesAndProfiles = InputGenerator.KEY_WORD.generateLines(this.titles, this.titles);
+  }
+
+  /**
+   * Sorts the titles by each of their key words.
+   * 
+   * @param blackhole Consumes the output.
+   */
+  @Benchmark
+  public void keyWordInContext(Blackhole blackhole) {
+    KeyWordInContext kwic = new KeyWordInContext();
+    kwic.setResultSink(new BlackholeResultSink(blackhole));
+    kwic.setLines(this.titlesInContext);
+    kwic.processLines();
+  }
+
+  /**
+   * Finds the titles that satisfy each profile.
+   * 
+   * @param blackhole Consumes the output.
+   */
+  @Benchmark
+  public void keyWord(Blackhole blackhole) {
+    KeyWord keyWord = new KeyWord();
+    keyWord.setResultSink(new BlackholeResultSink(blackhole));
+    keyWord.setLines(this.titlesAndProfiles);
+    keyWord.processLines();
+  }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.ls;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link Ls#getFilesTable(List)} on random filenames. Because
+ * <code>getFilesTable</code> sorts the list that it is given, each operation also copies the
+ * list.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LsBenchmark {
+
+  private static final String CHARACTERS =
+      "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ._-";
+  private static final int MAX_FILENAME_LENGTH = 20;
+
+  /** The number of filenames in the table. */
+  @Param({ "10", "100", "1000" })
+  public int files;
+
+  private List<String> filenames;
+
+  /**
+   * Generates the filenames.
+   */
+  @Setup
+  public void generateFilenames() {
+    Random random = new Random(this.files);
+    this.filenames = new ArrayList<String>(this.files);
+    for (int count = 0; count < this.files; count++) {
+      int length = 1 + random.nextInt(MAX_FILENAME_LENGTH);
+      StringBuilder builder = new StringBuilder(length);
+      for (int index = 0; index < length; index++) {
+        builder.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+      }
+      this.filenames.add(builder.toString());
+    }
+  }
+
+  /**
+   * Lists the filenames in a table.
+   * 
+   * @return The table.
+   */
+  @Benchmark
+  public String getFilesTable() {
+    return Ls.getFilesTable(new ArrayList<String>(this.filenames));
+  }
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.minesweeper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.katas.common.BlackholeResultSink;
+import org.katas.common.InputGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link Minesweeper#processLines()} on a randomly generated square field.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MinesweeperBenchmark {
+
+  /** The number of rows and columns in the field. */
+  @Param({ "10", "100", "500" })
+  public int size;
+
+  private List<String> lines;
+
+  /**
+   * Generates the field.
+   */
+  @Setup
+  public void generateField() {
+    this.lines = InputGenerator.MINESWEEPER.generateLines(this.size, this.size);
+  }
+
+  /**
+   * Finds the number of mines next to each square in the field.
+   * 
+   * @param blackhole Consumes the output.
+   */
+  @Benchmark
+  public void processLines(Blackhole blackhole) {
+    Minesweeper minesweeper = new Minesweeper();
+    minesweeper.setParallelism(1);
+    minesweeper.setResultSink(new BlackholeResultSink(blackhole));
+    minesweeper.setLines(this.lines);
+    minesweeper.processLines();
+  }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.primes;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link ConsecutivePrimes#getCount(int)} and
+ * {@link ConsecutivePrimes#getCounts(int...)}, including the sieve, on a new instance every time so
+ * that no results are cached between operations.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConsecutivePrimesBenchmark {
+
+  /** The number whose representations are counted. */
+  @Param({ "1000", "10000", "100000" })
+  public int number;
+
+  private int[] numbers;
+
+  /**
+   * Creates a batch that contains every number up to the number.
+   */
+  @Setup
+  public void createBatch() {
+    this.numbers = new int[this.number + 1];
+    for (int index = 0; index < this.numbers.length; index++) {
+      this.numbers[index] = index;
+    }
+  }
+
+  /**
+   * Counts the number of representations of the number.
+   * 
+   * @return The number of representations.
+   */
+  @Benchmark
+  public int getCount() {
+    return new ConsecutivePrimes().getCount(this.number);
+  }
+
+  /**
+   * Counts the number of representations of every number up to the number in one batch.
+   * 
+   * @return The number of representations of each number.
+   */
+  @Benchmark
+  public int[] getCounts() {
+    return new ConsecutivePrimes().getCounts(this.numbers);
+  }
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.primes;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how {@link PrimeSieve} scales with the number of threads that sieve a range. Each
+ * operation sieves from scratch on a new instance. To measure up to the number of cores on a
+ * machine, override the parameter, e.g. <code>-p parallelism=1,2,4,8,16</code>.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PrimeSieveBenchmark {
+
+  /** The largest number that is sieved. */
+  @Param({ "10000000", "100000000" })
+  public int number;
+
+  /** The number of threads that sieve the range. */
+  @Param({ "1", "2", "4", "8" })
+  public int parallelism;
+
+  /**
+   * Counts the prime numbers up to the number.
+   * 
+   * @return The number of prime numbers.
+   */
+  @Benchmark
+  public int countTo() {
+    PrimeSieve sieve = new PrimeSieve();
+    sieve.setParallelism(this.parallelism);
+    return sieve.countTo(this.number);
+  }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.roulette;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.katas.common.BlackholeResultSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link RomanRoulette#processLines()} on circles of randomly chosen K.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RomanRouletteBenchmark {
+
+  /** The largest K in a circle. */
+  private static final int MAX_K = 10;
+
+  /** The number of people in the largest circle. */
+  @Param({ "10", "50", "100" })
+  public int people;
+
+  private List<String> lines;
+
+  /**
+   * Generates one circle of each size from 1 to {@link #people}, followed by the line that ends the
+   * input.
+   */
+  @Setup
+  public void generateCircles() {
+    Random random = new Random(this.people);
+    this.lines = new ArrayList<String>();
+    for (int n = 1; n <= this.people; n++) {
+      this.lines.add(n + " " + (1 + random.nextInt(MAX_K)));
+    }
+    this.lines.add("0 0");
+  }
+
+  /**
+   * Finds the position that the first person should stand at in each circle in order to survive.
+   * 
+   * @param blackhole Consumes the output.
+   */
+  @Benchmark
+  public void processLines(Blackhole blackhole) {
+    RomanRoulette roulette = new RomanRoulette(1);
+    roulette.setParallelism(1);
+    roulette.setResultSink(new BlackholeResultSink(blackhole));
+    roulette.setLines(this.lines);
+    roulette.processLines();
+  }
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.transaction;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.katas.common.InputGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how {@link TransactionProcessing#process()} scales with the number of shards across
+ * which a generated ledger is reconciled. To measure up to the number of cores on a machine,
+ * override the parameter, e.g. <code>-p parallelism=1,2,4,8,16</code>.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransactionProcessingBenchmark {
+
+  /** The number of items in the ledger. */
+  @Param({ "1000000" })
+  public int items;
+
+  /** The number of shards across which the ledger is reconciled. */
+  @Param({ "1", "2", "4", "8" })
+  public int parallelism;
+
+  private List<String> lines;
+
+  /**
+   * Generates the ledger.
+   */
+  @Setup
+  public void generateLedger() {
+    this.lines = InputGenerator.TRANSACTIONS.generateLines(this.items, this.items);
+  }
+
+  /**
+   * Reconciles the ledger.
+   * 
+   * @return The transactions that are out of balance.
+   */
+  @Benchmark
+  public String process() {
+    TransactionProcessing transactionProcessing = new TransactionProcessing();
+    transactionProcessing.setParallelism(this.parallelism);
+    transactionProcessing.setLines(this.lines);
+    return transactionProcessing.process();
+  }
+}
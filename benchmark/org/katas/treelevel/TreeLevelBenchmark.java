@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.treelevel;
+
+import java.util.concurrent.TimeUnit;
+import org.katas.common.InputGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link TreeLevel#getLevelOrder(String)} on a randomly shaped tree.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TreeLevelBenchmark {
+
+  /** The number of nodes in the tree. */
+  @Param({ "10", "100", "1000" })
+  public int nodes;
+
+  private String tree;
+
+  /**
+   * Generates the tree and joins its lines, just like {@link TreeLevel#processLines()} does.
+   */
+  @Setup
+  public void generateTree() {
+    StringBuilder builder = new StringBuilder();
+    for (String line : InputGenerator.TREE_LEVEL.generateLines(this.nodes, this.nodes)) {
+      builder.append(line).append(' ');
+    }
+    this.tree = builder.toString();
+  }
+
+  /**
+   * Builds the tree and lists its values in level order.
+   * 
+   * @return The values in level order.
+   */
+  @Benchmark
+  public String getLevelOrder() {
+    return TreeLevel.getLevelOrder(this.tree);
+  }
+}
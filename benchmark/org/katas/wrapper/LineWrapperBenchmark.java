@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.wrapper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link LineWrapper#getWrappedString(String, int)} on random text.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LineWrapperBenchmark {
+
+  private static final int COLUMNS = 40;
+  private static final int MAX_WORD_LENGTH = 10;
+
+  /** The length of the text, in characters. */
+  @Param({ "100", "10000", "1000000" })
+  public int length;
+
+  private String text;
+
+  /**
+   * Generates text made up of random words that are all shorter than a line.
+   */
+  @Setup
+  public void generateText() {
+    Random random = new Random(this.length);
+    StringBuilder builder = new StringBuilder(this.length + MAX_WORD_LENGTH);
+    while (builder.length() < this.length) {
+      int wordLength = 1 + random.nextInt(MAX_WORD_LENGTH);
+      for (int index = 0; index < wordLength; index++) {
+        builder.append((char) ('a' + random.nextInt(26)));
+      }
+      builder.append(' ');
+    }
+    builder.setLength(this.length);
+    this.text = builder.toString();
+  }
+
+  /**
+   * Wraps the text.
+   * 
+   * @return The wrapped text.
+   */
+  @Benchmark
+  public char[] getWrappedString() {
+    return LineWrapper.getWrappedString(this.text, COLUMNS);
+  }
+}
@@ -73,7 +73,7 @@ public class ClockPatience extends Kata {
     playGame();
 
     if (areAllCardsFlippedOver()) {
-      System.out.println("* You win! *");
+      out.println("* You win! *");
     }
   }
 
@@ -129,7 +129,7 @@ public class ClockPatience extends Kata {
 
     printClock();
 
-    System.out.println("\n" + count + "," + currentCard.getCard());
+    out.println("\n" + count + "," + currentCard.getCard());
   }
 
   /**
@@ -138,11 +138,11 @@ public class ClockPatience extends Kata {
   private void printClock() {
     for (int index = 1; index <= NUM_DECKS; index++) {
       List<PlayingCard> cards = this.clock.get(index);
-      System.out.print(index + ":\t");
+      out.print(index + ":\t");
       for (int pos = 0; pos < cards.size() - 1; pos++) {
-        System.out.print(cards.get(pos) + " ");
+        out.print(cards.get(pos) + " ");
       }
-      System.out.println(cards.get(cards.size() - 1));
+      out.println(cards.get(cards.size() - 1).toString());
     }
   }
 
@@ -221,10 +221,10 @@ public class ClockPatience extends Kata {
       return;
     }
 
-    clockPatience.setLines(KataUtils.readLines(args[0]));
+    clockPatience.setLines(KataUtils.openLines(args[0]));
 
     if (clockPatience.getLines() != null) {
-      clockPatience.processLines();
+      clockPatience.run();
     }
   }
 }
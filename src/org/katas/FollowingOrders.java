@@ -17,10 +17,10 @@ package org.katas;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import org.katas.common.Combinatorics;
 import org.katas.common.Kata;
 import org.katas.common.KataEnums;
 import org.katas.common.KataUtils;
@@ -48,12 +48,12 @@ public class FollowingOrders extends Kata {
    * constraints), and prints out a list of strings whose characters satisfy <span
    * style="text-decoration:underline">all</span> of the constraints.
    */
-  @SuppressWarnings({ "deprecation", "unchecked" })
+  @SuppressWarnings("unchecked")
   @Override
   public void processLines() {
     while (!this.lines.isEmpty()) {
 
-      String line = this.lines.remove(0);
+      String line = this.lines.next();
       List<Character> letters =
           (List<Character>) KataUtils.createList(line, " ", KataEnums.CHARACTER);
       Set<Character> tempSet = new HashSet<Character>(letters);
@@ -67,7 +67,7 @@ public class FollowingOrders extends Kata {
         }
       }
 
-      String constraints = this.lines.remove(0);
+      String constraints = this.lines.next();
       List<Character> constraintsList =
           (List<Character>) KataUtils.createList(constraints, " ", KataEnums.CHARACTER);
       if (constraintsList.size() % 2 != 0) {
@@ -80,20 +80,18 @@ public class FollowingOrders extends Kata {
         }
       }
 
-      List<String> strings = KataUtils.makeStringsList(new ArrayList<Character>(letters));
+      char[] chars = new char[letters.size()];
+      for (int index = 0; index < chars.length; index++) {
+        chars[index] = letters.get(index);
+      }
 
+      // The permutations are generated in sorted order.
       List<String> results = new ArrayList<String>();
-      for (String s : strings) {
-        letters = new ArrayList<Character>();
-        for (char c : s.toCharArray()) {
-          letters.add(c);
-        }
-        if (this.checkConstraints(letters, constraintsList)) {
-          results.add(s);
+      for (char[] permutation : Combinatorics.permutations(chars)) {
+        if (chars.length > 0 && this.checkConstraints(permutation, constraintsList)) {
+          results.add(new String(permutation));
         }
       }
-
-      Collections.sort(results);
       this.printResults(line, constraintsList, results);
 
     }
@@ -106,15 +104,31 @@ public class FollowingOrders extends Kata {
    * @param constraints The constraints to meet.
    * @return True if all constraints are satisfied, false otherwise.
    */
-  private boolean checkConstraints(List<Character> letters, List<Character> constraints) {
+  private boolean checkConstraints(char[] letters, List<Character> constraints) {
     for (int index = 0; index < constraints.size(); index += 2) {
-      if (letters.indexOf(constraints.get(index)) > letters.indexOf(constraints.get(index + 1))) {
+      if (indexOf(letters, constraints.get(index)) > indexOf(letters, constraints.get(index + 1))) {
         return false;
       }
     }
     return true;
   }
 
+  /**
+   * Finds the position of a letter.
+   * 
+   * @param letters The letters to search.
+   * @param letter The letter to find.
+   * @return The position of the letter, or -1 if it was not found.
+   */
+  private static int indexOf(char[] letters, char letter) {
+    for (int index = 0; index < letters.length; index++) {
+      if (letters[index] == letter) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
   /**
    * Prints the results to the screen.
    * 
@@ -123,25 +137,25 @@ public class FollowingOrders extends Kata {
    * @param results The list of results.
    */
   private void printResults(String letters, List<Character> constraints, List<String> results) {
-    System.out.println("Given the letters: " + letters);
+    out.println("Given the letters: " + letters);
 
-    System.out.print("Given the constraints: ");
+    out.print("Given the constraints: ");
     for (int index = 0; index < constraints.size(); index += 2) {
-      System.out.print(constraints.get(index) + " < " + constraints.get(index + 1));
+      out.print(constraints.get(index) + " < " + constraints.get(index + 1));
       if (index + 2 < constraints.size()) {
-        System.out.print(" and ");
+        out.print(" and ");
       }
     }
 
     if (results.isEmpty()) {
-      System.out.println("\n\nNo ordering exists.\n");
+      out.println("\n\nNo ordering exists.\n");
     }
     else {
-      System.out.println("\n\nHere are the results (" + results.size() + "):");
+      out.println("\n\nHere are the results (" + results.size() + "):");
       for (String str : results) {
-        System.out.println(str);
+        out.println(str);
       }
-      System.out.println();
+      out.println();
     }
   }
 
@@ -158,14 +172,15 @@ public class FollowingOrders extends Kata {
     }
 
     FollowingOrders orders = new FollowingOrders();
-    orders.setLines(KataUtils.readLines(args[0]));
+    List<String> lines = KataUtils.readLines(args[0]);
 
     try {
-      if (orders.getLines() != null) {
-        if (orders.getLines().size() % 2 != 0) {
+      if (lines != null) {
+        if (lines.size() % 2 != 0) {
           throw new IOException("Invalid file. File contains odd number of lines.");
         }
-        orders.processLines();
+        orders.setLines(lines);
+        orders.run();
       }
     }
     catch (IOException e) {
@@ -15,16 +15,15 @@
  ******************************************************************************/
 package org.katas;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.StringTokenizer;
+import org.katas.common.KataUtils;
+import org.katas.common.LineSource;
 
 /**
  * This class contains methods that will read in and grade students' responses.
@@ -63,11 +62,7 @@ public class HistoryGrading {
       return false;
     }
 
-    try {
-      BufferedReader reader =
-          new BufferedReader(new InputStreamReader(new FileInputStream(new File(filename)),
-              "UTF-16"));
-
+    try (LineSource reader = KataUtils.openLines(filename, StandardCharsets.UTF_16)) {
       if (!this.getTotalHistoricalEvents(reader) || !this.getHistoricalEvents(reader)) {
         return false;
       }
@@ -75,9 +70,8 @@ public class HistoryGrading {
       if (!this.getStudentResponses(reader)) {
         return false;
       }
-      reader.close();
     }
-    catch (IOException e) {
+    catch (IOException | IllegalStateException e) {
       System.out.println("Problem reading in file: " + e);
       return false;
     }
@@ -89,14 +83,13 @@ public class HistoryGrading {
    * 
    * @param reader Used to read in a line.
    * @return True on success, false otherwise.
-   * @throws IOException If there are problems reading in the file.
    */
-  private boolean getTotalHistoricalEvents(BufferedReader reader) throws IOException {
+  private boolean getTotalHistoricalEvents(LineSource reader) {
     if (reader == null) {
       return false;
     }
 
-    if ((this.line = reader.readLine()) == null) {
+    if ((this.line = readLine(reader)) == null) {
       System.err.println("Empty file.");
       return false;
     }
@@ -125,14 +118,13 @@ public class HistoryGrading {
    * 
    * @param reader Used to read in a line.
    * @return True on success, false otherwise.
-   * @throws IOException If there are problems reading in the file.
    */
-  private boolean getHistoricalEvents(BufferedReader reader) throws IOException {
+  private boolean getHistoricalEvents(LineSource reader) {
     if (reader == null) {
       return false;
     }
 
-    if ((this.line = reader.readLine()) == null) {
+    if ((this.line = readLine(reader)) == null) {
       System.err.println("Missing line containing the correct order of historical events.");
       return false;
     }
@@ -159,13 +151,12 @@ public class HistoryGrading {
    * 
    * @param reader Used to read in a line.
    * @return True on success, false otherwise.
-   * @throws IOException If there are problems reading in the file.
    */
-  private boolean getStudentResponses(BufferedReader reader) throws IOException {
+  private boolean getStudentResponses(LineSource reader) {
     if (reader == null) {
       return false;
     }
-    this.line = reader.readLine();
+    this.line = readLine(reader);
     if (this.line == null) {
       System.err.println("Need at least one student's responses.");
       return false;
@@ -188,11 +179,21 @@ public class HistoryGrading {
       this.allResponses.add("\n");
       this.studentResponses.clear();
       // System.out.println(this.line + "\n");
-      this.line = reader.readLine();
+      this.line = readLine(reader);
     }
     return true;
   }
 
+  /**
+   * Reads in the next line.
+   * 
+   * @param reader Used to read in a line.
+   * @return The next line, or <code>null</code> if the end of the file has been reached.
+   */
+  private static String readLine(LineSource reader) {
+    return reader.isEmpty() ? null : reader.next();
+  }
+
   /**
    * Checks whether duplicates exist in a list.
    * 
@@ -16,11 +16,11 @@
 package org.katas;
 
 import java.awt.Point;
+import java.util.Arrays;
 import java.util.List;
 import org.katas.common.Kata;
-import org.katas.common.KataEnums;
 import org.katas.common.KataUtils;
-import com.bpd.utils.StringUtils;
+import org.katas.common.PrimitiveTokenizer;
 
 /**
  * This program determines whether a line intersects a rectangle by checking if a point on the line
@@ -79,6 +79,8 @@ public class Intersection extends Kata {
     }
   }
 
+  private final PrimitiveTokenizer tokenizer = new PrimitiveTokenizer(" ");
+
   /**
    * Creates a new Intersection object.
    */
@@ -94,38 +96,41 @@ public class Intersection extends Kata {
   public void processLines() {
     int numLines = 0;
     try {
-      numLines = Integer.parseInt(this.lines.get(0));
-      this.lines.remove(0);
+      numLines = Integer.parseInt(this.lines.peek());
+      this.lines.next();
     }
     catch (NumberFormatException e) {
-      System.err.println("Non-numeric character(s) found: " + this.lines.get(0));
+      System.err.println("Non-numeric character(s) found: " + this.lines.peek());
       return;
     }
 
-    if (numLines != this.lines.size()) {
+    // The number of lines is checked before any of them are processed.
+    List<String> cases = this.lines.toList();
+    if (numLines != cases.size()) {
       System.err.print("Expected " + numLines + " line(s). ");
-      System.err.println("Found " + this.lines.size() + ".");
+      System.err.println("Found " + cases.size() + ".");
       return;
     }
 
-    while (!this.lines.isEmpty()) {
-      @SuppressWarnings("unchecked")
-      List<Integer> coordinates =
-          (List<Integer>) KataUtils.createList(this.lines.remove(0), " ", KataEnums.INTEGER);
-
-      if (coordinates == null) {
+    for (String line : cases) {
+      int[] coordinates;
+      try {
+        coordinates = this.tokenizer.reset(line).remainingInts();
+      }
+      catch (NumberFormatException e) {
+        System.err.println(e.getMessage());
         continue;
       }
 
-      if (coordinates.size() != 8) {
-        System.err.println("Expected 8 integers. Found " + coordinates.size() + ":");
-        System.err.println(StringUtils.printArrayContents(coordinates));
+      if (coordinates.length != 8) {
+        System.err.println("Expected 8 integers. Found " + coordinates.length + ":");
+        System.err.println(Arrays.toString(coordinates));
         continue;
       }
 
       // Get the start and end points.
-      Point start = new Point(coordinates.get(0), coordinates.get(1));
-      Point end = new Point(coordinates.get(2), coordinates.get(3));
+      Point start = new Point(coordinates[0], coordinates[1]);
+      Point end = new Point(coordinates[2], coordinates[3]);
       if (start.equals(end)) {
         System.err.println("Length of line cannot be zero:");
         System.err.println("  Start: [" + start.x + ", " + start.y + "]");
@@ -136,8 +141,8 @@ public class Intersection extends Kata {
       Point slope = calculateSlope(start, end);
 
       // Create the rectangle.
-      Point topLeft = new Point(coordinates.get(4), coordinates.get(5));
-      Point bottomRight = new Point(coordinates.get(6), coordinates.get(7));
+      Point topLeft = new Point(coordinates[4], coordinates[5]);
+      Point bottomRight = new Point(coordinates[6], coordinates[7]);
       Rectangle rectangle = new Rectangle(topLeft, bottomRight);
 
       // Check if the start point is inside the rectangle.
@@ -152,10 +157,10 @@ public class Intersection extends Kata {
       }
 
       if (isInside) {
-        System.out.println("T");
+        out.println("T");
       }
       else {
-        System.out.println("F");
+        out.println("F");
       }
     }
   }
@@ -255,10 +260,10 @@ public class Intersection extends Kata {
     }
 
     Intersection intersection = new Intersection();
-    intersection.setLines(KataUtils.readLines(args[0]));
+    intersection.setLines(KataUtils.openLines(args[0]));
 
     if (intersection.getLines() != null) {
-      intersection.processLines();
+      intersection.run();
     }
   }
 
@@ -52,12 +52,12 @@ public class MouseClick extends Kata {
   @Override
   public void processLines() {
     for (int index = 1, letter = 65; !this.lines.isEmpty();) {
-      if ("#".equals(this.lines.get(0))) {
+      if ("#".equals(this.lines.peek())) {
         break;
       }
 
       // Read in all icons, regions, and mouse clicks first.
-      StringTokenizer tokenizer = new StringTokenizer(this.lines.remove(0), " ");
+      StringTokenizer tokenizer = new StringTokenizer(this.lines.next(), " ");
       while (tokenizer.hasMoreTokens()) {
         String type = tokenizer.nextToken();
         if ("I".equals(type)) {
@@ -163,12 +163,12 @@ public class MouseClick extends Kata {
         }
 
         for (int index = 0; index < minPositions.size() - 1; index++) {
-          System.out.print("   " + minPositions.get(index));
+          out.print("   " + minPositions.get(index));
         }
-        System.out.println("   " + minPositions.get(minPositions.size() - 1));
+        out.println("   " + minPositions.get(minPositions.size() - 1));
       }
       else {
-        System.out.println(Character.toChars(region[0][4]));
+        out.println(String.valueOf(Character.toChars(region[0][4])));
       }
     }
   }
@@ -241,10 +241,10 @@ public class MouseClick extends Kata {
     }
 
     MouseClick mouseClick = new MouseClick();
-    mouseClick.setLines(KataUtils.readLines(args[0]));
+    mouseClick.setLines(KataUtils.openLines(args[0]));
 
     if (mouseClick.getLines() != null) {
-      mouseClick.processLines();
+      mouseClick.run();
     }
   }
 }
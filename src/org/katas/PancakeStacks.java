@@ -16,10 +16,11 @@
 package org.katas;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.katas.common.Kata;
-import org.katas.common.KataEnums;
 import org.katas.common.KataUtils;
+import org.katas.common.PrimitiveTokenizer;
 import com.bpd.utils.StringUtils;
 
 /**
@@ -34,7 +35,7 @@ import com.bpd.utils.StringUtils;
  */
 public class PancakeStacks extends Kata {
 
-  private final List<List<Integer>> pancakeStacks;
+  private final List<int[]> pancakeStacks;
   private final List<Integer> positions;
   private int headIndex;
 
@@ -43,19 +44,23 @@ public class PancakeStacks extends Kata {
    * positions under which to flip a subset of pancakes.
    */
   public PancakeStacks() {
-    this.pancakeStacks = new ArrayList<List<Integer>>();
+    this.pancakeStacks = new ArrayList<int[]>();
     this.positions = new ArrayList<Integer>();
   }
 
   /**
    * Reads in one or more stacks of pancakes and then sorts each stack.
    */
-  @SuppressWarnings("unchecked")
   @Override
   public void processLines() {
+    PrimitiveTokenizer tokenizer = new PrimitiveTokenizer(" ");
     for (String s : this.lines) {
-      List<Integer> list = (List<Integer>) KataUtils.createList(s, " ", KataEnums.INTEGER);
-      this.pancakeStacks.add(list);
+      try {
+        this.pancakeStacks.add(tokenizer.reset(s).remainingInts());
+      }
+      catch (NumberFormatException e) {
+        System.err.println(e.getMessage());
+      }
     }
 
     flipPancakes();
@@ -67,33 +72,34 @@ public class PancakeStacks extends Kata {
    * biggest.
    */
   private void flipPancakes() {
-    for (List<Integer> stack : this.pancakeStacks) {
-      System.out.println("Stack:     " + StringUtils.printArrayContents(stack));
-      int size = stack.size();
+    for (int[] stack : this.pancakeStacks) {
+      out.println("Stack:     " + Arrays.toString(stack));
+      int size = stack.length;
       while (!this.isSorted(stack)) {
-        flip(stack.subList(0, size--));
+        flip(stack, size--);
       }
       this.positions.add(0);
-      System.out.println("Positions: " + StringUtils.printArrayContents(this.positions) + "\n");
+      out.println("Positions: " + StringUtils.printArrayContents(this.positions) + "\n");
       this.positions.clear();
       this.headIndex = 1;
     }
   }
 
   /**
-   * Given the entire stack or a subset of pancakes, finds the biggest pancake, and then flips that
-   * pancake along with the other ones on top of it.
+   * Given the top <code>size</code> pancakes in a stack, finds the biggest pancake, and then flips
+   * that pancake along with the other ones on top of it.
    * 
    * @param stack The stack of pancakes to flip.
+   * @param size The number of pancakes at the top of the stack to consider.
    */
-  private void flip(List<Integer> stack) {
-    if (stack == null || stack.isEmpty()) {
+  private void flip(int[] stack, int size) {
+    if (stack == null || size <= 0) {
       throw new IllegalArgumentException("Stack is null or empty.");
     }
 
     int maxPos = 0;
-    for (int index = 0; index < stack.size() - 1; index++) {
-      if (stack.get(maxPos) < stack.get(index + 1)) {
+    for (int index = 0; index < size - 1; index++) {
+      if (stack[maxPos] < stack[index + 1]) {
         maxPos = index + 1;
       }
     }
@@ -103,13 +109,13 @@ public class PancakeStacks extends Kata {
     // the position found, and then flip them again from the bottom so that the biggest pancake will
     // be at the bottom.
     if (maxPos == 0) {
-      flip(stack, stack.size() - 1);
+      reverse(stack, size - 1);
       this.positions.add(this.headIndex);
     }
-    else if (maxPos != stack.size() - 1) {
-      flip(stack, maxPos);
-      this.positions.add(stack.size() - maxPos);
-      flip(stack, stack.size() - 1);
+    else if (maxPos != size - 1) {
+      reverse(stack, maxPos);
+      this.positions.add(size - maxPos);
+      reverse(stack, size - 1);
       this.positions.add(this.headIndex);
     }
     this.headIndex++;
@@ -121,21 +127,21 @@ public class PancakeStacks extends Kata {
    * @param stack The stack of pancakes.
    * @param length The number of pancakes to flip.
    */
-  private void flip(List<Integer> stack, int length) {
-    if (stack == null || stack.isEmpty()) {
+  private void reverse(int[] stack, int length) {
+    if (stack == null || stack.length == 0) {
       throw new IllegalArgumentException("Stack is null or empty.");
     }
     if (length < 0) {
       throw new IllegalArgumentException("Length is less than 0.");
     }
-    else if (length > stack.size()) {
-      throw new IllegalArgumentException("Length cannot be greater than " + stack.size() + ".");
+    else if (length > stack.length) {
+      throw new IllegalArgumentException("Length cannot be greater than " + stack.length + ".");
     }
     double numSwaps = Math.ceil(length / 2.0);
     for (int head = 0, tail = length; head < numSwaps; head++, tail--) {
-      int temp = stack.get(tail);
-      stack.set(tail, stack.get(head));
-      stack.set(head, temp);
+      int temp = stack[tail];
+      stack[tail] = stack[head];
+      stack[head] = temp;
     }
   }
 
@@ -146,12 +152,12 @@ public class PancakeStacks extends Kata {
    * @param stack The stack of pancakes.
    * @return True if the pancakes are sorted from smallest to biggest, false otherwise.
    */
-  private boolean isSorted(List<Integer> stack) {
-    if (stack == null || stack.isEmpty()) {
+  private boolean isSorted(int[] stack) {
+    if (stack == null || stack.length == 0) {
       throw new IllegalArgumentException("Stack is null or empty.");
     }
-    for (int index = 0; index < stack.size() - 1; index++) {
-      if (stack.get(index) > stack.get(index + 1)) {
+    for (int index = 0; index < stack.length - 1; index++) {
+      if (stack[index] > stack[index + 1]) {
         return false;
       }
     }
@@ -171,10 +177,10 @@ public class PancakeStacks extends Kata {
     }
 
     PancakeStacks pancakeStacks = new PancakeStacks();
-    pancakeStacks.setLines(KataUtils.readLines(args[0]));
+    pancakeStacks.setLines(KataUtils.openLines(args[0]));
 
     if (pancakeStacks.getLines() != null) {
-      pancakeStacks.processLines();
+      pancakeStacks.run();
     }
   }
 }
@@ -15,14 +15,9 @@
  ******************************************************************************/
 package org.katas;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import org.katas.common.Combinatorics;
 import org.katas.common.Kata;
 import org.katas.common.KataUtils;
-import com.bpd.utils.StringUtils;
 
 /**
  * This program reads in strings from a file and determines their positions in the ordered sequence
@@ -45,24 +40,17 @@ public class Permalex extends Kata {
    * For each string in the input file, prints out the position number at which the string is
    * located in the list of sorted permutations of the characters in the string.
    */
-  @SuppressWarnings("deprecation")
   @Override
   public void processLines() {
     while (!this.lines.isEmpty()) {
 
-      String line = this.lines.remove(0);
+      String line = this.lines.next();
       if ("#".equals(line)) { // EOF
         return;
       }
 
-      List<Character> letters = StringUtils.toCharacterList(line);
-      List<String> strings = KataUtils.makeStringsList(new ArrayList<Character>(letters));
-      Set<String> set = new HashSet<String>(strings);
-      strings.clear();
-      strings.addAll(set);
-      Collections.sort(strings);
-
-      System.out.println(strings.indexOf(StringUtils.toString(letters)) + 1);
+      out.print(Combinatorics.rank(line.toCharArray()) + 1);
+      out.println();
 
     }
   }
@@ -80,10 +68,10 @@ public class Permalex extends Kata {
     }
 
     Permalex permalex = new Permalex();
-    permalex.setLines(KataUtils.readLines(args[0]));
+    permalex.setLines(KataUtils.openLines(args[0]));
 
     if (permalex.getLines() != null) {
-      permalex.processLines();
+      permalex.run();
     }
   }
 }
@@ -19,8 +19,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
 import org.katas.common.Kata;
-import org.katas.common.KataEnums;
 import org.katas.common.KataUtils;
+import org.katas.common.PrimitiveTokenizer;
 import com.bpd.utils.StringUtils;
 
 /**
@@ -37,6 +37,8 @@ public class Spreadsheet extends Kata {
   private int numSpreadsheets;
   /** List of all spreadsheets in a file. */
   private final List<Object[][]> spreadsheets;
+  /** Parses the dimensions of each spreadsheet. */
+  private final PrimitiveTokenizer tokenizer = new PrimitiveTokenizer(" ");
 
   /**
    * Creates a new Spreadsheet object.
@@ -70,29 +72,35 @@ public class Spreadsheet extends Kata {
   @Override
   public void processLines() {
     for (int count = 0; count < this.numSpreadsheets; count++) {
-      String line = this.lines.remove(0);
-      @SuppressWarnings("unchecked")
-      List<Integer> dimensions = (List<Integer>) KataUtils.createList(line, " ", KataEnums.INTEGER);
-      if (dimensions.size() != 2) {
+      String line = this.lines.next();
+      int[] dimensions;
+      try {
+        dimensions = this.tokenizer.reset(line).remainingInts();
+      }
+      catch (NumberFormatException e) {
+        System.err.println(e.getMessage());
+        return;
+      }
+      if (dimensions.length != 2) {
         System.err.print("Only two values are expected: ");
         System.err.println("number of columns and number of rows.");
         return;
       }
-      if (dimensions.get(0) < 0 && dimensions.get(1) < 0) {
+      if (dimensions[0] < 0 && dimensions[1] < 0) {
         System.err.print("Negative values are not allowed: row ");
-        System.err.print(dimensions.get(1) + ", column ");
-        System.err.println(dimensions.get(0) + ".");
+        System.err.print(dimensions[1] + ", column ");
+        System.err.println(dimensions[0] + ".");
         return;
       }
 
-      this.spreadsheets.add(new Object[dimensions.get(1)][dimensions.get(0)]);
+      this.spreadsheets.add(new Object[dimensions[1]][dimensions[0]]);
 
       populateSpreadsheet(dimensions);
 
       calculateFormulas();
     }
 
-    System.out.println(StringUtils.print2dArrayContents(this.spreadsheets));
+    out.println(StringUtils.print2dArrayContents(this.spreadsheets));
   }
 
   /**
@@ -100,9 +108,9 @@ public class Spreadsheet extends Kata {
    * 
    * @param dimensions Dimensions of the spreadsheet (number of rows and columns).
    */
-  private void populateSpreadsheet(List<Integer> dimensions) {
-    for (int rowIndex = 0; rowIndex < dimensions.get(1); rowIndex++) {
-      StringTokenizer tokenizer = new StringTokenizer(this.lines.remove(0), " ");
+  private void populateSpreadsheet(int[] dimensions) {
+    for (int rowIndex = 0; rowIndex < dimensions[1]; rowIndex++) {
+      StringTokenizer tokenizer = new StringTokenizer(this.lines.next(), " ");
       // Get recently added spreadsheet.
       Object[][] tempSpreadsheet = this.spreadsheets.get(this.spreadsheets.size() - 1);
       // Add values to each cell in row.
@@ -236,8 +244,8 @@ public class Spreadsheet extends Kata {
     }
 
     Spreadsheet spreadsheet = new Spreadsheet();
-    spreadsheet.setLines(KataUtils.readLines(args[0]));
-    String line = spreadsheet.getLines().remove(0);
+    spreadsheet.setLines(KataUtils.openLines(args[0]));
+    String line = spreadsheet.getLines().next();
     try {
       spreadsheet.setNumSpreadsheets(Integer.parseInt(line));
     }
@@ -246,7 +254,7 @@ public class Spreadsheet extends Kata {
       return;
     }
 
-    spreadsheet.processLines();
+    spreadsheet.run();
   }
 
 }
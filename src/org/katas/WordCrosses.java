@@ -50,7 +50,7 @@ public class WordCrosses extends Kata {
   @Override
   public void processLines() {
     while (!this.lines.isEmpty()) {
-      String line = this.lines.remove(0);
+      String line = this.lines.next();
       if ("#".equals(line)) { // EOF
         return;
       }
@@ -112,7 +112,7 @@ public class WordCrosses extends Kata {
       }
 
       if (!isCommonCharFound) {
-        System.out.println("Unable to make double leading crosses.\n");
+        out.println("Unable to make double leading crosses.\n");
         break;
       }
     }
@@ -139,36 +139,36 @@ public class WordCrosses extends Kata {
       boolean isFirstVerticalWordPrinted = index >= firstVerticalWord.size();
       boolean isSecondVerticalWordPrinted = secondVerticalWordIndex >= secondVerticalWord.size();
       if (isFirstVerticalWordPrinted && isSecondVerticalWordPrinted) {
-        System.out.println();
+        out.println();
         break;
       }
       // Print the horizontal words once the index containing the common letter in both first
       // vertical and first horizontal words is reached.
       if (index == positionNumbers[2] - 1) {
-        System.out.print(strings.get(0));
+        out.print(strings.get(0));
         // Print spaces between the two horizontal words.
         for (int pos = 0; pos < NUM_SPACES; pos++) {
-          System.out.print(" ");
+          out.print(" ");
         }
-        System.out.println(strings.get(2));
+        out.println(strings.get(2));
         secondVerticalWordIndex++; // Skip to the next letter in the second vertical word.
         continue;
       }
       // Print spaces before printing a letter in the first vertical word.
       for (int pos = 0; pos < positionNumbers[0] - 1; pos++) {
-        System.out.print(" ");
+        out.print(" ");
       }
       if (index < firstVerticalWord.size()) {
-        System.out.print(firstVerticalWord.get(index));
+        out.print(firstVerticalWord.get(index));
       }
       // There are no more letters in the first vertical word to print, so print spaces
       // instead if there are more letters in the second vertical word to print.
       else {
-        System.out.print(" ");
+        out.print(" ");
       }
       // Print spaces between the two vertical words.
       for (int pos = 0; pos < numSpacesBetweenVerticalWords; pos++) {
-        System.out.print(" ");
+        out.print(" ");
       }
       // Once the vertical distance between the current letter in the first vertical word and the
       // first letter in the second vertical word is zero, i.e. index is now equal to the vertical
@@ -176,14 +176,15 @@ public class WordCrosses extends Kata {
       // word. Otherwise, just print a newline character.
       if (index >= verticalDistanceBetweenFirstLetters) {
         if (secondVerticalWordIndex < secondVerticalWord.size()) {
-          System.out.println(secondVerticalWord.get(secondVerticalWordIndex++));
+          out.print(secondVerticalWord.get(secondVerticalWordIndex++));
+          out.println();
         }
         else {
-          System.out.println();
+          out.println();
         }
       }
       else {
-        System.out.println();
+        out.println();
       }
     }
   }
@@ -201,10 +202,10 @@ public class WordCrosses extends Kata {
     }
 
     WordCrosses wordCross = new WordCrosses();
-    wordCross.setLines(KataUtils.readLines(args[0]));
+    wordCross.setLines(KataUtils.openLines(args[0]));
 
     if (wordCross.getLines() != null) {
-      wordCross.processLines();
+      wordCross.run();
     }
   }
 }
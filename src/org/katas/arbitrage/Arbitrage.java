@@ -16,22 +16,32 @@
 package org.katas.arbitrage;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import org.katas.common.Kata;
-import org.katas.common.KataEnums;
 import org.katas.common.KataUtils;
+import org.katas.common.LineSource;
+import org.katas.common.MultiCaseKata;
+import org.katas.common.PrimitiveTokenizer;
+import com.bpd.utils.validation.Validator;
 
 /**
  * This program creates one or more currency exchange tables and finds the exchange sequence that
- * results in the highest profit for each currency exchange table.
+ * results in the highest profit for each currency exchange table. Among all of the profitable
+ * exchange sequences, only the shortest ones are considered; see {@link ArbitrageDetector}.
+ * Alternatively, {@link #setTopExchanges(int, int)} prints the K most profitable sequences of up
+ * to a maximum number of exchanges; see {@link ArbitrageRanker}.
  * 
  * @see <a href="http://www.bjpeterdelacruz.com/files/katas/104_Arbitrage.pdf">Arbitrage</a>
  * 
  * @author BJ Peter DeLaCruz
  */
-public class Arbitrage extends Kata {
+public class Arbitrage extends MultiCaseKata<String[]> {
+
+  private static final long NANOS_PER_MICRO = 1000;
+
+  private boolean printTables = true;
+  private boolean printTimes;
+  private int topCount;
+  private int topLength;
 
   /**
    * Creates a new Arbitrage object.
@@ -41,162 +51,190 @@ public class Arbitrage extends Kata {
   }
 
   /**
-   * Processes a currency exchange table and finds the exchange sequence that results in the highest
-   * profit.
+   * Sets whether each currency exchange table is printed before its exchange sequence.
+   * 
+   * @param printTables True to print each table, false to print only the exchange sequences.
    */
-  @Override
-  public void processLines() {
-    while (!this.lines.isEmpty()) {
-      // Get the dimension of the currency exchange table.
-      int dimension;
-      try {
-        dimension = Integer.parseInt(this.lines.get(0));
-        this.lines.remove(0);
-      }
-      catch (NumberFormatException e) {
-        System.err.println("Invalid dimension found: " + this.lines.get(0));
-        return;
-      }
-
-      List<Double[]> table = createTable(dimension);
-
-      // Create list of sequences from 1 to dimension.
-      List<Character> characters = new ArrayList<Character>();
-      for (char index = 49; index < (dimension + 49); index++) {
-        characters.add(index);
-      }
-
-      List<String> sequences = getAllExchangeSequences(characters);
-
-      List<CurrencyExchange> exchanges = calculateProfits(table, sequences);
+  public void setPrintTables(boolean printTables) {
+    this.printTables = printTables;
+  }
 
-      updateList(exchanges);
+  /**
+   * Sets whether the time taken to parse and solve each table is printed after its exchange
+   * sequence.
+   * 
+   * @param printTimes True to print the time taken for each table, false otherwise.
+   */
+  public void setPrintTimes(boolean printTimes) {
+    this.printTimes = printTimes;
+  }
 
-      // Print the exchange sequence that results in the highest profit.
-      if (exchanges.isEmpty()) {
-        System.out.println("\nNo arbitrage sequence exists.\n");
-      }
-      else {
-        System.out.println("\n" + exchanges.get(exchanges.size() - 1) + "\n");
-      }
+  /**
+   * Sets whether the most profitable exchange sequences of up to a maximum number of exchanges are
+   * printed for each table, instead of the most profitable of the shortest profitable sequences.
+   * 
+   * @param count The number of sequences to print for each table, or 0 to print only the most
+   * profitable of the shortest profitable sequences.
+   * @param maxLength The maximum number of exchanges in a sequence, at least 2.
+   * @see ArbitrageRanker
+   */
+  public void setTopExchanges(int count, int maxLength) {
+    Validator.checkNegative(count);
+    if (count > 0 && maxLength < 2) {
+      throw new IllegalArgumentException("Maximum length must be at least 2: " + maxLength);
     }
+    this.topCount = count;
+    this.topLength = maxLength;
   }
 
   /**
-   * Creates a table with N rows and N columns.
+   * Reads in the rows of the next currency exchange table. The rates are not parsed here but in
+   * {@link #solveCase(int, String[])}, so that parsing is spread across the worker threads instead
+   * of being done on the one thread that reads in the input.
    * 
-   * @param dimension Dimension of the table (number of rows and columns).
-   * @return The table used to store the exchange rates.
+   * @return The rows of the next currency exchange table, or <code>null</code> if there are no more
+   * tables.
    */
-  private List<Double[]> createTable(int dimension) {
-    List<Double[]> table = new ArrayList<Double[]>();
-
-    System.out.println("Currency Exchange Table:");
-    for (int index = 0; index < dimension; index++) {
-      Double[] row = new Double[dimension];
-      @SuppressWarnings("unchecked")
-      List<Double> data =
-          (List<Double>) KataUtils.createList(this.lines.remove(0), " ", KataEnums.DOUBLE);
-      for (int pos = 0; pos < row.length; pos++) {
-        if (pos == index) {
-          row[pos] = 1.0;
-        }
-        else {
-          row[pos] = data.remove(0);
-        }
-      }
-      table.add(row);
+  @Override
+  protected String[] readCase() {
+    return readRows(this.lines);
+  }
 
-      for (Double d : row) {
-        System.out.print(d + "\t");
-      }
-      System.out.println();
+  /**
+   * Reads in a currency exchange table: a line containing the number of currencies N, followed by
+   * N rows of N - 1 exchange rates each.
+   * 
+   * @param lines The lines from which the table is read in.
+   * @param tokenizer The tokenizer used to parse the exchange rates.
+   * @return The currency exchange table, or <code>null</code> if there are no more tables or the
+   * table is invalid.
+   */
+  static ExchangeTable readTable(LineSource lines, PrimitiveTokenizer tokenizer) {
+    String[] rows = readRows(lines);
+    if (rows == null) {
+      return null;
     }
 
-    return table;
+    try {
+      return createTable(rows, tokenizer);
+    }
+    catch (NumberFormatException e) {
+      System.err.println(e.getMessage());
+      return null;
+    }
   }
 
   /**
-   * Gets all exchange sequences.
+   * Reads in the rows of a currency exchange table without parsing them.
    * 
-   * @param characters The characters used to generate all exchange sequences.
-   * @return The list of strings representing exchange sequences whose lengths are from 2 to N.
+   * @param lines The lines from which the rows are read in.
+   * @return The rows of the table, or <code>null</code> if there are no more tables or the
+   * dimension of the table is invalid.
    */
-  private List<String> getAllExchangeSequences(List<Character> characters) {
-    List<String> permutations =
-        KataUtils.getAllPermutationsOfSubsequences(new HashSet<Character>(characters));
-    Collections.sort(permutations);
-
-    // Delete all strings with lengths less than 2.
-    List<String> deletedStrings = new ArrayList<String>();
-    for (int index = 0; index < permutations.size(); index++) {
-      if (permutations.get(index).length() <= 1) {
-        deletedStrings.add(permutations.get(index));
-      }
+  private static String[] readRows(LineSource lines) {
+    if (lines.isEmpty()) {
+      return null;
     }
-    permutations.removeAll(deletedStrings);
 
-    for (int index = 0; index < permutations.size(); index++) {
-      String combo = permutations.get(index);
-      permutations.set(index, combo + combo.substring(0, 1));
+    // Get the dimension of the currency exchange table.
+    int dimension;
+    try {
+      dimension = Integer.parseInt(lines.peek());
+      lines.next();
     }
-    Collections.sort(permutations);
+    catch (NumberFormatException e) {
+      System.err.println("Invalid dimension found: " + lines.peek());
+      return null;
+    }
+    Validator.checkNegative(dimension);
 
-    return permutations;
+    String[] rows = new String[dimension];
+    for (int row = 0; row < dimension; row++) {
+      rows[row] = lines.next();
+    }
+    return rows;
   }
 
   /**
-   * Calculates the profits made by all exchange sequence.
+   * Finds the exchange sequence that results in the highest profit for a currency exchange table.
    * 
-   * @param table The table containing the exchange rates.
-   * @param sequences The list of exchange sequences.
-   * @return A list of <code>CurrencyExchange</code> objects that contain exchange sequences and
-   * profits.
+   * @param caseNumber The number of the table, starting at 1.
+   * @param rows The rows of the currency exchange table.
+   * @return The table followed by the exchange sequence that results in the highest profit, or an
+   * empty string if the table contains an invalid exchange rate.
    */
-  private List<CurrencyExchange> calculateProfits(List<Double[]> table, List<String> sequences) {
-    List<CurrencyExchange> exchanges = new ArrayList<CurrencyExchange>();
-    for (String str : sequences) {
-      char[] positions = str.toCharArray();
-      int row = Integer.parseInt((positions[0] - 49) + "");
-      double result = table.get(row)[row];
-      for (int index = 0; index < positions.length; index++) {
-        int col = Integer.parseInt((positions[index] - 49) + "");
-        result *= table.get(row)[col];
-        row = col;
+  @Override
+  protected String solveCase(int caseNumber, String[] rows) {
+    long start = System.nanoTime();
+    ExchangeTable table;
+    try {
+      table = createTable(rows, new PrimitiveTokenizer(" "));
+    }
+    catch (NumberFormatException e) {
+      System.err.println("Table " + caseNumber + ": " + e.getMessage());
+      return "";
+    }
+
+    StringBuilder builder = new StringBuilder();
+    if (this.printTables) {
+      builder.append("Currency Exchange Table:\n");
+      for (int row = 0; row < table.size(); row++) {
+        for (int col = 0; col < table.size(); col++) {
+          builder.append(table.getRate(row, col)).append('\t');
+        }
+        builder.append('\n');
       }
-      if (result > 1.00) {
-        exchanges.add(new CurrencyExchange(str, result));
+      builder.append('\n');
+    }
+
+    List<CurrencyExchange> exchanges;
+    if (this.topCount > 0) {
+      exchanges = ArbitrageRanker.findTopExchanges(table, this.topLength, this.topCount);
+    }
+    else {
+      exchanges = new ArrayList<CurrencyExchange>(1);
+      CurrencyExchange exchange = ArbitrageDetector.findBestExchange(table);
+      if (exchange != null) {
+        exchanges.add(exchange);
       }
     }
-    return exchanges;
+    long micros = (System.nanoTime() - start) / NANOS_PER_MICRO;
+
+    // Print the exchange sequences that result in the highest profit.
+    if (exchanges.isEmpty()) {
+      builder.append("No arbitrage sequence exists.\n");
+    }
+    for (CurrencyExchange exchange : exchanges) {
+      builder.append(exchange).append('\n');
+    }
+    if (this.printTimes) {
+      builder.append("Table ").append(caseNumber).append(" solved in ").append(micros);
+      builder.append(" us.\n");
+    }
+    return builder.append('\n').toString();
   }
 
   /**
-   * Removes all exchange sequences that are longer than the shortest exchange sequences and removes
-   * all but one exchange sequence that result in the same profit.
+   * Creates a table with N rows and N columns.
    * 
-   * @param exchanges The list of exchange sequences to update.
+   * @param rows The rows of the table, each of which contains N - 1 exchange rates.
+   * @param tokenizer The tokenizer used to parse the exchange rates.
+   * @return The table used to store the exchange rates.
    */
-  private void updateList(List<CurrencyExchange> exchanges) {
-    Collections.sort(exchanges);
-    // Remove the longest exchanges.
-    for (int index = 0; index < exchanges.size() - 1; index++) {
-      if (exchanges.get(index).getExchangeSequence().length() < exchanges.get(index + 1)
-          .getExchangeSequence().length()) {
-        exchanges.remove(index + 1);
-        index--;
-      }
-    }
+  private static ExchangeTable createTable(String[] rows, PrimitiveTokenizer tokenizer) {
+    int dimension = rows.length;
+    ExchangeTable table = new ExchangeTable(dimension);
 
-    // Remove all but one exchange that result in the same profit.
-    for (int index = 0; index < exchanges.size() - 1; index++) {
-      Double profit1 = exchanges.get(index).getProfit();
-      Double profit2 = exchanges.get(index + 1).getProfit();
-      if (profit1.compareTo(profit2) == 0) {
-        exchanges.remove(index + 1);
-        index--;
+    for (int row = 0; row < dimension; row++) {
+      tokenizer.reset(rows[row]);
+      for (int col = 0; col < dimension; col++) {
+        if (col != row) {
+          table.setRate(row, col, tokenizer.nextDouble());
+        }
       }
     }
+
+    return table;
   }
 
   /**
@@ -209,10 +247,10 @@ public class Arbitrage extends Kata {
     String filename = Arbitrage.class.getResource("example.kata").getPath();
 
     Arbitrage arbitrage = new Arbitrage();
-    arbitrage.setLines(KataUtils.readLines(filename));
+    arbitrage.setLines(KataUtils.openLines(filename));
 
     if (arbitrage.getLines() != null) {
-      arbitrage.processLines();
+      arbitrage.run();
     }
   }
 }
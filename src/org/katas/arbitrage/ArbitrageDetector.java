@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.arbitrage;
+
+import java.util.Arrays;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * Finds the most profitable exchange sequence in a currency exchange table in polynomial time.
+ * Multiplying rates along a sequence is the same as adding their negative logarithms, so a
+ * profitable sequence is a negative cycle in a graph whose edge weights are
+ * <code>-log(rate)</code>.
+ * 
+ * <p>
+ * Cycles of two exchanges are checked first. If none of them makes a profit, the Floyd-Warshall
+ * algorithm checks whether the graph has a negative cycle at all. If it does, the lightest walks of
+ * exactly <i>k</i> exchanges between every pair of currencies are found for <i>k</i> = 2, 3, ...,
+ * with the first hop of each walk so that it can be reconstructed, until a walk of <i>k</i>
+ * exchanges can be closed into a profitable cycle. The shortest profitable walk is always a simple
+ * cycle, because a walk that visits a currency twice can be split into two shorter cycles, one of
+ * which must also be profitable. Among the shortest profitable cycles, the one with the highest
+ * profit is returned, and ties are broken by exchange sequence, so the result is the same as that
+ * of evaluating every sequence. A table with N currencies takes O(N<sup>2</sup>) time if it has a
+ * profitable sequence of two exchanges, and O(<i>k</i> N<sup>3</sup>) time otherwise, where
+ * <i>k</i> is the number of exchanges in its shortest profitable sequence. Since <i>k</i> is at
+ * most N, the worst case is O(N<sup>4</sup>) time, e.g. over ten seconds for a table of 300
+ * currencies whose only profitable sequence visits all of them.
+ * </p>
+ * 
+ * <p>
+ * Profits are calculated by multiplying rates in sequence order, as
+ * {@link ExchangeTable#calculateProfit(int[], int)} does, so that the profit of a sequence does not
+ * depend on how it was found. Cycles whose profit is within {@value #EPSILON} (in log space) of
+ * breaking even are treated as rounding errors. The lightest walks are kept in two buffers that
+ * are allocated once per table and swapped after each length, and candidate cycles are compared
+ * without creating any objects. Reconstructing a cycle of <i>k</i> exchanges needs the first hop
+ * of the lightest walk of every shorter length between every pair of currencies, so those are
+ * kept as one <code>char</code> per walk in an array that grows geometrically: about 2 <i>k</i>
+ * N<sup>2</sup> bytes, e.g. 54 MB in the worst case for 300 currencies.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class ArbitrageDetector {
+
+  /** The amount by which a cycle's total weight must be negative for the cycle to be profitable. */
+  public static final double EPSILON = 1e-12;
+
+  private static final double NO_EDGE = Double.POSITIVE_INFINITY;
+
+  /** The largest array that can be allocated. */
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  private final ExchangeTable table;
+  private final int size;
+  /** The weight of each exchange, <code>-log(rate)</code>, row by row. */
+  private final double[] weights;
+  // lightest[i * size + j] is the weight of the lightest walk of k exchanges from i to j, and the
+  // walks of k + 1 exchanges and their first hops are found in next and nextHops. For k >= 2,
+  // firstHops[(k - 2) * size * size + i * size + j] is the first currency after i on the lightest
+  // walk of k exchanges from i to j; a walk of one exchange goes straight to j. The rates of a
+  // table are indexed by an int, so it has fewer than 65536 currencies, and a char holds any one.
+  private double[] lightest;
+  private double[] next;
+  private final int[] nextHops;
+  private char[] firstHops = new char[0];
+  private int walkLength = 1;
+
+  private final int[] sequence;
+  private final boolean[] visited;
+  private final int[] bestSequence;
+  private int bestLength;
+  private double bestProfit;
+
+  /**
+   * Creates a new ArbitrageDetector that searches the given table.
+   * 
+   * @param table The table containing the exchange rates.
+   */
+  private ArbitrageDetector(ExchangeTable table) {
+    this.table = table;
+    this.size = table.size();
+    int cells = this.size * this.size;
+    this.weights = new double[cells];
+    double[] rates = table.getRates();
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        double rate = rates[row * this.size + col];
+        // Exchanging a currency for itself never makes a profit.
+        this.weights[row * this.size + col] =
+            (row == col || !(rate > 0)) ? NO_EDGE : -Math.log(rate);
+      }
+    }
+    this.lightest = this.weights.clone();
+    this.next = new double[cells];
+    this.nextHops = new int[cells];
+
+    this.sequence = new int[this.size];
+    this.visited = new boolean[this.size];
+    this.bestSequence = new int[this.size];
+  }
+
+  /**
+   * Gets the label of a currency; currencies are numbered starting at 1.
+   * 
+   * @param currency The index of the currency, starting at 0.
+   * @return The label of the currency.
+   */
+  static char label(int currency) {
+    return (char) ('1' + currency);
+  }
+
+  /**
+   * Finds the exchange sequence with the highest profit among the shortest profitable sequences.
+   * 
+   * @param table The table containing the exchange rates; <code>table[i][j]</code> is the number of
+   * units of currency <code>j</code> that one unit of currency <code>i</code> buys.
+   * @return The exchange sequence, or <code>null</code> if no sequence makes a profit.
+   */
+  public static CurrencyExchange findBestExchange(double[][] table) {
+    return findBestExchange(new ExchangeTable(table));
+  }
+
+  /**
+   * Finds the exchange sequence with the highest profit among the shortest profitable sequences.
+   * 
+   * @param table The table containing the exchange rates.
+   * @return The exchange sequence, or <code>null</code> if no sequence makes a profit.
+   */
+  public static CurrencyExchange findBestExchange(ExchangeTable table) {
+    Validator.checkNull(table);
+    if (table.size() < 2) {
+      return null;
+    }
+    return new ArbitrageDetector(table).search();
+  }
+
+  /**
+   * Searches for the shortest profitable cycles, one length at a time.
+   * 
+   * @return The most profitable of the shortest profitable cycles, or <code>null</code> if there
+   * are none.
+   */
+  private CurrencyExchange search() {
+    for (int length = 2; length <= this.size; length++) {
+      if (findBestCycle(length)) {
+        return createExchange();
+      }
+      // Most tables either have a profitable sequence of two exchanges or none at all.
+      if (length == 2 && !hasNegativeCycle()) {
+        return null;
+      }
+      if (length < this.size) {
+        extendWalks();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds the most profitable cycle of the given length by closing the lightest walks that are one
+   * exchange shorter. When several cycles that start at the same currency are equally light, the
+   * one whose first hop is the lowest currency is chosen, so that ties are broken by exchange
+   * sequence.
+   * 
+   * @param length The number of exchanges in a cycle.
+   * @return True if a cycle of the given length makes a profit, false otherwise.
+   */
+  private boolean findBestCycle(int length) {
+    this.bestLength = 0;
+    for (int start = 0; start < this.size; start++) {
+      double lightestCycle = -EPSILON;
+      int firstHop = -1;
+      for (int hop = 0; hop < this.size; hop++) {
+        double weight =
+            this.weights[start * this.size + hop] + this.lightest[hop * this.size + start];
+        if (weight < lightestCycle) {
+          lightestCycle = weight;
+          firstHop = hop;
+        }
+      }
+      if (firstHop >= 0 && reconstructCycle(start, firstHop, length)) {
+        double profit = this.table.calculateProfit(this.sequence, length);
+        if (profit > 1.0 && isBetter(profit, length)) {
+          System.arraycopy(this.sequence, 0, this.bestSequence, 0, length);
+          this.bestLength = length;
+          this.bestProfit = profit;
+        }
+      }
+    }
+    return this.bestLength > 0;
+  }
+
+  /**
+   * Reconstructs the lightest cycle of the given length that starts at the given currency.
+   * 
+   * @param start The currency at which the cycle starts.
+   * @param firstHop The currency after the first one in the cycle.
+   * @param length The number of exchanges in the cycle.
+   * @return True if the cycle was reconstructed, false if it visits a currency twice.
+   */
+  private boolean reconstructCycle(int start, int firstHop, int length) {
+    Arrays.fill(this.visited, false);
+    this.sequence[0] = start;
+    this.visited[start] = true;
+    int currency = firstHop;
+    for (int index = 1; index < length; index++) {
+      if (index > 1) {
+        // The rest of the cycle is the lightest walk of (length - index + 1) exchanges to start.
+        currency = firstHop(length - index + 1, currency, start);
+      }
+      if (this.visited[currency]) {
+        return false;
+      }
+      this.visited[currency] = true;
+      this.sequence[index] = currency;
+    }
+    return true;
+  }
+
+  /**
+   * Gets the first currency after the given one on the lightest walk of the given number of
+   * exchanges to another currency.
+   * 
+   * @param walkLength The number of exchanges in the walk, which must have been found already.
+   * @param from The currency at which the walk starts.
+   * @param to The currency at which the walk ends.
+   * @return The second currency on the walk.
+   */
+  private int firstHop(int walkLength, int from, int to) {
+    if (walkLength == 1) {
+      return to;
+    }
+    return this.firstHops[(walkLength - 2) * this.size * this.size + from * this.size + to];
+  }
+
+  /**
+   * Returns true if the cycle in the sequence makes more profit than the best one so far, or the
+   * same profit and comes first in order.
+   * 
+   * @param profit The profit made by the cycle in the sequence.
+   * @param length The number of currencies in the cycle.
+   * @return True if the cycle is better than the best one so far.
+   */
+  private boolean isBetter(double profit, int length) {
+    if (this.bestLength == 0) {
+      return true;
+    }
+    int compare = Double.compare(profit, this.bestProfit);
+    if (compare != 0) {
+      return compare > 0;
+    }
+    // Labels are in the same order as indexes, so this compares exchange sequences.
+    for (int index = 0; index < length; index++) {
+      if (this.sequence[index] != this.bestSequence[index]) {
+        return this.sequence[index] < this.bestSequence[index];
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Creates the exchange sequence for the best cycle.
+   * 
+   * @return The exchange sequence for the best cycle.
+   */
+  private CurrencyExchange createExchange() {
+    StringBuilder builder = new StringBuilder(this.bestLength + 1);
+    for (int index = 0; index < this.bestLength; index++) {
+      builder.append(label(this.bestSequence[index]));
+    }
+    builder.append(label(this.bestSequence[0]));
+    return new CurrencyExchange(builder.toString(), this.bestProfit);
+  }
+
+  /**
+   * Runs the Floyd-Warshall algorithm to find out whether any cycle has a negative total weight.
+   * 
+   * @return True if there is a cycle with a negative total weight, false otherwise.
+   */
+  private boolean hasNegativeCycle() {
+    int size = this.size;
+    double[] distances = this.next;
+    System.arraycopy(this.weights, 0, distances, 0, distances.length);
+    for (int via = 0; via < size; via++) {
+      int viaOffset = via * size;
+      for (int from = 0; from < size; from++) {
+        double first = distances[from * size + via];
+        if (first == NO_EDGE) {
+          continue;
+        }
+        int rowOffset = from * size;
+        for (int to = 0; to < size; to++) {
+          double distance = first + distances[viaOffset + to];
+          if (distance < distances[rowOffset + to]) {
+            distances[rowOffset + to] = distance;
+          }
+        }
+      }
+      // Stop as soon as any currency is on a negative cycle.
+      for (int currency = 0; currency < size; currency++) {
+        if (distances[currency * size + currency] < -EPSILON) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the lightest walks that are one exchange longer than the current ones. When several
+   * walks are equally light, the one whose first hop is the lowest currency is kept.
+   */
+  private void extendWalks() {
+    int size = this.size;
+    double[] weights = this.weights;
+    double[] current = this.lightest;
+    double[] extended = this.next;
+    int[] hops = this.nextHops;
+    Arrays.fill(extended, NO_EDGE);
+    for (int from = 0; from < size; from++) {
+      int rowOffset = from * size;
+      for (int hop = 0; hop < size; hop++) {
+        double first = weights[rowOffset + hop];
+        if (first == NO_EDGE) {
+          continue;
+        }
+        int hopOffset = hop * size;
+        for (int to = 0; to < size; to++) {
+          double weight = first + current[hopOffset + to];
+          if (weight < extended[rowOffset + to]) {
+            extended[rowOffset + to] = weight;
+            hops[rowOffset + to] = hop;
+          }
+        }
+      }
+    }
+
+    int cells = size * size;
+    long needed = (long) this.walkLength * cells;
+    if (needed > this.firstHops.length) {
+      if (needed > MAX_ARRAY_SIZE) {
+        throw new IllegalStateException("Too many currencies to reconstruct cycles: " + size);
+      }
+      // At most size - 2 lengths of walks are found after the first.
+      long capacity = Math.max(needed, 2L * this.firstHops.length);
+      capacity = Math.min(Math.min((long) (size - 2) * cells, MAX_ARRAY_SIZE), capacity);
+      this.firstHops = Arrays.copyOf(this.firstHops, (int) capacity);
+    }
+    char[] firstHops = this.firstHops;
+    int layer = (this.walkLength - 1) * cells;
+    for (int index = 0; index < cells; index++) {
+      firstHops[layer + index] = (char) hops[index];
+    }
+    this.walkLength++;
+    this.lightest = extended;
+    this.next = current;
+  }
+}
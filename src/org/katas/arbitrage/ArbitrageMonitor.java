@@ -0,0 +1,341 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.arbitrage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.katas.common.Metrics;
+import org.katas.common.Timer;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * Keeps track of the profitable exchange sequences in a currency exchange table whose rates change
+ * one at a time, e.g. as they arrive from a rate feed. Every profitable cycle of up to a maximum
+ * number of exchanges is kept; when a rate changes, only the cycles that contain that exchange are
+ * evaluated again, so an update takes O(N<sup>L - 2</sup>) time for a table with N currencies and
+ * cycles of up to L exchanges, instead of the time needed to search the whole table again.
+ * 
+ * <p>
+ * A cycle is identified by its rotation that starts at its lowest currency, and its profit is
+ * calculated in that order. Only the exchange sequences of the profitable cycles are kept; their
+ * profits are calculated when they are requested, so an update only creates objects for the cycles
+ * that became profitable or stopped being profitable. Longer profitable sequences that are not
+ * tracked can be found by running {@link ArbitrageDetector} on {@link #getTable()}. The time taken
+ * by each update is recorded in the <code>ArbitrageMonitor.update</code> timer if {@link Metrics}
+ * are enabled.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class ArbitrageMonitor {
+
+  /** The default maximum number of exchanges in a tracked cycle. */
+  public static final int DEFAULT_MAX_LENGTH = 3;
+
+  /** Sorts exchanges by exchange sequence. */
+  private static final Comparator<CurrencyExchange> BY_SEQUENCE =
+      new Comparator<CurrencyExchange>() {
+        @Override
+        public int compare(CurrencyExchange exchange1, CurrencyExchange exchange2) {
+          return exchange1.getExchangeSequence().compareTo(exchange2.getExchangeSequence());
+        }
+      };
+
+  private static final Timer UPDATE_TIMER = Metrics.timer("ArbitrageMonitor.update");
+
+  private final ExchangeTable table;
+  private final int size;
+  private final int maxLength;
+  /** The exchange sequences of the profitable cycles. */
+  private final Set<String> profitable = new HashSet<String>();
+
+  // The cycle that is being built, and the currencies in it.
+  private final int[] cycle;
+  private final int[] rotation;
+  private final boolean[] used;
+
+  // The rate that is being updated.
+  private int from;
+  private int to;
+  private double oldRate;
+  private double newRate;
+  private List<CurrencyExchange> added;
+  private List<CurrencyExchange> removed;
+
+  /**
+   * Creates a new ArbitrageMonitor that keeps track of profitable cycles of up to
+   * {@value #DEFAULT_MAX_LENGTH} exchanges.
+   * 
+   * @param table The initial currency exchange table, which is copied.
+   */
+  public ArbitrageMonitor(ExchangeTable table) {
+    this(table, DEFAULT_MAX_LENGTH);
+  }
+
+  /**
+   * Creates a new ArbitrageMonitor.
+   * 
+   * @param table The initial currency exchange table, which is copied.
+   * @param maxLength The maximum number of exchanges in a tracked cycle, at least 2.
+   */
+  public ArbitrageMonitor(ExchangeTable table, int maxLength) {
+    Validator.checkNull(table);
+    if (maxLength < 2) {
+      throw new IllegalArgumentException("Maximum length must be at least 2: " + maxLength);
+    }
+    this.table = new ExchangeTable(table);
+    this.size = table.size();
+    this.maxLength = Math.min(maxLength, Math.max(2, this.size));
+    this.cycle = new int[this.maxLength];
+    this.rotation = new int[this.maxLength];
+    this.used = new boolean[this.size];
+
+    // Find every cycle once, starting at its lowest currency.
+    for (int start = 0; start < this.size; start++) {
+      this.cycle[0] = start;
+      this.used[start] = true;
+      findCycles(1, start + 1);
+      this.used[start] = false;
+    }
+  }
+
+  /**
+   * Gets the maximum number of exchanges in a tracked cycle.
+   * 
+   * @return The maximum number of exchanges in a tracked cycle.
+   */
+  public int getMaxLength() {
+    return maxLength;
+  }
+
+  /**
+   * Gets a copy of the current currency exchange table.
+   * 
+   * @return A copy of the current currency exchange table.
+   */
+  public synchronized ExchangeTable getTable() {
+    return new ExchangeTable(table);
+  }
+
+  /**
+   * Gets the profitable cycles.
+   * 
+   * @return The profitable cycles, sorted by exchange sequence.
+   */
+  public synchronized List<CurrencyExchange> getProfitableExchanges() {
+    List<CurrencyExchange> exchanges = new ArrayList<CurrencyExchange>(profitable.size());
+    for (String sequence : profitable) {
+      exchanges.add(createExchange(sequence));
+    }
+    Collections.sort(exchanges, BY_SEQUENCE);
+    return exchanges;
+  }
+
+  /**
+   * Gets the most profitable of the shortest profitable cycles; ties are broken by exchange
+   * sequence.
+   * 
+   * @return The best exchange sequence, or <code>null</code> if no tracked cycle makes a profit.
+   */
+  public synchronized CurrencyExchange getBestExchange() {
+    CurrencyExchange best = null;
+    for (String sequence : profitable) {
+      CurrencyExchange exchange = createExchange(sequence);
+      if (best == null) {
+        best = exchange;
+        continue;
+      }
+      int length = exchange.getExchangeSequence().length();
+      int bestLength = best.getExchangeSequence().length();
+      int compare = Double.compare(exchange.getProfit(), best.getProfit());
+      if (length < bestLength || (length == bestLength && (compare > 0 || (compare == 0
+          && exchange.getExchangeSequence().compareTo(best.getExchangeSequence()) < 0)))) {
+        best = exchange;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Changes one rate and finds the cycles that became profitable or stopped being profitable.
+   * Only the cycles that contain the exchange whose rate changed are evaluated.
+   * 
+   * @param from The index of the currency that is sold, starting at 0.
+   * @param to The index of the currency that is bought, starting at 0.
+   * @param rate The new rate.
+   * @return The change.
+   */
+  public synchronized RateChange update(int from, int to, double rate) {
+    if (from < 0 || from >= size || to < 0 || to >= size || from == to) {
+      throw new IllegalArgumentException("Invalid exchange: " + from + " -> " + to);
+    }
+
+    long start = UPDATE_TIMER.start();
+    try {
+      this.from = from;
+      this.to = to;
+      this.oldRate = table.getRate(from, to);
+      this.newRate = rate;
+      this.added = new ArrayList<CurrencyExchange>();
+      this.removed = new ArrayList<CurrencyExchange>();
+
+      // Every cycle that contains the exchange is found once, as a walk that starts with it.
+      this.cycle[0] = from;
+      this.cycle[1] = to;
+      this.used[from] = true;
+      this.used[to] = true;
+      updateCycles(2);
+      this.used[from] = false;
+      this.used[to] = false;
+      table.setRate(from, to, rate);
+
+      Collections.sort(this.added, BY_SEQUENCE);
+      Collections.sort(this.removed, BY_SEQUENCE);
+      return new RateChange(from, to, this.oldRate, rate, this.added, this.removed);
+    }
+    finally {
+      this.added = null;
+      this.removed = null;
+      UPDATE_TIMER.stop(start);
+    }
+  }
+
+  /**
+   * Finds the profitable cycles that start with the currencies in the cycle so far and whose other
+   * currencies are all at least the given one.
+   * 
+   * @param length The number of currencies in the cycle so far.
+   * @param lowest The lowest currency that can be added to the cycle.
+   */
+  private void findCycles(int length, int lowest) {
+    if (length >= 2) {
+      double profit = table.calculateProfit(cycle, length);
+      if (profit > 1.0) {
+        profitable.add(createSequence(cycle, length));
+      }
+    }
+    if (length == maxLength) {
+      return;
+    }
+    for (int currency = lowest; currency < size; currency++) {
+      if (!used[currency]) {
+        cycle[length] = currency;
+        used[currency] = true;
+        findCycles(length + 1, lowest);
+        used[currency] = false;
+      }
+    }
+  }
+
+  /**
+   * Evaluates the cycles that start with the currencies in the cycle so far, before and after the
+   * rate changes, and records the ones that became profitable or stopped being profitable.
+   * 
+   * @param length The number of currencies in the cycle so far.
+   */
+  private void updateCycles(int length) {
+    // The rotation that starts at the lowest currency identifies the cycle.
+    int lowest = 0;
+    for (int index = 1; index < length; index++) {
+      if (cycle[index] < cycle[lowest]) {
+        lowest = index;
+      }
+    }
+    for (int index = 0; index < length; index++) {
+      rotation[index] = cycle[(lowest + index) % length];
+    }
+
+    double before = calculateProfit(rotation, length, oldRate);
+    double after = calculateProfit(rotation, length, newRate);
+    if (before > 1.0 && after <= 1.0) {
+      String sequence = createSequence(rotation, length);
+      profitable.remove(sequence);
+      removed.add(new CurrencyExchange(sequence, before));
+    }
+    else if (before <= 1.0 && after > 1.0) {
+      String sequence = createSequence(rotation, length);
+      profitable.add(sequence);
+      added.add(new CurrencyExchange(sequence, after));
+    }
+
+    if (length == maxLength) {
+      return;
+    }
+    for (int currency = 0; currency < size; currency++) {
+      if (!used[currency]) {
+        cycle[length] = currency;
+        used[currency] = true;
+        updateCycles(length + 1);
+        used[currency] = false;
+      }
+    }
+  }
+
+  /**
+   * Calculates the profit made by a cycle, in the same order as
+   * {@link ExchangeTable#calculateProfit(int[], int)}, using the given rate for the exchange that
+   * is being updated.
+   * 
+   * @param sequence The currencies in the cycle.
+   * @param length The number of currencies in the cycle.
+   * @param rate The rate of the exchange that is being updated.
+   * @return The profit made by the cycle.
+   */
+  private double calculateProfit(int[] sequence, int length, double rate) {
+    int first = sequence[0];
+    int row = first;
+    double result = table.getRate(row, row);
+    for (int index = 1; index <= length; index++) {
+      int col = (index == length) ? first : sequence[index];
+      result *= (row == from && col == to) ? rate : table.getRate(row, col);
+      row = col;
+    }
+    return result;
+  }
+
+  /**
+   * Creates an exchange from the exchange sequence of a cycle and its current profit.
+   * 
+   * @param sequence The exchange sequence of a cycle, which starts at its lowest currency.
+   * @return The exchange.
+   */
+  private CurrencyExchange createExchange(String sequence) {
+    int length = sequence.length() - 1;
+    for (int index = 0; index < length; index++) {
+      rotation[index] = sequence.charAt(index) - ArbitrageDetector.label(0);
+    }
+    return new CurrencyExchange(sequence, table.calculateProfit(rotation, length));
+  }
+
+  /**
+   * Creates the exchange sequence of a cycle.
+   * 
+   * @param sequence The currencies in the cycle.
+   * @param length The number of currencies in the cycle.
+   * @return The exchange sequence, which ends with the currency that it starts with.
+   */
+  private static String createSequence(int[] sequence, int length) {
+    StringBuilder builder = new StringBuilder(length + 1);
+    for (int index = 0; index < length; index++) {
+      builder.append(ArbitrageDetector.label(sequence[index]));
+    }
+    return builder.append(ArbitrageDetector.label(sequence[0])).toString();
+  }
+}
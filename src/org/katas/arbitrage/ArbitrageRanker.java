@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.arbitrage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * Finds the most profitable exchange sequences of up to a maximum number of exchanges in a
+ * currency exchange table. Unlike {@link ArbitrageDetector}, which only finds the best of the
+ * shortest profitable sequences, this class ranks every profitable cycle of up to L exchanges and
+ * keeps the K best ones in a bounded priority queue, so that no list of candidates is ever built.
+ * 
+ * <p>
+ * Cycles are enumerated depth first, each one once, starting at its lowest currency. Before the
+ * cycles that start at a currency are enumerated, dynamic programming over (exchanges, currency)
+ * finds the highest log-profit of any walk of at most <i>h</i> exchanges back to that currency, for
+ * every <i>h</i> up to L. A partial cycle whose log-profit so far plus the best way back cannot
+ * beat the K-th best cycle found so far, or cannot make a profit at all, is not extended. The
+ * bound allows walks that visit a currency twice, so it never prunes a cycle that belongs in the
+ * result.
+ * </p>
+ * 
+ * <p>
+ * Profits are calculated by {@link ExchangeTable#calculateProfit(int[], int)} in the order of the
+ * rotation that starts at the lowest currency, just like {@link ArbitrageMonitor} does, so both
+ * classes report the same profit for a cycle. Exchanges are ranked by profit, highest first, and
+ * ties are broken by exchange sequence.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class ArbitrageRanker {
+
+  /**
+   * The amount, in log space, by which a bound may fall short of the K-th best profit before a
+   * partial cycle is pruned, so that rounding errors never prune a cycle that ties with it.
+   */
+  private static final double SLACK = 1e-9;
+
+  private static final double NO_EDGE = Double.NEGATIVE_INFINITY;
+
+  /** Ranks exchanges from the best to the worst. */
+  private static final Comparator<CurrencyExchange> BEST_FIRST =
+      new Comparator<CurrencyExchange>() {
+        @Override
+        public int compare(CurrencyExchange exchange1, CurrencyExchange exchange2) {
+          int compare = Double.compare(exchange2.getProfit(), exchange1.getProfit());
+          if (compare != 0) {
+            return compare;
+          }
+          return exchange1.getExchangeSequence().compareTo(exchange2.getExchangeSequence());
+        }
+      };
+
+  /** Ranks exchanges from the worst to the best, so the head of a queue is the one to evict. */
+  private static final Comparator<CurrencyExchange> WORST_FIRST =
+      Collections.reverseOrder(BEST_FIRST);
+
+  /** The number of exchanges for which room is made in the queue before it has to grow. */
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final ExchangeTable table;
+  private final int size;
+  private final int maxLength;
+  private final int count;
+  /** The log of each rate, row by row, or {@link #NO_EDGE} if the exchange is not possible. */
+  private final double[] gains;
+  // reach[h * size + c] is the highest log-profit of a walk of at most h exchanges from c back to
+  // the currency at which the current cycles start.
+  private final double[] reach;
+  private final double[] exact;
+  private final double[] previous;
+
+  private final PriorityQueue<CurrencyExchange> best;
+  private final int[] cycle;
+  private final boolean[] used;
+
+  /**
+   * Creates a new ArbitrageRanker.
+   * 
+   * @param table The table containing the exchange rates.
+   * @param maxLength The maximum number of exchanges in a cycle.
+   * @param count The maximum number of exchanges to find.
+   */
+  private ArbitrageRanker(ExchangeTable table, int maxLength, int count) {
+    this.table = table;
+    this.size = table.size();
+    this.maxLength = Math.min(maxLength, this.size);
+    this.count = count;
+    this.gains = new double[this.size * this.size];
+    double[] rates = table.getRates();
+    for (int row = 0; row < this.size; row++) {
+      for (int col = 0; col < this.size; col++) {
+        double rate = rates[row * this.size + col];
+        this.gains[row * this.size + col] =
+            (row == col || !(rate > 0)) ? NO_EDGE : Math.log(rate);
+      }
+    }
+    this.reach = new double[(this.maxLength + 1) * this.size];
+    this.exact = new double[this.size];
+    this.previous = new double[this.size];
+    // The count can be far larger than the number of profitable cycles, e.g. to find all of them.
+    this.best =
+        new PriorityQueue<CurrencyExchange>(Math.min(count, INITIAL_CAPACITY) + 1, WORST_FIRST);
+    this.cycle = new int[this.maxLength];
+    this.used = new boolean[this.size];
+  }
+
+  /**
+   * Finds the most profitable exchange sequences of up to the given number of exchanges.
+   * 
+   * @param table The table containing the exchange rates.
+   * @param maxLength The maximum number of exchanges in a sequence, at least 2.
+   * @param count The maximum number of sequences to find, at least 1.
+   * @return The most profitable sequences, the best one first; an empty list if no sequence of up
+   * to <code>maxLength</code> exchanges makes a profit.
+   */
+  public static List<CurrencyExchange> findTopExchanges(ExchangeTable table, int maxLength,
+      int count) {
+    Validator.checkNull(table);
+    if (maxLength < 2) {
+      throw new IllegalArgumentException("Maximum length must be at least 2: " + maxLength);
+    }
+    if (count < 1) {
+      throw new IllegalArgumentException("Count must be at least 1: " + count);
+    }
+    if (table.size() < 2) {
+      return new ArrayList<CurrencyExchange>();
+    }
+    return new ArbitrageRanker(table, maxLength, count).search();
+  }
+
+  /**
+   * Enumerates the cycles that start at each currency in turn.
+   * 
+   * @return The most profitable cycles, the best one first.
+   */
+  private List<CurrencyExchange> search() {
+    // The highest currency cannot start a cycle, because every other currency in it is higher.
+    for (int start = 0; start < this.size - 1; start++) {
+      if (!findReach(start)) {
+        continue;
+      }
+      this.cycle[0] = start;
+      this.used[start] = true;
+      extend(1, 0.0);
+      this.used[start] = false;
+    }
+
+    List<CurrencyExchange> exchanges = new ArrayList<CurrencyExchange>(this.best);
+    Collections.sort(exchanges, BEST_FIRST);
+    return exchanges;
+  }
+
+  /**
+   * Finds the highest log-profit of a walk of at most <i>h</i> exchanges from every currency
+   * higher than the given one back to it, for every <i>h</i> up to the maximum length.
+   * 
+   * @param start The currency at which the cycles start.
+   * @return True if any cycle that starts at the given currency can make a profit.
+   */
+  private boolean findReach(int start) {
+    int size = this.size;
+    double[] gains = this.gains;
+    double[] exact = this.exact;
+    double[] previous = this.previous;
+    for (int currency = start + 1; currency < size; currency++) {
+      exact[currency] = gains[currency * size + start];
+      this.reach[size + currency] = exact[currency];
+    }
+
+    for (int hops = 2; hops <= this.maxLength; hops++) {
+      System.arraycopy(exact, 0, previous, 0, size);
+      int offset = hops * size;
+      for (int from = start + 1; from < size; from++) {
+        double highest = NO_EDGE;
+        int rowOffset = from * size;
+        for (int via = start + 1; via < size; via++) {
+          double gain = gains[rowOffset + via] + previous[via];
+          if (gain > highest) {
+            highest = gain;
+          }
+        }
+        exact[from] = highest;
+        this.reach[offset + from] = Math.max(this.reach[offset - size + from], highest);
+      }
+    }
+
+    // A cycle leaves the start with one exchange and returns with at most maxLength - 1 more.
+    double highest = NO_EDGE;
+    int offset = (this.maxLength - 1) * size;
+    for (int currency = start + 1; currency < size; currency++) {
+      highest = Math.max(highest, gains[start * size + currency] + this.reach[offset + currency]);
+    }
+    return highest > -SLACK;
+  }
+
+  /**
+   * Evaluates the cycle that closes the currencies chosen so far, then extends them with every
+   * higher currency that might still lead to a cycle that belongs in the result.
+   * 
+   * @param length The number of currencies in the cycle so far.
+   * @param gain The log-profit of the exchanges between the currencies chosen so far.
+   */
+  private void extend(int length, double gain) {
+    if (length >= 2) {
+      offer(length);
+    }
+    if (length == this.maxLength) {
+      return;
+    }
+
+    int start = this.cycle[0];
+    int last = this.cycle[length - 1];
+    // After the next currency, at most maxLength - length exchanges are left to return to start.
+    int offset = (this.maxLength - length) * this.size;
+    double threshold = threshold();
+    for (int currency = start + 1; currency < this.size; currency++) {
+      if (this.used[currency]) {
+        continue;
+      }
+      double next = gain + this.gains[last * this.size + currency];
+      if (next + this.reach[offset + currency] <= threshold - SLACK) {
+        continue;
+      }
+      this.cycle[length] = currency;
+      this.used[currency] = true;
+      extend(length + 1, next);
+      this.used[currency] = false;
+      threshold = threshold();
+    }
+  }
+
+  /**
+   * Gets the log-profit that a cycle must beat to be added to the result.
+   * 
+   * @return The log of the K-th best profit so far, or 0 if fewer than K cycles have been found.
+   */
+  private double threshold() {
+    if (this.best.size() < this.count) {
+      return 0.0;
+    }
+    return Math.log(this.best.peek().getProfit());
+  }
+
+  /**
+   * Adds the cycle through the currencies chosen so far to the result if it makes a profit and
+   * ranks among the K best cycles so far.
+   * 
+   * @param length The number of currencies in the cycle.
+   */
+  private void offer(int length) {
+    double profit = this.table.calculateProfit(this.cycle, length);
+    if (!(profit > 1.0)) {
+      return;
+    }
+    if (this.best.size() == this.count && profit < this.best.peek().getProfit()) {
+      return;
+    }
+
+    StringBuilder builder = new StringBuilder(length + 1);
+    for (int index = 0; index < length; index++) {
+      builder.append(ArbitrageDetector.label(this.cycle[index]));
+    }
+    builder.append(ArbitrageDetector.label(this.cycle[0]));
+    CurrencyExchange exchange = new CurrencyExchange(builder.toString(), profit);
+    if (this.best.size() < this.count) {
+      this.best.add(exchange);
+    }
+    else if (BEST_FIRST.compare(exchange, this.best.peek()) < 0) {
+      this.best.poll();
+      this.best.add(exchange);
+    }
+  }
+}
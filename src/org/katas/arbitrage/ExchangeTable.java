@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.arbitrage;
+
+import java.util.Arrays;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * A currency exchange table. The rates are stored row by row in one flat <code>double[]</code>, so
+ * that looking up a rate is a single multiplication and addition and a table is a single object.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class ExchangeTable {
+
+  private final int size;
+  private final double[] rates;
+
+  /**
+   * Creates a new table in which every currency exchanges for itself at a rate of 1.0 and every
+   * other rate is 0.0.
+   * 
+   * @param size The number of currencies.
+   */
+  public ExchangeTable(int size) {
+    Validator.checkNegative(size);
+    this.size = size;
+    this.rates = new double[size * size];
+    for (int currency = 0; currency < size; currency++) {
+      this.rates[currency * size + currency] = 1.0;
+    }
+  }
+
+  /**
+   * Creates a new table that contains the rates in the given square array.
+   * 
+   * @param table The rates; <code>table[i][j]</code> is the number of units of currency
+   * <code>j</code> that one unit of currency <code>i</code> buys.
+   */
+  public ExchangeTable(double[][] table) {
+    Validator.checkNull(table);
+    this.size = table.length;
+    this.rates = new double[this.size * this.size];
+    for (int row = 0; row < this.size; row++) {
+      if (table[row].length != this.size) {
+        throw new IllegalArgumentException("Table is not square: row " + row);
+      }
+      System.arraycopy(table[row], 0, this.rates, row * this.size, this.size);
+    }
+  }
+
+  /**
+   * Creates a new table that contains the same rates as the given one.
+   * 
+   * @param table The table to copy.
+   */
+  public ExchangeTable(ExchangeTable table) {
+    Validator.checkNull(table);
+    this.size = table.size;
+    this.rates = table.rates.clone();
+  }
+
+  /**
+   * Gets the number of currencies in this table.
+   * 
+   * @return The number of currencies.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets the rate at which one currency is exchanged for another.
+   * 
+   * @param from The index of the currency that is sold, starting at 0.
+   * @param to The index of the currency that is bought, starting at 0.
+   * @return The number of units of the second currency that one unit of the first one buys.
+   */
+  public double getRate(int from, int to) {
+    return this.rates[from * this.size + to];
+  }
+
+  /**
+   * Sets the rate at which one currency is exchanged for another.
+   * 
+   * @param from The index of the currency that is sold, starting at 0.
+   * @param to The index of the currency that is bought, starting at 0.
+   * @param rate The number of units of the second currency that one unit of the first one buys.
+   */
+  public void setRate(int from, int to, double rate) {
+    this.rates[from * this.size + to] = rate;
+  }
+
+  /**
+   * Gets the rates, row by row. The array is not copied.
+   * 
+   * @return The rates.
+   */
+  double[] getRates() {
+    return this.rates;
+  }
+
+  /**
+   * Calculates the profit made by exchanging currencies in the given order and then exchanging the
+   * last currency back to the first one.
+   * 
+   * @param sequence The indexes of the currencies in the exchange sequence.
+   * @param length The number of currencies in the exchange sequence.
+   * @return The profit made by the exchange sequence.
+   */
+  public double calculateProfit(int[] sequence, int length) {
+    int first = sequence[0] * this.size;
+    int row = first;
+    double result = this.rates[row + sequence[0]];
+    for (int index = 1; index < length; index++) {
+      int col = sequence[index];
+      result *= this.rates[row + col];
+      row = col * this.size;
+    }
+    return result * this.rates[row + sequence[0]];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean equals(Object object) {
+    if (!(object instanceof ExchangeTable)) {
+      return false;
+    }
+    ExchangeTable table = (ExchangeTable) object;
+    return this.size == table.size && Arrays.equals(this.rates, table.rates);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(this.rates);
+  }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.arbitrage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of changing one rate in an {@link ArbitrageMonitor}: the exchange sequences that
+ * became profitable and the ones that stopped being profitable.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class RateChange {
+
+  private final int from;
+  private final int to;
+  private final double oldRate;
+  private final double newRate;
+  private final List<CurrencyExchange> added;
+  private final List<CurrencyExchange> removed;
+
+  /**
+   * Creates a new RateChange object.
+   * 
+   * @param from The index of the currency that is sold.
+   * @param to The index of the currency that is bought.
+   * @param oldRate The rate before the change.
+   * @param newRate The rate after the change.
+   * @param added The exchange sequences that became profitable, sorted by exchange sequence.
+   * @param removed The exchange sequences that stopped being profitable, sorted by exchange
+   * sequence.
+   */
+  RateChange(int from, int to, double oldRate, double newRate, List<CurrencyExchange> added,
+      List<CurrencyExchange> removed) {
+    this.from = from;
+    this.to = to;
+    this.oldRate = oldRate;
+    this.newRate = newRate;
+    this.added = Collections.unmodifiableList(added);
+    this.removed = Collections.unmodifiableList(removed);
+  }
+
+  /**
+   * Gets the index of the currency that is sold.
+   * 
+   * @return The index of the currency that is sold, starting at 0.
+   */
+  public int getFrom() {
+    return from;
+  }
+
+  /**
+   * Gets the index of the currency that is bought.
+   * 
+   * @return The index of the currency that is bought, starting at 0.
+   */
+  public int getTo() {
+    return to;
+  }
+
+  /**
+   * Gets the rate before the change.
+   * 
+   * @return The rate before the change.
+   */
+  public double getOldRate() {
+    return oldRate;
+  }
+
+  /**
+   * Gets the rate after the change.
+   * 
+   * @return The rate after the change.
+   */
+  public double getNewRate() {
+    return newRate;
+  }
+
+  /**
+   * Gets the exchange sequences that became profitable.
+   * 
+   * @return The exchange sequences that became profitable, sorted by exchange sequence.
+   */
+  public List<CurrencyExchange> getAdded() {
+    return added;
+  }
+
+  /**
+   * Gets the exchange sequences that stopped being profitable.
+   * 
+   * @return The exchange sequences that stopped being profitable, sorted by exchange sequence.
+   */
+  public List<CurrencyExchange> getRemoved() {
+    return removed;
+  }
+
+  /**
+   * Returns true if any exchange sequence became profitable or stopped being profitable.
+   * 
+   * @return True if the set of profitable exchange sequences changed, false otherwise.
+   */
+  public boolean isChanged() {
+    return !added.isEmpty() || !removed.isEmpty();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append(ArbitrageDetector.label(from)).append(" -> ");
+    builder.append(ArbitrageDetector.label(to)).append(": ");
+    builder.append(oldRate).append(" -> ").append(newRate);
+    for (CurrencyExchange exchange : added) {
+      builder.append("\n  + ").append(exchange);
+    }
+    for (CurrencyExchange exchange : removed) {
+      builder.append("\n  - ").append(exchange);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.arbitrage;
+
+import java.util.NoSuchElementException;
+import org.katas.common.Kata;
+import org.katas.common.KataUtils;
+import org.katas.common.PrimitiveTokenizer;
+
+/**
+ * Replays a log of rate updates against an {@link ArbitrageMonitor} and prints the exchange
+ * sequences that become profitable or stop being profitable after each update. The log begins with
+ * a currency exchange table in the same format as the input to {@link Arbitrage}, followed by one
+ * update per line: the currency that is sold, the currency that is bought (both numbered starting
+ * at 1), and the new rate.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public class RateFeed extends Kata {
+
+  private final PrimitiveTokenizer tokenizer = new PrimitiveTokenizer(" ");
+  private int maxLength = ArbitrageMonitor.DEFAULT_MAX_LENGTH;
+  private ArbitrageMonitor monitor;
+
+  /**
+   * Creates a new RateFeed object.
+   */
+  public RateFeed() {
+    // Empty constructor.
+  }
+
+  /**
+   * Sets the maximum number of exchanges in a tracked cycle.
+   * 
+   * @param maxLength The maximum number of exchanges in a tracked cycle, at least 2.
+   */
+  public void setMaxLength(int maxLength) {
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * Gets the monitor that was created for the last log that was replayed.
+   * 
+   * @return The monitor, or <code>null</code> if no log has been replayed.
+   */
+  public ArbitrageMonitor getMonitor() {
+    return this.monitor;
+  }
+
+  /**
+   * Reads in the initial table, prints the best exchange sequence in it, and then applies and
+   * prints each update, followed by the best exchange sequence after the last update.
+   */
+  @Override
+  public void processLines() {
+    ExchangeTable table = Arbitrage.readTable(this.lines, this.tokenizer);
+    if (table == null) {
+      return;
+    }
+    this.monitor = new ArbitrageMonitor(table, this.maxLength);
+    printBestExchange();
+
+    while (this.lines.hasNext()) {
+      String line = this.lines.next().trim();
+      if (line.isEmpty()) {
+        continue;
+      }
+      try {
+        this.tokenizer.reset(line);
+        int from = this.tokenizer.nextInt() - 1;
+        int to = this.tokenizer.nextInt() - 1;
+        double rate = this.tokenizer.nextDouble();
+        this.out.println(this.monitor.update(from, to, rate).toString());
+      }
+      catch (IllegalArgumentException | NoSuchElementException e) {
+        System.err.println("Invalid update: " + line);
+      }
+    }
+    printBestExchange();
+  }
+
+  /**
+   * Prints the best exchange sequence that the monitor is keeping track of.
+   */
+  private void printBestExchange() {
+    CurrencyExchange exchange = this.monitor.getBestExchange();
+    if (exchange == null) {
+      this.out.println("No arbitrage sequence exists.");
+    }
+    else {
+      this.out.println("Best: " + exchange);
+    }
+  }
+
+  /**
+   * The main program; given the name of a file, replays the rate updates in it.
+   * 
+   * @param args Name of the file containing the initial table and the rate updates.
+   */
+  public static void main(String... args) {
+    String filename = RateFeed.class.getResource("updates.kata").getPath();
+
+    RateFeed feed = new RateFeed();
+    feed.setLines(KataUtils.openLines(filename));
+
+    if (feed.getLines() != null) {
+      feed.run();
+    }
+  }
+}
@@ -46,7 +46,7 @@ final class BanglaNumbers extends Kata {
   @Override
   public void processLines() {
     while (!this.lines.isEmpty()) {
-      long number = Long.parseLong(this.lines.remove(0));
+      long number = Long.parseLong(this.lines.next());
       if (number > MAX) {
         System.err.println("Error: " + number + " > " + MAX);
         continue;
@@ -86,9 +86,9 @@ final class BanglaNumbers extends Kata {
         }
       }
       for (Character c : characters) {
-        System.out.print(c);
+        out.print(c);
       }
-      System.out.println();
+      out.println();
     }
   }
 
@@ -122,10 +122,10 @@ final class BanglaNumbers extends Kata {
     String filename = BanglaNumbers.class.getResource("example.kata").getPath();
 
     BanglaNumbers banglaNumbers = new BanglaNumbers();
-    banglaNumbers.setLines(KataUtils.readLines(filename));
+    banglaNumbers.setLines(KataUtils.openLines(filename));
 
     if (banglaNumbers.getLines() != null) {
-      banglaNumbers.processLines();
+      banglaNumbers.run();
     }
   }
 
@@ -23,7 +23,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.TreeMap;
 import org.apache.commons.lang3.StringUtils;
-import org.katas.common.Kata;
+import org.katas.common.MultiCaseKata;
 import com.bpd.utils.validation.Validator;
 
 /**
@@ -33,7 +33,7 @@ import com.bpd.utils.validation.Validator;
  * @see <a href="http://www.bjpeterdelacruz.com/files/katas/354_Crazy_Calculator.pdf">Crazy
  * Calculator</a>
  */
-final class CrazyCalculator extends Kata {
+final class CrazyCalculator extends MultiCaseKata<CrazyCalculator.Calculation> {
 
   private static final char LEFT_ASSOC = 'L';
   private static final char RIGHT_ASSOC = 'R';
@@ -41,6 +41,9 @@ final class CrazyCalculator extends Kata {
   private static final String OPERATORS = "~@#$%^&*()_+=-{}[]:;|<>,.?/";
 
   private final List<String> results = new ArrayList<>();
+  private int numCases;
+  private int casesRead;
+  private Calculation lastCalculation;
 
   /**
    * Represents a rule for this calculator, which contains an operator, a crazy operator, and
@@ -137,54 +140,92 @@ final class CrazyCalculator extends Kata {
 
   }
 
+  /**
+   * A set of calculations read in from a file: the four rules and the expressions to calculate.
+   */
+  static final class Calculation {
+
+    private final Map<Character, Rule> rulesMap = new TreeMap<>();
+    private final List<String> expressions = new ArrayList<>();
+    private final List<String> calculationResults = new ArrayList<>();
+  }
+
   /** {@inheritDoc} */
   @Override
   public void processLines() {
-    if (lines.size() < 2) {
+    results.clear();
+    if (lines.isEmpty()) {
       return;
     }
-    int numCases = Integer.parseInt(lines.remove(0));
-    lines.remove(0);
-    for (int index = 0; index < numCases; index++) {
-      Map<Character, Rule> rulesMap = new TreeMap<>();
-      results.clear();
-      for (int idx = 0; idx < 4; idx++) {
-        String line = lines.remove(0);
-        if (line.isEmpty()) {
-          return;
-        }
-        if (line.length() != 4) {
-          throw new IllegalArgumentException("Line doesn't contain four characters.");
-        }
-        int precedence = Integer.parseInt(line.charAt(2) + "");
-        Rule newRule = new Rule(line.charAt(0), line.charAt(1), precedence, line.charAt(3), -1);
-        Rule oldRule = rulesMap.put(newRule.getCrazyOp(), newRule);
-        if (oldRule != null) {
-          throw new IllegalArgumentException("Rule already defined.");
-        }
+    numCases = Integer.parseInt(lines.next());
+    if (lines.isEmpty()) {
+      return;
+    }
+    lines.next();
+    casesRead = 0;
+    lastCalculation = null;
+    super.processLines();
+    if (lastCalculation != null) {
+      results.addAll(lastCalculation.calculationResults);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected Calculation readCase() {
+    if (casesRead == numCases) {
+      return null;
+    }
+    Calculation calculation = new Calculation();
+    lastCalculation = null;
+    for (int idx = 0; idx < 4; idx++) {
+      String line = lines.next();
+      if (line.isEmpty()) {
+        return null;
       }
-      while (!lines.isEmpty()) {
-        String oldLine = lines.remove(0);
-        if (oldLine.isEmpty()) {
-          break;
-        }
-        String line = replaceCrazyOps(rulesMap, oldLine);
-        List<Rule> rulesList = new ArrayList<>();
-        for (Entry<Character, Rule> entry : rulesMap.entrySet()) {
-          int position = oldLine.lastIndexOf(entry.getValue().getCrazyOp());
-          rulesList.add(entry.getValue().setLastPosition(position));
-        }
-        Collections.sort(rulesList);
-        Collections.reverse(rulesList);
-        System.out.print(line + " = ");
-        for (Rule rule : rulesList) {
-          line = calculate(line, rule);
-        }
-        System.out.println(line);
-        System.out.println();
-        results.add(line);
+      if (line.length() != 4) {
+        throw new IllegalArgumentException("Line doesn't contain four characters.");
+      }
+      int precedence = Integer.parseInt(line.charAt(2) + "");
+      Rule newRule = new Rule(line.charAt(0), line.charAt(1), precedence, line.charAt(3), -1);
+      Rule oldRule = calculation.rulesMap.put(newRule.getCrazyOp(), newRule);
+      if (oldRule != null) {
+        throw new IllegalArgumentException("Rule already defined.");
+      }
+    }
+    while (!lines.isEmpty()) {
+      String line = lines.next();
+      if (line.isEmpty()) {
+        break;
+      }
+      calculation.expressions.add(line);
+    }
+    casesRead++;
+    lastCalculation = calculation;
+    return calculation;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected String solveCase(int caseNumber, Calculation calculation) {
+    StringBuilder builder = new StringBuilder();
+    for (String oldLine : calculation.expressions) {
+      String line = replaceCrazyOps(calculation.rulesMap, oldLine);
+      List<Rule> rulesList = new ArrayList<>();
+      for (Entry<Character, Rule> entry : calculation.rulesMap.entrySet()) {
+        int position = oldLine.lastIndexOf(entry.getValue().getCrazyOp());
+        rulesList.add(entry.getValue().setLastPosition(position));
+      }
+      Collections.sort(rulesList);
+      Collections.reverse(rulesList);
+      builder.append(line).append(" = ");
+      for (Rule rule : rulesList) {
+        line = calculate(line, rule);
       }
+      builder.append(line).append("\n\n");
+      calculation.calculationResults.add(line);
     }
+    return builder.toString();
   }
 
   /**
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * Replaces a file atomically: the new contents are written to a temporary file next to it, which
+ * replaces the file only when {@link #commit()} is called. If the JVM exits, or the writer is
+ * closed, before then, the file still has its old contents. A writer is used as follows:
+ * 
+ * <pre>
+ * try (AtomicFileWriter writer = new AtomicFileWriter(file)) {
+ *   // Write to writer.getChannel().
+ *   writer.commit();
+ * }
+ * </pre>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class AtomicFileWriter implements Closeable {
+
+  private final Path target;
+  private final Path temporary;
+  private final RandomAccessFile file;
+  private boolean committed;
+
+  /**
+   * Creates a new AtomicFileWriter that replaces the given file.
+   * 
+   * @param target The file to replace; it does not have to exist yet.
+   * @throws IOException If the temporary file cannot be created.
+   */
+  public AtomicFileWriter(File target) throws IOException {
+    Validator.checkNull(target);
+    this.target = target.toPath();
+    this.temporary = this.target.resolveSibling(this.target.getFileName() + ".tmp");
+    this.file = new RandomAccessFile(this.temporary.toFile(), "rw");
+    this.file.setLength(0);
+  }
+
+  /**
+   * Gets the channel to which the new contents are written.
+   * 
+   * @return The channel of the temporary file.
+   */
+  public FileChannel getChannel() {
+    return this.file.getChannel();
+  }
+
+  /**
+   * Writes all of the remaining bytes of a buffer at the given position.
+   * 
+   * @param buffer The bytes to write.
+   * @param position The position in the file at which to write them.
+   * @return The position after the last byte that was written.
+   * @throws IOException If the bytes cannot be written.
+   */
+  public long write(ByteBuffer buffer, long position) throws IOException {
+    long next = position;
+    while (buffer.hasRemaining()) {
+      next += this.file.getChannel().write(buffer, next);
+    }
+    return next;
+  }
+
+  /**
+   * Forces the new contents to disk and replaces the file with them.
+   * 
+   * @throws IOException If the file cannot be replaced.
+   */
+  public void commit() throws IOException {
+    this.file.getChannel().force(false);
+    this.file.close();
+    try {
+      Files.move(this.temporary, this.target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (AtomicMoveNotSupportedException e) {
+      Files.move(this.temporary, this.target, StandardCopyOption.REPLACE_EXISTING);
+    }
+    this.committed = true;
+  }
+
+  /**
+   * Deletes the temporary file, unless the file has been replaced with it.
+   * 
+   * @throws IOException If the temporary file cannot be deleted.
+   */
+  @Override
+  public void close() throws IOException {
+    this.file.close();
+    if (!this.committed) {
+      Files.deleteIfExists(this.temporary);
+    }
+  }
+
+  /**
+   * Replaces a file with the remaining bytes of a buffer.
+   * 
+   * @param target The file to replace.
+   * @param contents The new contents of the file.
+   * @throws IOException If the file cannot be replaced.
+   */
+  public static void write(File target, ByteBuffer contents) throws IOException {
+    try (AtomicFileWriter writer = new AtomicFileWriter(target)) {
+      writer.write(contents, 0);
+      writer.commit();
+    }
+  }
+}
@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Solves the cases of a {@link MultiCaseKata} on a <code>ForkJoinPool</code>. Cases are read in on
+ * the calling thread, and at most a few cases per worker are in flight at a time, so memory stays
+ * bounded no matter how many cases there are. Output is printed to the kata's result sink, on the
+ * calling thread, in the order in which the cases were read in.
+ * 
+ * @param <C> The type of a test case.
+ * @author BJ Peter DeLaCruz
+ */
+final class CaseExecutor<C> {
+
+  /** The number of cases per worker that may be waiting to be printed. */
+  static final int CASES_PER_WORKER = 4;
+
+  private final MultiCaseKata<C> kata;
+  private final int parallelism;
+  private final Timer parseTimer;
+  private final Timer computeTimer;
+  private final Counter cases;
+
+  /**
+   * Creates a new CaseExecutor.
+   * 
+   * @param kata The kata whose cases are solved.
+   * @param parallelism The number of cases that can be solved at the same time.
+   */
+  CaseExecutor(MultiCaseKata<C> kata, int parallelism) {
+    this.kata = kata;
+    this.parallelism = parallelism;
+    String name = kata.getClass().getSimpleName();
+    this.parseTimer = Metrics.timer(name + ".parse");
+    this.computeTimer = Metrics.timer(name + ".compute");
+    this.cases = Metrics.counter(name + ".cases");
+  }
+
+  /**
+   * Reads in, solves, and prints all of the cases.
+   * 
+   * @return The number of cases that were solved.
+   */
+  long execute() {
+    int caseNumber = 1;
+    if (this.parallelism == 1) {
+      for (C testCase = readCase(); testCase != null; testCase = readCase()) {
+        this.kata.out.print(solveCase(caseNumber++, testCase));
+      }
+      return caseNumber - 1;
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+    Deque<Future<Object>> pending = new ArrayDeque<Future<Object>>();
+    int maxPending = this.parallelism * CASES_PER_WORKER;
+    try {
+      C testCase;
+      while ((testCase = readCase(pending)) != null) {
+        pending.add(pool.submit(new SolveTask(caseNumber++, testCase)));
+        while (pending.size() >= maxPending || (!pending.isEmpty() && pending.peek().isDone())) {
+          this.kata.out.print(await(pending.poll()));
+        }
+      }
+      while (!pending.isEmpty()) {
+        this.kata.out.print(await(pending.poll()));
+      }
+    }
+    finally {
+      pool.shutdownNow();
+    }
+    return caseNumber - 1;
+  }
+
+  /**
+   * Reads in the next case. If the kata fails to read in a case, the output of the cases before it
+   * is printed before the failure is reported.
+   * 
+   * @param pending The cases that are still being solved.
+   * @return The next case, or <code>null</code> if there are no more cases.
+   */
+  private C readCase(Deque<Future<Object>> pending) {
+    try {
+      return readCase();
+    }
+    catch (RuntimeException e) {
+      while (!pending.isEmpty()) {
+        this.kata.out.print(await(pending.poll()));
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Reads in the next case and records how long it took.
+   * 
+   * @return The next case, or <code>null</code> if there are no more cases.
+   */
+  private C readCase() {
+    long start = this.parseTimer.start();
+    try {
+      return this.kata.readCase();
+    }
+    finally {
+      this.parseTimer.stop(start);
+    }
+  }
+
+  /**
+   * Solves a case and records how long it took.
+   * 
+   * @param caseNumber The number of the case, starting at 1.
+   * @param testCase The case to solve.
+   * @return The output for the case.
+   */
+  private String solveCase(int caseNumber, C testCase) {
+    long start = this.computeTimer.start();
+    try {
+      return this.kata.solveCase(caseNumber, testCase);
+    }
+    finally {
+      this.computeTimer.stop(start);
+      this.cases.increment();
+    }
+  }
+
+  /**
+   * Waits for a case to be solved and returns its output, or throws the exception that the case
+   * failed with.
+   * 
+   * @param future The case that is being solved.
+   * @return The output for the case.
+   */
+  private static String await(Future<Object> future) {
+    Object result;
+    try {
+      result = future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while solving a case.", e);
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+    if (result instanceof RuntimeException) {
+      throw (RuntimeException) result;
+    }
+    if (result instanceof Error) {
+      throw (Error) result;
+    }
+    return (String) result;
+  }
+
+  /**
+   * Solves one case. A failure is returned rather than thrown, because a
+   * <code>ForkJoinPool</code> rethrows an exception that was thrown on another thread as a copy
+   * whose message starts with the name of the original's class; returning it lets the failure be
+   * rethrown exactly as it would be if the case had been solved on the calling thread.
+   */
+  private final class SolveTask implements Callable<Object> {
+
+    private final int caseNumber;
+    private final C testCase;
+
+    /**
+     * Creates a new SolveTask.
+     * 
+     * @param caseNumber The number of the case, starting at 1.
+     * @param testCase The case to solve.
+     */
+    SolveTask(int caseNumber, C testCase) {
+      this.caseNumber = caseNumber;
+      this.testCase = testCase;
+    }
+
+    /**
+     * Solves the case.
+     * 
+     * @return The output for the case, or the exception or error that the case failed with.
+     */
+    @Override
+    public Object call() {
+      try {
+        return solveCase(this.caseNumber, this.testCase);
+      }
+      catch (RuntimeException | Error e) {
+        return e;
+      }
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A result sink that keeps all results in memory, mainly for use in JUnit tests. Lines are always
+ * separated by <code>\n</code>, regardless of the platform. This class is not thread-safe.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public class CollectingResultSink implements ResultSink {
+
+  private final StringBuilder builder = new StringBuilder();
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(CharSequence chars) {
+    this.builder.append(chars);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(char c) {
+    this.builder.append(c);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(long value) {
+    this.builder.append(value);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void println(CharSequence chars) {
+    this.builder.append(chars).append('\n');
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void println() {
+    this.builder.append('\n');
+  }
+
+  /** Does nothing; the results are already in memory. */
+  @Override
+  public void flush() {
+    // Nothing to flush.
+  }
+
+  /**
+   * Gets all of the results that have been printed so far.
+   * 
+   * @return All of the results that have been printed so far.
+   */
+  public String getOutput() {
+    return this.builder.toString();
+  }
+
+  /**
+   * Gets all of the results that have been printed so far, split into lines.
+   * 
+   * @return All of the lines that have been printed so far.
+   */
+  public List<String> getLines() {
+    if (this.builder.length() == 0) {
+      return new ArrayList<String>();
+    }
+    return new ArrayList<String>(Arrays.asList(this.builder.toString().split("\n", -1)));
+  }
+
+  /** Discards all of the results that have been printed so far. */
+  public void clear() {
+    this.builder.setLength(0);
+  }
+}
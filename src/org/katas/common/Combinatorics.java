@@ -0,0 +1,336 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * This class contains methods that enumerate permutations and subsets lazily, one at a time, so
+ * that callers never have to hold all of them in memory at once.
+ * 
+ * <p>
+ * To keep allocations to a minimum, the iterators returned by {@link #permutations(char[])} and
+ * {@link #subsets(char[], int, int)} return the <span style="text-decoration:underline">same</span>
+ * array on every call to <code>next()</code>; copy it (e.g. with <code>new String(array)</code>)
+ * if it must be kept.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class Combinatorics {
+
+  /** The largest number of characters whose subsets can be enumerated with a bitmask. */
+  public static final int MAX_SUBSET_SIZE = 62;
+
+  /**
+   * This class cannot be instantiated nor extended.
+   */
+  private Combinatorics() {
+    // Empty constructor.
+  }
+
+  /**
+   * Rearranges the given characters into the next permutation in lexicographic order. If the
+   * characters are already in the last permutation (i.e. in descending order), they are rearranged
+   * into the first one (i.e. in ascending order). Duplicate characters are allowed; each distinct
+   * permutation is produced only once.
+   * 
+   * @param chars The characters to rearrange.
+   * @return True if the characters were rearranged into the next permutation, false if they were
+   * in the last permutation.
+   */
+  public static boolean nextPermutation(char[] chars) {
+    Validator.checkNull(chars);
+
+    int pivot = chars.length - 2;
+    while (pivot >= 0 && chars[pivot] >= chars[pivot + 1]) {
+      pivot--;
+    }
+    if (pivot < 0) {
+      reverse(chars, 0, chars.length - 1);
+      return false;
+    }
+
+    int successor = chars.length - 1;
+    while (chars[successor] <= chars[pivot]) {
+      successor--;
+    }
+    swap(chars, pivot, successor);
+    reverse(chars, pivot + 1, chars.length - 1);
+    return true;
+  }
+
+  /**
+   * Returns the position of the given permutation in the sorted list of distinct permutations of
+   * its characters, without generating any of them. For example, the rank of "bca" is 3.
+   * 
+   * @param chars The permutation.
+   * @return The position of the permutation, starting at 0.
+   */
+  public static long rank(char[] chars) {
+    Validator.checkNull(chars);
+
+    long rank = 0;
+    // The number of distinct permutations of the characters from index onward.
+    long permutations = 1;
+    for (int index = chars.length - 1; index >= 0; index--) {
+      int length = chars.length - index;
+      int same = 0;
+      int smaller = 0;
+      for (int pos = index; pos < chars.length; pos++) {
+        if (chars[pos] == chars[index]) {
+          same++;
+        }
+        else if (chars[pos] < chars[index]) {
+          smaller++;
+        }
+      }
+      permutations = multiplyThenDivide(permutations, length, same);
+      // Each smaller character could have been placed at this index instead.
+      rank += multiplyThenDivide(permutations, smaller, length);
+    }
+    return rank;
+  }
+
+  /**
+   * Returns all of the distinct permutations of the given characters in lexicographic order. The
+   * given array is not modified.
+   * 
+   * @param chars The characters to permute.
+   * @return The permutations of the characters; each iterator reuses one array for all of them.
+   */
+  public static Iterable<char[]> permutations(final char[] chars) {
+    Validator.checkNull(chars);
+
+    return new Iterable<char[]>() {
+      @Override
+      public Iterator<char[]> iterator() {
+        return new PermutationIterator(chars);
+      }
+    };
+  }
+
+  /**
+   * Returns all of the subsets of the given characters that contain between <code>minSize</code>
+   * and <code>maxSize</code> characters. The characters in each subset are in the same order as in
+   * the given array, so the subsets of a sorted array are sorted and can be passed directly to
+   * {@link #nextPermutation(char[])}.
+   * 
+   * @param chars The characters, of which there can be at most {@value #MAX_SUBSET_SIZE}.
+   * @param minSize The size of the smallest subsets.
+   * @param maxSize The size of the largest subsets.
+   * @return The subsets of the characters; each iterator reuses one array per subset size.
+   */
+  public static Iterable<char[]> subsets(final char[] chars, final int minSize, final int maxSize) {
+    Validator.checkNull(chars);
+    if (chars.length > MAX_SUBSET_SIZE) {
+      throw new IllegalArgumentException("Too many characters: " + chars.length);
+    }
+    if (minSize < 0 || minSize > maxSize) {
+      throw new IllegalArgumentException("Invalid subset sizes: " + minSize + ", " + maxSize);
+    }
+
+    return new Iterable<char[]>() {
+      @Override
+      public Iterator<char[]> iterator() {
+        return new SubsetIterator(chars, minSize, Math.min(maxSize, chars.length));
+      }
+    };
+  }
+
+  /**
+   * Computes <code>value * multiplier / divisor</code>, which must be a whole number, without
+   * overflowing unless the result itself does not fit in a <code>long</code>.
+   * 
+   * @param value The value to multiply.
+   * @param multiplier The multiplier.
+   * @param divisor The divisor.
+   * @return The result.
+   */
+  private static long multiplyThenDivide(long value, int multiplier, int divisor) {
+    int gcd = gcd(multiplier, divisor);
+    return (value / (divisor / gcd)) * (multiplier / gcd);
+  }
+
+  /**
+   * Finds the greatest common divisor of two numbers.
+   * 
+   * @param a The first number.
+   * @param b The second number, which must be positive.
+   * @return The greatest common divisor.
+   */
+  private static int gcd(int a, int b) {
+    int x = a;
+    int y = b;
+    while (x != 0) {
+      int temp = y % x;
+      y = x;
+      x = temp;
+    }
+    return y;
+  }
+
+  /**
+   * Swaps two characters.
+   * 
+   * @param chars The characters.
+   * @param i The index of the first character.
+   * @param j The index of the second character.
+   */
+  private static void swap(char[] chars, int i, int j) {
+    char temp = chars[i];
+    chars[i] = chars[j];
+    chars[j] = temp;
+  }
+
+  /**
+   * Reverses the order of a range of characters.
+   * 
+   * @param chars The characters.
+   * @param from The index of the first character in the range.
+   * @param to The index of the last character in the range.
+   */
+  private static void reverse(char[] chars, int from, int to) {
+    for (int i = from, j = to; i < j; i++, j--) {
+      swap(chars, i, j);
+    }
+  }
+
+  /**
+   * Iterates over the distinct permutations of a set of characters in lexicographic order.
+   */
+  private static final class PermutationIterator implements Iterator<char[]> {
+
+    private final char[] permutation;
+    private boolean advance;
+    private boolean hasNext = true;
+
+    /**
+     * Creates a new PermutationIterator.
+     * 
+     * @param chars The characters to permute.
+     */
+    PermutationIterator(char[] chars) {
+      this.permutation = Arrays.copyOf(chars, chars.length);
+      Arrays.sort(this.permutation);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+      if (this.advance) {
+        this.hasNext = nextPermutation(this.permutation);
+        this.advance = false;
+      }
+      return this.hasNext;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public char[] next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException("No more permutations.");
+      }
+      this.advance = true;
+      return this.permutation;
+    }
+
+    /**
+     * Permutations cannot be removed.
+     * 
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Permutations cannot be removed.");
+    }
+  }
+
+  /**
+   * Iterates over the subsets of a set of characters by counting from 0 to 2<sup>N</sup> - 1; each
+   * bit that is set in the count selects one character.
+   */
+  private static final class SubsetIterator implements Iterator<char[]> {
+
+    private final char[] chars;
+    private final int minSize;
+    private final int maxSize;
+    private final long lastMask;
+    private final char[][] subsets;
+    private long mask = -1;
+    private boolean found;
+
+    /**
+     * Creates a new SubsetIterator.
+     * 
+     * @param chars The characters.
+     * @param minSize The size of the smallest subsets.
+     * @param maxSize The size of the largest subsets.
+     */
+    SubsetIterator(char[] chars, int minSize, int maxSize) {
+      this.chars = Arrays.copyOf(chars, chars.length);
+      this.minSize = minSize;
+      this.maxSize = maxSize;
+      this.lastMask = (1L << chars.length) - 1;
+      this.subsets = new char[chars.length + 1][];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+      while (!this.found && this.mask < this.lastMask) {
+        this.mask++;
+        int size = Long.bitCount(this.mask);
+        this.found = size >= this.minSize && size <= this.maxSize;
+      }
+      return this.found;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public char[] next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException("No more subsets.");
+      }
+      this.found = false;
+
+      int size = Long.bitCount(this.mask);
+      char[] subset = this.subsets[size];
+      if (subset == null) {
+        subset = new char[size];
+        this.subsets[size] = subset;
+      }
+      long bits = this.mask;
+      for (int index = 0; bits != 0; bits &= bits - 1) {
+        subset[index++] = this.chars[Long.numberOfTrailingZeros(bits)];
+      }
+      return subset;
+    }
+
+    /**
+     * Subsets cannot be removed.
+     * 
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Subsets cannot be removed.");
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A count of events, e.g. the number of cases that a kata solved. Nothing is counted while
+ * {@link Metrics} are disabled.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class Counter implements CounterMBean {
+
+  private final AtomicLong count = new AtomicLong();
+
+  /**
+   * Creates a new Counter; use {@link Metrics#counter(String)} to create a counter that is
+   * registered by name.
+   */
+  Counter() {
+    // Empty constructor.
+  }
+
+  /** Adds 1 to the counter. */
+  public void increment() {
+    add(1);
+  }
+
+  /**
+   * Adds a number to the counter.
+   * 
+   * @param amount The number to add.
+   */
+  public void add(long amount) {
+    if (Metrics.isEnabled()) {
+      this.count.addAndGet(amount);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getCount() {
+    return this.count.get();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void reset() {
+    this.count.set(0);
+  }
+}
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+/**
+ * The management interface of a {@link Counter}.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public interface CounterMBean {
+
+  /**
+   * Gets the current value of the counter.
+   * 
+   * @return The current value of the counter.
+   */
+  long getCount();
+
+  /** Sets the counter back to 0. */
+  void reset();
+}
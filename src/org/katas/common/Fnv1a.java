@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Computes 64-bit FNV-1a hashes, one byte at a time, e.g. to checksum the files that katas save
+ * between runs. A hash starts at {@link #OFFSET_BASIS} and is continued with each value in turn;
+ * ints and longs are hashed as their bytes in big-endian order, so a hash of values is the same as
+ * the hash of the bytes in which they are saved.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class Fnv1a {
+
+  /** The hash of no bytes. */
+  public static final long OFFSET_BASIS = 0xCBF29CE484222325L;
+
+  /** The prime by which the hash is multiplied after each byte. */
+  public static final long PRIME = 0x100000001B3L;
+
+  /**
+   * This class contains only static methods.
+   */
+  private Fnv1a() {
+    // Empty constructor.
+  }
+
+  /**
+   * Continues a hash with one byte.
+   * 
+   * @param hash The hash so far.
+   * @param value The byte.
+   * @return The new hash.
+   */
+  public static long update(long hash, byte value) {
+    return (hash ^ (value & 0xFFL)) * PRIME;
+  }
+
+  /**
+   * Continues a hash with the four bytes of an int, in big-endian order.
+   * 
+   * @param hash The hash so far.
+   * @param value The int.
+   * @return The new hash.
+   */
+  public static long updateInt(long hash, int value) {
+    long result = hash;
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      result = (result ^ ((value >>> shift) & 0xFFL)) * PRIME;
+    }
+    return result;
+  }
+
+  /**
+   * Continues a hash with the eight bytes of a long, in big-endian order.
+   * 
+   * @param hash The hash so far.
+   * @param value The long.
+   * @return The new hash.
+   */
+  public static long updateLong(long hash, long value) {
+    return updateInt(updateInt(hash, (int) (value >>> 32)), (int) value);
+  }
+
+  /**
+   * Continues a hash with the remaining bytes of a buffer, without changing its position.
+   * 
+   * @param hash The hash so far.
+   * @param bytes The buffer.
+   * @return The new hash.
+   */
+  public static long update(long hash, ByteBuffer bytes) {
+    long result = hash;
+    for (int index = bytes.position(); index < bytes.limit(); index++) {
+      result = (result ^ (bytes.get(index) & 0xFFL)) * PRIME;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the distribution of non-negative values, e.g. latencies, in a fixed number of buckets.
+ * Like an HDR histogram, values below 32 each have their own bucket, and every power of two above
+ * that is split into 32 buckets of equal width, so a percentile is never off by more than about 3%
+ * no matter how large the values are. Recording a value is lock-free and never allocates. Nothing
+ * is recorded while {@link Metrics} are disabled.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public class Histogram implements HistogramMBean {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+  private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+  /**
+   * Creates a new Histogram; use {@link Metrics#histogram(String)} to create a histogram that is
+   * registered by name.
+   */
+  Histogram() {
+    // Empty constructor.
+  }
+
+  /**
+   * Records a value; negative values are recorded as 0.
+   * 
+   * @param value The value to record.
+   */
+  public void record(long value) {
+    if (!Metrics.isEnabled()) {
+      return;
+    }
+
+    long actualValue = Math.max(0, value);
+    this.buckets.incrementAndGet(bucketOf(actualValue));
+    this.count.incrementAndGet();
+    this.sum.addAndGet(actualValue);
+    long current = this.min.get();
+    while (actualValue < current && !this.min.compareAndSet(current, actualValue)) {
+      current = this.min.get();
+    }
+    current = this.max.get();
+    while (actualValue > current && !this.max.compareAndSet(current, actualValue)) {
+      current = this.max.get();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getCount() {
+    return this.count.get();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double getMean() {
+    long n = this.count.get();
+    return (n == 0) ? 0 : (double) this.sum.get() / n;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getMin() {
+    return (this.count.get() == 0) ? 0 : this.min.get();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getMax() {
+    return (this.count.get() == 0) ? 0 : this.max.get();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getPercentile50() {
+    return getPercentile(50);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getPercentile90() {
+    return getPercentile(90);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getPercentile99() {
+    return getPercentile(99);
+  }
+
+  /**
+   * Gets the value below which the given percentage of the recorded values fall.
+   * 
+   * @param percentile The percentage, from 0 to 100.
+   * @return The largest value in the bucket that contains the percentile, or 0 if no values were
+   * recorded.
+   */
+  public long getPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Invalid percentile: " + percentile);
+    }
+
+    long total = 0;
+    for (int index = 0; index < BUCKETS; index++) {
+      total += this.buckets.get(index);
+    }
+    if (total == 0) {
+      return 0;
+    }
+
+    long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int index = 0; index < BUCKETS; index++) {
+      seen += this.buckets.get(index);
+      if (seen >= target) {
+        return Math.min(highestValueIn(index), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void reset() {
+    for (int index = 0; index < BUCKETS; index++) {
+      this.buckets.set(index, 0);
+    }
+    this.count.set(0);
+    this.sum.set(0);
+    this.min.set(Long.MAX_VALUE);
+    this.max.set(Long.MIN_VALUE);
+  }
+
+  /**
+   * Finds the bucket in which a value is recorded.
+   * 
+   * @param value The value, which must not be negative.
+   * @return The index of the bucket.
+   */
+  private static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  /**
+   * Finds the largest value that is recorded in a bucket.
+   * 
+   * @param bucket The index of the bucket.
+   * @return The largest value in the bucket.
+   */
+  private static long highestValueIn(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
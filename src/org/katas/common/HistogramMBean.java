@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+/**
+ * The management interface of a {@link Histogram} or {@link Timer}; a timer records durations in
+ * nanoseconds.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public interface HistogramMBean {
+
+  /**
+   * Gets the number of values that were recorded.
+   * 
+   * @return The number of values that were recorded.
+   */
+  long getCount();
+
+  /**
+   * Gets the mean of the values that were recorded.
+   * 
+   * @return The mean, or 0 if no values were recorded.
+   */
+  double getMean();
+
+  /**
+   * Gets the smallest value that was recorded.
+   * 
+   * @return The smallest value, or 0 if no values were recorded.
+   */
+  long getMin();
+
+  /**
+   * Gets the largest value that was recorded.
+   * 
+   * @return The largest value, or 0 if no values were recorded.
+   */
+  long getMax();
+
+  /**
+   * Gets the median of the values that were recorded.
+   * 
+   * @return The median, or 0 if no values were recorded.
+   */
+  long getPercentile50();
+
+  /**
+   * Gets the 90th percentile of the values that were recorded.
+   * 
+   * @return The 90th percentile, or 0 if no values were recorded.
+   */
+  long getPercentile90();
+
+  /**
+   * Gets the 99th percentile of the values that were recorded.
+   * 
+   * @return The 99th percentile, or 0 if no values were recorded.
+   */
+  long getPercentile99();
+
+  /** Discards all of the values that were recorded. */
+  void reset();
+}
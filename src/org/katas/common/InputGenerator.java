@@ -0,0 +1,405 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * Generates valid, arbitrarily large input files for the katas. Output is written one line at a
+ * time, and no generator keeps more than a small, fixed amount of state, so inputs far larger than
+ * the heap can be written straight to disk. The same size and seed always produce the same input.
+ * 
+ * <p>
+ * The meaning of the size depends on the kata and is described for each generator.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public enum InputGenerator {
+
+  /**
+   * One Minesweeper field with <code>size</code> rows and <code>size</code> columns, in which about
+   * one square in five is a mine.
+   */
+  MINESWEEPER {
+    @Override
+    void write(long size, Random random, Writer out) throws IOException {
+      out.write(size + " " + size + "\n");
+      char[] row = new char[(int) (size * 2)];
+      row[row.length - 1] = '\n';
+      for (long rowIndex = 0; rowIndex < size; rowIndex++) {
+        for (int column = 0; column < size; column++) {
+          row[column * 2] = random.nextInt(5) == 0 ? '*' : '.';
+          if (column > 0) {
+            row[column * 2 - 1] = ' ';
+          }
+        }
+        out.write(row);
+      }
+    }
+  },
+
+  /**
+   * A list of accounts followed by about <code>size</code> transaction items. Items are spread
+   * across up to 999 transactions; all but about one transaction in ten are balanced by an extra
+   * item at the end of the ledger.
+   */
+  TRANSACTIONS {
+    @Override
+    void write(long size, Random random, Writer out) throws IOException {
+      int[] accounts = new int[ACCOUNTS];
+      for (int index = 0; index < accounts.length; index++) {
+        accounts[index] = 1 + random.nextInt(999);
+        out.write(pad(accounts[index]) + capitalize(word(random)) + " "
+            + capitalize(word(random)) + "\n");
+      }
+      out.write("000No such account\n");
+
+      int numTransactions = (int) Math.max(1, Math.min(999, size / 4));
+      long[] sums = new long[numTransactions + 1];
+      long items = Math.max(size - numTransactions, 0);
+      for (long count = 0; count < items; count++) {
+        int transaction = 1 + random.nextInt(numTransactions);
+        int amount = random.nextInt(200001) - 100000;
+        sums[transaction] += amount;
+        writeItem(out, transaction, accounts[random.nextInt(accounts.length)], amount);
+      }
+      for (int transaction = 1; transaction <= numTransactions; transaction++) {
+        long remaining = -sums[transaction];
+        if (random.nextInt(10) == 0) {
+          // Leave this transaction out of balance.
+          remaining += 1 + random.nextInt(100000);
+        }
+        do {
+          int amount = (int) Math.max(-Integer.MAX_VALUE, Math.min(Integer.MAX_VALUE, remaining));
+          writeItem(out, transaction, accounts[random.nextInt(accounts.length)], amount);
+          remaining -= amount;
+        }
+        while (remaining != 0);
+      }
+      out.write("000000 0\n");
+    }
+
+    /**
+     * Writes one transaction item.
+     * 
+     * @param out The writer to which the item is written.
+     * @param transaction The transaction number.
+     * @param account The account number.
+     * @param amount The amount, in cents.
+     * @throws IOException If the item could not be written.
+     */
+    private void writeItem(Writer out, int transaction, int account, int amount)
+        throws IOException {
+      out.write(pad(transaction) + pad(account) + " " + amount + "\n");
+    }
+  },
+
+  /**
+   * One Squares problem on a grid of <code>size</code> by <code>size</code> points, in which about
+   * half of all possible line segments are drawn. The kata only accepts one problem per file when
+   * the grid is larger than 9 by 9.
+   */
+  SQUARES {
+    @Override
+    void write(long size, Random random, Writer out) throws IOException {
+      // The number of lines has to be written before the lines themselves, so the lines are
+      // generated twice from the same seed: once to count them, and once to write them.
+      long seed = random.nextLong();
+      long numLines = writeSegments(size, new Random(seed), null);
+      out.write(size + "\n" + numLines + "\n");
+      writeSegments(size, new Random(seed), out);
+    }
+
+    /**
+     * Writes the line segments that are drawn, or only counts them.
+     * 
+     * @param size The number of points in each row and column.
+     * @param random The source of randomness.
+     * @param out The writer to which the segments are written, or <code>null</code> to only count
+     * them.
+     * @return The number of segments that are drawn.
+     * @throws IOException If the segments could not be written.
+     */
+    private long writeSegments(long size, Random random, Writer out) throws IOException {
+      long count = 0;
+      for (String direction : new String[] { "H", "V" }) {
+        for (long i = 1; i <= size; i++) {
+          for (long j = 1; j < size; j++) {
+            if (random.nextBoolean()) {
+              count++;
+              if (out != null) {
+                out.write(direction + " " + i + " " + j + "\n");
+              }
+            }
+          }
+        }
+      }
+      return count;
+    }
+  },
+
+  /**
+   * One randomly shaped tree with <code>size</code> nodes, listed ten nodes per line in
+   * depth-first order. The tree is generated depth first, so only one path from the root is kept
+   * in memory.
+   */
+  TREE_LEVEL {
+    @Override
+    void write(long size, Random random, Writer out) throws IOException {
+      Deque<String> paths = new ArrayDeque<String>();
+      Deque<Long> counts = new ArrayDeque<Long>();
+      paths.push("");
+      counts.push(size);
+      long written = 0;
+      while (!paths.isEmpty()) {
+        String path = paths.pop();
+        long count = counts.pop();
+        if (count == 0) {
+          continue;
+        }
+        out.write("(" + random.nextInt(1000) + "," + path + ")");
+        out.write(++written % 10 == 0 ? "\n" : " ");
+        // Split the rest of the nodes in this subtree between its two children.
+        long left = (long) (random.nextDouble() * count);
+        paths.push(path + 'R');
+        counts.push(count - 1 - left);
+        paths.push(path + 'L');
+        counts.push(left);
+      }
+      out.write("()\n");
+    }
+  },
+
+  /**
+   * A list of words to ignore followed by <code>size</code> titles for the Key Word in Context
+   * kata.
+   */
+  KEY_WORD_IN_CONTEXT {
+    @Override
+    void write(long size, Random random, Writer out) throws IOException {
+      for (String word : IGNORED_WORDS) {
+        out.write(word + "\n");
+      }
+      out.write("::\n");
+      for (long count = 0; count < size; count++) {
+        out.write(title(random) + "\n");
+      }
+    }
+  },
+
+  /**
+   * A corpus of <code>size</code> titles and one profile for every hundred titles for the Key Word
+   * kata. About one title in five continues on a second line.
+   */
+  KEY_WORD {
+    @Override
+    void write(long size, Random random, Writer out) throws IOException {
+      long numProfiles = Math.max(1, size / 100);
+      for (long count = 0; count < numProfiles; count++) {
+        StringBuilder profile = new StringBuilder("P: ").append(random.nextInt(5));
+        int pairs = 1 + random.nextInt(3);
+        for (int index = 0; index < pairs * 2; index++) {
+          profile.append(' ').append(word(random));
+        }
+        out.write(profile.append('\n').toString());
+      }
+      for (long count = 0; count < size; count++) {
+        String title = title(random);
+        int split = title.indexOf(' ', title.length() / 2);
+        if (split > 0 && random.nextInt(5) == 0) {
+          out.write("T: " + title.substring(0, split) + "\n" + title.substring(split) + "|\n");
+        }
+        else {
+          out.write("T: " + title + "|\n");
+        }
+      }
+    }
+  };
+
+  /** The number of accounts in a ledger. */
+  private static final int ACCOUNTS = 50;
+
+  /** The words that titles are made up of. */
+  private static final String[] WORDS = { "man", "sea", "old", "ascent", "descent", "war", "peace",
+      "king", "queen", "river", "mountain", "night", "day", "song", "fire", "ice", "garden", "city",
+      "stone", "glass", "winter", "summer", "house", "road", "star", "ship", "dream", "shadow",
+      "light", "storm", "island", "forest", "empire", "letter", "memory", "silence" };
+
+  /** The words that are ignored by the Key Word in Context kata. */
+  private static final String[] IGNORED_WORDS = { "the", "of", "and", "a", "in", "to" };
+
+  /** The longest title, in words. */
+  private static final int MAX_TITLE_LENGTH = 8;
+
+  /**
+   * Writes input of the given size.
+   * 
+   * @param size The size of the input; see the description of each generator.
+   * @param random The source of randomness.
+   * @param out The writer to which the input is written.
+   * @throws IOException If the input could not be written.
+   */
+  abstract void write(long size, Random random, Writer out) throws IOException;
+
+  /**
+   * Writes input of the given size to the given writer. The writer is not closed.
+   * 
+   * @param size The size of the input; see the description of each generator.
+   * @param seed The seed from which the input is generated.
+   * @param out The writer to which the input is written.
+   * @throws IOException If the input could not be written.
+   */
+  public void generate(long size, long seed, Writer out) throws IOException {
+    Validator.checkNull(out);
+    if (size < 1) {
+      throw new IllegalArgumentException("Size must be at least 1: " + size);
+    }
+    write(size, new Random(seed), out);
+    out.flush();
+  }
+
+  /**
+   * Writes input of the given size to the given file, which is overwritten if it already exists.
+   * 
+   * @param size The size of the input; see the description of each generator.
+   * @param seed The seed from which the input is generated.
+   * @param file The file to which the input is written.
+   * @throws IOException If the input could not be written.
+   */
+  public void generate(long size, long seed, File file) throws IOException {
+    Validator.checkNull(file);
+    try (Writer out =
+        new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+            StandardCharsets.US_ASCII), 1 << 16)) {
+      generate(size, seed, out);
+    }
+  }
+
+  /**
+   * Generates input of the given size in memory; only suitable for small inputs, e.g. in
+   * benchmarks and tests.
+   * 
+   * @param size The size of the input; see the description of each generator.
+   * @param seed The seed from which the input is generated.
+   * @return The lines of the input.
+   */
+  public List<String> generateLines(long size, long seed) {
+    StringWriter out = new StringWriter();
+    try {
+      generate(size, seed, out);
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Unable to generate input: " + e.getMessage(), e);
+    }
+    String input = out.toString();
+    return new ArrayList<String>(Arrays.asList(input.substring(0, input.length() - 1).split(
+        "\n", -1)));
+  }
+
+  /**
+   * Picks a random word.
+   * 
+   * @param random The source of randomness.
+   * @return A random word.
+   */
+  private static String word(Random random) {
+    return WORDS[random.nextInt(WORDS.length)];
+  }
+
+  /**
+   * Pads a number that is less than 1000 with zeros so that it is three digits long.
+   * 
+   * @param number The number to pad.
+   * @return The padded number.
+   */
+  private static String pad(int number) {
+    if (number < 10) {
+      return "00" + number;
+    }
+    return (number < 100) ? "0" + number : Integer.toString(number);
+  }
+
+  /**
+   * Capitalizes the first letter of a word.
+   * 
+   * @param word The word to capitalize.
+   * @return The capitalized word.
+   */
+  private static String capitalize(String word) {
+    return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+  }
+
+  /**
+   * Creates a random title, in which every word is capitalized except for words that are ignored.
+   * 
+   * @param random The source of randomness.
+   * @return A random title.
+   */
+  private static String title(Random random) {
+    StringBuilder builder = new StringBuilder(capitalize(word(random)));
+    int length = 1 + random.nextInt(MAX_TITLE_LENGTH);
+    for (int index = 1; index < length; index++) {
+      builder.append(' ');
+      if (random.nextInt(3) == 0) {
+        builder.append(IGNORED_WORDS[random.nextInt(IGNORED_WORDS.length)]).append(' ');
+      }
+      builder.append(capitalize(word(random)));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Writes a generated input file.
+   * 
+   * @param args The name of a generator (e.g. MINESWEEPER), the size of the input, the seed, and
+   * the name of the file to write.
+   */
+  public static void main(String... args) {
+    if (args.length != 4) {
+      System.err.println("Usage: InputGenerator <" + Arrays.toString(values())
+          + "> <size> <seed> <filename>");
+      return;
+    }
+    try {
+      InputGenerator generator = valueOf(args[0].toUpperCase());
+      long start = System.nanoTime();
+      generator.generate(Long.parseLong(args[1]), Long.parseLong(args[2]), new File(args[3]));
+      long millis = (System.nanoTime() - start) / 1000000;
+      System.out.println("Wrote " + new File(args[3]).length() + " bytes in " + millis + " ms.");
+    }
+    catch (IOException e) {
+      System.err.println("Unable to write input: " + e.getMessage());
+    }
+    catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import com.bpd.utils.validation.Validator;
+
+/**
+ * A hash map from <code>int</code> keys to <code>long</code> values, e.g. from transaction numbers
+ * to running balances. Keys and values are stored in parallel arrays with open addressing and
+ * linear probing, so they are never boxed, and adding to a value does not create any objects. The
+ * map is not thread-safe.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class IntLongMap {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private int[] keys;
+  private long[] values;
+  private boolean[] used;
+  private int mask;
+  private int size;
+
+  /**
+   * Creates a new, empty IntLongMap.
+   */
+  public IntLongMap() {
+    this(MIN_CAPACITY / 2);
+  }
+
+  /**
+   * Creates a new, empty IntLongMap that can hold the given number of keys without growing.
+   * 
+   * @param expectedSize The expected number of keys.
+   */
+  public IntLongMap(int expectedSize) {
+    Validator.checkNegative(expectedSize);
+    int capacity = MIN_CAPACITY;
+    // Keep the table at most half full so that probe sequences stay short.
+    while (capacity < expectedSize * 2L) {
+      capacity *= 2;
+    }
+    allocate(capacity);
+  }
+
+  /**
+   * Gets the number of keys in this map.
+   * 
+   * @return The number of keys.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns true if this map contains no keys.
+   * 
+   * @return True if this map is empty, false otherwise.
+   */
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Returns true if this map contains the given key.
+   * 
+   * @param key The key.
+   * @return True if this map contains the key, false otherwise.
+   */
+  public boolean containsKey(int key) {
+    return this.used[indexOf(key)];
+  }
+
+  /**
+   * Gets the value to which a key is mapped.
+   * 
+   * @param key The key.
+   * @return The value to which the key is mapped, or 0 if this map does not contain the key.
+   */
+  public long get(int key) {
+    int index = indexOf(key);
+    return this.used[index] ? this.values[index] : 0;
+  }
+
+  /**
+   * Maps a key to a value.
+   * 
+   * @param key The key.
+   * @param value The value.
+   */
+  public void put(int key, long value) {
+    this.values[insert(key)] = value;
+  }
+
+  /**
+   * Adds an amount to the value to which a key is mapped; a key that is not in this map is added
+   * with a value of 0 first.
+   * 
+   * @param key The key.
+   * @param amount The amount to add.
+   * @return The new value to which the key is mapped.
+   */
+  public long add(int key, long amount) {
+    int index = insert(key);
+    this.values[index] += amount;
+    return this.values[index];
+  }
+
+  /**
+   * Gets the keys in this map, in no particular order.
+   * 
+   * @return A new array that contains the keys.
+   */
+  public int[] keys() {
+    int[] result = new int[this.size];
+    int count = 0;
+    for (int index = 0; index < this.keys.length; index++) {
+      if (this.used[index]) {
+        result[count++] = this.keys[index];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Finds the slot that contains a key, or the empty slot at which the key would be inserted.
+   * 
+   * @param key The key.
+   * @return The index of the slot.
+   */
+  private int indexOf(int key) {
+    int index = hash(key) & this.mask;
+    while (this.used[index] && this.keys[index] != key) {
+      index = (index + 1) & this.mask;
+    }
+    return index;
+  }
+
+  /**
+   * Finds the slot that contains a key, inserting the key with a value of 0 if it is not in this
+   * map yet.
+   * 
+   * @param key The key.
+   * @return The index of the slot.
+   */
+  private int insert(int key) {
+    int index = indexOf(key);
+    if (!this.used[index]) {
+      if ((this.size + 1) * 2 > this.keys.length) {
+        grow();
+        index = indexOf(key);
+      }
+      this.used[index] = true;
+      this.keys[index] = key;
+      this.values[index] = 0;
+      this.size++;
+    }
+    return index;
+  }
+
+  /**
+   * Doubles the capacity of this map and inserts all of the keys again.
+   */
+  private void grow() {
+    int[] oldKeys = this.keys;
+    long[] oldValues = this.values;
+    boolean[] oldUsed = this.used;
+    allocate(oldKeys.length * 2);
+    for (int index = 0; index < oldKeys.length; index++) {
+      if (oldUsed[index]) {
+        int slot = indexOf(oldKeys[index]);
+        this.used[slot] = true;
+        this.keys[slot] = oldKeys[index];
+        this.values[slot] = oldValues[index];
+      }
+    }
+  }
+
+  /**
+   * Allocates empty arrays with the given capacity.
+   * 
+   * @param capacity The number of slots, a power of two.
+   */
+  private void allocate(int capacity) {
+    this.keys = new int[capacity];
+    this.values = new long[capacity];
+    this.used = new boolean[capacity];
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Spreads the bits of a key, so that keys that differ only in their high bits, or that are
+   * multiples of a power of two, do not all fall into the same slots.
+   * 
+   * @param key The key.
+   * @return The hash of the key.
+   */
+  private static int hash(int key) {
+    int hash = key * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -17,6 +17,7 @@ package org.katas.common;
 
 import java.util.ArrayList;
 import java.util.List;
+import com.bpd.utils.validation.Validator;
 
 /**
  * The base class that contains fields and methods used by all katas.
@@ -26,7 +27,10 @@ import java.util.List;
 public abstract class Kata {
 
   /** The lines read in from a file. */
-  protected List<String> lines = new ArrayList<>();
+  protected LineSource lines = new LineSource(new ArrayList<String>());
+
+  /** The sink to which results are printed. */
+  protected ResultSink out = new WriterResultSink(System.out);
 
   /**
    * Sets lines read in from a file.
@@ -34,18 +38,115 @@ public abstract class Kata {
    * @param lines The lines read in from a file.
    */
   public void setLines(List<String> lines) {
+    this.lines = (lines == null) ? null : new LineSource(lines);
+  }
+
+  /**
+   * Sets the source from which lines are read in; the lines are consumed as they are processed.
+   * 
+   * @param lines The source of the lines to process.
+   */
+  public void setLines(LineSource lines) {
     this.lines = lines;
   }
 
   /**
-   * Gets lines read in from a file.
+   * Gets the source of the lines read in from a file.
    * 
-   * @return The lines read in from a file.
+   * @return The source of the lines read in from a file.
    */
-  public List<String> getLines() {
+  public LineSource getLines() {
     return this.lines;
   }
 
+  /**
+   * Sets the sink to which results are printed. By default, results are printed to
+   * <code>System.out</code>.
+   * 
+   * @param out The sink to which results are printed.
+   */
+  public void setResultSink(ResultSink out) {
+    Validator.checkNull(out);
+    this.out = out;
+  }
+
+  /**
+   * Gets the sink to which results are printed.
+   * 
+   * @return The sink to which results are printed.
+   */
+  public ResultSink getResultSink() {
+    return this.out;
+  }
+
+  /**
+   * Processes all of the lines in a file and then flushes the result sink, even if processing
+   * failed part of the way through. If {@link Metrics} are enabled, the time taken by this method,
+   * the time spent printing results, and the time spent in each phase are recorded; see
+   * {@link #processPhases(String, TimedResultSink)}.
+   */
+  public void run() {
+    String name = getClass().getSimpleName();
+    Timer timer = Metrics.timer(name + ".run");
+    ResultSink sink = this.out;
+    TimedResultSink timedSink = null;
+    if (Metrics.isEnabled()) {
+      timedSink = new TimedResultSink(sink, Metrics.timer(name + ".output"));
+      this.out = timedSink;
+    }
+
+    long start = timer.start();
+    try {
+      processPhases(name, timedSink);
+    }
+    finally {
+      try {
+        this.out.flush();
+      }
+      finally {
+        this.out = sink;
+        timer.stop(start);
+      }
+    }
+  }
+
+  /**
+   * Processes all of the lines in a file and records the time spent in each phase, so that every
+   * kata reports the same metrics: <code>.parse</code>, <code>.compute</code>, and
+   * <code>.cases</code>. A kata that processes its input in a single pass counts as one case; the
+   * time spent reading in lines is its parse phase, and the rest of the time, apart from printing
+   * results, is its compute phase. {@link MultiCaseKata} records the phases of each case instead.
+   * 
+   * @param name The name under which the metrics are recorded.
+   * @param timedSink The sink that records the time spent printing results, or <code>null</code>
+   * if metrics are disabled.
+   */
+  void processPhases(String name, TimedResultSink timedSink) {
+    if (timedSink == null) {
+      processLines();
+      return;
+    }
+
+    LineSource source = this.lines;
+    if (source != null) {
+      source.setReadTimer(Metrics.timer(name + ".parse"));
+    }
+    long outputTime = timedSink.getElapsed();
+    long start = System.nanoTime();
+    try {
+      processLines();
+    }
+    finally {
+      long computeTime = System.nanoTime() - start - (timedSink.getElapsed() - outputTime);
+      if (source != null) {
+        computeTime -= source.getReadTime();
+        source.setReadTimer(null);
+      }
+      Metrics.timer(name + ".compute").record(Math.max(0, computeTime));
+      Metrics.counter(name + ".cases").increment();
+    }
+  }
+
   /** Processes all of the lines in a file. */
   public abstract void processLines();
 }
@@ -0,0 +1,647 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * Runs any kata on a file, on every file in a directory, or on standard input, and reports how
+ * quickly the input was processed. A kata is selected by name, so a kata does not need its own
+ * <code>main</code> method to be run; the name can be a fully qualified class name (e.g.
+ * <code>org.katas.minesweeper.Minesweeper</code>), a class name relative to <code>org.katas</code>
+ * (e.g. <code>minesweeper.Minesweeper</code>), or just the simple name of the class (e.g.
+ * <code>minesweeper</code>), in any case.
+ * 
+ * <p>
+ * Results are printed to <code>System.out</code>, and throughput is reported on
+ * <code>System.err</code>. The files in a directory are processed in parallel, and their results
+ * are printed in the order in which the files are sorted by name, as soon as the files before them
+ * have been printed; only a few files per thread are in flight at a time, so memory does not
+ * depend on the number of files. Standard input is processed as
+ * it is read in, so results appear before the end of the input is reached.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class KataRunner {
+
+  /** The package that contains all of the katas. */
+  public static final String ROOT_PACKAGE = "org.katas";
+
+  /** The number of files per thread that may be waiting to be printed. */
+  private static final int FILES_PER_THREAD = 2;
+
+  private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+  private static final double NANOS_PER_SECOND = 1e9;
+
+  private final Class<? extends Kata> kataClass;
+  private final Charset charset;
+  private final int threads;
+
+  /**
+   * Creates a new KataRunner.
+   * 
+   * @param kataClass The class of the kata to run; it must have a constructor with no parameters.
+   * @param charset The charset in which the input is encoded.
+   * @param threads The number of files in a directory that are processed at the same time.
+   */
+  public KataRunner(Class<? extends Kata> kataClass, Charset charset, int threads) {
+    Validator.checkNull(kataClass);
+    Validator.checkNull(charset);
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads must be at least 1: " + threads);
+    }
+    this.kataClass = kataClass;
+    this.charset = charset;
+    this.threads = threads;
+  }
+
+  /**
+   * Runs the kata on a file, or on every file in a directory.
+   * 
+   * @param input A file or directory.
+   * @param out The sink to which results are printed.
+   * @return The throughput for all of the files.
+   * @throws IOException If the input does not exist or a file cannot be read.
+   */
+  public Throughput run(File input, ResultSink out) throws IOException {
+    Validator.checkNull(input);
+    Validator.checkNull(out);
+
+    if (input.isFile()) {
+      Throughput throughput = runFile(input, out);
+      System.err.println(throughput.format(input.getName()));
+      return throughput;
+    }
+    File[] files = input.listFiles();
+    if (files == null) {
+      throw new IOException("No such file or directory: " + input);
+    }
+    Arrays.sort(files);
+
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+    Deque<PendingFile> pending = new ArrayDeque<PendingFile>();
+    int maxPending = this.threads * FILES_PER_THREAD;
+    Throughput total = new Throughput(0, 0, 0, 0);
+    int fileCount = 0;
+    try {
+      for (final File file : files) {
+        if (!file.isFile()) {
+          continue;
+        }
+        final CollectingResultSink sink = new CollectingResultSink();
+        Future<Throughput> throughput = executor.submit(new Callable<Throughput>() {
+          @Override
+          public Throughput call() throws IOException {
+            return runFile(file, sink);
+          }
+        });
+        pending.add(new PendingFile(file, sink, throughput));
+        fileCount++;
+        while (pending.size() >= maxPending
+            || (!pending.isEmpty() && pending.peek().throughput.isDone())) {
+          total = print(pending.poll(), out, total);
+        }
+      }
+      while (!pending.isEmpty()) {
+        total = print(pending.poll(), out, total);
+      }
+      total = new Throughput(total.getLines(), total.getCases(), total.getBytes(),
+          System.nanoTime() - start);
+      System.err.println(total.format("Total (" + fileCount + " files)"));
+      return total;
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Waits for a file to be processed, prints its results, and releases them.
+   * 
+   * @param file The file.
+   * @param out The sink to which results are printed.
+   * @param total The throughput for the files that were printed before this one.
+   * @return The throughput for the files up to and including this one.
+   */
+  private static Throughput print(PendingFile file, ResultSink out, Throughput total) {
+    String name = file.file.getName();
+    Throughput throughput = await(file.throughput, name);
+    out.println("==> " + name + " <==");
+    out.print(file.sink.getOutput());
+    out.flush();
+    if (throughput == null) {
+      return total;
+    }
+    System.err.println(throughput.format(name));
+    long cases = (throughput.getCases() < 0 || total.getCases() < 0) ? -1
+        : total.getCases() + throughput.getCases();
+    return new Throughput(total.getLines() + throughput.getLines(), cases,
+        total.getBytes() + throughput.getBytes(), 0);
+  }
+
+  /**
+   * Runs the kata on a stream, processing each line as soon as it is read in.
+   * 
+   * @param input The stream from which lines are read in.
+   * @param out The sink to which results are printed.
+   * @return The throughput for the stream.
+   */
+  public Throughput run(InputStream input, ResultSink out) {
+    Validator.checkNull(input);
+    Validator.checkNull(out);
+
+    CountingInputStream counter = new CountingInputStream(input);
+    LineSource lines = new LineSource(new InputStreamReader(counter, this.charset));
+    Throughput throughput = run(lines, out, 1);
+    throughput = new Throughput(throughput.getLines(), throughput.getCases(), counter.getCount(),
+        throughput.getNanos());
+    System.err.println(throughput.format("stdin"));
+    return throughput;
+  }
+
+  /**
+   * Runs the kata on one file.
+   * 
+   * @param file The file.
+   * @param out The sink to which results are printed.
+   * @return The throughput for the file.
+   * @throws IOException If the file cannot be read.
+   */
+  private Throughput runFile(File file, ResultSink out) throws IOException {
+    LineSource lines = KataUtils.openLines(file.getPath(), this.charset);
+    Throughput throughput;
+    try {
+      // The files are already being processed in parallel.
+      throughput = run(lines, out, (this.threads > 1) ? 1 : 0);
+    }
+    catch (IllegalStateException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw e;
+    }
+    return new Throughput(throughput.getLines(), throughput.getCases(), file.length(),
+        throughput.getNanos());
+  }
+
+  /**
+   * Creates a new kata and runs it on the given lines.
+   * 
+   * @param lines The lines to process.
+   * @param out The sink to which results are printed.
+   * @param parallelism The number of cases that can be solved at the same time, or 0 to use the
+   * default.
+   * @return The throughput, not counting bytes.
+   */
+  private Throughput run(LineSource lines, ResultSink out, int parallelism) {
+    Kata kata = newKata(this.kataClass);
+    kata.setLines(lines);
+    kata.setResultSink(out);
+    if (parallelism > 0 && kata instanceof MultiCaseKata) {
+      ((MultiCaseKata<?>) kata).setParallelism(parallelism);
+    }
+
+    long start = System.nanoTime();
+    try {
+      kata.run();
+    }
+    finally {
+      try {
+        lines.close();
+      }
+      catch (IOException e) {
+        System.err.println(e.getMessage());
+      }
+    }
+    long cases = (kata instanceof MultiCaseKata) ? ((MultiCaseKata<?>) kata).getCaseCount() : -1;
+    return new Throughput(lines.getLineCount(), cases, 0, System.nanoTime() - start);
+  }
+
+  /**
+   * Creates a new kata.
+   * 
+   * @param kataClass The class of the kata.
+   * @return The new kata.
+   */
+  private static Kata newKata(Class<? extends Kata> kataClass) {
+    try {
+      Constructor<? extends Kata> constructor = kataClass.getDeclaredConstructor();
+      // Many katas are package-private.
+      constructor.setAccessible(true);
+      return constructor.newInstance();
+    }
+    catch (ReflectiveOperationException e) {
+      throw new IllegalArgumentException("Unable to create " + kataClass.getName() + ": " + e, e);
+    }
+  }
+
+  /**
+   * Waits for a file to be processed.
+   * 
+   * @param future The file that is being processed.
+   * @param name The name of the file.
+   * @return The throughput for the file, or <code>null</code> if the file could not be processed.
+   */
+  private static Throughput await(Future<Throughput> future, String name) {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while processing " + name, e);
+    }
+    catch (ExecutionException e) {
+      System.err.println(name + ": " + e.getCause());
+      return null;
+    }
+  }
+
+  /**
+   * Finds the kata with the given name.
+   * 
+   * @param name A fully qualified class name, a class name relative to {@value #ROOT_PACKAGE}, or
+   * the simple name of a class, in any case.
+   * @return The class of the kata.
+   * @throws ClassNotFoundException If there is no kata with the given name.
+   */
+  public static Class<? extends Kata> findKata(String name) throws ClassNotFoundException {
+    Validator.checkEmptyString(name);
+
+    for (String className : new String[] { name, ROOT_PACKAGE + "." + name }) {
+      try {
+        return asKata(Class.forName(className, false, KataRunner.class.getClassLoader()));
+      }
+      catch (ClassNotFoundException e) {
+        continue;
+      }
+    }
+    for (String className : listKatas()) {
+      String simpleName = className.substring(className.lastIndexOf('.') + 1);
+      if (simpleName.equalsIgnoreCase(name) || className.equalsIgnoreCase(name)
+          || className.equalsIgnoreCase(ROOT_PACKAGE + "." + name)) {
+        return asKata(Class.forName(className, false, KataRunner.class.getClassLoader()));
+      }
+    }
+    throw new ClassNotFoundException("No such kata: " + name);
+  }
+
+  /**
+   * Lists all of the katas in {@value #ROOT_PACKAGE}.
+   * 
+   * @return The fully qualified class names of the katas, sorted.
+   */
+  public static List<String> listKatas() {
+    Set<String> classNames = new TreeSet<String>();
+    String path = ROOT_PACKAGE.replace('.', '/');
+    try {
+      Enumeration<URL> urls = KataRunner.class.getClassLoader().getResources(path);
+      while (urls.hasMoreElements()) {
+        findClasses(urls.nextElement(), path, classNames);
+      }
+    }
+    catch (IOException e) {
+      System.err.println("Unable to list katas: " + e.getMessage());
+    }
+
+    List<String> katas = new ArrayList<String>();
+    for (String className : classNames) {
+      try {
+        asKata(Class.forName(className, false, KataRunner.class.getClassLoader()));
+        katas.add(className);
+      }
+      catch (ClassNotFoundException | LinkageError | IllegalArgumentException e) {
+        continue;
+      }
+    }
+    return katas;
+  }
+
+  /**
+   * Returns the given class as a kata.
+   * 
+   * @param c The class.
+   * @return The class of a kata.
+   * @throws IllegalArgumentException If the class is not a kata that can be created.
+   */
+  private static Class<? extends Kata> asKata(Class<?> c) {
+    if (!Kata.class.isAssignableFrom(c) || Modifier.isAbstract(c.getModifiers())
+        || c.getEnclosingClass() != null) {
+      throw new IllegalArgumentException("Not a kata: " + c.getName());
+    }
+    return c.asSubclass(Kata.class);
+  }
+
+  /**
+   * Finds the names of all of the top-level classes in a directory or JAR file on the classpath.
+   * 
+   * @param url The location of the package.
+   * @param path The path of the package, e.g. <code>org/katas</code>.
+   * @param classNames The set to which the names of the classes are added.
+   * @throws IOException If the directory or JAR file cannot be read.
+   */
+  private static void findClasses(URL url, String path, Set<String> classNames)
+      throws IOException {
+    if ("file".equals(url.getProtocol())) {
+      try {
+        findClasses(new File(url.toURI()), path.replace('/', '.'), classNames);
+      }
+      catch (URISyntaxException e) {
+        throw new IOException("Invalid location: " + url, e);
+      }
+    }
+    else if ("jar".equals(url.getProtocol())) {
+      JarURLConnection connection = (JarURLConnection) url.openConnection();
+      connection.setUseCaches(false);
+      try (JarFile jar = connection.getJarFile()) {
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+          String name = entries.nextElement().getName();
+          if (name.startsWith(path + "/") && name.endsWith(".class") && !name.contains("$")) {
+            classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds the names of all of the top-level classes in a directory and its subdirectories.
+   * 
+   * @param directory The directory.
+   * @param packageName The name of the package that corresponds to the directory.
+   * @param classNames The set to which the names of the classes are added.
+   */
+  private static void findClasses(File directory, String packageName, Set<String> classNames) {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      String name = file.getName();
+      if (file.isDirectory()) {
+        findClasses(file, packageName + "." + name, classNames);
+      }
+      else if (name.endsWith(".class") && !name.contains("$")) {
+        classNames.add(packageName + "." + name.substring(0, name.length() - ".class".length()));
+      }
+    }
+  }
+
+  /**
+   * Prints how to use this program, including the names of all of the katas.
+   */
+  private static void printUsage() {
+    System.err.println("Usage: KataRunner [-j threads] [-charset name] <kata> [file | directory"
+        + " | -]");
+    System.err.println("Reads from standard input if no file or directory is given.");
+    System.err.println("Katas:");
+    for (String className : listKatas()) {
+      System.err.println("  " + className.substring(ROOT_PACKAGE.length() + 1));
+    }
+  }
+
+  /**
+   * The main program; runs a kata on a file, a directory, or standard input.
+   * 
+   * @param args The options, the name of the kata, and the input.
+   */
+  public static void main(String... args) {
+    int threads = Runtime.getRuntime().availableProcessors();
+    Charset charset = StandardCharsets.US_ASCII;
+    int index = 0;
+    try {
+      while (index < args.length - 1 && args[index].startsWith("-") && args[index].length() > 1) {
+        if ("-j".equals(args[index])) {
+          threads = Integer.parseInt(args[index + 1]);
+        }
+        else if ("-charset".equals(args[index])) {
+          charset = Charset.forName(args[index + 1]);
+        }
+        else {
+          printUsage();
+          return;
+        }
+        index += 2;
+      }
+      if (index >= args.length || args.length - index > 2) {
+        printUsage();
+        return;
+      }
+
+      KataRunner runner = new KataRunner(findKata(args[index]), charset, threads);
+      ResultSink out = new WriterResultSink(System.out);
+      if (index + 1 == args.length || "-".equals(args[index + 1])) {
+        runner.run(System.in, out);
+      }
+      else {
+        runner.run(new File(args[index + 1]), out);
+      }
+    }
+    catch (ClassNotFoundException | IOException | IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+    }
+  }
+
+  /**
+   * A file that is being processed, and the sink that collects its results until they are printed.
+   */
+  private static final class PendingFile {
+
+    private final File file;
+    private final CollectingResultSink sink;
+    private final Future<Throughput> throughput;
+
+    /**
+     * Creates a new PendingFile.
+     * 
+     * @param file The file.
+     * @param sink The sink that collects the results.
+     * @param throughput The throughput for the file, once it has been processed.
+     */
+    PendingFile(File file, CollectingResultSink sink, Future<Throughput> throughput) {
+      this.file = file;
+      this.sink = sink;
+      this.throughput = throughput;
+    }
+  }
+
+  /**
+   * The number of lines, cases, and bytes that were processed, and how long it took.
+   */
+  public static final class Throughput {
+
+    private final long lines;
+    private final long cases;
+    private final long bytes;
+    private final long nanos;
+
+    /**
+     * Creates a new Throughput.
+     * 
+     * @param lines The number of lines that were processed.
+     * @param cases The number of cases that were solved, or -1 if the kata does not have cases.
+     * @param bytes The number of bytes that were processed.
+     * @param nanos The time taken, in nanoseconds.
+     */
+    public Throughput(long lines, long cases, long bytes, long nanos) {
+      this.lines = lines;
+      this.cases = cases;
+      this.bytes = bytes;
+      this.nanos = nanos;
+    }
+
+    /**
+     * Gets the number of lines that were processed.
+     * 
+     * @return The number of lines that were processed.
+     */
+    public long getLines() {
+      return this.lines;
+    }
+
+    /**
+     * Gets the number of cases that were solved.
+     * 
+     * @return The number of cases that were solved, or -1 if the kata does not have cases.
+     */
+    public long getCases() {
+      return this.cases;
+    }
+
+    /**
+     * Gets the number of bytes that were processed.
+     * 
+     * @return The number of bytes that were processed.
+     */
+    public long getBytes() {
+      return this.bytes;
+    }
+
+    /**
+     * Gets the time taken.
+     * 
+     * @return The time taken, in nanoseconds.
+     */
+    public long getNanos() {
+      return this.nanos;
+    }
+
+    /**
+     * Returns a line that describes this throughput.
+     * 
+     * @param label What was processed, e.g. the name of a file.
+     * @return A line that describes this throughput.
+     */
+    public String format(String label) {
+      double seconds = Math.max(this.nanos, 1) / NANOS_PER_SECOND;
+      double megabytes = this.bytes / BYTES_PER_MB;
+      StringBuilder builder = new StringBuilder();
+      builder.append(String.format("%s: %d lines, ", label, this.lines));
+      if (this.cases >= 0) {
+        builder.append(String.format("%d cases, ", this.cases));
+      }
+      builder.append(String.format("%.2f MB in %.3f s (%.0f lines/s, ", megabytes, seconds,
+          this.lines / seconds));
+      if (this.cases >= 0) {
+        builder.append(String.format("%.1f cases/s, ", this.cases / seconds));
+      }
+      return builder.append(String.format("%.2f MB/s)", megabytes / seconds)).toString();
+    }
+  }
+
+  /**
+   * An input stream that counts the number of bytes that are read from it.
+   */
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    /**
+     * Creates a new CountingInputStream.
+     * 
+     * @param in The stream from which bytes are read.
+     */
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    /**
+     * Gets the number of bytes that have been read.
+     * 
+     * @return The number of bytes that have been read.
+     */
+    long getCount() {
+      return this.count;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        this.count++;
+      }
+      return b;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int n = super.read(buffer, offset, length);
+      if (n > 0) {
+        this.count += n;
+      }
+      return n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      this.count += skipped;
+      return skipped;
+    }
+  }
+}
@@ -15,13 +15,11 @@
  ******************************************************************************/
 package org.katas.common;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -36,6 +34,9 @@ import com.bpd.utils.validation.Validator;
  */
 public final class KataUtils {
 
+  /** Records the time taken by {@link #createList(String, String, KataEnums)}. */
+  private static final Timer CREATE_LIST_TIMER = Metrics.timer("KataUtils.createList");
+
   /**
    * This class cannot be instantiated nor extended.
    */
@@ -49,6 +50,8 @@ public final class KataUtils {
    * 
    * @param letters Originally a list of N letters.
    * @return List of strings with length N.
+   * @deprecated Use {@link Combinatorics#permutations(char[])}, which generates the distinct
+   * permutations one at a time and in sorted order.
    */
   @Deprecated
   public static List<String> makeStringsList(List<Character> letters) {
@@ -106,6 +109,7 @@ public final class KataUtils {
    * 
    * @param chars The set of N characters.
    * @return The list of permutations of strings with length 0 to N.
+   * @see Combinatorics Combinatorics, which enumerates the permutations one at a time instead.
    */
   public static List<String> getAllPermutationsOfSubsequences(Set<Character> chars) {
     Validator.checkNull(chars);
@@ -113,82 +117,21 @@ public final class KataUtils {
       return new ArrayList<>();
     }
 
-    Set<Set<Character>> powerSetOfChars = generatePowerSet(chars);
-
-    List<String> permutations = new ArrayList<String>();
-
-    for (Set<Character> subsequence : powerSetOfChars) {
-      permute(new ArrayList<Character>(subsequence), 0, permutations);
-    }
-
-    return permutations;
-  }
-
-  /**
-   * Generates a set of sets of characters (i.e. a power set); each set of characters is used by
-   * {@link #allPermutationsOfSubsequences(Set)} to create the list of permutations of strings with
-   * length 0 to N.
-   * 
-   * @param set The set used to create the power set.
-   * @return The power set.
-   */
-  private static Set<Set<Character>> generatePowerSet(Set<Character> set) {
-    Validator.checkNull(set);
-
-    Set<Set<Character>> powerSet = new HashSet<Set<Character>>();
-    if (set.isEmpty()) {
-      powerSet.add(new HashSet<Character>());
-      return powerSet;
-    }
-
-    Character anElement = set.iterator().next();
-    set.remove(anElement);
-
-    for (Set<Character> subset : generatePowerSet(set)) {
-      Set<Character> setWithElement = new HashSet<Character>();
-      setWithElement.add(anElement);
-      setWithElement.addAll(subset);
-      powerSet.add(setWithElement);
-      powerSet.add(subset);
+    char[] characters = new char[chars.size()];
+    int index = 0;
+    for (Character c : chars) {
+      characters[index++] = c;
     }
+    Arrays.sort(characters);
 
-    set.add(anElement);
-
-    return powerSet;
-  }
-
-  /**
-   * Permutes a list of characters.
-   * 
-   * @param characters The characters to permute.
-   * @param index The starting point in the list of characters.
-   * @param strings The list in which the permutations of strings are stored.
-   */
-  private static void permute(List<Character> characters, int index, List<String> strings) {
-    Validator.checkNull(characters);
-    Validator.checkNull(strings);
-    if (characters.isEmpty()) {
-      return;
-    }
-
-    if (index == characters.size()) {
-      StringBuffer buffer = new StringBuffer();
-      for (int i = 0; i < index; i++) {
-        buffer.append(characters.get(i));
-      }
-      strings.add(buffer.toString());
-    }
-    else {
-      for (int i = index; i < characters.size(); i++) {
-        char temp = characters.get(i);
-        characters.set(i, characters.get(index));
-        characters.set(index, temp);
-        permute(characters, index + 1, strings);
-        temp = characters.get(i);
-        characters.set(i, characters.get(index));
-        characters.set(index, temp);
+    List<String> permutations = new ArrayList<String>();
+    for (char[] subsequence : Combinatorics.subsets(characters, 1, characters.length)) {
+      do {
+        permutations.add(new String(subsequence));
       }
+      while (Combinatorics.nextPermutation(subsequence));
     }
+    return permutations;
   }
 
   /**
@@ -200,8 +143,10 @@ public final class KataUtils {
    * @param type The data type of the objects in the list.
    * @return A list of objects of a particular data type, or <code>null</code> if problems were
    * encountered parsing the string.
+   * @see PrimitiveTokenizer PrimitiveTokenizer, which parses numbers without boxing them.
    */
   public static List<?> createList(String line, String delim, KataEnums type) {
+    long start = CREATE_LIST_TIMER.start();
     StringTokenizer tokenizer = new StringTokenizer(line, delim);
     try {
       switch (type) {
@@ -236,6 +181,9 @@ public final class KataUtils {
     catch (NumberFormatException e) {
       System.err.println("Non-numeric characters found on line: " + line);
     }
+    finally {
+      CREATE_LIST_TIMER.stop(start);
+    }
     return null;
   }
 
@@ -243,25 +191,84 @@ public final class KataUtils {
    * Given the name of a file, reads in all of the lines from the file.
    * 
    * @param filename Name of a file.
-   * @return A list containing all of the lines that were read in.
+   * @return A list containing all of the lines that were read in, or <code>null</code> if the file
+   * could not be read.
    */
   public static List<String> readLines(String filename) {
-    Validator.checkEmptyString(filename);
+    try {
+      return readLines(filename, StandardCharsets.US_ASCII);
+    }
+    catch (IOException e) {
+      System.err.println(e.getMessage());
+      return null;
+    }
+  }
 
-    List<String> list = new ArrayList<String>();
-    File file = new File(filename);
-    try (BufferedReader reader =
-        new BufferedReader(new InputStreamReader(new FileInputStream(file), "ASCII"))) {
-      String line = "";
-      while ((line = reader.readLine()) != null) {
-        list.add(line);
-      }
+  /**
+   * Given the name of a file and the charset in which it is encoded, reads in all of the lines from
+   * the file.
+   * 
+   * @param filename Name of a file.
+   * @param charset The charset used to decode the lines in the file.
+   * @return A list containing all of the lines that were read in.
+   * @throws IOException If the file could not be read.
+   */
+  public static List<String> readLines(String filename, Charset charset) throws IOException {
+    try (LineSource source = openLines(filename, charset)) {
+      return source.toList();
+    }
+    catch (IllegalStateException e) {
+      throw unwrap(e);
+    }
+  }
+
+  /**
+   * Given the name of a file, opens the file for reading and returns a source from which its lines
+   * are read in one at a time, as they are needed.
+   * 
+   * @param filename Name of a file.
+   * @return The source of the lines in the file, or <code>null</code> if the file could not be
+   * opened.
+   */
+  public static LineSource openLines(String filename) {
+    try {
+      return openLines(filename, StandardCharsets.US_ASCII);
     }
     catch (IOException e) {
       System.err.println(e.getMessage());
       return null;
     }
-    return list;
+  }
+
+  /**
+   * Given the name of a file and the charset in which it is encoded, memory-maps the file and
+   * returns a source from which its lines are read in one at a time, as they are needed.
+   * 
+   * @param filename Name of a file.
+   * @param charset The charset used to decode the lines in the file.
+   * @return The source of the lines in the file.
+   * @throws IOException If the file could not be opened.
+   * @see MappedLineReader
+   */
+  public static LineSource openLines(String filename, Charset charset) throws IOException {
+    Validator.checkEmptyString(filename);
+    Validator.checkNull(charset);
+
+    return new LineSource(new MappedLineReader(filename, charset));
+  }
+
+  /**
+   * Returns the <code>IOException</code> that caused a line source to fail, or rethrows the given
+   * exception if it was not caused by one.
+   * 
+   * @param e The exception thrown by a line source.
+   * @return The <code>IOException</code> that caused the given exception.
+   */
+  private static IOException unwrap(IllegalStateException e) {
+    if (e.getCause() instanceof IOException) {
+      return (IOException) e.getCause();
+    }
+    throw e;
   }
 
   /**
@@ -323,7 +330,7 @@ public final class KataUtils {
    * @param lines Lines containing a list of playing cards (e.g. 2C, KS).
    * @return A list of playing cards.
    */
-  public static List<PlayingCard> createPlayingCards(List<String> lines) {
+  public static List<PlayingCard> createPlayingCards(LineSource lines) {
     Validator.checkNull(lines);
     if (lines.isEmpty()) {
       return new ArrayList<>();
@@ -331,13 +338,13 @@ public final class KataUtils {
 
     List<PlayingCard> playingCards = new ArrayList<PlayingCard>();
     while (!lines.isEmpty()) {
-      if ("#".equals(lines.get(0))) {
+      if ("#".equals(lines.peek())) {
         break;
       }
 
       @SuppressWarnings("unchecked")
       List<String> tokens =
-          (List<String>) KataUtils.createList(lines.remove(0), " ", KataEnums.STRING);
+          (List<String>) KataUtils.createList(lines.next(), " ", KataEnums.STRING);
       for (String card : tokens) {
         playingCards.add(new PlayingCard(card, true));
       }
@@ -353,6 +360,17 @@ public final class KataUtils {
    * @return The number formatted with a period behind the second to last digit, e.g. 400.00.
    */
   public static String getBalanceAsString(int value) {
+    return getBalanceAsString((long) value);
+  }
+
+  /**
+   * Given a number that represents currency, e.g. 40000, returns the same number as a string with a
+   * period inserted behind the second to last digit, e.g. 400.00.
+   * 
+   * @param value The number to format, e.g. 40000.
+   * @return The number formatted with a period behind the second to last digit, e.g. 400.00.
+   */
+  public static String getBalanceAsString(long value) {
     String balance = value + "";
     if (balance.length() == 2 && balance.contains("-")) {
       balance = balance.replace("-", "-00");
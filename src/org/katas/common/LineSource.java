@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * A forward-only cursor over the lines that a kata reads in. Lines are pulled one at a time from
+ * a list, an iterator, or a <code>Reader</code>, so consuming a line costs O(1) and a source backed
+ * by a reader never holds more than one line of lookahead in memory.
+ * 
+ * <p>
+ * A line source can be iterated over only once; the iterator returned by {@link #iterator()} is
+ * the source itself.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public class LineSource implements Iterator<String>, Iterable<String>, Closeable {
+
+  private final Iterator<String> iterator;
+  private final BufferedReader reader;
+  private String nextLine;
+  private boolean closed;
+  private long lineCount;
+  private Timer readTimer;
+  private long readTime;
+
+  /**
+   * Creates a new LineSource that iterates over the given lines.
+   * 
+   * @param lines The lines to iterate over.
+   */
+  public LineSource(List<String> lines) {
+    this(lines == null ? null : lines.iterator());
+  }
+
+  /**
+   * Creates a new LineSource that pulls lines from the given iterator. If the iterator is also
+   * <code>Closeable</code>, it is closed once the last line has been read in or when
+   * {@link #close()} is called.
+   * 
+   * @param lines The iterator from which lines are pulled.
+   */
+  public LineSource(Iterator<String> lines) {
+    Validator.checkNull(lines);
+    this.iterator = lines;
+    this.reader = null;
+  }
+
+  /**
+   * Creates a new LineSource that lazily reads lines from the given reader. The reader is closed
+   * once the last line has been read in or when {@link #close()} is called.
+   * 
+   * @param reader The reader from which lines are read in.
+   */
+  public LineSource(Reader reader) {
+    Validator.checkNull(reader);
+    this.iterator = null;
+    if (reader instanceof BufferedReader) {
+      this.reader = (BufferedReader) reader;
+    }
+    else {
+      this.reader = new BufferedReader(reader);
+    }
+  }
+
+  /**
+   * Returns true if there are no more lines to read in.
+   * 
+   * @return True if there are no more lines to read in, false otherwise.
+   */
+  public boolean isEmpty() {
+    return !hasNext();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean hasNext() {
+    return fill();
+  }
+
+  /**
+   * Returns the next line without consuming it.
+   * 
+   * @return The next line.
+   * @throws NoSuchElementException If there are no more lines to read in.
+   */
+  public String peek() {
+    if (!fill()) {
+      throw new NoSuchElementException("No more lines.");
+    }
+    return this.nextLine;
+  }
+
+  /**
+   * Consumes and returns the next line.
+   * 
+   * @return The next line.
+   * @throws NoSuchElementException If there are no more lines to read in.
+   */
+  @Override
+  public String next() {
+    String line = peek();
+    this.nextLine = null;
+    this.lineCount++;
+    return line;
+  }
+
+  /**
+   * Gets the number of lines that have been consumed so far.
+   * 
+   * @return The number of lines that have been consumed.
+   */
+  public long getLineCount() {
+    return this.lineCount;
+  }
+
+  /**
+   * Records the time spent reading in each line with the given timer, e.g. the parse phase of a
+   * kata, and resets the total time spent reading in lines.
+   * 
+   * @param readTimer The timer, or <code>null</code> to stop recording.
+   */
+  void setReadTimer(Timer readTimer) {
+    this.readTimer = readTimer;
+    this.readTime = 0;
+  }
+
+  /**
+   * Gets the total time spent reading in lines since {@link #setReadTimer(Timer)} was called.
+   * 
+   * @return The time spent reading in lines, in nanoseconds.
+   */
+  long getReadTime() {
+    return this.readTime;
+  }
+
+  /**
+   * Lines cannot be removed from a line source; use {@link #next()} to consume a line.
+   * 
+   * @throws UnsupportedOperationException Always.
+   */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("Use next() to consume a line.");
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Iterator<String> iterator() {
+    return this;
+  }
+
+  /**
+   * Consumes all of the remaining lines and returns them in a list. Only katas that must see their
+   * whole input at once should call this method.
+   * 
+   * @return A list containing all of the remaining lines.
+   */
+  public List<String> toList() {
+    List<String> list = new ArrayList<String>();
+    while (hasNext()) {
+      list.add(next());
+    }
+    return list;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() throws IOException {
+    this.nextLine = null;
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    if (this.reader != null) {
+      this.reader.close();
+    }
+    else if (this.iterator instanceof Closeable) {
+      ((Closeable) this.iterator).close();
+    }
+  }
+
+  /**
+   * Reads in the next line, if one has not been read in already.
+   * 
+   * @return True if a line is available, false otherwise.
+   * @throws IllegalStateException If a problem was encountered while reading in the next line.
+   */
+  private boolean fill() {
+    if (this.nextLine != null) {
+      return true;
+    }
+    if (this.closed) {
+      return false;
+    }
+    long start = (this.readTimer == null) ? 0 : this.readTimer.start();
+    try {
+      if (this.iterator != null) {
+        this.nextLine = this.iterator.hasNext() ? this.iterator.next() : null;
+      }
+      else {
+        this.nextLine = this.reader.readLine();
+      }
+      if (this.nextLine == null) {
+        close();
+      }
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Unable to read in next line: " + e.getMessage(), e);
+    }
+    finally {
+      if (this.readTimer != null) {
+        this.readTime += this.readTimer.stop(start);
+      }
+    }
+    return this.nextLine != null;
+  }
+}
@@ -0,0 +1,391 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * Reads in the lines of a file by memory-mapping it one window at a time. Line breaks are found by
+ * scanning the mapped bytes directly, and a line is only decoded into a <code>String</code> when
+ * {@link #next()} is called; {@link #nextBytes()} returns the raw bytes of a line without copying
+ * them. Files larger than 2 GB are supported because only one window is mapped at a time.
+ * 
+ * <p>
+ * Lines end with <code>\n</code>, <code>\r</code>, or <code>\r\n</code>, just like
+ * {@link java.io.BufferedReader#readLine()}. Any ASCII-compatible charset (e.g. US-ASCII,
+ * ISO-8859-1, and UTF-8) and the UTF-16 family of charsets are supported. For UTF-16, a byte order
+ * mark at the beginning of the file determines the byte order.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public class MappedLineReader implements Iterator<String>, Closeable {
+
+  /** The default number of bytes mapped into memory at a time. */
+  public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  private static final int LINE_FEED = '\n';
+  private static final int CARRIAGE_RETURN = '\r';
+
+  private final RandomAccessFile file;
+  private final FileChannel channel;
+  private final long fileSize;
+  private final Charset charset;
+  private final int unitWidth;
+  private final boolean bigEndian;
+  private int windowSize;
+  private byte[] buffer = new byte[256];
+
+  private MappedByteBuffer window;
+  private long windowStart;
+  private long position;
+
+  private boolean lineFound;
+  private int lineStart;
+  private int lineEnd;
+  private long nextPosition;
+
+  /**
+   * Creates a new MappedLineReader that reads in the lines of the given file.
+   * 
+   * @param filename Name of a file.
+   * @param charset The charset used to decode the lines in the file.
+   * @throws IOException If the file cannot be opened.
+   */
+  public MappedLineReader(String filename, Charset charset) throws IOException {
+    this(filename, charset, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Creates a new MappedLineReader that reads in the lines of the given file.
+   * 
+   * @param filename Name of a file.
+   * @param charset The charset used to decode the lines in the file.
+   * @param windowSize The number of bytes to map into memory at a time; a window grows beyond this
+   * size only if a single line does not fit in it.
+   * @throws IOException If the file cannot be opened.
+   */
+  public MappedLineReader(String filename, Charset charset, int windowSize) throws IOException {
+    Validator.checkEmptyString(filename);
+    Validator.checkNull(charset);
+    if (windowSize < 2) {
+      throw new IllegalArgumentException("Window size must be at least 2 bytes: " + windowSize);
+    }
+
+    Charset actualCharset = charset;
+    boolean isBigEndian = true;
+    if (isAsciiCompatible(charset)) {
+      this.unitWidth = 1;
+    }
+    else if (charset.equals(StandardCharsets.UTF_16BE)) {
+      this.unitWidth = 2;
+    }
+    else if (charset.equals(StandardCharsets.UTF_16LE)) {
+      this.unitWidth = 2;
+      isBigEndian = false;
+    }
+    else if (charset.equals(StandardCharsets.UTF_16)) {
+      this.unitWidth = 2;
+      actualCharset = StandardCharsets.UTF_16BE;
+    }
+    else {
+      throw new IllegalArgumentException("Unsupported charset: " + charset.name());
+    }
+
+    this.file = new RandomAccessFile(filename, "r");
+    this.channel = this.file.getChannel();
+    this.windowSize = windowSize;
+    try {
+      this.fileSize = this.channel.size();
+      if (charset.equals(StandardCharsets.UTF_16) && this.fileSize >= 2) {
+        ByteBuffer bom = ByteBuffer.allocate(2);
+        this.channel.read(bom, 0);
+        int first = bom.get(0) & 0xFF;
+        int second = bom.get(1) & 0xFF;
+        if (first == 0xFE && second == 0xFF) {
+          this.position = 2;
+        }
+        else if (first == 0xFF && second == 0xFE) {
+          this.position = 2;
+          actualCharset = StandardCharsets.UTF_16LE;
+          isBigEndian = false;
+        }
+      }
+    }
+    catch (IOException e) {
+      this.file.close();
+      throw e;
+    }
+    this.bigEndian = isBigEndian;
+    this.charset = actualCharset;
+  }
+
+  /**
+   * Returns true if a line break in the given charset is the single byte <code>0x0A</code> and that
+   * byte never appears inside a multi-byte character.
+   * 
+   * @param charset The charset to check.
+   * @return True if the given charset is ASCII-compatible, false otherwise.
+   */
+  private static boolean isAsciiCompatible(Charset charset) {
+    if (charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1)
+        || charset.equals(StandardCharsets.UTF_8)) {
+      return true;
+    }
+    if (!charset.canEncode()) {
+      return false;
+    }
+    try {
+      ByteBuffer encoded = charset.newEncoder().encode(CharBuffer.wrap("\r\n"));
+      return encoded.remaining() == 2 && encoded.get(0) == CARRIAGE_RETURN
+          && encoded.get(1) == LINE_FEED && charset.newEncoder().maxBytesPerChar() <= 1.0f;
+    }
+    catch (CharacterCodingException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Gets the offset, in bytes, of the next line that has not been read in yet.
+   * 
+   * @return The offset of the next line in the file.
+   */
+  public long getPosition() {
+    return this.position;
+  }
+
+  /**
+   * Moves to the given offset, so that the next line that is read in starts there. The offset must
+   * be the start of a line, e.g. one that was returned by {@link #getPosition()}.
+   * 
+   * @param position The offset of a line in the file.
+   */
+  public void setPosition(long position) {
+    if (position < 0 || position > this.fileSize) {
+      throw new IllegalArgumentException("Invalid position: " + position);
+    }
+    this.position = position;
+    this.lineFound = false;
+  }
+
+  /**
+   * Gets the size of the file in bytes.
+   * 
+   * @return The size of the file in bytes.
+   */
+  public long getFileSize() {
+    return this.fileSize;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean hasNext() {
+    try {
+      return findLine();
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Unable to read in next line: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Decodes and returns the next line.
+   * 
+   * @return The next line.
+   * @throws NoSuchElementException If there are no more lines to read in.
+   */
+  @Override
+  public String next() {
+    ByteBuffer bytes = nextBytes();
+    int length = bytes.remaining();
+    if (this.buffer.length < length) {
+      this.buffer = new byte[Math.max(length, this.buffer.length * 2)];
+    }
+    bytes.get(this.buffer, 0, length);
+    return new String(this.buffer, 0, length, this.charset);
+  }
+
+  /**
+   * Returns the bytes of the next line, excluding the line break, without decoding or copying them.
+   * The returned buffer is a read-only view of the mapped file and is only valid until the reader
+   * is closed.
+   * 
+   * @return The bytes of the next line.
+   * @throws NoSuchElementException If there are no more lines to read in.
+   */
+  public ByteBuffer nextBytes() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more lines.");
+    }
+    ByteBuffer bytes = this.window.asReadOnlyBuffer();
+    bytes.limit(this.lineEnd);
+    bytes.position(this.lineStart);
+    this.position = this.nextPosition;
+    this.lineFound = false;
+    return bytes.slice();
+  }
+
+  /**
+   * Lines cannot be removed from a file.
+   * 
+   * @throws UnsupportedOperationException Always.
+   */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("Lines cannot be removed from a file.");
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() throws IOException {
+    this.window = null;
+    this.lineFound = false;
+    this.position = this.fileSize;
+    this.file.close();
+  }
+
+  /**
+   * Finds the start and end of the next line, mapping a new window if the line is not entirely
+   * inside the current one.
+   * 
+   * @return True if a line was found, false if the end of the file was reached.
+   * @throws IOException If a problem was encountered while mapping the file.
+   */
+  private boolean findLine() throws IOException {
+    if (this.lineFound) {
+      return true;
+    }
+    if (this.position >= this.fileSize) {
+      return false;
+    }
+
+    while (true) {
+      long windowEnd = this.windowStart + (this.window == null ? 0 : this.window.limit());
+      if (this.window == null || this.position < this.windowStart || this.position >= windowEnd) {
+        map(this.position);
+        windowEnd = this.windowStart + this.window.limit();
+      }
+      boolean atEndOfFile = windowEnd == this.fileSize;
+      int limit = this.window.limit();
+      int start = (int) (this.position - this.windowStart);
+
+      int index = indexOfLineBreak(start, limit);
+      if (index >= 0 && unitAt(index) == LINE_FEED) {
+        return setLine(start, index, index + this.unitWidth);
+      }
+      if (index >= 0) {
+        int after = index + this.unitWidth;
+        if (after + this.unitWidth <= limit) {
+          int next = (unitAt(after) == LINE_FEED) ? after + this.unitWidth : after;
+          return setLine(start, index, next);
+        }
+        if (atEndOfFile) {
+          return setLine(start, index, limit);
+        }
+        // Otherwise, the line break might continue in the next window.
+      }
+      else if (atEndOfFile) {
+        return setLine(start, limit, limit);
+      }
+      if (start == 0) {
+        // The line does not fit in one window.
+        this.windowSize = (int) Math.min(Integer.MAX_VALUE - 8, this.windowSize * 2L);
+      }
+      this.window = null;
+    }
+  }
+
+  /**
+   * Records the position of a line that was found in the current window.
+   * 
+   * @param start The start of the line.
+   * @param end The end of the line, excluding the line break.
+   * @param next The start of the line after it.
+   * @return Always true.
+   */
+  private boolean setLine(int start, int end, int next) {
+    this.lineStart = start;
+    this.lineEnd = end;
+    this.nextPosition = this.windowStart + next;
+    this.lineFound = true;
+    return true;
+  }
+
+  /**
+   * Finds the first carriage return or line feed in the current window.
+   * 
+   * @param start The index at which to start searching.
+   * @param limit The index at which to stop searching.
+   * @return The index of the first line break, or -1 if there is none.
+   */
+  private int indexOfLineBreak(int start, int limit) {
+    if (this.unitWidth == 1) {
+      for (int index = start; index < limit; index++) {
+        byte b = this.window.get(index);
+        if (b == LINE_FEED || b == CARRIAGE_RETURN) {
+          return index;
+        }
+      }
+      return -1;
+    }
+    for (int index = start; index + this.unitWidth <= limit; index += this.unitWidth) {
+      int unit = unitAt(index);
+      if (unit == LINE_FEED || unit == CARRIAGE_RETURN) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the code unit at the given index in the current window.
+   * 
+   * @param index The index of the first byte of the code unit.
+   * @return The code unit.
+   */
+  private int unitAt(int index) {
+    if (this.unitWidth == 1) {
+      return this.window.get(index) & 0xFF;
+    }
+    int high = this.window.get(this.bigEndian ? index : index + 1) & 0xFF;
+    int low = this.window.get(this.bigEndian ? index + 1 : index) & 0xFF;
+    return (high << 8) | low;
+  }
+
+  /**
+   * Maps a window of the file that begins at the given offset.
+   * 
+   * @param offset The offset at which the window begins.
+   * @throws IOException If a problem was encountered while mapping the file.
+   */
+  private void map(long offset) throws IOException {
+    long size = Math.min(this.windowSize, this.fileSize - offset);
+    this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+    this.windowStart = offset;
+  }
+}
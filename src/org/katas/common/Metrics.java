@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * A registry of named {@link Counter counters}, {@link Timer timers}, and {@link Histogram
+ * histograms} that show where the time goes while katas run. Every kata records the following:
+ * 
+ * <ul>
+ * <li><code><i>Kata</i>.run</code>: the time taken by {@link Kata#run()}.</li>
+ * <li><code><i>Kata</i>.output</code>: the time spent printing results.</li>
+ * <li><code><i>Kata</i>.parse</code> and <code><i>Kata</i>.compute</code>: the time spent reading
+ * in and solving each case of a {@link MultiCaseKata}.</li>
+ * <li><code>KataUtils.createList</code>: the time spent parsing a line with
+ * {@link KataUtils#createList(String, String, KataEnums)}.</li>
+ * </ul>
+ * 
+ * <p>
+ * Metrics are disabled by default, in which case recording a metric costs one volatile read. Run
+ * with <code>-Dkatas.metrics=true</code> to enable them; each metric is then registered as an MBean
+ * in the <code>org.katas</code> domain. Run with <code>-Dkatas.metrics.dump=text</code> (or
+ * <code>json</code>) to also print all of the metrics to <code>System.err</code> every
+ * <code>katas.metrics.dumpPeriod</code> seconds (60 by default) and when the JVM shuts down.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class Metrics {
+
+  /** The system property that enables metrics. */
+  public static final String ENABLED_PROPERTY = "katas.metrics";
+  /** The system property that sets the format in which metrics are dumped, if at all. */
+  public static final String DUMP_PROPERTY = "katas.metrics.dump";
+  /** The system property that sets the number of seconds between dumps. */
+  public static final String DUMP_PERIOD_PROPERTY = "katas.metrics.dumpPeriod";
+
+  /** The domain in which MBeans are registered. */
+  public static final String DOMAIN = "org.katas";
+
+  private static final ConcurrentMap<String, Counter> COUNTERS =
+      new ConcurrentSkipListMap<String, Counter>();
+  private static final ConcurrentMap<String, Timer> TIMERS =
+      new ConcurrentSkipListMap<String, Timer>();
+  private static final ConcurrentMap<String, Histogram> HISTOGRAMS =
+      new ConcurrentSkipListMap<String, Histogram>();
+
+  private static volatile boolean enabled;
+  private static ScheduledExecutorService dumper;
+
+  static {
+    if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+      setEnabled(true);
+      String format = System.getProperty(DUMP_PROPERTY);
+      if (format != null) {
+        startDump(Long.getLong(DUMP_PERIOD_PROPERTY, 60), TimeUnit.SECONDS,
+            Format.valueOf(format.toUpperCase()), System.err);
+      }
+    }
+  }
+
+  /** The formats in which metrics can be dumped. */
+  public enum Format {
+    /** One metric per line. */
+    TEXT,
+    /** A JSON object with one member per kind of metric. */
+    JSON
+  }
+
+  /**
+   * This class cannot be instantiated nor extended.
+   */
+  private Metrics() {
+    // Empty constructor.
+  }
+
+  /**
+   * Returns true if metrics are being recorded.
+   * 
+   * @return True if metrics are being recorded, false otherwise.
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts or stops recording metrics. When metrics are enabled, all of the metrics are registered
+   * as MBeans.
+   * 
+   * @param isEnabled True to start recording metrics, false to stop.
+   */
+  public static synchronized void setEnabled(boolean isEnabled) {
+    if (isEnabled && !enabled) {
+      enabled = true;
+      for (Map.Entry<String, Counter> entry : COUNTERS.entrySet()) {
+        register("Counter", entry.getKey(), entry.getValue(), CounterMBean.class);
+      }
+      for (Map.Entry<String, Timer> entry : TIMERS.entrySet()) {
+        register("Timer", entry.getKey(), entry.getValue(), HistogramMBean.class);
+      }
+      for (Map.Entry<String, Histogram> entry : HISTOGRAMS.entrySet()) {
+        register("Histogram", entry.getKey(), entry.getValue(), HistogramMBean.class);
+      }
+    }
+    enabled = isEnabled;
+  }
+
+  /**
+   * Gets the counter with the given name, creating it if it does not exist.
+   * 
+   * @param name The name of the counter.
+   * @return The counter.
+   */
+  public static Counter counter(String name) {
+    Validator.checkEmptyString(name);
+    Counter counter = COUNTERS.get(name);
+    if (counter == null) {
+      Counter newCounter = new Counter();
+      counter = COUNTERS.putIfAbsent(name, newCounter);
+      if (counter == null) {
+        counter = newCounter;
+        registerIfEnabled("Counter", name, counter, CounterMBean.class);
+      }
+    }
+    return counter;
+  }
+
+  /**
+   * Gets the timer with the given name, creating it if it does not exist.
+   * 
+   * @param name The name of the timer.
+   * @return The timer.
+   */
+  public static Timer timer(String name) {
+    Validator.checkEmptyString(name);
+    Timer timer = TIMERS.get(name);
+    if (timer == null) {
+      Timer newTimer = new Timer();
+      timer = TIMERS.putIfAbsent(name, newTimer);
+      if (timer == null) {
+        timer = newTimer;
+        registerIfEnabled("Timer", name, timer, HistogramMBean.class);
+      }
+    }
+    return timer;
+  }
+
+  /**
+   * Gets the histogram with the given name, creating it if it does not exist.
+   * 
+   * @param name The name of the histogram.
+   * @return The histogram.
+   */
+  public static Histogram histogram(String name) {
+    Validator.checkEmptyString(name);
+    Histogram histogram = HISTOGRAMS.get(name);
+    if (histogram == null) {
+      Histogram newHistogram = new Histogram();
+      histogram = HISTOGRAMS.putIfAbsent(name, newHistogram);
+      if (histogram == null) {
+        histogram = newHistogram;
+        registerIfEnabled("Histogram", name, histogram, HistogramMBean.class);
+      }
+    }
+    return histogram;
+  }
+
+  /** Resets all of the metrics. */
+  public static void reset() {
+    for (Counter counter : COUNTERS.values()) {
+      counter.reset();
+    }
+    for (Timer timer : TIMERS.values()) {
+      timer.reset();
+    }
+    for (Histogram histogram : HISTOGRAMS.values()) {
+      histogram.reset();
+    }
+  }
+
+  /**
+   * Returns all of the metrics, sorted by name, in the given format. Timers are in microseconds.
+   * 
+   * @param format The format of the metrics.
+   * @return All of the metrics.
+   */
+  public static String dump(Format format) {
+    Validator.checkNull(format);
+    return (format == Format.JSON) ? dumpJson() : dumpText();
+  }
+
+  /**
+   * Prints all of the metrics to the given stream every <code>period</code> units of time, and once
+   * more when the JVM shuts down. Any dump that was already started is stopped.
+   * 
+   * @param period The time between dumps.
+   * @param unit The unit of the time between dumps.
+   * @param format The format of the metrics.
+   * @param stream The stream to which the metrics are printed.
+   */
+  public static synchronized void startDump(long period, TimeUnit unit, final Format format,
+      final PrintStream stream) {
+    Validator.checkNull(unit);
+    Validator.checkNull(format);
+    Validator.checkNull(stream);
+    if (period <= 0) {
+      throw new IllegalArgumentException("Period must be positive: " + period);
+    }
+
+    stopDump();
+    final Runnable dump = new Runnable() {
+      @Override
+      public void run() {
+        stream.println(dump(format));
+        stream.flush();
+      }
+    };
+    dumper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "metrics-dump");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    dumper.scheduleAtFixedRate(dump, period, period, unit);
+    final ScheduledExecutorService currentDumper = dumper;
+    Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+      @Override
+      public void run() {
+        if (!currentDumper.isShutdown()) {
+          dump.run();
+        }
+      }
+    }));
+  }
+
+  /** Stops printing metrics. */
+  public static synchronized void stopDump() {
+    if (dumper != null) {
+      dumper.shutdownNow();
+      dumper = null;
+    }
+  }
+
+  /**
+   * Returns all of the metrics, one per line.
+   * 
+   * @return All of the metrics.
+   */
+  private static String dumpText() {
+    StringBuilder builder = new StringBuilder();
+    for (Map.Entry<String, Counter> entry : COUNTERS.entrySet()) {
+      builder.append(entry.getKey()).append(": count=").append(entry.getValue().getCount());
+      builder.append('\n');
+    }
+    for (Map.Entry<String, Timer> entry : TIMERS.entrySet()) {
+      builder.append(entry.getKey()).append(':');
+      appendText(builder, entry.getValue(), 1000.0, " us");
+    }
+    for (Map.Entry<String, Histogram> entry : HISTOGRAMS.entrySet()) {
+      builder.append(entry.getKey()).append(':');
+      appendText(builder, entry.getValue(), 1, "");
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Appends the statistics of a histogram to a line of text.
+   * 
+   * @param builder The builder to which the statistics are appended.
+   * @param histogram The histogram.
+   * @param scale The number by which each value is divided.
+   * @param unit The unit of each value after it is divided.
+   */
+  private static void appendText(StringBuilder builder, Histogram histogram, double scale,
+      String unit) {
+    builder.append(" count=").append(histogram.getCount());
+    builder.append(String.format(" mean=%.3f%s min=%.3f%s p50=%.3f%s p90=%.3f%s p99=%.3f%s"
+        + " max=%.3f%s%n", histogram.getMean() / scale, unit, histogram.getMin() / scale, unit,
+        histogram.getPercentile50() / scale, unit, histogram.getPercentile90() / scale, unit,
+        histogram.getPercentile99() / scale, unit, histogram.getMax() / scale, unit));
+  }
+
+  /**
+   * Returns all of the metrics as a JSON object.
+   * 
+   * @return All of the metrics.
+   */
+  private static String dumpJson() {
+    StringBuilder builder = new StringBuilder("{\"counters\":{");
+    String separator = "";
+    for (Map.Entry<String, Counter> entry : COUNTERS.entrySet()) {
+      builder.append(separator);
+      appendJsonString(builder, entry.getKey());
+      builder.append(':').append(entry.getValue().getCount());
+      separator = ",";
+    }
+    builder.append("},\"timers\":{");
+    separator = "";
+    for (Map.Entry<String, Timer> entry : TIMERS.entrySet()) {
+      builder.append(separator);
+      appendJson(builder, entry.getKey(), entry.getValue(), 1000.0);
+      separator = ",";
+    }
+    builder.append("},\"histograms\":{");
+    separator = "";
+    for (Map.Entry<String, Histogram> entry : HISTOGRAMS.entrySet()) {
+      builder.append(separator);
+      appendJson(builder, entry.getKey(), entry.getValue(), 1);
+      separator = ",";
+    }
+    return builder.append("}}").toString();
+  }
+
+  /**
+   * Appends the statistics of a histogram as a member of a JSON object.
+   * 
+   * @param builder The builder to which the statistics are appended.
+   * @param name The name of the histogram.
+   * @param histogram The histogram.
+   * @param scale The number by which each value is divided.
+   */
+  private static void appendJson(StringBuilder builder, String name, Histogram histogram,
+      double scale) {
+    appendJsonString(builder, name);
+    builder.append(":{\"count\":").append(histogram.getCount());
+    builder.append(",\"mean\":").append(histogram.getMean() / scale);
+    builder.append(",\"min\":").append(histogram.getMin() / scale);
+    builder.append(",\"p50\":").append(histogram.getPercentile50() / scale);
+    builder.append(",\"p90\":").append(histogram.getPercentile90() / scale);
+    builder.append(",\"p99\":").append(histogram.getPercentile99() / scale);
+    builder.append(",\"max\":").append(histogram.getMax() / scale).append('}');
+  }
+
+  /**
+   * Appends a string to a JSON document, escaping any quotes, backslashes, and control characters.
+   * 
+   * @param builder The builder to which the string is appended.
+   * @param string The string to append.
+   */
+  private static void appendJsonString(StringBuilder builder, String string) {
+    builder.append('"');
+    for (int index = 0; index < string.length(); index++) {
+      char c = string.charAt(index);
+      if (c == '"' || c == '\\') {
+        builder.append('\\').append(c);
+      }
+      else if (c < ' ') {
+        builder.append(String.format("\\u%04x", (int) c));
+      }
+      else {
+        builder.append(c);
+      }
+    }
+    builder.append('"');
+  }
+
+  /**
+   * Registers a metric as an MBean if metrics are enabled.
+   * 
+   * @param type The type of the metric.
+   * @param name The name of the metric.
+   * @param metric The metric.
+   * @param mbeanInterface The management interface of the metric.
+   * @param <T> The type of the management interface.
+   */
+  private static synchronized <T> void registerIfEnabled(String type, String name, T metric,
+      Class<T> mbeanInterface) {
+    if (enabled) {
+      register(type, name, metric, mbeanInterface);
+    }
+  }
+
+  /**
+   * Registers a metric as an MBean, unless it has already been registered.
+   * 
+   * @param type The type of the metric.
+   * @param name The name of the metric.
+   * @param metric The metric.
+   * @param mbeanInterface The management interface of the metric.
+   * @param <T> The type of the management interface.
+   */
+  private static <T> void register(String type, String name, T metric, Class<T> mbeanInterface) {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName objectName =
+          new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+      if (!server.isRegistered(objectName)) {
+        server.registerMBean(new StandardMBean(metric, mbeanInterface), objectName);
+      }
+    }
+    catch (JMException e) {
+      System.err.println("Unable to register metric " + name + ": " + e.getMessage());
+    }
+  }
+}
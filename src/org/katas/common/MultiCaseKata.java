@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+/**
+ * The base class for katas whose input consists of independent test cases, e.g. one Minesweeper
+ * field after another. A subclass splits its input into cases with {@link #readCase()} and solves
+ * each case with {@link #solveCase(int, Object)}; cases are solved in parallel, and their output is
+ * printed in the same order in which the cases were read in.
+ * 
+ * @param <C> The type of a test case.
+ * @author BJ Peter DeLaCruz
+ */
+public abstract class MultiCaseKata<C> extends Kata {
+
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+  private long caseCount;
+
+  /**
+   * Sets the number of cases that can be solved at the same time.
+   * 
+   * @param parallelism The number of cases that can be solved at the same time; 1 solves all cases
+   * on the calling thread, one after another.
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+    }
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Gets the number of cases that can be solved at the same time.
+   * 
+   * @return The number of cases that can be solved at the same time.
+   */
+  public int getParallelism() {
+    return this.parallelism;
+  }
+
+  /**
+   * Gets the number of cases that were solved the last time {@link #processLines()} was called.
+   * 
+   * @return The number of cases that were solved.
+   */
+  public long getCaseCount() {
+    return this.caseCount;
+  }
+
+  /** Reads in all of the cases, solves them, and prints their output in input order. */
+  @Override
+  public void processLines() {
+    this.caseCount = 0;
+    this.caseCount = new CaseExecutor<C>(this, this.parallelism).execute();
+  }
+
+  /**
+   * Processes all of the lines; {@link CaseExecutor} records the phases of each case.
+   * 
+   * @param name The name under which the metrics are recorded.
+   * @param timedSink The sink that records the time spent printing results, or <code>null</code>
+   * if metrics are disabled.
+   */
+  @Override
+  void processPhases(String name, TimedResultSink timedSink) {
+    processLines();
+  }
+
+  /**
+   * Reads in the next case from the lines. This method is always called on the thread that called
+   * {@link #processLines()}.
+   * 
+   * @return The next case, or <code>null</code> if there are no more cases.
+   */
+  protected abstract C readCase();
+
+  /**
+   * Solves a case. This method may be called on several threads at the same time, so it must not
+   * modify any state shared between cases.
+   * 
+   * @param caseNumber The number of the case, starting at 1.
+   * @param testCase The case to solve.
+   * @return The output for the case.
+   */
+  protected abstract String solveCase(int caseNumber, C testCase);
+}
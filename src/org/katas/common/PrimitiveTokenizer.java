@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.util.NoSuchElementException;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * Splits a line into tokens, like <code>StringTokenizer</code>, but parses each token directly
+ * into a primitive value without creating a substring for it. One tokenizer can be reused for any
+ * number of lines by calling {@link #reset(CharSequence)}.
+ * 
+ * <p>
+ * Integers are parsed exactly like {@link Integer#parseInt(String)}. Doubles in plain decimal
+ * notation with at most 15 significant digits are parsed without allocating anything; all other
+ * doubles are handed off to {@link Double#parseDouble(String)}. Either way, the result is the same
+ * as that of <code>Double.parseDouble</code>.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class PrimitiveTokenizer {
+
+  /** Powers of ten that are exactly representable as doubles. */
+  private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+      1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+  private final String delimiters;
+  private CharSequence line = "";
+  private int position;
+  private int tokenStart;
+  private int tokenEnd;
+
+  /**
+   * Creates a new PrimitiveTokenizer.
+   * 
+   * @param delimiters The characters that separate tokens, e.g. a whitespace character.
+   */
+  public PrimitiveTokenizer(String delimiters) {
+    Validator.checkEmptyString(delimiters);
+    this.delimiters = delimiters;
+  }
+
+  /**
+   * Starts tokenizing the given line.
+   * 
+   * @param line The line to tokenize.
+   * @return This tokenizer.
+   */
+  public PrimitiveTokenizer reset(CharSequence line) {
+    Validator.checkNull(line);
+    this.line = line;
+    this.position = 0;
+    return this;
+  }
+
+  /**
+   * Returns true if there is at least one more token in the line.
+   * 
+   * @return True if there are more tokens, false otherwise.
+   */
+  public boolean hasMoreTokens() {
+    return skipDelimiters() < this.line.length();
+  }
+
+  /**
+   * Counts the number of tokens left in the line without consuming them.
+   * 
+   * @return The number of tokens left in the line.
+   */
+  public int countTokens() {
+    int saved = this.position;
+    int count = 0;
+    while (findToken()) {
+      count++;
+    }
+    this.position = saved;
+    return count;
+  }
+
+  /**
+   * Parses the next token as an integer.
+   * 
+   * @return The next integer.
+   * @throws NoSuchElementException If there are no more tokens.
+   * @throws NumberFormatException If the next token is not a valid integer.
+   */
+  public int nextInt() {
+    nextToken("integer");
+    int index = this.tokenStart;
+    boolean negative = false;
+    int limit = -Integer.MAX_VALUE;
+    char first = this.line.charAt(index);
+    if (first == '-' || first == '+') {
+      negative = first == '-';
+      if (negative) {
+        limit = Integer.MIN_VALUE;
+      }
+      index++;
+      if (index == this.tokenEnd) {
+        throw invalidToken("integer");
+      }
+    }
+    int multiplicationLimit = limit / 10;
+    int result = 0;
+    for (; index < this.tokenEnd; index++) {
+      int digit = Character.digit(this.line.charAt(index), 10);
+      if (digit < 0 || result < multiplicationLimit) {
+        throw invalidToken("integer");
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        throw invalidToken("integer");
+      }
+      // Accumulate negatively so that Integer.MIN_VALUE can be parsed.
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+
+  /**
+   * Parses the next token as a double.
+   * 
+   * @return The next double.
+   * @throws NoSuchElementException If there are no more tokens.
+   * @throws NumberFormatException If the next token is not a valid double.
+   */
+  public double nextDouble() {
+    nextToken("double");
+    int index = this.tokenStart;
+    boolean negative = false;
+    char first = this.line.charAt(index);
+    if (first == '-' || first == '+') {
+      negative = first == '-';
+      index++;
+    }
+
+    long mantissa = 0;
+    int digits = 0;
+    int fractionDigits = 0;
+    boolean seenDigit = false;
+    boolean seenPoint = false;
+    boolean simple = true;
+    for (; index < this.tokenEnd && simple; index++) {
+      char c = this.line.charAt(index);
+      if (c >= '0' && c <= '9') {
+        seenDigit = true;
+        if (mantissa > 0 || c != '0') {
+          digits++;
+        }
+        mantissa = mantissa * 10 + (c - '0');
+        if (seenPoint) {
+          fractionDigits++;
+        }
+        simple = digits <= 15 && fractionDigits < POWERS_OF_TEN.length;
+      }
+      else if (c == '.' && !seenPoint) {
+        seenPoint = true;
+      }
+      else {
+        simple = false;
+      }
+    }
+
+    if (simple && seenDigit) {
+      // Both the mantissa and the power of ten are exact, so one division is correctly rounded.
+      double value = mantissa / POWERS_OF_TEN[fractionDigits];
+      return negative ? -value : value;
+    }
+    try {
+      return Double.parseDouble(currentToken());
+    }
+    catch (NumberFormatException e) {
+      throw invalidToken("double");
+    }
+  }
+
+  /**
+   * Returns the first character of the next token.
+   * 
+   * @return The first character of the next token.
+   * @throws NoSuchElementException If there are no more tokens.
+   */
+  public char nextChar() {
+    nextToken("character");
+    return this.line.charAt(this.tokenStart);
+  }
+
+  /**
+   * Returns the next token as a string. Unlike the other methods in this class, this method
+   * allocates a new string.
+   * 
+   * @return The next token.
+   * @throws NoSuchElementException If there are no more tokens.
+   */
+  public String nextToken() {
+    nextToken("token");
+    return currentToken();
+  }
+
+  /**
+   * Parses all of the remaining tokens in the line as integers.
+   * 
+   * @return An array containing the remaining integers.
+   * @throws NumberFormatException If a token is not a valid integer.
+   */
+  public int[] remainingInts() {
+    int[] values = new int[countTokens()];
+    for (int index = 0; index < values.length; index++) {
+      values[index] = nextInt();
+    }
+    return values;
+  }
+
+  /**
+   * Parses all of the remaining tokens in the line as doubles.
+   * 
+   * @return An array containing the remaining doubles.
+   * @throws NumberFormatException If a token is not a valid double.
+   */
+  public double[] remainingDoubles() {
+    double[] values = new double[countTokens()];
+    for (int index = 0; index < values.length; index++) {
+      values[index] = nextDouble();
+    }
+    return values;
+  }
+
+  /**
+   * Gets the first character of each of the remaining tokens in the line.
+   * 
+   * @return An array containing the first character of each remaining token.
+   */
+  public char[] remainingChars() {
+    char[] values = new char[countTokens()];
+    for (int index = 0; index < values.length; index++) {
+      values[index] = nextChar();
+    }
+    return values;
+  }
+
+  /**
+   * Skips past any delimiters at the current position.
+   * 
+   * @return The new position.
+   */
+  private int skipDelimiters() {
+    int length = this.line.length();
+    while (this.position < length && isDelimiter(this.line.charAt(this.position))) {
+      this.position++;
+    }
+    return this.position;
+  }
+
+  /**
+   * Finds the next token and moves past it.
+   * 
+   * @return True if a token was found, false if there are no more tokens.
+   */
+  private boolean findToken() {
+    int length = this.line.length();
+    this.tokenStart = skipDelimiters();
+    if (this.tokenStart == length) {
+      return false;
+    }
+    while (this.position < length && !isDelimiter(this.line.charAt(this.position))) {
+      this.position++;
+    }
+    this.tokenEnd = this.position;
+    return true;
+  }
+
+  /**
+   * Finds the next token and moves past it.
+   * 
+   * @param type The type of the value that is expected, used in the error message.
+   * @throws NoSuchElementException If there are no more tokens.
+   */
+  private void nextToken(String type) {
+    if (!findToken()) {
+      throw new NoSuchElementException("Expected another " + type + " on line: " + this.line);
+    }
+  }
+
+  /**
+   * Returns true if the given character is a delimiter.
+   * 
+   * @param c The character to check.
+   * @return True if the given character is a delimiter, false otherwise.
+   */
+  private boolean isDelimiter(char c) {
+    return this.delimiters.indexOf(c) >= 0;
+  }
+
+  /**
+   * Gets the current token as a string.
+   * 
+   * @return The current token.
+   */
+  private String currentToken() {
+    return this.line.subSequence(this.tokenStart, this.tokenEnd).toString();
+  }
+
+  /**
+   * Creates an exception that describes the current token.
+   * 
+   * @param type The type of the value that was expected.
+   * @return An exception that describes the invalid token.
+   */
+  private NumberFormatException invalidToken(String type) {
+    return new NumberFormatException("Invalid " + type + " \"" + currentToken() + "\" at column "
+        + (this.tokenStart + 1) + " on line: " + this.line);
+  }
+}
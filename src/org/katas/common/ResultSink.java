@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+/**
+ * The destination of the results that a kata produces. Unlike <code>System.out</code>, a sink is
+ * not required to be thread-safe, and it may hold on to results until {@link #flush()} is called.
+ * 
+ * @author BJ Peter DeLaCruz
+ * @see WriterResultSink
+ * @see CollectingResultSink
+ */
+public interface ResultSink {
+
+  /**
+   * Prints a sequence of characters.
+   * 
+   * @param chars The characters to print.
+   */
+  void print(CharSequence chars);
+
+  /**
+   * Prints a character.
+   * 
+   * @param c The character to print.
+   */
+  void print(char c);
+
+  /**
+   * Prints a number.
+   * 
+   * @param value The number to print.
+   */
+  void print(long value);
+
+  /**
+   * Prints a sequence of characters followed by a line separator.
+   * 
+   * @param chars The characters to print.
+   */
+  void println(CharSequence chars);
+
+  /** Prints a line separator. */
+  void println();
+
+  /** Writes all of the results that have been printed so far to their final destination. */
+  void flush();
+}
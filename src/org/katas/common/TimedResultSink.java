@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+/**
+ * A result sink that records how long it takes another sink to print results.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+final class TimedResultSink implements ResultSink {
+
+  private final ResultSink sink;
+  private final Timer timer;
+  private long elapsed;
+
+  /**
+   * Creates a new TimedResultSink.
+   * 
+   * @param sink The sink that prints the results.
+   * @param timer The timer that records how long the sink takes.
+   */
+  TimedResultSink(ResultSink sink, Timer timer) {
+    this.sink = sink;
+    this.timer = timer;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(CharSequence chars) {
+    long start = this.timer.start();
+    try {
+      this.sink.print(chars);
+    }
+    finally {
+      this.elapsed += this.timer.stop(start);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(char c) {
+    long start = this.timer.start();
+    try {
+      this.sink.print(c);
+    }
+    finally {
+      this.elapsed += this.timer.stop(start);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(long value) {
+    long start = this.timer.start();
+    try {
+      this.sink.print(value);
+    }
+    finally {
+      this.elapsed += this.timer.stop(start);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void println(CharSequence chars) {
+    long start = this.timer.start();
+    try {
+      this.sink.println(chars);
+    }
+    finally {
+      this.elapsed += this.timer.stop(start);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void println() {
+    long start = this.timer.start();
+    try {
+      this.sink.println();
+    }
+    finally {
+      this.elapsed += this.timer.stop(start);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void flush() {
+    long start = this.timer.start();
+    try {
+      this.sink.flush();
+    }
+    finally {
+      this.elapsed += this.timer.stop(start);
+    }
+  }
+
+  /**
+   * Gets the total time that the sink has spent printing results.
+   * 
+   * @return The time spent printing results, in nanoseconds.
+   */
+  long getElapsed() {
+    return this.elapsed;
+  }
+}
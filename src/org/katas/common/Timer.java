@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+/**
+ * Records how long something takes, in nanoseconds. A timer is used as follows:
+ * 
+ * <pre>
+ * long start = timer.start();
+ * try {
+ *   // Do something.
+ * }
+ * finally {
+ *   timer.stop(start);
+ * }
+ * </pre>
+ * 
+ * While {@link Metrics} are disabled, {@link #start()} does not even read the clock.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public final class Timer extends Histogram {
+
+  /** Returned by {@link #start()} while metrics are disabled. */
+  private static final long NOT_STARTED = Long.MIN_VALUE;
+
+  /**
+   * Creates a new Timer; use {@link Metrics#timer(String)} to create a timer that is registered by
+   * name.
+   */
+  Timer() {
+    // Empty constructor.
+  }
+
+  /**
+   * Starts timing something.
+   * 
+   * @return The time at which timing started, to be passed to {@link #stop(long)}.
+   */
+  public long start() {
+    return Metrics.isEnabled() ? System.nanoTime() : NOT_STARTED;
+  }
+
+  /**
+   * Stops timing something and records how long it took.
+   * 
+   * @param start The time returned by {@link #start()}.
+   * @return How long it took, in nanoseconds, or 0 if metrics were disabled when timing started.
+   */
+  public long stop(long start) {
+    if (start == NOT_STARTED) {
+      return 0;
+    }
+    long elapsed = System.nanoTime() - start;
+    record(elapsed);
+    return elapsed;
+  }
+}
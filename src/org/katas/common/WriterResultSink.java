@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * A result sink that collects results in a character buffer and writes them to a
+ * <code>Writer</code> in large blocks, only when the buffer is full or when {@link #flush()} is
+ * called. This class is not thread-safe.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+public class WriterResultSink implements ResultSink {
+
+  /** The default size of the buffer, in characters. */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  private final Writer writer;
+  private final char[] buffer;
+  private int count;
+
+  /**
+   * Creates a new WriterResultSink that writes to the given stream using the platform's default
+   * charset.
+   * 
+   * @param stream The stream to which results are written, e.g. <code>System.out</code>.
+   */
+  public WriterResultSink(OutputStream stream) {
+    this(new OutputStreamWriter(stream, Charset.defaultCharset()));
+  }
+
+  /**
+   * Creates a new WriterResultSink that writes to the given writer.
+   * 
+   * @param writer The writer to which results are written.
+   */
+  public WriterResultSink(Writer writer) {
+    this(writer, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a new WriterResultSink that writes to the given writer.
+   * 
+   * @param writer The writer to which results are written.
+   * @param bufferSize The size of the buffer, in characters.
+   */
+  public WriterResultSink(Writer writer, int bufferSize) {
+    Validator.checkNull(writer);
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("Buffer size must be at least 1: " + bufferSize);
+    }
+    this.writer = writer;
+    this.buffer = new char[bufferSize];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(CharSequence chars) {
+    CharSequence sequence = (chars == null) ? "null" : chars;
+    int length = sequence.length();
+    if (length > this.buffer.length) {
+      drain();
+      write(sequence.toString());
+      return;
+    }
+    if (this.count + length > this.buffer.length) {
+      drain();
+    }
+    if (sequence instanceof String) {
+      ((String) sequence).getChars(0, length, this.buffer, this.count);
+    }
+    else if (sequence instanceof StringBuilder) {
+      ((StringBuilder) sequence).getChars(0, length, this.buffer, this.count);
+    }
+    else {
+      for (int index = 0; index < length; index++) {
+        this.buffer[this.count + index] = sequence.charAt(index);
+      }
+    }
+    this.count += length;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(char c) {
+    if (this.count == this.buffer.length) {
+      drain();
+    }
+    this.buffer[this.count++] = c;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void print(long value) {
+    print(Long.toString(value));
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void println(CharSequence chars) {
+    print(chars);
+    println();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void println() {
+    print(LINE_SEPARATOR);
+  }
+
+  /**
+   * {@inheritDoc}
+   * 
+   * @throws IllegalStateException If the results could not be written.
+   */
+  @Override
+  public void flush() {
+    drain();
+    try {
+      this.writer.flush();
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Unable to write results: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Writes the contents of the buffer to the writer and empties the buffer.
+   */
+  private void drain() {
+    if (this.count > 0) {
+      try {
+        this.writer.write(this.buffer, 0, this.count);
+      }
+      catch (IOException e) {
+        throw new IllegalStateException("Unable to write results: " + e.getMessage(), e);
+      }
+      this.count = 0;
+    }
+  }
+
+  /**
+   * Writes a string that is larger than the buffer directly to the writer.
+   * 
+   * @param string The string to write.
+   */
+  private void write(String string) {
+    try {
+      this.writer.write(string);
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Unable to write results: " + e.getMessage(), e);
+    }
+  }
+}
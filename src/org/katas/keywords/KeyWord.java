@@ -90,7 +90,7 @@ public class KeyWord extends Kata {
     }
 
     for (String result : this.results) {
-      System.out.println(result);
+      out.println(result);
     }
   }
 
@@ -99,7 +99,7 @@ public class KeyWord extends Kata {
    */
   private void processFile() {
     while (!this.lines.isEmpty()) {
-      String line = this.lines.remove(0);
+      String line = this.lines.next();
       // This line is a profile.
       if (line.contains("P:")) {
         line = line.replace("P:", "").toLowerCase();
@@ -156,10 +156,10 @@ public class KeyWord extends Kata {
     }
 
     KeyWord keywords = new KeyWord();
-    keywords.setLines(KataUtils.readLines(args[0]));
+    keywords.setLines(KataUtils.openLines(args[0]));
 
     if (keywords.getLines() != null) {
-      keywords.processLines();
+      keywords.run();
     }
   }
 }
@@ -79,13 +79,16 @@ public class KeyWordInContext extends Kata {
       return;
     }
 
-    processKeywords();
+    // Every title is searched once per keyword, so all of them are kept in memory.
+    List<String> titleList = this.lines.toList();
+
+    processKeywords(titleList);
 
     Collections.sort(this.keywordsList);
     Set<String> titles = new LinkedHashSet<String>(); // No repeats, keeps insertion order.
 
     for (String word : this.keywordsList) {
-      for (String title : this.lines) {
+      for (String title : titleList) {
         if (title.toLowerCase(Locale.US).contains(word.toLowerCase(Locale.US))) {
           titles.addAll(KataUtils.replace(title.toLowerCase(Locale.US),
               word.toLowerCase(Locale.US), word.toUpperCase(Locale.US)));
@@ -94,7 +97,7 @@ public class KeyWordInContext extends Kata {
     }
 
     for (String title : titles) {
-      System.out.println(title);
+      out.println(title);
     }
   }
 
@@ -104,10 +107,10 @@ public class KeyWordInContext extends Kata {
    */
   private void processIgnoreWords() {
     if (!this.lines.isEmpty()) {
-      String line = this.lines.remove(0).toLowerCase();
+      String line = this.lines.next().toLowerCase();
       while (!line.equals(SEPARATOR)) {
         this.ignoreWordsList.add(line);
-        line = this.lines.remove(0).toLowerCase();
+        line = this.lines.next().toLowerCase();
       }
     }
   }
@@ -115,9 +118,11 @@ public class KeyWordInContext extends Kata {
   /**
    * Processes each line and puts all of the words from each that are not in the ignore list in the
    * list of keywords, which is used for sorting the titles.
+   * 
+   * @param titleList The list of titles.
    */
-  private void processKeywords() {
-    for (String line : this.lines) {
+  private void processKeywords(List<String> titleList) {
+    for (String line : titleList) {
       @SuppressWarnings("unchecked")
       List<String> keywords = (List<String>) KataUtils.createList(line, " ", KataEnums.STRING);
       for (int index = 0; index < keywords.size(); index++) {
@@ -141,10 +146,10 @@ public class KeyWordInContext extends Kata {
     }
 
     KeyWordInContext kwic = new KeyWordInContext();
-    kwic.setLines(KataUtils.readLines(args[0]));
+    kwic.setLines(KataUtils.openLines(args[0]));
 
     if (kwic.getLines() != null) {
-      kwic.processLines();
+      kwic.run();
     }
   }
 
@@ -36,23 +36,24 @@ public class LinearEquationSolver extends Kata {
   public void processLines() {
     int numLines = 0;
     try {
-      numLines = Integer.parseInt(this.lines.get(0));
-      this.lines.remove(0);
+      numLines = Integer.parseInt(this.lines.peek());
+      this.lines.next();
     }
     catch (NumberFormatException e) {
-      System.err.print("Invalid argument: " + this.lines.get(0));
+      System.err.print("Invalid argument: " + this.lines.peek());
       System.err.println(". Expected a value for the number of equations to process.");
       return;
     }
 
-    if (numLines != this.lines.size()) {
+    // The number of equations is checked before any of them are solved.
+    List<String> equations = this.lines.toList();
+    if (numLines != equations.size()) {
       System.err.print("Expected " + numLines + " equations. ");
-      System.err.println("Found " + this.lines.size() + ".");
+      System.err.println("Found " + equations.size() + ".");
       return;
     }
 
-    while (!this.lines.isEmpty()) {
-      String equation = this.lines.remove(0);
+    for (String equation : equations) {
       List<String> variablesL = new ArrayList<String>();
       List<String> constantsL = new ArrayList<String>();
       List<String> variablesR = new ArrayList<String>();
@@ -76,7 +77,27 @@ public class LinearEquationSolver extends Kata {
         processSide(tokenizer, variablesR, constantsR);
       }
 
-      solve(variablesL, constantsL, variablesR, constantsR);
+      printSolution(solve(variablesL, constantsL, variablesR, constantsR));
+    }
+  }
+
+  /**
+   * Prints the solution to an equation.
+   * 
+   * @param solution The value returned by {@link #solve(List, List, List, List)}.
+   */
+  private void printSolution(double solution) {
+    if (Double.isInfinite(solution)) {
+      this.out.println("IDENTITY");
+    }
+    else if (Double.isNaN(solution)) {
+      this.out.println("IMPOSSIBLE");
+    }
+    else if (solution == 0.0) {
+      this.out.println("0");
+    }
+    else {
+      this.out.println(Double.toString(solution));
     }
   }
 
@@ -113,17 +134,13 @@ public class LinearEquationSolver extends Kata {
       constantSum *= -1;
     }
 
-    // Print results.
     if (variableSum == 0 && constantSum == 0) {
-      System.out.println("IDENTITY");
       return Double.POSITIVE_INFINITY;
     }
     else if (variableSum == 0) {
-      System.out.println("IMPOSSIBLE");
       return Double.NaN;
     }
     else if (constantSum == 0) {
-      System.out.println(0);
       return 0.0;
     }
     else {
@@ -134,7 +151,6 @@ public class LinearEquationSolver extends Kata {
       else {
         result = constantSum;
       }
-      System.out.println(result);
       return result;
     }
   }
@@ -244,10 +260,10 @@ public class LinearEquationSolver extends Kata {
     }
 
     LinearEquationSolver solver = new LinearEquationSolver();
-    solver.setLines(KataUtils.readLines(args[0]));
+    solver.setLines(KataUtils.openLines(args[0]));
 
     if (solver.getLines() != null) {
-      solver.processLines();
+      solver.run();
     }
   }
 
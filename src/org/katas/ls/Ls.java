@@ -5,6 +5,8 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import org.katas.common.Kata;
+import org.katas.common.LineSource;
+import org.katas.common.ResultSink;
 import com.bpd.utils.validation.Validator;
 
 /**
@@ -22,23 +24,23 @@ public class Ls extends Kata {
   /** {@inheritDoc} */
   @Override
   public void processLines() {
-    printTables(lines);
+    printTables(lines, out);
   }
 
   /**
-   * Prints one or more tables containing filenames to the screen.
+   * Prints one or more tables containing filenames to the given sink.
    * 
-   * @param filenames The list of filenames to process.
+   * @param filenames The source of the filenames to process.
+   * @param out The sink to which the tables are printed.
    */
-  protected static void printTables(List<String> filenames) {
-    for (int index = 0; index < filenames.size(); index++) {
-      int numberOfLines = Integer.parseInt(filenames.remove(index));
+  protected static void printTables(LineSource filenames, ResultSink out) {
+    while (!filenames.isEmpty()) {
+      int numberOfLines = Integer.parseInt(filenames.next());
       List<String> files = new ArrayList<>();
       for (int counter = 0; counter < numberOfLines; counter++) {
-        files.add(filenames.remove(index));
+        files.add(filenames.next());
       }
-      System.out.println(getFilesTable(files));
-      index--;
+      out.println(getFilesTable(files));
     }
   }
 
@@ -21,8 +21,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.StringTokenizer;
-import org.katas.common.Kata;
 import org.katas.common.KataUtils;
+import org.katas.common.MultiCaseKata;
 
 /**
  * A program that will display hint numbers for each grid in the Minesweeper game.
@@ -30,86 +30,340 @@ import org.katas.common.KataUtils;
  * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
  * @see <a href="http://www.bjpeterdelacruz.com/files/katas/Minesweeper.pdf">Minesweeper</a>
  */
-final class Minesweeper extends Kata {
+final class Minesweeper extends MultiCaseKata<Minesweeper.Field> {
 
-  private final Map<Integer, List<MinesweeperSquare<Number, Number>>> minesweeperGrid =
-      new HashMap<Integer, List<MinesweeperSquare<Number, Number>>>();
-  private int numRows, numColumns;
+  private final Grid grid = new Grid();
 
-  /** {@inheritDoc} */
-  @Override
-  public void processLines() {
-    int numGrids = 1;
-    while (!this.lines.isEmpty()) {
-      String info = this.lines.remove(0);
-      StringTokenizer tokenizer = new StringTokenizer(info);
-      if (tokenizer.countTokens() != 2) {
-        String msg = "Expected 2 arguments: number of rows and number of columns.";
-        throw new IllegalArgumentException(msg);
+  /**
+   * A field read in from a file: its dimensions and its rows, which have not been parsed yet.
+   */
+  static final class Field {
+
+    private final int numRows;
+    private final int numColumns;
+    private final List<String> rows = new ArrayList<String>();
+
+    /**
+     * Creates a new Field.
+     * 
+     * @param numRows The number of rows.
+     * @param numColumns The number of columns.
+     */
+    Field(int numRows, int numColumns) {
+      this.numRows = numRows;
+      this.numColumns = numColumns;
+    }
+  }
+
+  /**
+   * The squares of one field and the number of mines next to each of them. A grid is all that is
+   * needed to solve a field, so each case gets its own grid rather than its own kata.
+   */
+  static final class Grid {
+
+    private final Map<Integer, List<MinesweeperSquare<Number, Number>>> minesweeperGrid =
+        new HashMap<Integer, List<MinesweeperSquare<Number, Number>>>();
+    private int numRows, numColumns;
+
+    /**
+     * Sets the number of rows.
+     * 
+     * @param numRows The number of rows.
+     */
+    void setNumRows(int numRows) {
+      this.numRows = numRows;
+    }
+
+    /**
+     * Sets the number of columns.
+     * 
+     * @param numColumns The number of columns.
+     */
+    void setNumColumns(int numColumns) {
+      this.numColumns = numColumns;
+    }
+
+    /**
+     * Adds the given line to the grid.
+     * 
+     * @param line The line that contains the row to add.
+     * @param rowCount The current row number.
+     * @return The number of columns.
+     */
+    int addRow(String line, int rowCount) {
+      StringTokenizer tokenizer = new StringTokenizer(line);
+      int counter = 1;
+      while (tokenizer.hasMoreTokens()) {
+        String token = tokenizer.nextToken();
+        MinesweeperSquare<Number, Number> square;
+        if ("*".equals(token)) {
+          square = new MinesweeperSquare<Number, Number>(rowCount, counter, true);
+        }
+        else if (".".equals(token)) {
+          square = new MinesweeperSquare<Number, Number>(rowCount, counter, false);
+        }
+        else {
+          throw new IllegalArgumentException("Invalid character: " + token);
+        }
+        if (!this.minesweeperGrid.containsKey(rowCount)) {
+          this.minesweeperGrid.put(rowCount, new ArrayList<MinesweeperSquare<Number, Number>>());
+        }
+        this.minesweeperGrid.get(rowCount).add(square);
+        counter++;
       }
+      return counter - 1;
+    }
 
-      this.numRows = Integer.parseInt(tokenizer.nextToken());
-      this.numColumns = Integer.parseInt(tokenizer.nextToken());
-      int rowCount = 1;
-      for (int index = 0; index < this.numRows && !this.lines.isEmpty(); index++, rowCount++) {
-        String line = this.lines.remove(0);
-        int columnCount = addRow(line, rowCount);
-        if (columnCount != this.numColumns) {
-          String msg = "Expected " + this.numColumns + " columns. ";
-          msg += "Found " + columnCount + ".";
-          throw new IllegalArgumentException(msg);
+    /**
+     * Iterates through each row and column, and processes squares that contain mines.
+     */
+    void processGrid() {
+      for (Entry<Integer, List<MinesweeperSquare<Number, Number>>> entry : this.minesweeperGrid
+          .entrySet()) {
+        for (MinesweeperSquare<Number, Number> square : entry.getValue()) {
+          processMine(square);
         }
       }
-      if (--rowCount != this.numRows) {
-        String msg = "Expected " + this.numRows + " rows. ";
-        msg += "Found " + rowCount + ".";
-        throw new IllegalArgumentException(msg);
+    }
+
+    /**
+     * Given a square that contains a mine, updates the number of mines in the surrounding squares.
+     * 
+     * @param square The square that contains a mine.
+     */
+    void processMine(MinesweeperSquare<Number, Number> square) {
+      if (!square.isMineLocatedHere()) {
+        return;
       }
 
-      processGrid();
-      // printGrid();
-      // System.out.println();
-      System.out.println("Field #" + numGrids++);
-      printGridHints();
-      System.out.println();
-      this.minesweeperGrid.clear();
+      /** Corners **/
+      if (square.getX().intValue() == 1 && square.getY().intValue() == 1) {
+        // Right neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue());
+        // Right-bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue());
+        // Bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
+      }
+      else if (square.getX().intValue() == 1 && square.getY().intValue() == this.numColumns) {
+        // Left neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
+        // Left-bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 2);
+        // Bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
+      }
+      else if (square.getX().intValue() == this.numRows
+          && square.getY().intValue() == this.numColumns) {
+        // Left neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
+        // Left-top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 2);
+        // Top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
+      }
+      else if (square.getX().intValue() == this.numRows && square.getY().intValue() == 1) {
+        // Right neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue());
+        // Right-top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue());
+        // Top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
+      }
+      /** Sides **/
+      else if (square.getX().intValue() == 1) {
+        // Left neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
+        // Left-bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 2);
+        // Bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
+        // Right-bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue());
+        // Right neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue());
+      }
+      else if (square.getX().intValue() == this.numRows) {
+        // Left neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
+        // Left-top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 2);
+        // Top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
+        // Right-top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue());
+        // Right neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue());
+      }
+      else if (square.getY().intValue() == 1) {
+        // Top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
+        // Right-top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue());
+        // Right neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue());
+        // Right-bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue());
+        // Bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
+      }
+      else if (square.getY().intValue() == this.numColumns) {
+        // Bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
+        // Left-bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 2);
+        // Left neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
+        // Left-top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 2);
+        // Top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
+      }
+      /** Anywhere else inside the grid. */
+      else {
+        // Left neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
+        // Left-top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 2);
+        // Top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
+        // Right-top neighbor
+        incrementCount(square.getX().intValue() - 1, square.getY().intValue());
+        // Right neighbor
+        incrementCount(square.getX().intValue(), square.getY().intValue());
+        // Right-bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue());
+        // Bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
+        // Left-bottom neighbor
+        incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 2);
+      }
     }
-  }
 
-  /**
-   * Prints the grid as displayed in the input file.
-   */
-  @SuppressWarnings("unused")
-  private void printGrid() {
-    for (Entry<Integer, List<MinesweeperSquare<Number, Number>>> entry : this.minesweeperGrid
-        .entrySet()) {
-      for (MinesweeperSquare<Number, Number> square : entry.getValue()) {
-        if (square.isMineLocatedHere()) {
-          System.out.print("*");
+    /**
+     * Increments the number of mines that the square at (row, column) is next to.
+     * 
+     * @param row The row number.
+     * @param column The column number.
+     */
+    private void incrementCount(int row, int column) {
+      if (this.minesweeperGrid.containsKey(row) && column > -1
+          && column < this.minesweeperGrid.get(row).size()
+          && !this.minesweeperGrid.get(row).get(column).isMineLocatedHere()) {
+        this.minesweeperGrid.get(row).get(column).incrementNumSurroundingMines();
+      }
+    }
+
+    /**
+     * Returns the square at (row, column) in the grid.
+     * 
+     * @param row The row number.
+     * @param column The column number.
+     * @return The square at (row, column) in the grid.
+     */
+    MinesweeperSquare<Number, Number> getSquareAt(int row, int column) {
+      if (this.minesweeperGrid.containsKey(row)) {
+        if (column >= 1 && column <= this.minesweeperGrid.get(row).size()) {
+          return this.minesweeperGrid.get(row).get(column - 1);
         }
         else {
-          System.out.print(".");
+          return null;
+        }
+      }
+      else {
+        return null;
+      }
+    }
+
+    /**
+     * Appends the grid with hint numbers to the given builder.
+     * 
+     * @param builder The builder to which the grid is appended.
+     */
+    void appendGridHints(StringBuilder builder) {
+      for (Entry<Integer, List<MinesweeperSquare<Number, Number>>> entry : this.minesweeperGrid
+          .entrySet()) {
+        for (MinesweeperSquare<Number, Number> square : entry.getValue()) {
+          if (square.isMineLocatedHere()) {
+            builder.append('*');
+          }
+          else {
+            builder.append(square.getNumSurroundingMines());
+          }
         }
+        builder.append('\n');
+      }
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected Field readCase() {
+    if (this.lines.isEmpty()) {
+      return null;
+    }
+    String info = this.lines.next();
+    StringTokenizer tokenizer = new StringTokenizer(info);
+    if (tokenizer.countTokens() != 2) {
+      String msg = "Expected 2 arguments: number of rows and number of columns.";
+      throw new IllegalArgumentException(msg);
+    }
+
+    int rows = Integer.parseInt(tokenizer.nextToken());
+    int columns = Integer.parseInt(tokenizer.nextToken());
+    Field field = new Field(rows, columns);
+    for (int index = 0; index < rows && !this.lines.isEmpty(); index++) {
+      field.rows.add(this.lines.next());
+    }
+    if (field.rows.size() != rows) {
+      String msg = "Expected " + rows + " rows. ";
+      msg += "Found " + field.rows.size() + ".";
+      throw new IllegalArgumentException(msg);
+    }
+    return field;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected String solveCase(int caseNumber, Field field) {
+    // Each field gets its own grid so that fields can be solved at the same time.
+    Grid fieldGrid = new Grid();
+    fieldGrid.setNumRows(field.numRows);
+    fieldGrid.setNumColumns(field.numColumns);
+    int rowCount = 1;
+    for (String line : field.rows) {
+      int columnCount = fieldGrid.addRow(line, rowCount++);
+      if (columnCount != field.numColumns) {
+        String msg = "Expected " + field.numColumns + " columns. ";
+        msg += "Found " + columnCount + ".";
+        throw new IllegalArgumentException(msg);
       }
-      System.out.println();
     }
+
+    fieldGrid.processGrid();
+    StringBuilder builder = new StringBuilder();
+    builder.append("Field #").append(caseNumber).append('\n');
+    fieldGrid.appendGridHints(builder);
+    builder.append('\n');
+    return builder.toString();
   }
 
   /**
-   * Prints the grid with hint numbers.
+   * Prints the grid as displayed in the input file.
    */
-  private void printGridHints() {
-    for (Entry<Integer, List<MinesweeperSquare<Number, Number>>> entry : this.minesweeperGrid
+  @SuppressWarnings("unused")
+  private void printGrid() {
+    for (Entry<Integer, List<MinesweeperSquare<Number, Number>>> entry : this.grid.minesweeperGrid
         .entrySet()) {
       for (MinesweeperSquare<Number, Number> square : entry.getValue()) {
         if (square.isMineLocatedHere()) {
-          System.out.print("*");
+          out.print("*");
         }
         else {
-          System.out.print(square.getNumSurroundingMines());
+          out.print(".");
         }
       }
-      System.out.println();
+      out.println();
     }
   }
 
@@ -118,12 +372,12 @@ final class Minesweeper extends Kata {
    */
   @SuppressWarnings("unused")
   private void printGridInformation() {
-    for (Entry<Integer, List<MinesweeperSquare<Number, Number>>> entry : this.minesweeperGrid
+    for (Entry<Integer, List<MinesweeperSquare<Number, Number>>> entry : this.grid.minesweeperGrid
         .entrySet()) {
       for (MinesweeperSquare<Number, Number> square : entry.getValue()) {
-        System.out.println(square);
+        out.println(square.toString());
       }
-      System.out.println();
+      out.println();
     }
   }
 
@@ -135,39 +389,7 @@ final class Minesweeper extends Kata {
    * @return The number of columns.
    */
   protected int addRow(String line, int rowCount) {
-    StringTokenizer tokenizer = new StringTokenizer(line);
-    int counter = 1;
-    while (tokenizer.hasMoreTokens()) {
-      String token = tokenizer.nextToken();
-      MinesweeperSquare<Number, Number> square;
-      if ("*".equals(token)) {
-        square = new MinesweeperSquare<Number, Number>(rowCount, counter, true);
-      }
-      else if (".".equals(token)) {
-        square = new MinesweeperSquare<Number, Number>(rowCount, counter, false);
-      }
-      else {
-        throw new IllegalArgumentException("Invalid character: " + token);
-      }
-      if (!this.minesweeperGrid.containsKey(rowCount)) {
-        this.minesweeperGrid.put(rowCount, new ArrayList<MinesweeperSquare<Number, Number>>());
-      }
-      this.minesweeperGrid.get(rowCount).add(square);
-      counter++;
-    }
-    return counter - 1;
-  }
-
-  /**
-   * Iterates through each row and column, and processes squares that contain mines.
-   */
-  private void processGrid() {
-    for (Entry<Integer, List<MinesweeperSquare<Number, Number>>> entry : this.minesweeperGrid
-        .entrySet()) {
-      for (MinesweeperSquare<Number, Number> square : entry.getValue()) {
-        processMine(square);
-      }
-    }
+    return this.grid.addRow(line, rowCount);
   }
 
   /**
@@ -176,126 +398,7 @@ final class Minesweeper extends Kata {
    * @param square The square that contains a mine.
    */
   protected void processMine(MinesweeperSquare<Number, Number> square) {
-    if (!square.isMineLocatedHere()) {
-      return;
-    }
-
-    /** Corners **/
-    if (square.getX().intValue() == 1 && square.getY().intValue() == 1) {
-      // Right neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue());
-      // Right-bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue());
-      // Bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
-    }
-    else if (square.getX().intValue() == 1 && square.getY().intValue() == this.numColumns) {
-      // Left neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
-      // Left-bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 2);
-      // Bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
-    }
-    else if (square.getX().intValue() == this.numRows
-        && square.getY().intValue() == this.numColumns) {
-      // Left neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
-      // Left-top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 2);
-      // Top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
-    }
-    else if (square.getX().intValue() == this.numRows && square.getY().intValue() == 1) {
-      // Right neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue());
-      // Right-top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue());
-      // Top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
-    }
-    /** Sides **/
-    else if (square.getX().intValue() == 1) {
-      // Left neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
-      // Left-bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 2);
-      // Bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
-      // Right-bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue());
-      // Right neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue());
-    }
-    else if (square.getX().intValue() == this.numRows) {
-      // Left neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
-      // Left-top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 2);
-      // Top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
-      // Right-top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue());
-      // Right neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue());
-    }
-    else if (square.getY().intValue() == 1) {
-      // Top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
-      // Right-top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue());
-      // Right neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue());
-      // Right-bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue());
-      // Bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
-    }
-    else if (square.getY().intValue() == this.numColumns) {
-      // Bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
-      // Left-bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 2);
-      // Left neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
-      // Left-top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 2);
-      // Top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
-    }
-    /** Anywhere else inside the grid. */
-    else {
-      // Left neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue() - 2);
-      // Left-top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 2);
-      // Top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue() - 1);
-      // Right-top neighbor
-      incrementCount(square.getX().intValue() - 1, square.getY().intValue());
-      // Right neighbor
-      incrementCount(square.getX().intValue(), square.getY().intValue());
-      // Right-bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue());
-      // Bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 1);
-      // Left-bottom neighbor
-      incrementCount(square.getX().intValue() + 1, square.getY().intValue() - 2);
-    }
-  }
-
-  /**
-   * Increments the number of mines that the square at (row, column) is next to.
-   * 
-   * @param row The row number.
-   * @param column The column number.
-   */
-  private void incrementCount(int row, int column) {
-    if (this.minesweeperGrid.containsKey(row) && column > -1
-        && column < this.minesweeperGrid.get(row).size()
-        && !this.minesweeperGrid.get(row).get(column).isMineLocatedHere()) {
-      this.minesweeperGrid.get(row).get(column).incrementNumSurroundingMines();
-    }
+    this.grid.processMine(square);
   }
 
   /**
@@ -304,7 +407,7 @@ final class Minesweeper extends Kata {
    * @param numRows The number of rows.
    */
   protected void setNumRows(int numRows) {
-    this.numRows = numRows;
+    this.grid.setNumRows(numRows);
   }
 
   /**
@@ -313,7 +416,7 @@ final class Minesweeper extends Kata {
    * @param numColumns The number of columns.
    */
   protected void setNumColumns(int numColumns) {
-    this.numColumns = numColumns;
+    this.grid.setNumColumns(numColumns);
   }
 
   /**
@@ -324,17 +427,7 @@ final class Minesweeper extends Kata {
    * @return The square at (row, column) in the grid.
    */
   protected MinesweeperSquare<Number, Number> getSquareAt(int row, int column) {
-    if (this.minesweeperGrid.containsKey(row)) {
-      if (column >= 1 && column <= this.minesweeperGrid.get(row).size()) {
-        return this.minesweeperGrid.get(row).get(column - 1);
-      }
-      else {
-        return null;
-      }
-    }
-    else {
-      return null;
-    }
+    return this.grid.getSquareAt(row, column);
   }
 
   /**
@@ -350,10 +443,10 @@ final class Minesweeper extends Kata {
     }
 
     Minesweeper minesweeper = new Minesweeper();
-    minesweeper.setLines(KataUtils.readLines(args[0]));
+    minesweeper.setLines(KataUtils.openLines(args[0]));
 
     if (minesweeper.getLines() != null) {
-      minesweeper.processLines();
+      minesweeper.run();
     }
   }
 
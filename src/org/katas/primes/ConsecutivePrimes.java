@@ -15,17 +15,21 @@
  ******************************************************************************/
 package org.katas.primes;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import com.bpd.utils.validation.Validator;
 
 /**
  * This class contains methods that find the number of representations for a given positive integer.
+ * One instance can be shared by several threads; the representations of recently queried numbers
+ * are kept in a bounded cache.
+ * 
+ * <p>
+ * If the {@value #SNAPSHOT_PROPERTY} system property names a file, the table of prime numbers is
+ * loaded from that file when an instance is created and saved to it as larger numbers are sieved,
+ * so that the primes do not have to be found again the next time the JVM starts.
+ * </p>
  * 
  * @author BJ Peter DeLaCruz
  * @see <a href="http://www.bjpeterdelacruz.com/files/katas/1210_Consecutive_Primes.pdf">Consecutive
@@ -33,60 +37,149 @@ import com.bpd.utils.validation.Validator;
  */
 final class ConsecutivePrimes {
 
-  private final Set<Integer> primes = new LinkedHashSet<Integer>();
-  private final Set<Integer> composites = new HashSet<Integer>();
-  private final Map<Integer, List<List<Integer>>> resultsMap =
-      new HashMap<Integer, List<List<Integer>>>();
+  /** The system property that names the file in which the table of prime numbers is saved. */
+  static final String SNAPSHOT_PROPERTY = "katas.primes.snapshot";
+
+  /** The largest number in a batch; the counts are kept in an array indexed by number. */
+  static final int MAX_BATCH_NUMBER = Integer.MAX_VALUE - 8;
+
+  private final PrimeSieve sieve = new PrimeSieve();
+  /** The file in which the table of prime numbers is saved, or null if it is not saved. */
+  private final PrimeSnapshot snapshot;
+  /** The representations of recently queried numbers, as pairs of start indexes and lengths. */
+  private final ResultCache cache;
+  /** The number of representations of every number up to a limit, used by batch queries. */
+  private volatile byte[] counts = new byte[0];
+
+  /**
+   * Creates a new ConsecutivePrimes object with a cache of the default size.
+   */
+  ConsecutivePrimes() {
+    this(ResultCache.DEFAULT_MAX_BYTES, System.getProperty(SNAPSHOT_PROPERTY) == null ? null
+        : new File(System.getProperty(SNAPSHOT_PROPERTY)));
+  }
 
   /**
-   * Finds all prime numbers that are less than the given number.
+   * Creates a new ConsecutivePrimes object.
    * 
-   * @param number The number for which to find the number of representations.
+   * @param maxCacheBytes The limit on the estimated size of the cache of representations, in bytes.
    */
-  private void sieveEratosthenes(int number) {
-    Validator.checkNegative(number);
+  ConsecutivePrimes(long maxCacheBytes) {
+    this(maxCacheBytes, null);
+  }
 
-    for (int n = 2; n <= number; n++) {
-      if (composites.contains(n)) {
-        continue;
+  /**
+   * Creates a new ConsecutivePrimes object that loads the table of prime numbers from the given
+   * file, if it exists, and saves the table to it as larger numbers are sieved.
+   * 
+   * @param maxCacheBytes The limit on the estimated size of the cache of representations, in bytes.
+   * @param snapshotFile The file in which the table of prime numbers is saved, or null if it should
+   * not be saved.
+   */
+  ConsecutivePrimes(long maxCacheBytes, File snapshotFile) {
+    this.cache = new ResultCache(maxCacheBytes);
+    this.snapshot = (snapshotFile == null) ? null : new PrimeSnapshot(snapshotFile);
+    if (this.snapshot != null) {
+      try {
+        this.snapshot.load(sieve);
       }
-      primes.add(n);
-      for (int sum = n + n; sum <= number; sum += n) {
-        composites.add(sum);
+      catch (IOException e) {
+        System.err.println("Unable to load prime numbers, finding them again: " + e.getMessage());
       }
     }
   }
 
   /**
-   * Counts the number of representations for the given number and stores the results in a map.
+   * Gets the cache of representations.
+   * 
+   * @return The cache of representations.
+   */
+  ResultCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Sets the number of threads that sieve a large range of numbers.
+   * 
+   * @param parallelism The number of threads that sieve a large range of numbers.
+   */
+  void setParallelism(int parallelism) {
+    sieve.setParallelism(parallelism);
+  }
+
+  /**
+   * Finds all of the prime numbers up to the given number ahead of time, so that queries for
+   * numbers up to it do not have to wait for the sieve. Queries for numbers that have already been
+   * sieved can run while this method is running.
+   * 
+   * @param number The largest number that will be sieved.
+   */
+  void precompute(int number) {
+    sieve.sieveTo(number);
+    saveSnapshot(true);
+  }
+
+  /**
+   * Saves the new prime numbers in the table to the snapshot file, if there is one. Unless forced,
+   * the table is only saved once the largest number that was sieved has doubled since it was last
+   * saved, so that many small queries do not each write to the file.
+   * 
+   * @param force True to save the table even if only a few more numbers were sieved.
+   */
+  private void saveSnapshot(boolean force) {
+    if (snapshot == null || (!force && sieve.getLimit() / 2 < snapshot.getLimit())) {
+      return;
+    }
+    try {
+      snapshot.save(sieve);
+    }
+    catch (IOException e) {
+      System.err.println("Unable to save prime numbers: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Finds the representations for the given number, using the cache if possible. A window of
+   * consecutive primes slides over the table of primes: primes are added to the right end of the
+   * window while its sum is too small and removed from the left end while its sum is too large, so
+   * every prime enters and leaves the window at most once.
    * 
    * @param number The number for which to find the number of representations.
+   * @return Pairs of start indexes and lengths of the representations.
    */
-  private void countSum(int number) {
+  private int[] countSum(int number) {
     Validator.checkNegative(number);
 
-    if (resultsMap.get(number) != null) {
-      return;
+    int[] cached = cache.get(number);
+    if (cached != null) {
+      return cached;
     }
 
     // Find all prime numbers first.
-    sieveEratosthenes(number);
-
-    List<Integer> primes = new ArrayList<Integer>(this.primes);
-    List<List<Integer>> resultsList = new ArrayList<List<Integer>>();
-    for (int i = 0; i < primes.size() && primes.get(i) <= number; i++) {
-      List<Integer> results = new ArrayList<Integer>();
-      int sum = primes.get(i);
-      results.add(sum);
-      for (int j = i + 1; j < primes.size() && sum < number; j++) {
-        sum += primes.get(j);
-        results.add(primes.get(j));
+    int count = sieve.countTo(number);
+    int[] primes = sieve.getPrimes();
+    saveSnapshot(false);
+
+    int[] runs = new int[2];
+    int size = 0;
+    int low = 0;
+    long sum = 0;
+    for (int high = 0; high < count; high++) {
+      sum += primes[high];
+      while (sum > number) {
+        sum -= primes[low++];
       }
       if (sum == number) {
-        resultsList.add(results);
+        if (size == runs.length) {
+          runs = Arrays.copyOf(runs, size * 2);
+        }
+        runs[size++] = low;
+        runs[size++] = high - low + 1;
       }
     }
-    resultsMap.put(number, resultsList);
+    runs = Arrays.copyOf(runs, size);
+    cache.put(number, runs);
+    return runs;
   }
 
   /**
@@ -98,8 +191,75 @@ final class ConsecutivePrimes {
   protected Integer getCount(int number) {
     Validator.checkNegative(number);
 
-    countSum(number);
-    return resultsMap.get(number).size();
+    return countSum(number).length / 2;
+  }
+
+  /**
+   * Returns the number of representations for each of the given numbers. Instead of finding the
+   * representations of each number separately, the sums of all runs of consecutive primes up to the
+   * largest number are counted in one pass, so a batch of millions of numbers costs about as much
+   * as its largest number; the counts are kept for later batches.
+   * 
+   * @param numbers The numbers for which to find the number of representations.
+   * @return The number of representations for each number, in the same order.
+   * @throws IllegalArgumentException If a number is negative or greater than
+   * {@value #MAX_BATCH_NUMBER}.
+   */
+  protected int[] getCounts(int... numbers) {
+    Validator.checkNull(numbers);
+
+    int max = 0;
+    for (int number : numbers) {
+      Validator.checkNegative(number);
+      if (number > MAX_BATCH_NUMBER) {
+        throw new IllegalArgumentException("Number in batch is greater than " + MAX_BATCH_NUMBER
+            + ": " + number);
+      }
+      max = Math.max(max, number);
+    }
+    byte[] allCounts = counts;
+    if (max >= allCounts.length) {
+      synchronized (this) {
+        allCounts = counts;
+        if (max >= allCounts.length) {
+          allCounts = countAllSums(max);
+          counts = allCounts;
+        }
+      }
+    }
+
+    int[] results = new int[numbers.length];
+    for (int index = 0; index < numbers.length; index++) {
+      results[index] = allCounts[numbers[index]];
+    }
+    return results;
+  }
+
+  /**
+   * Counts the number of representations of every number up to the given number.
+   * 
+   * @param max The largest number, at most {@value #MAX_BATCH_NUMBER}.
+   * @return The number of representations of every number, indexed by number.
+   */
+  private byte[] countAllSums(int max) {
+    int count = sieve.countTo(max);
+    int[] primes = sieve.getPrimes();
+    saveSnapshot(false);
+    byte[] allCounts = new byte[max + 1];
+    for (int low = 0; low < count; low++) {
+      long sum = 0;
+      for (int high = low; high < count; high++) {
+        sum += primes[high];
+        if (sum > max) {
+          break;
+        }
+        if (allCounts[(int) sum] == Byte.MAX_VALUE) {
+          throw new IllegalStateException("Too many representations: " + sum);
+        }
+        allCounts[(int) sum]++;
+      }
+    }
+    return allCounts;
   }
 
   /**
@@ -109,15 +269,27 @@ final class ConsecutivePrimes {
    * @return A list of representations for the given number.
    */
   protected String getResults(int number) {
-    StringBuffer buffer = new StringBuffer();
-    if (resultsMap.get(number) == null && getCount(number) == 0) {
+    int[] runs = countSum(number);
+    if (runs.length == 0) {
       return "[]";
     }
-    for (List<Integer> list : resultsMap.get(number)) {
-      String temp = list + " ";
-      buffer.append(temp);
+
+    int[] primes = sieve.getPrimes();
+    StringBuilder builder = new StringBuilder();
+    for (int index = 0; index < runs.length; index += 2) {
+      if (index > 0) {
+        builder.append(' ');
+      }
+      builder.append('[');
+      for (int offset = 0; offset < runs[index + 1]; offset++) {
+        if (offset > 0) {
+          builder.append(", ");
+        }
+        builder.append(primes[runs[index] + offset]);
+      }
+      builder.append(']');
     }
-    return buffer.toString().substring(0, buffer.toString().length() - 1);
+    return builder.toString();
   }
 
 }
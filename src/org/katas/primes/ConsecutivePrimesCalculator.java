@@ -22,6 +22,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JButton;
@@ -29,6 +30,7 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.SwingWorker;
 import javax.swing.UIManager;
 
 /**
@@ -43,6 +45,9 @@ public class ConsecutivePrimesCalculator extends JFrame {
 
   private static final Logger LOGGER = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
 
+  /** The prime numbers up to this number are found on a background thread at startup. */
+  private static final int PRECOMPUTE_LIMIT = 100000000;
+
   static {
     try {
       UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -114,6 +119,31 @@ public class ConsecutivePrimesCalculator extends JFrame {
     pack();
     setLocationRelativeTo(null);
     setVisible(true);
+
+    precompute();
+  }
+
+  /**
+   * Finds the prime numbers up to {@link #PRECOMPUTE_LIMIT} on a background thread, using all of
+   * the available processors, so that the user interface stays responsive and later queries are
+   * fast.
+   */
+  private void precompute() {
+    engine.setParallelism(Runtime.getRuntime().availableProcessors());
+    Thread thread = new Thread(new Runnable() {
+
+      /** {@inheritDoc} */
+      @Override
+      public void run() {
+        long start = System.nanoTime();
+        engine.precompute(PRECOMPUTE_LIMIT);
+        LOGGER.log(Level.INFO, "Found the prime numbers up to " + PRECOMPUTE_LIMIT + " in "
+            + (System.nanoTime() - start) / 1000000 + " ms.");
+      }
+
+    }, "ConsecutivePrimes-precompute");
+    thread.setDaemon(true);
+    thread.start();
   }
 
   /**
@@ -179,14 +209,58 @@ public class ConsecutivePrimesCalculator extends JFrame {
       resultsLabel.setText(text);
       return;
     }
-    int count = engine.getCount(number);
     textField.setText("");
-    String text = "<html>Found <b>" + count + "</b> representations.</html>";
-    if (count == 1) {
-      text = text.replace("representations", "representation");
+    resultsLabel.setText("Finding representations...");
+    new FindSumsWorker(number).execute();
+  }
+
+  /**
+   * Finds the number of representations for a number on a background thread, so that the user
+   * interface does not freeze while the prime numbers are being found.
+   * 
+   * @author BJ Peter DeLaCruz
+   */
+  private class FindSumsWorker extends SwingWorker<Integer, Void> {
+
+    private final int number;
+
+    /**
+     * Creates a new FindSumsWorker.
+     * 
+     * @param number The number for which to find the number of representations.
+     */
+    FindSumsWorker(int number) {
+      this.number = number;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Integer doInBackground() {
+      int count = engine.getCount(number);
+      LOGGER.log(Level.INFO, number + ": " + engine.getResults(number));
+      return count;
     }
-    resultsLabel.setText(text);
-    LOGGER.log(Level.INFO, number + ": " + engine.getResults(number));
+
+    /** {@inheritDoc} */
+    @Override
+    protected void done() {
+      try {
+        int count = get();
+        String text = "<html>Found <b>" + count + "</b> representations.</html>";
+        if (count == 1) {
+          text = text.replace("representations", "representation");
+        }
+        resultsLabel.setText(text);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      catch (ExecutionException e) {
+        LOGGER.log(Level.SEVERE, "Unable to find representations: " + e.getCause());
+        resultsLabel.setText(" ");
+      }
+    }
+
   }
 
   /**
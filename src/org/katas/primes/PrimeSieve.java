@@ -0,0 +1,472 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.primes;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * Finds prime numbers with a segmented sieve of Eratosthenes. Only odd numbers are sieved, one bit
+ * per number, one cache-sized segment at a time, so sieving up to N needs only a fixed amount of
+ * memory on top of the table of primes that were found. The table is an <code>int[]</code> that
+ * grows as larger numbers are sieved; numbers that were already sieved are never sieved again.
+ * 
+ * <p>
+ * Large ranges can be sieved in parallel: the range is divided into blocks of segments that are
+ * sieved on a <code>ForkJoinPool</code>, and the primes in each block are appended to the table in
+ * order as soon as the blocks before it are done.
+ * </p>
+ * 
+ * <p>
+ * A sieve can be shared by several threads. Primes are only ever appended to the table, so the
+ * array returned by {@link #getPrimes()} can be read without locking, as long as only the primes
+ * that had been found when it was returned are read. Numbers that have already been sieved can be
+ * counted while a larger range is being sieved.
+ * </p>
+ * 
+ * <p>
+ * A table that was saved by a {@link PrimeSnapshot} can be restored instead of being found again;
+ * its primes are read in from the snapshot as they are needed.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+final class PrimeSieve {
+
+  /** The number of bytes in a segment; a segment should fit in the L1 or L2 cache. */
+  static final int SEGMENT_BYTES = 32 * 1024;
+
+  /** The number of odd numbers in a segment. */
+  private static final int SEGMENT_BITS = SEGMENT_BYTES * Byte.SIZE;
+
+  /** The number of segments in a block that is sieved by one task. */
+  private static final int SEGMENTS_PER_BLOCK = 8;
+
+  /** The number of blocks per worker whose primes may be waiting to be appended to the table. */
+  private static final int BLOCKS_PER_WORKER = 4;
+
+  private final long[] segment = new long[SEGMENT_BYTES / (Long.SIZE / Byte.SIZE)];
+  private int parallelism = 1;
+
+  // Primes are written to the table before the size is updated, and the size is updated before the
+  // limit is, so a thread that reads the limit, then the size, then the table sees a valid table.
+  private volatile int[] primes = { 2 };
+  private volatile int size = 1;
+  /** All of the primes that are less than or equal to this number are in the table. */
+  private volatile int limit = 2;
+
+  // Primes that were restored from a snapshot are read in from it one chunk at a time, as they are
+  // needed; until all of them have been read in, the table only holds the first size of them. The
+  // snapshot is set before the limit is, and cleared after the last of its primes is in the table.
+  private volatile PrimeSnapshot.MappedPrimes restored;
+
+  /**
+   * Sets the number of threads that sieve a large range.
+   * 
+   * @param parallelism The number of threads that sieve a large range; 1 sieves on the calling
+   * thread.
+   */
+  synchronized void setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+    }
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Finds all of the prime numbers that are less than or equal to the given number.
+   * 
+   * @param number The largest number to sieve.
+   */
+  void sieveTo(int number) {
+    Validator.checkNegative(number);
+    if (number <= this.limit) {
+      return;
+    }
+
+    synchronized (this) {
+      if (number <= this.limit) {
+        return;
+      }
+
+      // New primes are appended after all of the restored ones.
+      readRestored(Integer.MAX_VALUE);
+
+      // The primes up to the square root of the number are needed to sieve up to the number.
+      int root = (int) Math.sqrt(number);
+      if (root > this.limit) {
+        sieveTo(root);
+      }
+
+      ensureCapacity(number);
+
+      // Each segment starts at an odd number.
+      long low = this.limit + 1 + this.limit % 2;
+      long blockSize = 2L * SEGMENT_BITS * SEGMENTS_PER_BLOCK;
+      if (this.parallelism > 1 && number - low >= 2 * blockSize) {
+        sieveInParallel(low, number, blockSize);
+      }
+      else {
+        while (low <= number) {
+          long high = Math.min(number, low + 2L * SEGMENT_BITS - 1);
+          int bits = markComposites(this.primes, this.size, low, high, this.segment);
+          int count = this.size;
+          this.size = count + collectPrimes(this.segment, bits, low, this.primes, count);
+          low = high + 1 + high % 2;
+        }
+      }
+      this.limit = number;
+    }
+  }
+
+  /**
+   * Replaces the table with the primes in a snapshot that was saved earlier, e.g. by another JVM,
+   * if more numbers were sieved to find them. The primes are not read in from the snapshot until
+   * they are needed. A table should be restored before the sieve is shared by several threads.
+   * 
+   * @param snapshot The primes in the snapshot, in order.
+   * @param limit The largest number that was sieved to find the primes.
+   */
+  synchronized void restore(PrimeSnapshot.MappedPrimes snapshot, int limit) {
+    Validator.checkNull(snapshot);
+    if (limit <= this.limit) {
+      return;
+    }
+    this.restored = snapshot;
+    this.primes = new int[0];
+    this.size = 0;
+    this.limit = limit;
+  }
+
+  /**
+   * Reads in primes from the snapshot that the table was restored from, one chunk at a time, until
+   * the table holds all of the primes up to the given number. If a chunk is corrupt, the primes
+   * that were not read in yet are found again by sieving instead.
+   * 
+   * @param number The largest number whose primes should be in the table.
+   */
+  private synchronized void readRestored(int number) {
+    PrimeSnapshot.MappedPrimes snapshot = this.restored;
+    while (snapshot != null && (this.size == 0 || this.primes[this.size - 1] < number)) {
+      try {
+        append(snapshot.read(this.size));
+        if (this.size == snapshot.size()) {
+          snapshot = null;
+        }
+      }
+      catch (IOException e) {
+        System.err.println("Unable to read in prime numbers, finding them again: "
+            + e.getMessage());
+        if (this.size == 0) {
+          append(new int[] { 2 });
+        }
+        this.limit = this.primes[this.size - 1];
+        snapshot = null;
+      }
+    }
+    this.restored = snapshot;
+  }
+
+  /**
+   * Sieves a range one block at a time on a <code>ForkJoinPool</code>. At most a few blocks per
+   * worker are in flight at a time, so the primes that are waiting to be appended to the table take
+   * up a bounded amount of memory.
+   * 
+   * @param low The first number in the range, which must be odd.
+   * @param high The last number in the range.
+   * @param blockSize The number of numbers in a block, which must be even.
+   */
+  private void sieveInParallel(long low, long high, long blockSize) {
+    // The base primes are never modified while the range is sieved.
+    int[] basePrimes = this.primes;
+    int baseCount = this.size;
+
+    ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+    Deque<Future<int[]>> pending = new ArrayDeque<Future<int[]>>();
+    int maxPending = this.parallelism * BLOCKS_PER_WORKER;
+    try {
+      for (long start = low; start <= high; start += blockSize) {
+        long end = Math.min(high, start + blockSize - 1);
+        pending.add(pool.submit(new BlockTask(basePrimes, baseCount, start, end)));
+        while (pending.size() >= maxPending || (!pending.isEmpty() && pending.peek().isDone())) {
+          append(await(pending.poll()));
+        }
+      }
+      while (!pending.isEmpty()) {
+        append(await(pending.poll()));
+      }
+    }
+    finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Appends the primes in a block to the table.
+   * 
+   * @param block The primes in a block.
+   */
+  private void append(int[] block) {
+    int count = this.size;
+    if (count + block.length > this.primes.length) {
+      this.primes = Arrays.copyOf(this.primes, Math.max(count + block.length, count * 2));
+    }
+    System.arraycopy(block, 0, this.primes, count, block.length);
+    this.size = count + block.length;
+  }
+
+  /**
+   * Waits for a block to be sieved and returns its primes.
+   * 
+   * @param future The block that is being sieved.
+   * @return The primes in the block.
+   */
+  private static int[] await(Future<int[]> future) {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while sieving.", e);
+    }
+    catch (ExecutionException e) {
+      throw new IllegalStateException("Unable to sieve: " + e.getCause(), e.getCause());
+    }
+  }
+
+  /**
+   * Marks the odd composite numbers in a segment.
+   * 
+   * @param basePrimes A table that contains all of the primes up to the square root of the last
+   * number in the segment.
+   * @param baseCount The number of primes in the table.
+   * @param low The first number in the segment, which must be odd.
+   * @param high The last number in the segment.
+   * @param segment The bits of the segment; bit <i>i</i> is set if <code>low + 2i</code> is
+   * composite.
+   * @return The number of bits in the segment.
+   */
+  private static int markComposites(int[] basePrimes, int baseCount, long low, long high,
+      long[] segment) {
+    int bits = (int) ((high - low) / 2 + 1);
+    Arrays.fill(segment, 0, (bits + Long.SIZE - 1) / Long.SIZE, 0L);
+
+    // Skip 2; only odd numbers are in the segment.
+    for (int index = 1; index < baseCount; index++) {
+      long prime = basePrimes[index];
+      long square = prime * prime;
+      if (square > high) {
+        break;
+      }
+      long multiple = Math.max(square, (low + prime - 1) / prime * prime);
+      if (multiple % 2 == 0) {
+        multiple += prime;
+      }
+      // Consecutive odd multiples are 2 * prime apart, i.e. prime bits apart.
+      for (long bit = (multiple - low) / 2; bit < bits; bit += prime) {
+        segment[(int) (bit >>> 6)] |= 1L << bit;
+      }
+    }
+    return bits;
+  }
+
+  /**
+   * Counts the primes in a segment whose composite numbers have been marked.
+   * 
+   * @param segment The bits of the segment.
+   * @param bits The number of bits in the segment.
+   * @return The number of primes in the segment.
+   */
+  private static int countPrimes(long[] segment, int bits) {
+    int count = 0;
+    for (int word = 0; word * Long.SIZE < bits; word++) {
+      count += Long.bitCount(~segment[word] & mask(word, bits));
+    }
+    return count;
+  }
+
+  /**
+   * Copies the primes in a segment whose composite numbers have been marked to a table.
+   * 
+   * @param segment The bits of the segment.
+   * @param bits The number of bits in the segment.
+   * @param low The first number in the segment.
+   * @param table The table to which the primes are copied.
+   * @param offset The index in the table at which the first prime is copied.
+   * @return The number of primes in the segment.
+   */
+  private static int collectPrimes(long[] segment, int bits, long low, int[] table, int offset) {
+    int index = offset;
+    for (int word = 0; word * Long.SIZE < bits; word++) {
+      long unmarked = ~segment[word] & mask(word, bits);
+      while (unmarked != 0) {
+        int bit = word * Long.SIZE + Long.numberOfTrailingZeros(unmarked);
+        table[index++] = (int) (low + 2L * bit);
+        unmarked &= unmarked - 1;
+      }
+    }
+    return index - offset;
+  }
+
+  /**
+   * Returns a mask of the bits in a word that are in a segment.
+   * 
+   * @param word The index of the word.
+   * @param bits The number of bits in the segment.
+   * @return A mask of the bits in the word that are in the segment.
+   */
+  private static long mask(int word, int bits) {
+    int remaining = bits - word * Long.SIZE;
+    return (remaining >= Long.SIZE) ? -1L : (1L << remaining) - 1;
+  }
+
+  /**
+   * Grows the table so that it can hold all of the primes up to the given number without being
+   * copied again. The number of primes up to N is at most 1.25506 N / ln N (Rosser and Schoenfeld).
+   * 
+   * @param number The largest number that will be sieved.
+   */
+  private void ensureCapacity(int number) {
+    long capacity = (long) Math.ceil(1.25506 * number / Math.log(number));
+    if (capacity > this.primes.length) {
+      this.primes = Arrays.copyOf(this.primes, (int) Math.min(Integer.MAX_VALUE - 8, capacity));
+    }
+  }
+
+  /**
+   * Gets the largest number that has been sieved.
+   * 
+   * @return The largest number that has been sieved.
+   */
+  int getLimit() {
+    return this.limit;
+  }
+
+  /**
+   * Gets the number of prime numbers in the table. While a table that was restored from a snapshot
+   * is being read in, this is fewer than the number of primes that have been found; counting the
+   * primes up to a number reads in all of the primes up to it.
+   * 
+   * @return The number of prime numbers in the table.
+   */
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets a prime number from the table.
+   * 
+   * @param index The index of the prime number, starting at 0 for 2.
+   * @return The prime number.
+   */
+  int get(int index) {
+    if (index >= this.size && this.restored != null) {
+      readRestored(Integer.MAX_VALUE);
+    }
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("Invalid index: " + index);
+    }
+    return this.primes[index];
+  }
+
+  /**
+   * Gets the table of prime numbers, in which only the first {@link #size()} entries are valid.
+   * The entries that are valid when this method returns never change.
+   * 
+   * @return The table of prime numbers.
+   */
+  int[] getPrimes() {
+    return this.primes;
+  }
+
+  /**
+   * Counts the prime numbers that are less than or equal to the given number, sieving up to the
+   * number first if necessary.
+   * 
+   * @param number The number.
+   * @return The number of prime numbers that are less than or equal to the number.
+   */
+  int countTo(int number) {
+    sieveTo(number);
+    if (this.restored != null) {
+      readRestored(number);
+      // The limit is lowered if the snapshot turned out to be corrupt.
+      sieveTo(number);
+    }
+    int count = this.size;
+    int index = Arrays.binarySearch(this.primes, 0, count, number);
+    return (index >= 0) ? index + 1 : -(index + 1);
+  }
+
+  /**
+   * Sieves one block of numbers.
+   */
+  private static final class BlockTask implements Callable<int[]> {
+
+    private final int[] basePrimes;
+    private final int baseCount;
+    private final long low;
+    private final long high;
+
+    /**
+     * Creates a new BlockTask.
+     * 
+     * @param basePrimes A table that contains all of the primes up to the square root of the last
+     * number in the block.
+     * @param baseCount The number of primes in the table.
+     * @param low The first number in the block, which must be odd.
+     * @param high The last number in the block.
+     */
+    BlockTask(int[] basePrimes, int baseCount, long low, long high) {
+      this.basePrimes = basePrimes;
+      this.baseCount = baseCount;
+      this.low = low;
+      this.high = high;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int[] call() {
+      long[] segment = new long[SEGMENT_BYTES / (Long.SIZE / Byte.SIZE)];
+      int[][] segmentPrimes = new int[SEGMENTS_PER_BLOCK][];
+      int total = 0;
+      int segments = 0;
+      for (long start = this.low; start <= this.high; start += 2L * SEGMENT_BITS) {
+        long end = Math.min(this.high, start + 2L * SEGMENT_BITS - 1);
+        int bits = markComposites(this.basePrimes, this.baseCount, start, end, segment);
+        int[] found = new int[countPrimes(segment, bits)];
+        collectPrimes(segment, bits, start, found, 0);
+        segmentPrimes[segments++] = found;
+        total += found.length;
+      }
+
+      int[] block = new int[total];
+      int offset = 0;
+      for (int index = 0; index < segments; index++) {
+        System.arraycopy(segmentPrimes[index], 0, block, offset, segmentPrimes[index].length);
+        offset += segmentPrimes[index].length;
+      }
+      return block;
+    }
+  }
+}
@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.primes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.katas.common.AtomicFileWriter;
+import org.katas.common.Fnv1a;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * Saves the table of a {@link PrimeSieve} to a binary file and restores it, so that prime numbers
+ * that were found by one JVM do not have to be found again by the next one. The file is
+ * memory-mapped when it is loaded, and the primes are only read in, and checked, one chunk at a
+ * time as the sieve needs them, so loading even a large table takes milliseconds. When a larger
+ * range has been sieved, only the new primes are appended to the file.
+ * 
+ * <p>
+ * The file begins with a header, in big-endian order, followed by the primes as 4-byte integers
+ * in chunks of {@value #CHUNK_SIZE}. Each full chunk is followed by its own checksum; the checksum
+ * of the last chunk, if it is not full, is in the header instead:
+ * </p>
+ * 
+ * <pre>
+ * int  magic     0x5052494D ("PRIM")
+ * int  version   2
+ * int  limit     all primes up to this number are in the file
+ * int  count     the number of primes in the file
+ * long tail      the 64-bit FNV-1a hash of the primes in the last chunk, if it is not full
+ * long checksum  the 64-bit FNV-1a hash of the bytes of the header before it
+ * chunk[(count + 16383) / 16384]:
+ *   int  prime[16384]  fewer in the last chunk
+ *   long checksum      the 64-bit FNV-1a hash of the primes in the chunk, if it is full
+ * </pre>
+ * 
+ * <p>
+ * New primes are appended before the header is updated, so if the JVM exits while a snapshot is
+ * being saved, the file still contains the old, valid snapshot. A file that does not hold a valid
+ * snapshot is never written to in place; a new snapshot is written to a temporary file that then
+ * replaces it.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+final class PrimeSnapshot {
+
+  /** The first four bytes of a snapshot. */
+  static final int MAGIC = 0x5052494D;
+
+  /** The version of the file format. */
+  static final int VERSION = 2;
+
+  /** The number of bytes in the header. */
+  static final int HEADER_BYTES = 32;
+
+  /** The number of primes in a chunk. */
+  static final int CHUNK_SIZE = 16 * 1024;
+
+  /** The number of bytes in a full chunk, including its checksum. */
+  static final int CHUNK_BYTES = 4 * CHUNK_SIZE + 8;
+
+  private final File file;
+
+  // The contents of the file, if it is known to be valid.
+  private boolean valid;
+  private int limit;
+  private int count;
+
+  /**
+   * Creates a new PrimeSnapshot that is saved to the given file.
+   * 
+   * @param file The file in which the table of primes is saved.
+   */
+  PrimeSnapshot(File file) {
+    Validator.checkNull(file);
+    this.file = file;
+  }
+
+  /**
+   * Gets the file in which the table of primes is saved.
+   * 
+   * @return The file in which the table of primes is saved.
+   */
+  File getFile() {
+    return this.file;
+  }
+
+  /**
+   * Gets the largest number whose primes are known to be in the file.
+   * 
+   * @return The largest number whose primes are in the file, or 0 if the file has not been loaded
+   * or saved yet.
+   */
+  synchronized int getLimit() {
+    return this.valid ? this.limit : 0;
+  }
+
+  /**
+   * Loads the table of primes from the file into the given sieve, if the file exists and more
+   * numbers have been sieved in it than in the sieve. Only the header is checked here; each chunk
+   * of primes is checked when the sieve reads it in, and if it is corrupt, the sieve finds the
+   * primes in it again.
+   * 
+   * @param sieve The sieve into which the table of primes is loaded.
+   * @return True if the table was loaded, false if the file does not exist.
+   * @throws IOException If the file cannot be read in, is not a snapshot, or is corrupt.
+   */
+  synchronized boolean load(PrimeSieve sieve) throws IOException {
+    Validator.checkNull(sieve);
+    this.valid = false;
+    if (!this.file.isFile()) {
+      return false;
+    }
+
+    try (RandomAccessFile raf = new RandomAccessFile(this.file, "r");
+        FileChannel channel = raf.getChannel()) {
+      long fileSize = channel.size();
+      if (fileSize < HEADER_BYTES) {
+        throw new IOException("Snapshot is too small: " + this.file);
+      }
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+      if (header.getInt() != MAGIC) {
+        throw new IOException("Not a prime snapshot: " + this.file);
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported snapshot version " + version + ": " + this.file);
+      }
+      int fileLimit = header.getInt();
+      int fileCount = header.getInt();
+      long tail = header.getLong();
+      if (header.getLong() != checksum(fileLimit, fileCount, tail) || fileLimit < 2
+          || fileCount < 1 || fileCount > fileLimit) {
+        throw new IOException("Snapshot is corrupt: " + this.file);
+      }
+      if (position(fileCount) > fileSize) {
+        throw new IOException("Snapshot is truncated: " + this.file);
+      }
+
+      ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES,
+          position(fileCount) - HEADER_BYTES);
+      sieve.restore(new MappedPrimes(this.file, data, fileLimit, fileCount, tail), fileLimit);
+      this.limit = fileLimit;
+      this.count = fileCount;
+      this.valid = true;
+      return true;
+    }
+  }
+
+  /**
+   * Saves the table of primes in the given sieve to the file. If the file holds a valid snapshot
+   * that was loaded or saved earlier, only the primes that are not in it yet are appended to it;
+   * otherwise, the file is replaced with a new snapshot.
+   * 
+   * @param sieve The sieve whose table of primes is saved.
+   * @return True if the file was written, false if it already contained all of the primes.
+   * @throws IOException If the file cannot be written.
+   */
+  synchronized boolean save(PrimeSieve sieve) throws IOException {
+    Validator.checkNull(sieve);
+    int newLimit = sieve.getLimit();
+    if (this.valid && newLimit <= this.limit) {
+      return false;
+    }
+    // All of the primes up to the limit are in the table once they have been counted.
+    int newCount = sieve.countTo(newLimit);
+    int[] table = sieve.getPrimes();
+
+    try {
+      if (this.valid) {
+        try (RandomAccessFile raf = new RandomAccessFile(this.file, "rw");
+            FileChannel channel = raf.getChannel()) {
+          writeChunks(channel, table, this.count, newCount);
+          channel.force(false);
+          writeHeader(channel, table, newLimit, newCount);
+          channel.force(false);
+        }
+      }
+      else {
+        try (AtomicFileWriter writer = new AtomicFileWriter(this.file)) {
+          writeChunks(writer.getChannel(), table, 0, newCount);
+          writeHeader(writer.getChannel(), table, newLimit, newCount);
+          writer.commit();
+        }
+      }
+    }
+    catch (IOException e) {
+      this.valid = false;
+      throw e;
+    }
+
+    this.limit = newLimit;
+    this.count = newCount;
+    this.valid = true;
+    return true;
+  }
+
+  /**
+   * Writes a range of primes to their chunks, along with the checksum of each chunk that they fill.
+   * 
+   * @param channel The channel to which the primes are written.
+   * @param table A table of primes.
+   * @param from The index of the first prime to write.
+   * @param to The index after the last prime to write, which is the number of primes in the file.
+   * @throws IOException If the primes cannot be written.
+   */
+  private static void writeChunks(FileChannel channel, int[] table, int from, int to)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+    for (int start = from; start < to; start = (start / CHUNK_SIZE + 1) * CHUNK_SIZE) {
+      int chunk = start / CHUNK_SIZE * CHUNK_SIZE;
+      int end = Math.min(to, chunk + CHUNK_SIZE);
+      buffer.clear();
+      buffer.asIntBuffer().put(table, start, end - start);
+      buffer.position(4 * (end - start));
+      if (end - chunk == CHUNK_SIZE) {
+        buffer.putLong(checksum(Fnv1a.OFFSET_BASIS, table, chunk, end));
+      }
+      buffer.flip();
+      write(channel, buffer, position(start));
+    }
+  }
+
+  /**
+   * Writes the header of a snapshot.
+   * 
+   * @param channel The channel to which the header is written.
+   * @param table A table of primes.
+   * @param newLimit All primes up to this number are in the file.
+   * @param newCount The number of primes in the file.
+   * @throws IOException If the header cannot be written.
+   */
+  private static void writeHeader(FileChannel channel, int[] table, int newLimit, int newCount)
+      throws IOException {
+    int chunk = newCount / CHUNK_SIZE * CHUNK_SIZE;
+    long tail = checksum(Fnv1a.OFFSET_BASIS, table, chunk, newCount);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(MAGIC).putInt(VERSION).putInt(newLimit).putInt(newCount).putLong(tail);
+    header.putLong(checksum(newLimit, newCount, tail));
+    header.flip();
+    write(channel, header, 0);
+  }
+
+  /**
+   * Writes all of the remaining bytes of a buffer at the given position.
+   * 
+   * @param channel The channel to which the bytes are written.
+   * @param buffer The bytes to write.
+   * @param position The position in the file at which to write them.
+   * @throws IOException If the bytes cannot be written.
+   */
+  private static void write(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    long next = position;
+    while (buffer.hasRemaining()) {
+      next += channel.write(buffer, next);
+    }
+  }
+
+  /**
+   * Returns the position in the file of a prime, or of the end of the file if it holds that many
+   * primes.
+   * 
+   * @param index The index of the prime.
+   * @return The position of the prime in the file.
+   */
+  private static long position(int index) {
+    return HEADER_BYTES + (long) (index / CHUNK_SIZE) * CHUNK_BYTES + 4L * (index % CHUNK_SIZE);
+  }
+
+  /**
+   * Computes the 64-bit FNV-1a hash of the bytes of a header, up to its checksum.
+   * 
+   * @param limit All primes up to this number are in the file.
+   * @param count The number of primes in the file.
+   * @param tail The hash of the primes in the last chunk.
+   * @return The hash of the header.
+   */
+  private static long checksum(int limit, int count, long tail) {
+    long hash = Fnv1a.updateInt(Fnv1a.updateInt(Fnv1a.OFFSET_BASIS, MAGIC), VERSION);
+    return Fnv1a.updateLong(Fnv1a.updateInt(Fnv1a.updateInt(hash, limit), count), tail);
+  }
+
+  /**
+   * Continues a 64-bit FNV-1a hash over the bytes of a range of primes.
+   * 
+   * @param seed The hash of the primes before the range.
+   * @param table A table of primes.
+   * @param from The index of the first prime in the range.
+   * @param to The index after the last prime in the range.
+   * @return The hash of the primes up to the end of the range.
+   */
+  private static long checksum(long seed, int[] table, int from, int to) {
+    long hash = seed;
+    for (int index = from; index < to; index++) {
+      hash = Fnv1a.updateInt(hash, table[index]);
+    }
+    return hash;
+  }
+
+  /**
+   * The primes in a memory-mapped snapshot, which are read in one chunk at a time.
+   */
+  static final class MappedPrimes {
+
+    private final File file;
+    private final ByteBuffer data;
+    private final int limit;
+    private final int count;
+    private final long tail;
+
+    /**
+     * Creates a new MappedPrimes object.
+     * 
+     * @param file The file that is mapped, for error messages.
+     * @param data The chunks of primes in the file.
+     * @param limit All primes up to this number are in the file.
+     * @param count The number of primes in the file.
+     * @param tail The hash of the primes in the last chunk, if it is not full.
+     */
+    MappedPrimes(File file, ByteBuffer data, int limit, int count, long tail) {
+      this.file = file;
+      this.data = data;
+      this.limit = limit;
+      this.count = count;
+      this.tail = tail;
+    }
+
+    /**
+     * Gets the number of primes in the snapshot.
+     * 
+     * @return The number of primes in the snapshot.
+     */
+    int size() {
+      return this.count;
+    }
+
+    /**
+     * Reads in and checks the chunk of primes that starts at the given index.
+     * 
+     * @param from The index of the first prime in the chunk, which must be a multiple of
+     * {@value PrimeSnapshot#CHUNK_SIZE} that is less than the number of primes.
+     * @return The primes in the chunk.
+     * @throws IOException If the chunk is corrupt.
+     */
+    int[] read(int from) throws IOException {
+      if (from < 0 || from >= this.count || from % CHUNK_SIZE != 0) {
+        throw new IndexOutOfBoundsException("Invalid chunk: " + from);
+      }
+      int end = Math.min(this.count, from + CHUNK_SIZE);
+      ByteBuffer chunk = this.data.duplicate();
+      chunk.position((int) (position(from) - HEADER_BYTES));
+      chunk.limit(chunk.position() + 4 * (end - from));
+      long expected = (end - from == CHUNK_SIZE) ? this.data.getLong(chunk.limit()) : this.tail;
+
+      int[] primes = new int[end - from];
+      chunk.asIntBuffer().get(primes);
+      long hash = checksum(Fnv1a.OFFSET_BASIS, primes, 0, primes.length);
+      if (hash != expected || (from == 0 && primes[0] != 2)
+          || (end == this.count && primes[primes.length - 1] > this.limit)) {
+        throw new IOException("Snapshot is corrupt: " + this.file);
+      }
+      return primes;
+    }
+  }
+}
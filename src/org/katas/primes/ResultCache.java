@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.primes;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.katas.common.Counter;
+import org.katas.common.Metrics;
+
+/**
+ * A thread-safe cache of the representations of numbers that evicts the least recently used
+ * numbers once the estimated size of the cache exceeds a limit. Representations are stored
+ * compactly as pairs of start indexes into the table of primes and lengths. Hits, misses, and
+ * evictions are counted by the cache itself and, if {@link Metrics} are enabled, by the
+ * <code>ConsecutivePrimes.cache.*</code> counters.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+final class ResultCache {
+
+  /** The default limit on the estimated size of the cache, in bytes. */
+  static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+  /** The estimated size of an entry, not counting the representations. */
+  private static final int ENTRY_BYTES = 96;
+
+  private static final Counter HITS = Metrics.counter("ConsecutivePrimes.cache.hits");
+  private static final Counter MISSES = Metrics.counter("ConsecutivePrimes.cache.misses");
+  private static final Counter EVICTIONS = Metrics.counter("ConsecutivePrimes.cache.evictions");
+
+  private final long maxBytes;
+  /** The least recently used number comes first. */
+  private final Map<Integer, int[]> entries = new LinkedHashMap<Integer, int[]>(16, 0.75f, true);
+  private long bytes;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  /**
+   * Creates a new ResultCache.
+   * 
+   * @param maxBytes The limit on the estimated size of the cache, in bytes.
+   */
+  ResultCache(long maxBytes) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("Maximum size must be positive: " + maxBytes);
+    }
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Gets the representations of a number.
+   * 
+   * @param number The number.
+   * @return Pairs of start indexes and lengths, or <code>null</code> if the number is not in the
+   * cache.
+   */
+  int[] get(int number) {
+    int[] runs;
+    synchronized (this) {
+      runs = this.entries.get(number);
+    }
+    if (runs == null) {
+      this.missCount.incrementAndGet();
+      MISSES.increment();
+    }
+    else {
+      this.hitCount.incrementAndGet();
+      HITS.increment();
+    }
+    return runs;
+  }
+
+  /**
+   * Adds the representations of a number to the cache, evicting the least recently used numbers if
+   * the cache is too large.
+   * 
+   * @param number The number.
+   * @param runs Pairs of start indexes and lengths; the array must not be modified afterward.
+   */
+  void put(int number, int[] runs) {
+    int evicted = 0;
+    synchronized (this) {
+      int[] previous = this.entries.put(number, runs);
+      if (previous != null) {
+        this.bytes -= sizeOf(previous);
+      }
+      this.bytes += sizeOf(runs);
+
+      Iterator<int[]> iterator = this.entries.values().iterator();
+      while (this.bytes > this.maxBytes && this.entries.size() > 1) {
+        this.bytes -= sizeOf(iterator.next());
+        iterator.remove();
+        evicted++;
+      }
+    }
+    this.evictionCount.addAndGet(evicted);
+    EVICTIONS.add(evicted);
+  }
+
+  /**
+   * Estimates the size of an entry.
+   * 
+   * @param runs The representations in the entry.
+   * @return The estimated size of the entry, in bytes.
+   */
+  private static long sizeOf(int[] runs) {
+    return ENTRY_BYTES + 4L * runs.length;
+  }
+
+  /**
+   * Gets the number of numbers in the cache.
+   * 
+   * @return The number of numbers in the cache.
+   */
+  synchronized int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * Gets the estimated size of the cache.
+   * 
+   * @return The estimated size of the cache, in bytes.
+   */
+  synchronized long getBytes() {
+    return this.bytes;
+  }
+
+  /**
+   * Gets the number of times a number was found in the cache.
+   * 
+   * @return The number of hits.
+   */
+  long getHitCount() {
+    return this.hitCount.get();
+  }
+
+  /**
+   * Gets the number of times a number was not found in the cache.
+   * 
+   * @return The number of misses.
+   */
+  long getMissCount() {
+    return this.missCount.get();
+  }
+
+  /**
+   * Gets the number of numbers that were evicted from the cache.
+   * 
+   * @return The number of evictions.
+   */
+  long getEvictionCount() {
+    return this.evictionCount.get();
+  }
+}
@@ -17,9 +17,9 @@ package org.katas.roulette;
 
 import java.util.ArrayList;
 import java.util.List;
-import org.katas.common.Kata;
-import org.katas.common.KataEnums;
 import org.katas.common.KataUtils;
+import org.katas.common.MultiCaseKata;
+import org.katas.common.PrimitiveTokenizer;
 import com.bpd.utils.ListUtils;
 
 /**
@@ -28,10 +28,12 @@ import com.bpd.utils.ListUtils;
  * @author BJ Peter DeLaCruz
  * @see <a href="http://www.bjpeterdelacruz.com/files/katas/Roman_Roulette.pdf">Roman Roulette</a>
  */
-public class RomanRoulette extends Kata {
+public class RomanRoulette extends MultiCaseKata<int[]> {
 
   /** The ID of the last person standing in a circle of people. */
   private final int survivor;
+  /** Parses N and K. */
+  private final PrimitiveTokenizer tokenizer = new PrimitiveTokenizer(" ");
 
   /**
    * Creates a new RomanRoulette object.
@@ -43,38 +45,55 @@ public class RomanRoulette extends Kata {
   }
 
   /**
-   * For each line, finds the position that a person should stand at in a circle of N people, where
-   * every K-th person dies, in order to survive.
+   * Reads in the next line that contains N and K.
+   * 
+   * @return A list containing N and K, or <code>null</code> if there are no more lines.
    */
   @Override
-  public void processLines() {
+  protected int[] readCase() {
     while (!this.lines.isEmpty()) {
-      String line = this.lines.remove(0);
-      @SuppressWarnings("unchecked")
-      List<Integer> params = (List<Integer>) KataUtils.createList(line, " ", KataEnums.INTEGER);
-      if (params == null) {
+      String line = this.lines.next();
+      int[] params;
+      try {
+        params = this.tokenizer.reset(line).remainingInts();
+      }
+      catch (NumberFormatException e) {
+        System.err.println(e.getMessage());
         continue;
       }
-      if (params.size() != 2) {
+      if (params.length != 2) {
         System.err.println("Need only two parameters: N and K. Found " + line.length() + ".");
         continue;
       }
 
-      int n = params.get(0); // Number of people in the circle
-      int k = params.get(1); // Kill every k-th person
-
-      if (n == 0 && k == 0) { // EOF
-        return;
-      }
-      // If there is only one person in the circle from the very beginning, then that person is the
-      // survivor.
-      if (n == 1) {
-        System.out.println("N: " + n + "\tK: " + k + "\tPosition: " + n);
-        continue;
+      if (params[0] == 0 && params[1] == 0) { // EOF
+        return null;
       }
+      return params;
+    }
+    return null;
+  }
+
+  /**
+   * Finds the position that a person should stand at in a circle of N people, where every K-th
+   * person dies, in order to survive.
+   * 
+   * @param caseNumber The number of the line, starting at 1.
+   * @param params Contains N and K.
+   * @return The position, or an empty string if no position was found.
+   */
+  @Override
+  protected String solveCase(int caseNumber, int[] params) {
+    int n = params[0]; // Number of people in the circle
+    int k = params[1]; // Kill every k-th person
 
-      findPosition(n, k, params);
+    // If there is only one person in the circle from the very beginning, then that person is the
+    // survivor.
+    if (n == 1) {
+      return "N: " + n + "\tK: " + k + "\tPosition: " + n + "\n";
     }
+
+    return findPosition(n, k);
   }
 
   /**
@@ -83,13 +102,12 @@ public class RomanRoulette extends Kata {
    * 
    * @param n The number of people in a circle.
    * @param k Every K-th person dies.
-   * @param params Contains N and K.
+   * @return The position, or an empty string if no position was found.
    */
-  private void findPosition(int n, int k, List<Integer> params) {
+  private String findPosition(int n, int k) {
     List<Integer> idNumbers = ListUtils.createIntegersList(1, n);
     int burier; // The person who buries the person who just died (the victim)
     boolean isFirstVictim = true;
-    boolean isPositionFound = false;
     int numPeople = n;
     int kthPerson = k;
 
@@ -121,25 +139,20 @@ public class RomanRoulette extends Kata {
           // We found the position in the circle that a person should stand at in order to
           // survive.
           if (idNumbers.get(0) == this.survivor) {
-            System.out.print("N: " + params.get(0) + "\tK: " + params.get(1));
-            System.out.println("\tPosition: " + (index + 1));
-            isPositionFound = true;
-            break;
+            return "N: " + n + "\tK: " + k + "\tPosition: " + (index + 1) + "\n";
           }
           idNumbers.clear();
         }
         indexOfVictim = (indexOfVictim + kthPerson) % numPeople;
       }
-      if (isPositionFound) {
-        break;
-      }
       // Try the next position, but first, reset all values.
       idNumbers.clear();
       idNumbers.addAll(tempList);
       index = tempIndex;
-      numPeople = params.get(0);
+      numPeople = n;
       isFirstVictim = true;
     }
+    return "";
   }
 
   /**
@@ -155,10 +168,10 @@ public class RomanRoulette extends Kata {
     }
 
     RomanRoulette roulette = new RomanRoulette(1);
-    roulette.setLines(KataUtils.readLines(args[0]));
+    roulette.setLines(KataUtils.openLines(args[0]));
 
     if (roulette.getLines() != null) {
-      roulette.processLines();
+      roulette.run();
     }
   }
 }
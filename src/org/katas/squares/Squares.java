@@ -25,8 +25,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.StringTokenizer;
-import org.katas.common.Kata;
 import org.katas.common.KataUtils;
+import org.katas.common.MultiCaseKata;
 import org.katas.squares.Line.Direction;
 import com.bpd.utils.math.Point;
 
@@ -37,42 +37,49 @@ import com.bpd.utils.math.Point;
  * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
  * @see <a href="http://www.bjpeterdelacruz.com/files/katas/201_Squares.pdf">Squares</a>
  */
-public class Squares extends Kata {
+public class Squares extends MultiCaseKata<Set<Line>> {
 
   /** {@inheritDoc} */
   @Override
-  public void processLines() {
+  protected Set<Line> readCase() {
+    if (this.lines.isEmpty()) {
+      return null;
+    }
     try {
-      int problemNum = 1;
-      while (!this.lines.isEmpty()) {
-
-        int dimension = Integer.parseInt(this.lines.remove(0)) + 1;
-        int numLines = Integer.parseInt(this.lines.remove(0));
-
-        Set<Line> linesSet = new HashSet<Line>();
-        while (!this.lines.isEmpty() && this.lines.get(0).length() > 1) {
-          processLine(linesSet, dimension);
-        }
-
-        if (linesSet.size() != numLines) {
-          String msg = "Expected " + numLines + " lines. Found " + linesSet.size() + ".";
-          throw new IllegalArgumentException(msg);
-        }
+      int dimension = Integer.parseInt(this.lines.next()) + 1;
+      int numLines = Integer.parseInt(this.lines.next());
 
-        List<Line> lines = new ArrayList<Line>(linesSet);
-        Collections.sort(lines);
+      Set<Line> linesSet = new HashSet<Line>();
+      while (!this.lines.isEmpty() && this.lines.peek().length() > 1) {
+        processLine(linesSet, dimension);
+      }
 
-        System.out.println("Problem #" + problemNum++ + "\n");
-        Map<Integer, ArrayList<Line>> rowsColumns = new HashMap<Integer, ArrayList<Line>>();
-        organizeLines(lines, rowsColumns);
-        findSquares(rowsColumns);
+      if (linesSet.size() != numLines) {
+        String msg = "Expected " + numLines + " lines. Found " + linesSet.size() + ".";
+        throw new IllegalArgumentException(msg);
       }
+      return linesSet;
     }
     catch (NumberFormatException e) {
       System.err.println(e.getMessage());
+      return null;
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  protected String solveCase(int caseNumber, Set<Line> linesSet) {
+    List<Line> lines = new ArrayList<Line>(linesSet);
+    Collections.sort(lines);
+
+    StringBuilder builder = new StringBuilder();
+    builder.append("Problem #").append(caseNumber).append("\n\n");
+    Map<Integer, ArrayList<Line>> rowsColumns = new HashMap<Integer, ArrayList<Line>>();
+    organizeLines(lines, rowsColumns);
+    findSquares(rowsColumns, builder);
+    return builder.toString();
+  }
+
   /**
    * Processes a line that contains either a start or end point for a horizontal or vertical line.
    * 
@@ -80,7 +87,7 @@ public class Squares extends Kata {
    * @param dimension The number of points in a row or column in the grid.
    */
   private void processLine(Set<Line> lines, int dimension) {
-    String line = this.lines.remove(0);
+    String line = this.lines.next();
     StringTokenizer tokenizer = new StringTokenizer(line);
     if (tokenizer.countTokens() == 3) {
       String direction = tokenizer.nextToken();
@@ -112,8 +119,9 @@ public class Squares extends Kata {
    * 
    * @param rowsColumns The map containing array lists of lines. A key represents a row or column in
    * which a line is found. A value is an array list containing lines found in that row or column.
+   * @param builder The builder to which the results are appended.
    */
-  private void findSquares(Map<Integer, ArrayList<Line>> rowsColumns) {
+  private void findSquares(Map<Integer, ArrayList<Line>> rowsColumns, StringBuilder builder) {
     List<Entry<Integer, ArrayList<Line>>> rowsColumnsList =
         new ArrayList<Entry<Integer, ArrayList<Line>>>(rowsColumns.entrySet());
     Set<Line> linesSet = new LinkedHashSet<Line>();
@@ -142,27 +150,28 @@ public class Squares extends Kata {
         linesSet.clear();
       }
     }
-    printResults(counts);
+    appendResults(counts, builder);
   }
 
   /**
-   * Prints the number of squares of a particular size found.
+   * Appends the number of squares of a particular size found to the given builder.
    * 
    * @param counts The map containing the number of squares of a particular size found.
+   * @param builder The builder to which the results are appended.
    */
-  private void printResults(Map<Integer, Integer> counts) {
+  private void appendResults(Map<Integer, Integer> counts, StringBuilder builder) {
     if (counts.isEmpty()) {
-      System.out.println("No completed squares can be found.");
+      builder.append("No completed squares can be found.\n");
     }
     else {
       for (Entry<Integer, Integer> entry : counts.entrySet()) {
-        System.out.print(entry.getValue() + " square");
-        System.out.print((entry.getValue() > 1) ? "s" : "");
-        System.out.println(" of size " + entry.getKey());
+        builder.append(entry.getValue()).append(" square");
+        builder.append((entry.getValue() > 1) ? "s" : "");
+        builder.append(" of size ").append(entry.getKey()).append('\n');
       }
     }
-    System.out.println();
-    System.out.println("**********************************\n");
+    builder.append('\n');
+    builder.append("**********************************\n\n");
   }
 
   /**
@@ -249,6 +258,10 @@ public class Squares extends Kata {
           return results;
         }
         lastLine = getLine(lines.get(index).getEndPoint(), lines);
+        if (lastLine == null) {
+          // The path ends before it gets back to the diagonal.
+          return null;
+        }
         index = 0;
       }
     }
@@ -349,10 +362,10 @@ public class Squares extends Kata {
     String filename = Squares.class.getResource("example.kata").getPath();
 
     Squares squares = new Squares();
-    squares.setLines(KataUtils.readLines(filename));
+    squares.setLines(KataUtils.openLines(filename));
 
     if (squares.getLines() != null) {
-      squares.processLines();
+      squares.run();
     }
   }
 
@@ -0,0 +1,381 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.transaction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import org.katas.common.AtomicFileWriter;
+import org.katas.common.Fnv1a;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * A compact, read-only index of accounts that is sorted by account number. The descriptions of the
+ * accounts are kept in a pool of UTF-8 bytes, so the whole directory is a single buffer that can
+ * be saved to a file once and memory-mapped by later runs, which then do not have to read in the
+ * list of accounts at the beginning of a ledger. The directory also remembers where that list ended
+ * in the ledger that it was built from, so that later runs can move straight to the first item.
+ * Looking up an account and appending its description to a <code>StringBuilder</code> do not
+ * create any objects.
+ * 
+ * <p>
+ * The file, and the buffer, is a header followed by one entry for each account and then the pool,
+ * all in big-endian order:
+ * </p>
+ * 
+ * <pre>
+ * int  magic      0x41434354 ("ACCT")
+ * int  version    2
+ * int  count      the number of accounts
+ * int  poolBytes  the number of bytes in the pool
+ * long endOffset  the offset in the ledger of the line that ends the list of accounts, or -1
+ * long checksum   the 64-bit FNV-1a hash of every other byte in the file
+ * int  accountNo[i], descrOffset[i], descrLength[i]  for i &lt; count, sorted by accountNo
+ * byte pool[poolBytes]
+ * </pre>
+ * 
+ * <p>
+ * Only absolute reads are made from the buffer, so a directory can be shared by several threads.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+final class AccountDirectory {
+
+  /** The first four bytes of an account directory. */
+  static final int MAGIC = 0x41434354;
+
+  /** The version of the file format. */
+  static final int VERSION = 2;
+
+  /** The number of bytes in the header. */
+  static final int HEADER_BYTES = 32;
+
+  /** The offset of the checksum in the header. */
+  private static final int CHECKSUM_OFFSET = 24;
+
+  /** The number of bytes in the entry of one account. */
+  static final int ENTRY_BYTES = 12;
+
+  private static final Comparator<Account> BY_ACCOUNT_NO = new Comparator<Account>() {
+    @Override
+    public int compare(Account first, Account second) {
+      return Integer.compare(first.getAccountNo(), second.getAccountNo());
+    }
+  };
+
+  private final ByteBuffer buffer;
+  private final int count;
+  private final int poolStart;
+  private final long endOffset;
+
+  /**
+   * Creates a new AccountDirectory that reads the given buffer, whose contents have been checked.
+   * 
+   * @param buffer The buffer that contains the directory.
+   */
+  private AccountDirectory(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.count = buffer.getInt(8);
+    this.poolStart = HEADER_BYTES + ENTRY_BYTES * this.count;
+    this.endOffset = buffer.getLong(16);
+  }
+
+  /**
+   * Creates a directory of the given accounts in memory. If two accounts have the same number, the
+   * one that comes last is kept.
+   * 
+   * @param accounts The accounts.
+   * @return The directory of the accounts.
+   */
+  static AccountDirectory of(Collection<Account> accounts) {
+    return of(accounts, -1);
+  }
+
+  /**
+   * Creates a directory of the accounts at the beginning of a ledger in memory. If two accounts
+   * have the same number, the one that comes last is kept.
+   * 
+   * @param accounts The accounts.
+   * @param endOffset The offset in the ledger of the line that ends the list of accounts, or -1 if
+   * it is not known.
+   * @return The directory of the accounts.
+   */
+  static AccountDirectory of(Collection<Account> accounts, long endOffset) {
+    Validator.checkNull(accounts);
+    if (endOffset < -1) {
+      throw new IllegalArgumentException("Invalid offset: " + endOffset);
+    }
+    List<Account> sorted = new ArrayList<Account>(accounts);
+    // The sort is stable, so the last of the accounts with the same number is the one kept.
+    Collections.sort(sorted, BY_ACCOUNT_NO);
+    List<Account> unique = new ArrayList<Account>(sorted.size());
+    List<byte[]> descriptions = new ArrayList<byte[]>(sorted.size());
+    long poolBytes = 0;
+    for (int index = 0; index < sorted.size(); index++) {
+      Account account = sorted.get(index);
+      if (index + 1 < sorted.size()
+          && sorted.get(index + 1).getAccountNo() == account.getAccountNo()) {
+        continue;
+      }
+      byte[] description = account.getAccountDescr().getBytes(StandardCharsets.UTF_8);
+      unique.add(account);
+      descriptions.add(description);
+      poolBytes += description.length;
+    }
+    long size = HEADER_BYTES + (long) ENTRY_BYTES * unique.size() + poolBytes;
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Too many accounts: " + unique.size());
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) size);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(unique.size()).putInt((int) poolBytes);
+    buffer.putLong(endOffset).putLong(0);
+    int offset = 0;
+    for (int index = 0; index < unique.size(); index++) {
+      int length = descriptions.get(index).length;
+      buffer.putInt(unique.get(index).getAccountNo()).putInt(offset).putInt(length);
+      offset += length;
+    }
+    for (byte[] description : descriptions) {
+      buffer.put(description);
+    }
+    buffer.putLong(CHECKSUM_OFFSET, checksum(buffer));
+    return new AccountDirectory(buffer);
+  }
+
+  /**
+   * Memory-maps a directory that was saved to a file. The file is read through once to check its
+   * checksum and that every entry lies within it, so lookups never read outside of the buffer.
+   * 
+   * @param file The file to which the directory was saved.
+   * @return The directory in the file.
+   * @throws IOException If the file cannot be read in, is not an account directory, or is corrupt.
+   */
+  static AccountDirectory open(File file) throws IOException {
+    Validator.checkNull(file);
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+        FileChannel channel = raf.getChannel()) {
+      long fileSize = channel.size();
+      if (fileSize < HEADER_BYTES || fileSize > Integer.MAX_VALUE) {
+        throw new IOException("Not an account directory: " + file);
+      }
+      // The mapping stays valid after the channel has been closed.
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+      if (buffer.getInt(0) != MAGIC) {
+        throw new IOException("Not an account directory: " + file);
+      }
+      int version = buffer.getInt(4);
+      if (version != VERSION) {
+        throw new IOException("Unsupported account directory version " + version + ": " + file);
+      }
+      int fileCount = buffer.getInt(8);
+      int poolBytes = buffer.getInt(12);
+      if (fileCount < 0 || poolBytes < 0
+          || HEADER_BYTES + (long) ENTRY_BYTES * fileCount + poolBytes != fileSize) {
+        throw new IOException("Account directory is truncated: " + file);
+      }
+      if (buffer.getLong(CHECKSUM_OFFSET) != checksum(buffer) || !isValid(buffer)) {
+        throw new IOException("Account directory is corrupt: " + file);
+      }
+      return new AccountDirectory(buffer);
+    }
+  }
+
+  /**
+   * Checks that the accounts in a directory are sorted by number and that each description lies
+   * within the pool.
+   * 
+   * @param buffer The buffer that contains the directory, whose sizes have been checked.
+   * @return True if the entries are valid, false otherwise.
+   */
+  private static boolean isValid(ByteBuffer buffer) {
+    int count = buffer.getInt(8);
+    long poolBytes = buffer.getInt(12);
+    if (buffer.getLong(16) < -1) {
+      return false;
+    }
+    for (int index = 0; index < count; index++) {
+      int entry = HEADER_BYTES + ENTRY_BYTES * index;
+      long offset = buffer.getInt(entry + 4);
+      long length = buffer.getInt(entry + 8);
+      if (index > 0 && buffer.getInt(entry - ENTRY_BYTES) >= buffer.getInt(entry)) {
+        return false;
+      }
+      if (offset < 0 || length < 0 || offset + length > poolBytes) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Computes the 64-bit FNV-1a hash of the bytes of a directory, other than those of the checksum
+   * itself.
+   * 
+   * @param buffer The buffer that contains the directory.
+   * @return The hash of the directory.
+   */
+  private static long checksum(ByteBuffer buffer) {
+    ByteBuffer bytes = buffer.duplicate();
+    bytes.position(0).limit(CHECKSUM_OFFSET);
+    long hash = Fnv1a.update(Fnv1a.OFFSET_BASIS, bytes);
+    bytes.limit(bytes.capacity()).position(CHECKSUM_OFFSET + 8);
+    return Fnv1a.update(hash, bytes);
+  }
+
+  /**
+   * Saves the directory to a file, which can then be opened with {@link #open(File)}. The
+   * directory is written to a temporary file that then replaces the given one.
+   * 
+   * @param file The file to which the directory is saved.
+   * @throws IOException If the file cannot be written.
+   */
+  void save(File file) throws IOException {
+    Validator.checkNull(file);
+    ByteBuffer contents = this.buffer.duplicate();
+    contents.clear();
+    AtomicFileWriter.write(file, contents);
+  }
+
+  /**
+   * Gets the offset in the ledger that the directory was built from of the line that ends the list
+   * of accounts; the first item follows it.
+   * 
+   * @return The offset of the line that ends the list of accounts, or -1 if it is not known.
+   */
+  long getEndOffset() {
+    return this.endOffset;
+  }
+
+  /**
+   * Gets the number of accounts in the directory.
+   * 
+   * @return The number of accounts.
+   */
+  int size() {
+    return this.count;
+  }
+
+  /**
+   * Finds an account by its number.
+   * 
+   * @param accountNo The account number.
+   * @return The index of the account in the directory, or -1 if there is no such account.
+   */
+  int indexOf(int accountNo) {
+    int low = 0;
+    int high = this.count - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int value = this.buffer.getInt(HEADER_BYTES + ENTRY_BYTES * middle);
+      if (value < accountNo) {
+        low = middle + 1;
+      }
+      else if (value > accountNo) {
+        high = middle - 1;
+      }
+      else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the number of an account.
+   * 
+   * @param index The index of the account in the directory.
+   * @return The account number.
+   */
+  int getAccountNo(int index) {
+    return this.buffer.getInt(entry(index));
+  }
+
+  /**
+   * Appends the description of an account to a builder, decoding it from the pool one character
+   * at a time.
+   * 
+   * @param builder The builder to which the description is appended.
+   * @param index The index of the account in the directory.
+   */
+  void appendDescription(StringBuilder builder, int index) {
+    int entry = entry(index);
+    int position = this.poolStart + this.buffer.getInt(entry + 4);
+    int end = position + this.buffer.getInt(entry + 8);
+    while (position < end) {
+      int first = this.buffer.get(position++) & 0xFF;
+      if (first < 0x80) {
+        builder.append((char) first);
+      }
+      else if (first < 0xE0) {
+        builder.append((char) (((first & 0x1F) << 6) | continuation(position++)));
+      }
+      else if (first < 0xF0) {
+        int high = ((first & 0x0F) << 12) | (continuation(position++) << 6);
+        builder.append((char) (high | continuation(position++)));
+      }
+      else {
+        int high = ((first & 0x07) << 18) | (continuation(position++) << 12);
+        high |= continuation(position++) << 6;
+        builder.appendCodePoint(high | continuation(position++));
+      }
+    }
+  }
+
+  /**
+   * Gets the description of an account.
+   * 
+   * @param index The index of the account in the directory.
+   * @return The description of the account.
+   */
+  String getAccountDescr(int index) {
+    StringBuilder builder = new StringBuilder();
+    appendDescription(builder, index);
+    return builder.toString();
+  }
+
+  /**
+   * Gets the offset in the buffer of the entry of an account.
+   * 
+   * @param index The index of the account in the directory.
+   * @return The offset of the entry.
+   */
+  private int entry(int index) {
+    if (index < 0 || index >= this.count) {
+      throw new IndexOutOfBoundsException("Invalid index: " + index);
+    }
+    return HEADER_BYTES + ENTRY_BYTES * index;
+  }
+
+  /**
+   * Gets the six bits of data in a continuation byte of a UTF-8 sequence.
+   * 
+   * @param position The offset of the byte in the buffer.
+   * @return The data in the byte.
+   */
+  private int continuation(int position) {
+    return this.buffer.get(position) & 0x3F;
+  }
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.transaction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import org.katas.common.AtomicFileWriter;
+import org.katas.common.Fnv1a;
+import com.bpd.utils.validation.Validator;
+
+/**
+ * Saves the running balances of a {@link LedgerReconciler} to a binary file, together with the
+ * offset in the ledger up to which they have been summed, so that a run that is interrupted can
+ * resume where it left off instead of reading in the whole ledger again. The same file also lets a
+ * ledger that is only ever appended to be reconciled by reading in just the items that were
+ * appended since the last run.
+ * 
+ * <p>
+ * The file is a header, in big-endian order, followed by the balances and entry counts of every
+ * transaction number:
+ * </p>
+ * 
+ * <pre>
+ * int  magic        0x4C444752 ("LDGR")
+ * int  version      2
+ * long offset       the offset in the ledger of the first line that has not been summed
+ * long fingerprint  the 64-bit FNV-1a hash of up to 4 KB of the ledger before the offset
+ * long checksum     the 64-bit FNV-1a hash of the bytes of the offset, fingerprint, balances,
+ *                   and counts
+ * long balance[1000]
+ * int  count[1000]
+ * </pre>
+ * 
+ * <p>
+ * A checkpoint is written to a temporary file that then replaces the old one, so if the JVM exits
+ * while a checkpoint is being saved, the file still contains the previous checkpoint. The
+ * fingerprint detects a ledger that was rewritten, rather than appended to, after the checkpoint
+ * was saved.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+final class LedgerCheckpoint {
+
+  /** The first four bytes of a checkpoint. */
+  static final int MAGIC = 0x4C444752;
+
+  /** The version of the file format. */
+  static final int VERSION = 2;
+
+  /** The number of bytes in the header. */
+  static final int HEADER_BYTES = 32;
+
+  /** The number of bytes before the offset that are hashed into the fingerprint of a ledger. */
+  static final int FINGERPRINT_BYTES = 4 * 1024;
+
+  private static final int MAX_TRANSACTIONS = LedgerScanner.MAX_TRANSACTIONS;
+
+  /** The number of bytes in a checkpoint. */
+  private static final int FILE_BYTES = HEADER_BYTES + (8 + 4) * MAX_TRANSACTIONS;
+
+  private final File file;
+  private final File ledger;
+
+  /**
+   * Creates a new LedgerCheckpoint for the given ledger that is saved to the given file.
+   * 
+   * @param file The file in which the checkpoint is saved.
+   * @param ledger The ledger whose running balances are saved.
+   */
+  LedgerCheckpoint(File file, File ledger) {
+    Validator.checkNull(file);
+    Validator.checkNull(ledger);
+    this.file = file;
+    this.ledger = ledger;
+  }
+
+  /**
+   * Gets the file in which the checkpoint is saved.
+   * 
+   * @return The file in which the checkpoint is saved.
+   */
+  File getFile() {
+    return this.file;
+  }
+
+  /**
+   * Loads the running balances from the file into the given reconciler, if the file exists and was
+   * saved for the same ledger, or for the beginning of it if items have been appended to it since.
+   * 
+   * @param reconciler The reconciler into which the running balances are loaded.
+   * @return The offset in the ledger at which summing should resume, or -1 if the file does not
+   * exist or the ledger has been rewritten since the checkpoint was saved.
+   * @throws IOException If the file cannot be read in, is not a checkpoint, or is corrupt.
+   */
+  long load(LedgerReconciler reconciler) throws IOException {
+    Validator.checkNull(reconciler);
+    if (!this.file.isFile()) {
+      return -1;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(FILE_BYTES);
+    try (RandomAccessFile raf = new RandomAccessFile(this.file, "r");
+        FileChannel channel = raf.getChannel()) {
+      if (channel.size() != FILE_BYTES) {
+        throw new IOException("Checkpoint is truncated: " + this.file);
+      }
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, buffer.position()) < 0) {
+          throw new IOException("Checkpoint is truncated: " + this.file);
+        }
+      }
+    }
+    buffer.flip();
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Not a ledger checkpoint: " + this.file);
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported checkpoint version " + version + ": " + this.file);
+    }
+    long offset = buffer.getLong();
+    long fingerprint = buffer.getLong();
+    long checksum = buffer.getLong();
+    long[] balances = new long[MAX_TRANSACTIONS];
+    int[] counts = new int[MAX_TRANSACTIONS];
+    buffer.asLongBuffer().get(balances);
+    buffer.position(buffer.position() + 8 * MAX_TRANSACTIONS);
+    buffer.asIntBuffer().get(counts);
+    if (offset < 0 || checksum(offset, fingerprint, balances, counts) != checksum) {
+      throw new IOException("Checkpoint is corrupt: " + this.file);
+    }
+
+    if (offset > this.ledger.length() || fingerprint(offset) != fingerprint) {
+      return -1;
+    }
+    reconciler.restore(balances, counts);
+    return offset;
+  }
+
+  /**
+   * Saves the running balances of the given reconciler to the file.
+   * 
+   * @param offset The offset in the ledger of the first line that has not been summed.
+   * @param reconciler The reconciler whose running balances are saved.
+   * @throws IOException If the file cannot be written.
+   */
+  void save(long offset, LedgerReconciler reconciler) throws IOException {
+    Validator.checkNegative(offset);
+    Validator.checkNull(reconciler);
+    long[] balances = new long[MAX_TRANSACTIONS];
+    int[] counts = new int[MAX_TRANSACTIONS];
+    for (int number = 0; number < MAX_TRANSACTIONS; number++) {
+      balances[number] = reconciler.getBalance(number);
+      counts[number] = reconciler.getCount(number);
+    }
+    long fingerprint = fingerprint(offset);
+
+    ByteBuffer buffer = ByteBuffer.allocate(FILE_BYTES);
+    buffer.putInt(MAGIC).putInt(VERSION).putLong(offset).putLong(fingerprint);
+    buffer.putLong(checksum(offset, fingerprint, balances, counts));
+    buffer.asLongBuffer().put(balances);
+    buffer.position(buffer.position() + 8 * MAX_TRANSACTIONS);
+    buffer.asIntBuffer().put(counts);
+    buffer.rewind();
+
+    AtomicFileWriter.write(this.file, buffer);
+  }
+
+  /**
+   * Deletes the file, e.g. once the whole ledger has been reconciled.
+   * 
+   * @throws IOException If the file exists but cannot be deleted.
+   */
+  void delete() throws IOException {
+    Files.deleteIfExists(this.file.toPath());
+  }
+
+  /**
+   * Hashes the bytes of the ledger just before the given offset, so that a checkpoint is not
+   * applied to a ledger whose contents changed before the offset.
+   * 
+   * @param offset The offset in the ledger.
+   * @return The 64-bit FNV-1a hash of up to {@link #FINGERPRINT_BYTES} bytes before the offset.
+   * @throws IOException If the ledger cannot be read in.
+   */
+  private long fingerprint(long offset) throws IOException {
+    long start = Math.max(0, offset - FINGERPRINT_BYTES);
+    ByteBuffer buffer = ByteBuffer.allocate((int) (offset - start));
+    try (RandomAccessFile raf = new RandomAccessFile(this.ledger, "r");
+        FileChannel channel = raf.getChannel()) {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, start + buffer.position()) < 0) {
+          throw new IOException("Ledger is shorter than " + offset + " bytes: " + this.ledger);
+        }
+      }
+    }
+    buffer.flip();
+    return Fnv1a.update(Fnv1a.OFFSET_BASIS, buffer);
+  }
+
+  /**
+   * Computes the 64-bit FNV-1a hash of the contents of a checkpoint. The fields are hashed one byte
+   * at a time, in the order and byte order in which they are saved.
+   * 
+   * @param offset The offset in the ledger.
+   * @param fingerprint The fingerprint of the ledger.
+   * @param balances The running balances.
+   * @param counts The entry counts.
+   * @return The hash of the contents of the checkpoint.
+   */
+  private static long checksum(long offset, long fingerprint, long[] balances, int[] counts) {
+    long hash = Fnv1a.updateLong(Fnv1a.updateLong(Fnv1a.OFFSET_BASIS, offset), fingerprint);
+    for (long balance : balances) {
+      hash = Fnv1a.updateLong(hash, balance);
+    }
+    for (int count : counts) {
+      hash = Fnv1a.updateInt(hash, count);
+    }
+    return hash;
+  }
+}
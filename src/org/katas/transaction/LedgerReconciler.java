@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.transaction;
+
+import java.io.IOException;
+import org.katas.common.LineSource;
+import org.katas.common.MappedLineReader;
+import org.katas.common.ResultSink;
+
+/**
+ * Reconciles the items in a ledger as they are streamed in, without keeping them in memory. The
+ * first pass, {@link #sum(LineSource)}, keeps only a running balance and an entry count for each
+ * transaction number. Only if some transaction ends out of balance does the second pass,
+ * {@link #report(LineSource, AccountDirectory, ResultSink)}, read the items again and materialize
+ * the items of the transactions that are out of balance; it stops as soon as all of them have been
+ * seen. The items of a transaction do not have to be next to each other in the ledger.
+ * 
+ * <p>
+ * Transaction numbers have three digits, so the running balances are kept in arrays indexed by
+ * transaction number, and balances are summed as <code>long</code>s so that they cannot overflow.
+ * Memory does not depend on the number of items in the ledger, only on the number of items in the
+ * transactions that are out of balance.
+ * </p>
+ * 
+ * <p>
+ * When a ledger file is summed with {@link #sum(MappedLineReader, LedgerCheckpoint, long)}, the
+ * running balances are saved to a {@link LedgerCheckpoint} from time to time, and can be restored
+ * from it to resume summing where the last run left off.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+final class LedgerReconciler {
+
+  private static final int MAX_TRANSACTIONS = LedgerScanner.MAX_TRANSACTIONS;
+
+  private final long[] balances = new long[MAX_TRANSACTIONS];
+  private final int[] counts = new int[MAX_TRANSACTIONS];
+
+  /**
+   * Adds up the items in a ledger, starting after the list of accounts, until the line that ends
+   * the ledger or the end of the lines is reached.
+   * 
+   * @param lines The lines that contain the transaction items.
+   */
+  void sum(LineSource lines) {
+    LedgerScanner scanner = new LedgerScanner(true);
+    while (scanner.next(lines)) {
+      this.balances[scanner.getTransactionNo()] += scanner.getAmount();
+      this.counts[scanner.getTransactionNo()]++;
+    }
+  }
+
+  /**
+   * Adds up the items in a ledger file from the current position of the given reader, saving the
+   * running balances to a checkpoint every <code>interval</code> items. Summing stops at the line
+   * that ends the ledger, as in {@link #sum(LineSource)}, unless the ledger is append-only: items
+   * can then be appended to the ledger after that line, so it is skipped, the items that follow it
+   * are treated as part of the same ledger, and summing goes on to the end of the file.
+   * 
+   * @param reader The reader positioned at the first item that has not been summed yet.
+   * @param checkpoint The checkpoint to which the running balances are saved.
+   * @param interval The number of items that are summed between checkpoints.
+   * @param appendOnly True if items may have been appended after the line that ends the ledger.
+   * @return The offset in the file after the last line that was read in.
+   * @throws IOException If a checkpoint cannot be saved.
+   */
+  long sum(MappedLineReader reader, LedgerCheckpoint checkpoint, long interval, boolean appendOnly)
+      throws IOException {
+    if (interval < 1) {
+      throw new IllegalArgumentException("Interval must be at least 1: " + interval);
+    }
+    LedgerScanner scanner = new LedgerScanner(true);
+    long items = 0;
+    while (reader.hasNext()) {
+      if (!scanner.next(reader)) {
+        if (!appendOnly) {
+          break;
+        }
+        continue;
+      }
+      this.balances[scanner.getTransactionNo()] += scanner.getAmount();
+      this.counts[scanner.getTransactionNo()]++;
+      if (++items % interval == 0) {
+        checkpoint.save(reader.getPosition(), this);
+      }
+    }
+    return reader.getPosition();
+  }
+
+  /**
+   * Replaces the running balances and entry counts, e.g. with ones that were saved to a
+   * {@link LedgerCheckpoint}.
+   * 
+   * @param balances The running balance of each transaction number.
+   * @param counts The entry count of each transaction number.
+   */
+  void restore(long[] balances, int[] counts) {
+    if (balances.length != MAX_TRANSACTIONS || counts.length != MAX_TRANSACTIONS) {
+      throw new IllegalArgumentException("Expected " + MAX_TRANSACTIONS + " transactions.");
+    }
+    System.arraycopy(balances, 0, this.balances, 0, MAX_TRANSACTIONS);
+    System.arraycopy(counts, 0, this.counts, 0, MAX_TRANSACTIONS);
+  }
+
+  /**
+   * Returns true if every transaction that has been summed so far is balanced.
+   * 
+   * @return True if every transaction is balanced, false otherwise.
+   */
+  boolean isBalanced() {
+    for (long balance : this.balances) {
+      if (balance != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the running balance of a transaction.
+   * 
+   * @param transactionNo The transaction number.
+   * @return The sum of the items in the transaction that have been read in so far, in cents.
+   */
+  long getBalance(int transactionNo) {
+    return this.balances[transactionNo];
+  }
+
+  /**
+   * Gets the number of items in a transaction.
+   * 
+   * @param transactionNo The transaction number.
+   * @return The number of items in the transaction that have been read in so far.
+   */
+  int getCount(int transactionNo) {
+    return this.counts[transactionNo];
+  }
+
+  /**
+   * Reads in the items of the same ledger again and prints the transactions that are out of
+   * balance, in order of transaction number. The account number and amount of each of their items
+   * are kept in arrays whose sizes are known from the first pass, and a transaction is only
+   * formatted when it is printed.
+   * 
+   * @param lines The lines that contain the transaction items, starting after the list of accounts.
+   * @param accounts The directory of accounts.
+   * @param out The sink to which the transactions that are out of balance are printed.
+   */
+  void report(LineSource lines, AccountDirectory accounts, ResultSink out) {
+    int[][] accountNumbers = new int[MAX_TRANSACTIONS][];
+    int[][] amounts = new int[MAX_TRANSACTIONS][];
+    int[] collected = new int[MAX_TRANSACTIONS];
+    long remaining = 0;
+    for (int number = 0; number < MAX_TRANSACTIONS; number++) {
+      if (this.balances[number] != 0) {
+        accountNumbers[number] = new int[this.counts[number]];
+        amounts[number] = new int[this.counts[number]];
+        remaining += this.counts[number];
+      }
+    }
+
+    // Lines that end the ledger are skipped, in case items were appended after them.
+    LedgerScanner scanner = new LedgerScanner(false);
+    while (remaining > 0 && lines.hasNext()) {
+      if (!scanner.next(lines)) {
+        continue;
+      }
+      int number = scanner.getTransactionNo();
+      if (this.balances[number] != 0 && collected[number] < this.counts[number]) {
+        accountNumbers[number][collected[number]] = scanner.getAccountNo();
+        amounts[number][collected[number]] = scanner.getAmount();
+        collected[number]++;
+        remaining--;
+      }
+    }
+
+    StringBuilder builder = new StringBuilder();
+    for (int number = 0; number < MAX_TRANSACTIONS; number++) {
+      if (this.balances[number] == 0) {
+        continue;
+      }
+      builder.setLength(0);
+      LedgerReport.appendHeader(builder, number);
+      for (int index = 0; index < collected[number]; index++) {
+        int account = accounts.indexOf(accountNumbers[number][index]);
+        if (account < 0) {
+          throw new IllegalArgumentException("No such account: " + accountNumbers[number][index]);
+        }
+        LedgerReport.appendItem(builder, accounts, account, amounts[number][index]);
+      }
+      LedgerReport.appendTotal(builder, this.balances[number]);
+      out.print(builder);
+      // Release the items as soon as they have been printed.
+      accountNumbers[number] = null;
+      amounts[number] = null;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.transaction;
+
+import org.katas.common.KataUtils;
+
+/**
+ * Formats the report of a transaction that is out of balance: a header, one line for each item in
+ * the transaction, and a line for the amount by which it is out of balance. Amounts are
+ * right-aligned in a column that is {@value #WIDTH} characters wide.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+final class LedgerReport {
+
+  /** The width of a line, up to and including the last digit of its amount. */
+  static final int WIDTH = 50;
+
+  private static final String SPACES = String.format("%" + WIDTH + "s", "");
+
+  /**
+   * This class contains only static methods.
+   */
+  private LedgerReport() {
+    // Empty constructor.
+  }
+
+  /**
+   * Appends the header of a transaction that is out of balance.
+   * 
+   * @param builder The builder to which the header is appended.
+   * @param transactionNo The transaction number.
+   */
+  static void appendHeader(StringBuilder builder, int transactionNo) {
+    builder.append("*** Transaction ").append(transactionNo).append(" is out of balance ***\n");
+  }
+
+  /**
+   * Appends a line for one item in a transaction. The account number and description are appended
+   * directly from the directory, without creating a label first.
+   * 
+   * @param builder The builder to which the line is appended.
+   * @param accounts The directory of accounts.
+   * @param index The index in the directory of the account to which the item was posted.
+   * @param amount The amount of the item, in cents.
+   */
+  static void appendItem(StringBuilder builder, AccountDirectory accounts, int index,
+      long amount) {
+    int start = builder.length();
+    builder.append(accounts.getAccountNo(index)).append(' ');
+    accounts.appendDescription(builder, index);
+    appendAmount(builder, builder.length() - start, amount);
+  }
+
+  /**
+   * Appends the line for the amount by which a transaction is out of balance.
+   * 
+   * @param builder The builder to which the line is appended.
+   * @param sum The amount by which the transaction is out of balance, in cents.
+   */
+  static void appendTotal(StringBuilder builder, long sum) {
+    appendLine(builder, "999 Out of Balance", Math.abs(sum));
+  }
+
+  /**
+   * Appends a label followed by an amount that is right-aligned.
+   * 
+   * @param builder The builder to which the line is appended.
+   * @param label The label at the beginning of the line.
+   * @param amount The amount, in cents.
+   */
+  private static void appendLine(StringBuilder builder, String label, long amount) {
+    builder.append(label);
+    appendAmount(builder, label.length(), amount);
+  }
+
+  /**
+   * Appends an amount that is right-aligned after a label that has already been appended.
+   * 
+   * @param builder The builder to which the amount is appended.
+   * @param labelLength The number of characters in the label.
+   * @param amount The amount, in cents.
+   */
+  private static void appendAmount(StringBuilder builder, int labelLength, long amount) {
+    String balance = KataUtils.getBalanceAsString(amount);
+    int padding = Math.max(0, WIDTH - labelLength - balance.length());
+    builder.append(SPACES, 0, padding).append(balance).append('\n');
+  }
+}
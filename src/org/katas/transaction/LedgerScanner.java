@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.transaction;
+
+import java.util.Iterator;
+import java.util.List;
+import org.katas.common.PrimitiveTokenizer;
+
+/**
+ * Reads in the items of a ledger one at a time, without creating any objects other than the lines
+ * themselves. An item is a line that contains a three-digit transaction number immediately followed
+ * by a three-digit account number, a space, and an amount in cents, e.g. <code>101241 -7</code>.
+ * The ledger ends with the item <code>000000 0</code> or at the end of the lines. Lines can come
+ * from a {@link org.katas.common.LineSource} or, when the offset of each line is needed, directly
+ * from a {@link org.katas.common.MappedLineReader}.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+final class LedgerScanner {
+
+  /** The number of transaction numbers, all of which have three digits. */
+  static final int MAX_TRANSACTIONS = 1000;
+
+  /** A transaction item begins with a transaction number followed by an account number. */
+  private static final int ACCOUNT_NUMBERS = 1000;
+
+  private final PrimitiveTokenizer tokenizer = new PrimitiveTokenizer(" ");
+  private final boolean reportErrors;
+  private final List<String> skippedLines;
+
+  private boolean ended;
+  private int transactionNo;
+  private int accountNo;
+  private int amount;
+
+  /**
+   * Creates a new LedgerScanner.
+   * 
+   * @param reportErrors True to report lines that are not in the correct format on
+   * <code>System.err</code>, false to skip them silently.
+   */
+  LedgerScanner(boolean reportErrors) {
+    this.reportErrors = reportErrors;
+    this.skippedLines = null;
+  }
+
+  /**
+   * Creates a new LedgerScanner that collects the lines that are not in the correct format instead
+   * of reporting them, so that lines read in on another thread can be reported in order later.
+   * 
+   * @param skippedLines The list to which lines that are not in the correct format are added.
+   */
+  LedgerScanner(List<String> skippedLines) {
+    this.reportErrors = false;
+    this.skippedLines = skippedLines;
+  }
+
+  /**
+   * Reports a line that is not in the correct format on <code>System.err</code>.
+   * 
+   * @param line The line.
+   */
+  static void reportSkippedLine(String line) {
+    System.err.println("Line in incorrect format: " + line);
+  }
+
+  /**
+   * Reads in the next transaction item, skipping lines that are not in the correct format.
+   * 
+   * @param lines The lines that contain the transaction items.
+   * @return True if an item was read in, false if the end of the ledger was reached.
+   * @throws NumberFormatException If a number in an item is not valid.
+   */
+  boolean next(Iterator<String> lines) {
+    while (lines.hasNext()) {
+      String line = lines.next();
+      this.tokenizer.reset(line);
+      if (this.tokenizer.countTokens() != 2) {
+        if (this.skippedLines != null) {
+          this.skippedLines.add(line);
+        }
+        else if (this.reportErrors) {
+          reportSkippedLine(line);
+        }
+        continue;
+      }
+      int info = this.tokenizer.nextInt();
+      if (info < 0 || info >= MAX_TRANSACTIONS * ACCOUNT_NUMBERS) {
+        throw new NumberFormatException("Invalid transaction and account number: " + line);
+      }
+      if (info == 0) {
+        this.ended = true;
+        return false;
+      }
+      this.transactionNo = info / ACCOUNT_NUMBERS;
+      this.accountNo = info % ACCOUNT_NUMBERS;
+      this.amount = this.tokenizer.nextInt();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Tells whether the item that marks the end of the ledger has been read in, as opposed to the
+   * lines running out.
+   * 
+   * @return True if the end of the ledger was reached.
+   */
+  boolean isAtEnd() {
+    return this.ended;
+  }
+
+  /**
+   * Gets the transaction number of the item that was read in last.
+   * 
+   * @return The transaction number.
+   */
+  int getTransactionNo() {
+    return this.transactionNo;
+  }
+
+  /**
+   * Gets the account number of the item that was read in last.
+   * 
+   * @return The account number.
+   */
+  int getAccountNo() {
+    return this.accountNo;
+  }
+
+  /**
+   * Gets the amount of the item that was read in last.
+   * 
+   * @return The amount, in cents.
+   */
+  int getAmount() {
+    return this.amount;
+  }
+}
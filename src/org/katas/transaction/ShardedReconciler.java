@@ -0,0 +1,417 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.transaction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.katas.common.IntLongMap;
+import org.katas.common.LineSource;
+import org.katas.common.ResultSink;
+
+/**
+ * Reconciles the items in a ledger on several worker shards. The calling thread only reads in raw
+ * lines, which it hands to the worker threads in batches to be parsed. Each parsed batch is
+ * partitioned by transaction number, so all of the items of a transaction go to the same shard, and
+ * the batches are collected in the order in which their lines were read in, so the items of each
+ * transaction stay in order, lines that are not in the correct format are reported in order, and
+ * the lines that follow the end of the ledger are ignored. Each shard appends its items to an
+ * off-heap {@link TransactionStore}, and once all of the lines have been read in, the shards sum
+ * their items by transaction into an {@link IntLongMap} and format the report of each of their
+ * transactions that are out of balance on the worker threads. The reports are then merged in order
+ * of transaction number, so the output does not depend on the number of shards.
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+final class ShardedReconciler {
+
+  /** The number of lines that are handed to a worker thread at a time. */
+  private static final int BATCH_SIZE = 4096;
+
+  /** The number of batches per shard that may be read in before the oldest one has been parsed. */
+  private static final int BATCHES_PER_SHARD = 4;
+
+  private final int shardCount;
+
+  /**
+   * Creates a new ShardedReconciler.
+   * 
+   * @param shardCount The number of shards; 1 reconciles all items on the calling thread.
+   */
+  ShardedReconciler(int shardCount) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Number of shards must be at least 1: " + shardCount);
+    }
+    this.shardCount = shardCount;
+  }
+
+  /**
+   * Reads in all of the items in a ledger, starting after the list of accounts, and prints the
+   * transactions that are out of balance in order of transaction number. The report of each
+   * transaction is released as soon as it has been printed.
+   * 
+   * @param lines The lines that contain the transaction items.
+   * @param accounts The directory of accounts.
+   * @param out The sink to which the transactions that are out of balance are printed.
+   */
+  void reconcile(LineSource lines, AccountDirectory accounts, ResultSink out) {
+    Shard[] shards = new Shard[this.shardCount];
+    for (int index = 0; index < shards.length; index++) {
+      shards[index] = new Shard(accounts);
+    }
+
+    if (this.shardCount == 1) {
+      LedgerScanner scanner = new LedgerScanner(true);
+      while (scanner.next(lines)) {
+        shards[0].add(scanner.getTransactionNo(), scanner.getAccountNo(), scanner.getAmount());
+      }
+      merge(new Report[] { shards[0].report() }, out);
+      return;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(this.shardCount);
+    try {
+      Deque<Future<Batch>> pending = new ArrayDeque<Future<Batch>>();
+      int window = this.shardCount * BATCHES_PER_SHARD;
+      boolean ended = false;
+      while (!ended) {
+        while (pending.size() < window && lines.hasNext()) {
+          pending.add(executor.submit(new Parser(read(lines), this.shardCount)));
+        }
+        if (pending.isEmpty()) {
+          break;
+        }
+        Batch batch = await(pending.remove());
+        for (String line : batch.skippedLines) {
+          LedgerScanner.reportSkippedLine(line);
+        }
+        if (batch.failure != null) {
+          throw batch.failure;
+        }
+        for (int index = 0; index < shards.length; index++) {
+          shards[index].add(batch, index);
+        }
+        ended = batch.ended;
+      }
+
+      List<Future<Report>> futures = new ArrayList<Future<Report>>(this.shardCount);
+      for (Shard shard : shards) {
+        futures.add(executor.submit(shard));
+      }
+      Report[] reports = new Report[this.shardCount];
+      for (int index = 0; index < shards.length; index++) {
+        reports[index] = await(futures.get(index));
+      }
+      merge(reports, out);
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Reads in the next batch of raw lines.
+   * 
+   * @param lines The lines that contain the transaction items, at least one of which is left.
+   * @return Up to {@link #BATCH_SIZE} lines.
+   */
+  private static String[] read(LineSource lines) {
+    String[] batch = new String[BATCH_SIZE];
+    int size = 0;
+    while (size < BATCH_SIZE && lines.hasNext()) {
+      batch[size++] = lines.next();
+    }
+    return size == BATCH_SIZE ? batch : Arrays.copyOf(batch, size);
+  }
+
+  /**
+   * Prints the reports of the shards in order of transaction number.
+   * 
+   * @param reports The reports of the shards, each of which is sorted by transaction number.
+   * @param out The sink to which the reports are printed.
+   */
+  private static void merge(Report[] reports, ResultSink out) {
+    int[] positions = new int[reports.length];
+    while (true) {
+      int next = -1;
+      for (int index = 0; index < reports.length; index++) {
+        Report report = reports[index];
+        if (positions[index] < report.numbers.length && (next < 0
+            || report.numbers[positions[index]] < reports[next].numbers[positions[next]])) {
+          next = index;
+        }
+      }
+      if (next < 0) {
+        return;
+      }
+      out.print(reports[next].texts[positions[next]]);
+      reports[next].texts[positions[next]++] = null;
+    }
+  }
+
+  /**
+   * Waits for a task on a worker thread to finish and returns its result.
+   * 
+   * @param <T> The type of the result.
+   * @param future The result of the task.
+   * @return The result.
+   */
+  private static <T> T await(Future<T> future) {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reconciling transactions.", e);
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * A batch of parsed items in columns, partitioned by shard.
+   */
+  private static final class Batch {
+
+    private final int[] transactionNos;
+    private final int[] accountNos;
+    private final int[] amounts;
+    private final int[] offsets;
+    private final List<String> skippedLines;
+    private final RuntimeException failure;
+    private final boolean ended;
+
+    /**
+     * Creates a new Batch.
+     * 
+     * @param transactionNos The transaction numbers, grouped by shard.
+     * @param accountNos The account numbers, grouped by shard.
+     * @param amounts The amounts, in cents, grouped by shard.
+     * @param offsets The index of the first item of each shard, followed by the number of items.
+     * @param skippedLines The lines that are not in the correct format.
+     * @param failure The exception that stopped the parsing of the lines, or null.
+     * @param ended True if the batch contains the item that ends the ledger.
+     */
+    Batch(int[] transactionNos, int[] accountNos, int[] amounts, int[] offsets,
+        List<String> skippedLines, RuntimeException failure, boolean ended) {
+      this.transactionNos = transactionNos;
+      this.accountNos = accountNos;
+      this.amounts = amounts;
+      this.offsets = offsets;
+      this.skippedLines = skippedLines;
+      this.failure = failure;
+      this.ended = ended;
+    }
+  }
+
+  /**
+   * Parses a batch of raw lines on a worker thread.
+   */
+  private static final class Parser implements Callable<Batch> {
+
+    private final String[] lines;
+    private final int shardCount;
+
+    /**
+     * Creates a new Parser.
+     * 
+     * @param lines The raw lines.
+     * @param shardCount The number of shards by which the items are partitioned.
+     */
+    Parser(String[] lines, int shardCount) {
+      this.lines = lines;
+      this.shardCount = shardCount;
+    }
+
+    /**
+     * Parses the lines up to the end of the ledger and partitions the items by shard, keeping the
+     * items of each shard in order. A number that is not valid does not fail the task, because the
+     * lines before it must be reported first, and it may follow the end of the ledger in an earlier
+     * batch.
+     * 
+     * @return The parsed batch.
+     */
+    @Override
+    public Batch call() {
+      int[] transactionNos = new int[this.lines.length];
+      int[] accountNos = new int[this.lines.length];
+      int[] amounts = new int[this.lines.length];
+      int[] offsets = new int[this.shardCount + 1];
+      List<String> skippedLines = new ArrayList<String>();
+      LedgerScanner scanner = new LedgerScanner(skippedLines);
+      RuntimeException failure = null;
+      Iterator<String> iterator = Arrays.asList(this.lines).iterator();
+      int size = 0;
+      try {
+        while (scanner.next(iterator)) {
+          transactionNos[size] = scanner.getTransactionNo();
+          accountNos[size] = scanner.getAccountNo();
+          amounts[size] = scanner.getAmount();
+          offsets[transactionNos[size] % this.shardCount + 1]++;
+          size++;
+        }
+      }
+      catch (NumberFormatException e) {
+        failure = e;
+      }
+
+      for (int shard = 0; shard < this.shardCount; shard++) {
+        offsets[shard + 1] += offsets[shard];
+      }
+      int[] next = Arrays.copyOf(offsets, this.shardCount);
+      int[] partitionedTransactionNos = new int[size];
+      int[] partitionedAccountNos = new int[size];
+      int[] partitionedAmounts = new int[size];
+      for (int index = 0; index < size; index++) {
+        int target = next[transactionNos[index] % this.shardCount]++;
+        partitionedTransactionNos[target] = transactionNos[index];
+        partitionedAccountNos[target] = accountNos[index];
+        partitionedAmounts[target] = amounts[index];
+      }
+      return new Batch(partitionedTransactionNos, partitionedAccountNos, partitionedAmounts,
+          offsets, skippedLines, failure, scanner.isAtEnd());
+    }
+  }
+
+  /**
+   * The reports of the transactions in one shard that are out of balance.
+   */
+  private static final class Report {
+
+    private final int[] numbers;
+    private final String[] texts;
+
+    /**
+     * Creates a new Report.
+     * 
+     * @param numbers The transaction numbers, in ascending order.
+     * @param texts The report of each transaction.
+     */
+    Report(int[] numbers, String[] texts) {
+      this.numbers = numbers;
+      this.texts = texts;
+    }
+  }
+
+  /**
+   * The transactions whose numbers fall into one partition.
+   */
+  private static final class Shard implements Callable<Report> {
+
+    private final TransactionStore items = new TransactionStore();
+    private final AccountDirectory accounts;
+
+    /**
+     * Creates a new Shard.
+     * 
+     * @param accounts The directory of accounts.
+     */
+    Shard(AccountDirectory accounts) {
+      this.accounts = accounts;
+    }
+
+    /**
+     * Reports the transactions that are out of balance on a worker thread.
+     * 
+     * @return The report.
+     */
+    @Override
+    public Report call() {
+      return report();
+    }
+
+    /**
+     * Adds an item to its transaction.
+     * 
+     * @param transactionNo The transaction number.
+     * @param accountNo The account number.
+     * @param amount The amount, in cents.
+     */
+    void add(int transactionNo, int accountNo, int amount) {
+      this.items.append(transactionNo, accountNo, amount);
+    }
+
+    /**
+     * Adds the items of a parsed batch that belong to this shard.
+     * 
+     * @param batch The parsed batch.
+     * @param shard The index of this shard.
+     */
+    void add(Batch batch, int shard) {
+      int offset = batch.offsets[shard];
+      this.items.append(batch.transactionNos, batch.accountNos, batch.amounts, offset,
+          batch.offsets[shard + 1] - offset);
+    }
+
+    /**
+     * Formats the report of each transaction that is out of balance.
+     * 
+     * @return The report.
+     */
+    Report report() {
+      IntLongMap balances = this.items.sumByTransaction();
+      int[] keys = balances.keys();
+      int count = 0;
+      for (int number : keys) {
+        if (balances.get(number) != 0) {
+          keys[count++] = number;
+        }
+      }
+      final int[] numbers = Arrays.copyOf(keys, count);
+      Arrays.sort(numbers);
+
+      final StringBuilder[] builders = new StringBuilder[count];
+      this.items.scan(balances, new TransactionStore.ItemVisitor() {
+        @Override
+        public void visit(int transactionNo, int accountNo, int amount) {
+          int index = Arrays.binarySearch(numbers, transactionNo);
+          if (builders[index] == null) {
+            builders[index] = new StringBuilder();
+            LedgerReport.appendHeader(builders[index], transactionNo);
+          }
+          int account = accounts.indexOf(accountNo);
+          if (account < 0) {
+            throw new IllegalArgumentException("No such account: " + accountNo);
+          }
+          LedgerReport.appendItem(builders[index], accounts, account, amount);
+        }
+      });
+
+      String[] texts = new String[count];
+      for (int index = 0; index < count; index++) {
+        LedgerReport.appendTotal(builders[index], balances.get(numbers[index]));
+        texts[index] = builders[index].toString();
+      }
+      return new Report(numbers, texts);
+    }
+  }
+}
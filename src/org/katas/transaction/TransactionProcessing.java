@@ -15,14 +15,16 @@
  ******************************************************************************/
 package org.katas.transaction;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.StringTokenizer;
+import org.katas.common.CollectingResultSink;
 import org.katas.common.Kata;
 import org.katas.common.KataUtils;
+import org.katas.common.LineSource;
+import org.katas.common.MappedLineReader;
 
 /**
  * Processes a file containing a list of transactions and finds those that are not balanced.
@@ -33,17 +35,63 @@ import org.katas.common.KataUtils;
  */
 final class TransactionProcessing extends Kata {
 
-  private static final int NUM_SPACES = 50;
-  private final Map<Integer, List<Transaction>> transactions;
-  private final Map<Integer, Account> accounts;
+  /** The default number of items that are summed between checkpoints. */
+  public static final long DEFAULT_CHECKPOINT_INTERVAL = 1000000;
+
+  private AccountDirectory accounts;
+  private boolean accountsMapped;
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+  private long checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+
+  /**
+   * Uses the accounts in a directory file that was saved by
+   * {@link #buildAccountDirectory(String, File)} instead of the list of accounts at the beginning
+   * of each ledger, which is then skipped. The file is memory-mapped, and a ledger file whose list
+   * of accounts ends where it did in the ledger that the directory was built from is read in
+   * starting from its first item.
+   * 
+   * @param file The directory file.
+   * @throws IOException If the file could not be read or is not an account directory.
+   * @see AccountDirectory
+   */
+  public void setAccountDirectory(File file) throws IOException {
+    this.accounts = AccountDirectory.open(file);
+    this.accountsMapped = true;
+  }
+
+  /**
+   * Sets the number of shards across which transactions are reconciled at the same time.
+   * 
+   * @param parallelism The number of shards; 1 reconciles all transactions on the calling thread.
+   * @see ShardedReconciler
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+    }
+    this.parallelism = parallelism;
+  }
 
   /**
-   * Creates a new TransactionProcessing object and initializes the hash maps that will contain
-   * transactions and account information.
+   * Gets the number of shards across which transactions are reconciled at the same time.
+   * 
+   * @return The number of shards.
    */
-  public TransactionProcessing() {
-    transactions = new HashMap<Integer, List<Transaction>>();
-    accounts = new HashMap<Integer, Account>();
+  public int getParallelism() {
+    return this.parallelism;
+  }
+
+  /**
+   * Sets the number of items that are summed between checkpoints by
+   * {@link #processCheckpointed(String, File, boolean)}.
+   * 
+   * @param checkpointInterval The number of items that are summed between checkpoints.
+   */
+  public void setCheckpointInterval(long checkpointInterval) {
+    if (checkpointInterval < 1) {
+      throw new IllegalArgumentException("Interval must be at least 1: " + checkpointInterval);
+    }
+    this.checkpointInterval = checkpointInterval;
   }
 
   /**
@@ -53,139 +101,272 @@ final class TransactionProcessing extends Kata {
    */
   @Override
   public void processLines() {
-    System.out.println(process());
+    inputAccounts();
+    new ShardedReconciler(this.parallelism).reconcile(lines, accounts, out);
+    out.println();
   }
 
   /**
    * Inputs all accounts and transactions, and processes all transactions by summing all of the
    * items in each transaction. If the sum is not equal to zero, i.e. a transaction is not balanced,
-   * information about that transaction will be in the string that is returned.
+   * information about that transaction will be in the string that is returned. Transactions are
+   * reconciled in parallel and reported in order of transaction number.
    * 
    * @return The string that contains all transactions that are not balanced.
    */
   public String process() {
+    CollectingResultSink results = new CollectingResultSink();
     inputAccounts();
-    inputTransactions();
-    return processTransactions();
+    new ShardedReconciler(this.parallelism).reconcile(lines, accounts, results);
+    return results.getOutput();
   }
 
   /**
-   * Inputs all account information read in from a file into a HashMap.
+   * Reconciles a ledger file without loading its transactions into memory, and prints the
+   * transactions that are out of balance in order of transaction number; see
+   * {@link LedgerReconciler}. The file is read in once to sum each transaction, and then a second
+   * time, only if some transaction is out of balance, to collect the items of the transactions that
+   * are out of balance.
+   * 
+   * @param filename Name of the ledger file.
+   * @throws IOException If the file could not be read.
    */
-  private void inputAccounts() {
-    while (!lines.get(0).contains("000")) {
-      String info = lines.remove(0);
-      int accountNo = Integer.parseInt(info.substring(0, 3));
-      String accountDescr = info.substring(3);
-      Account account = new Account(accountNo, accountDescr);
-      accounts.put(accountNo, account);
+  public void processStreaming(String filename) throws IOException {
+    LedgerReconciler reconciler = new LedgerReconciler();
+    try (LineSource source = openItems(filename, true)) {
+      reconciler.sum(source);
     }
-    lines.remove(0);
+    if (!reconciler.isBalanced()) {
+      try (LineSource source = openItems(filename, false)) {
+        reconciler.report(source, accounts, out);
+      }
+    }
+    out.println();
   }
 
   /**
-   * Inserts all transactions read in from a file into a HashMap.
+   * Reconciles a ledger file like {@link #processStreaming(String)}, but saves the running balances
+   * to a checkpoint file while the ledger is summed; see {@link LedgerCheckpoint}. If the
+   * checkpoint file exists when this method is called, summing resumes where the run that saved it
+   * left off.
+   * 
+   * <p>
+   * Normally the checkpoint file is deleted once the ledger has been summed, so it is only used to
+   * resume a run that was interrupted, and summing stops at the line that ends the ledger. In
+   * append-only mode, the final running balances are saved to it instead, so that the next run only
+   * reads in the items that have been appended to the ledger since; a line that ended the ledger
+   * before the items were appended is skipped.
+   * </p>
+   * 
+   * @param filename Name of the ledger file.
+   * @param checkpointFile The file in which the running balances are saved.
+   * @param appendOnly True to keep the final running balances for the next run, false to delete the
+   * checkpoint file once the ledger has been summed.
+   * @throws IOException If the ledger could not be read or the checkpoint could not be saved.
    */
-  private void inputTransactions() {
-    while (!lines.isEmpty()) {
-      String line = lines.remove(0);
-      StringTokenizer tokenizer = new StringTokenizer(line, " ");
-      if (tokenizer.countTokens() != 2) {
-        System.err.println("Line in incorrect format: " + line);
-        continue;
+  public void processCheckpointed(String filename, File checkpointFile, boolean appendOnly)
+      throws IOException {
+    LedgerReconciler reconciler = new LedgerReconciler();
+    LedgerCheckpoint checkpoint = new LedgerCheckpoint(checkpointFile, new File(filename));
+    long offset = -1;
+    try {
+      offset = checkpoint.load(reconciler);
+    }
+    catch (IOException e) {
+      System.err.println("Ignoring checkpoint: " + e.getMessage());
+    }
+
+    try (MappedLineReader reader = new MappedLineReader(filename, StandardCharsets.US_ASCII)) {
+      if (offset >= 0) {
+        reader.setPosition(offset);
       }
-      String info = tokenizer.nextToken();
-      if ("000000".equals(info)) {
-        break;
+      else if (!skipToItems(reader)) {
+        while (reader.hasNext()) {
+          if (reader.next().contains("000")) {
+            break;
+          }
+        }
       }
-      int accountNo = Integer.parseInt(info.substring(3, 6));
-      int transactionNo = Integer.parseInt(info.substring(0, 3));
-      int balance = Integer.parseInt(tokenizer.nextToken());
-      Transaction transaction = new Transaction(accountNo, transactionNo, balance);
-      if (transactions.get(Integer.parseInt(info.substring(0, 3))) == null) {
-        transactions.put(Integer.parseInt(info.substring(0, 3)), new ArrayList<Transaction>());
+      offset = reconciler.sum(reader, checkpoint, this.checkpointInterval, appendOnly);
+    }
+    if (appendOnly) {
+      checkpoint.save(offset, reconciler);
+    }
+    else {
+      checkpoint.delete();
+    }
+
+    if (!reconciler.isBalanced()) {
+      try (LineSource source = openItems(filename, true)) {
+        reconciler.report(source, accounts, out);
       }
-      transactions.get(Integer.parseInt(info.substring(0, 3))).add(transaction);
     }
+    out.println();
   }
 
   /**
-   * Sums all of the transactions and returns information about those that are out of balance.
+   * Opens a ledger file and reads in, or skips, the list of accounts at its beginning, so that the
+   * next line is the first item. The list is skipped without being read in if possible; see
+   * {@link #skipToItems(MappedLineReader)}.
    * 
-   * @return A string that contains information about transactions that are not balanced.
-   */
-  private String processTransactions() {
-    StringBuffer buffer = new StringBuffer();
-    for (Entry<Integer, List<Transaction>> e : transactions.entrySet()) {
-      int sum = 0;
-      for (Transaction t : e.getValue()) {
-        sum += t.getBalance();
-      }
-      if (sum != 0) {
-        buffer.append(printResults(e, Math.abs(sum)));
-      }
+   * @param filename Name of the ledger file.
+   * @param readAccounts True to read in the list of accounts unless a directory file is being used,
+   * false to skip it.
+   * @return The source of the lines of the ledger, which is also the current source of lines.
+   * @throws IOException If the file could not be opened.
+   */
+  private LineSource openItems(String filename, boolean readAccounts) throws IOException {
+    MappedLineReader reader = new MappedLineReader(filename, StandardCharsets.US_ASCII);
+    boolean atItems = skipToItems(reader);
+    LineSource source = new LineSource(reader);
+    setLines(source);
+    if (atItems) {
+      return source;
+    }
+    if (readAccounts) {
+      inputAccounts();
+    }
+    else {
+      skipAccounts();
     }
-    return buffer.toString();
+    return source;
   }
 
   /**
-   * Prints information about the transactions that are out of balance.
+   * Moves a reader of a ledger file past the list of accounts at its beginning without reading it
+   * in, if a directory file is being used and the line where the list ended in the ledger that the
+   * directory was built from also ends the list in this ledger.
    * 
-   * @param entry Contains the transaction ID and a list of transactions.
-   * @param sum A value greater or less than, but not equal to, zero.
-   * @return A string displaying a list of transactions that are out of balance.
+   * @param reader The reader, which is at the beginning of the ledger.
+   * @return True if the reader is at the first item, false if it is still at the beginning.
    */
-  private String printResults(Entry<Integer, List<Transaction>> entry, int sum) {
-    if (sum == 0) {
-      return "Transaction " + entry.getKey() + " is not out of balance.";
+  private boolean skipToItems(MappedLineReader reader) {
+    long offset = this.accountsMapped ? this.accounts.getEndOffset() : -1;
+    if (offset < 0 || offset >= reader.getFileSize()) {
+      return false;
+    }
+    // The line must start right after a line break.
+    if (offset > 0) {
+      reader.setPosition(offset - 1);
+      if (!reader.hasNext() || !reader.next().isEmpty()) {
+        reader.setPosition(0);
+        return false;
+      }
     }
+    if (reader.hasNext() && reader.next().contains("000")) {
+      return true;
+    }
+    reader.setPosition(0);
+    return false;
+  }
 
-    StringBuffer buffer = new StringBuffer();
+  /**
+   * Inputs all account information read in from a file into a directory of accounts, unless a
+   * directory file is being used, in which case the account information is skipped.
+   */
+  private void inputAccounts() {
+    if (this.accountsMapped) {
+      skipAccounts();
+    }
+    else {
+      this.accounts = readAccounts(lines);
+    }
+  }
+
+  /**
+   * Reads in the list of accounts at the beginning of a ledger.
+   * 
+   * @param lines The lines of the ledger.
+   * @return The directory of the accounts.
+   */
+  private static AccountDirectory readAccounts(LineSource lines) {
+    List<Account> list = new ArrayList<Account>();
+    while (!lines.peek().contains("000")) {
+      list.add(toAccount(lines.next()));
+    }
+    lines.next();
+    return AccountDirectory.of(list);
+  }
 
-    String temp = "*** Transaction " + entry.getKey() + " is out of balance ***\n";
-    buffer.append(temp);
+  /**
+   * Creates an account from a line in the list of accounts at the beginning of a ledger.
+   * 
+   * @param info The line, which holds a 3-digit account number followed by a description.
+   * @return The account.
+   */
+  private static Account toAccount(String info) {
+    int accountNo = Integer.parseInt(info.substring(0, 3));
+    String accountDescr = info.substring(3);
+    return new Account(accountNo, accountDescr);
+  }
 
-    for (Transaction t : entry.getValue()) {
-      temp = t.getAccountNo() + " " + accounts.get(t.getAccountNo()).getAccountDescr();
-      buffer.append(temp);
-      int index = temp.length() + KataUtils.getBalanceAsString(t.getBalance()).length();
-      for (; index < NUM_SPACES; index++) {
-        temp = " ";
-        buffer.append(temp);
+  /**
+   * Reads in the list of accounts at the beginning of a ledger file and saves it to a directory
+   * file, which can then be used by {@link #setAccountDirectory(File)}, along with the offset of
+   * the line that ends the list.
+   * 
+   * @param filename Name of the ledger file.
+   * @param file The directory file.
+   * @throws IOException If the ledger could not be read or the directory file could not be saved.
+   */
+  public static void buildAccountDirectory(String filename, File file) throws IOException {
+    try (MappedLineReader reader = new MappedLineReader(filename, StandardCharsets.US_ASCII)) {
+      List<Account> list = new ArrayList<Account>();
+      long endOffset = reader.getPosition();
+      String info = reader.next();
+      while (!info.contains("000")) {
+        list.add(toAccount(info));
+        endOffset = reader.getPosition();
+        info = reader.next();
       }
-      buffer.append(KataUtils.getBalanceAsString(t.getBalance()));
-      temp = "\n";
-      buffer.append(temp);
+      AccountDirectory.of(list, endOffset).save(file);
     }
+  }
 
-    temp = "999 Out of Balance";
-    buffer.append(temp);
-    String balance = KataUtils.getBalanceAsString(sum);
-    for (int index = temp.length() + balance.length(); index < NUM_SPACES; index++) {
-      temp = " ";
-      buffer.append(temp);
+  /**
+   * Skips the account information at the beginning of a file.
+   */
+  private void skipAccounts() {
+    while (!lines.peek().contains("000")) {
+      lines.next();
     }
-    buffer.append(balance);
-    temp = "\n";
-    buffer.append(temp);
-
-    return buffer.toString();
+    lines.next();
   }
 
   /**
    * The main program; given the name of a file, extracts all of the lines in the file and then
    * processes them.
    * 
-   * @param args None.
+   * @param args Optionally, the name of a ledger file to reconcile without loading it into memory,
+   * followed by the name of a checkpoint file and, to keep the checkpoint for the next run, the
+   * word <code>append</code>.
    */
   public static void main(String... args) {
+    if (args.length > 0) {
+      TransactionProcessing transactionProcessing = new TransactionProcessing();
+      try {
+        if (args.length > 1) {
+          boolean appendOnly = args.length > 2 && "append".equals(args[2]);
+          transactionProcessing.processCheckpointed(args[0], new File(args[1]), appendOnly);
+        }
+        else {
+          transactionProcessing.processStreaming(args[0]);
+        }
+      }
+      catch (IOException e) {
+        System.err.println(e.getMessage());
+      }
+      transactionProcessing.getResultSink().flush();
+      return;
+    }
+
     String filename = TransactionProcessing.class.getResource("example.kata").getPath();
 
     TransactionProcessing transactionProcessing = new TransactionProcessing();
-    transactionProcessing.setLines(KataUtils.readLines(filename));
+    transactionProcessing.setLines(KataUtils.openLines(filename));
 
     if (transactionProcessing.getLines() != null) {
-      transactionProcessing.processLines();
+      transactionProcessing.run();
     }
   }
 }
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import org.katas.common.IntLongMap;
+
+/**
+ * Stores transaction items off the heap, in columns. The transaction numbers, account numbers, and
+ * amounts of the items are kept in three direct buffers, one <code>int</code> per item in each, so
+ * an item takes 12 bytes outside of the heap instead of a {@link Transaction} object and a
+ * reference to it on the heap, and a scan over one column reads consecutive memory. When the
+ * columns are full, they are copied into buffers that are twice as large.
+ * 
+ * <p>
+ * Direct buffers count against <code>-XX:MaxDirectMemorySize</code>, which defaults to the maximum
+ * heap size. A store is not thread-safe.
+ * </p>
+ * 
+ * @author BJ Peter DeLaCruz
+ */
+final class TransactionStore {
+
+  /** The number of items for which room is made when a store is created. */
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** The largest number of items that fits in a direct buffer of <code>int</code>s. */
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE / 4;
+
+  private IntBuffer transactionNos;
+  private IntBuffer accountNos;
+  private IntBuffer amounts;
+  private int capacity;
+  private int size;
+
+  /**
+   * Visits the items in a store, one at a time.
+   */
+  interface ItemVisitor {
+
+    /**
+     * Visits an item.
+     * 
+     * @param transactionNo The transaction number of the item.
+     * @param accountNo The account number of the item.
+     * @param amount The amount of the item, in cents.
+     */
+    void visit(int transactionNo, int accountNo, int amount);
+  }
+
+  /**
+   * Creates a new, empty TransactionStore.
+   */
+  TransactionStore() {
+    this.transactionNos = allocate(INITIAL_CAPACITY);
+    this.accountNos = allocate(INITIAL_CAPACITY);
+    this.amounts = allocate(INITIAL_CAPACITY);
+    this.capacity = INITIAL_CAPACITY;
+  }
+
+  /**
+   * Gets the number of items in this store.
+   * 
+   * @return The number of items.
+   */
+  int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets the number of bytes that this store has allocated outside of the heap.
+   * 
+   * @return The number of bytes in the columns.
+   */
+  long getCapacityInBytes() {
+    return 3L * this.capacity * Integer.SIZE / Byte.SIZE;
+  }
+
+  /**
+   * Appends an item.
+   * 
+   * @param transactionNo The transaction number.
+   * @param accountNo The account number.
+   * @param amount The amount, in cents.
+   */
+  void append(int transactionNo, int accountNo, int amount) {
+    ensureCapacity(this.size + 1);
+    this.transactionNos.put(this.size, transactionNo);
+    this.accountNos.put(this.size, accountNo);
+    this.amounts.put(this.size, amount);
+    this.size++;
+  }
+
+  /**
+   * Appends items that are given in columns.
+   * 
+   * @param transactionNos The transaction numbers.
+   * @param accountNos The account numbers.
+   * @param amounts The amounts, in cents.
+   * @param offset The index of the first item in each array.
+   * @param count The number of items.
+   */
+  void append(int[] transactionNos, int[] accountNos, int[] amounts, int offset, int count) {
+    ensureCapacity(this.size + (long) count);
+    this.transactionNos.position(this.size);
+    this.transactionNos.put(transactionNos, offset, count);
+    this.accountNos.position(this.size);
+    this.accountNos.put(accountNos, offset, count);
+    this.amounts.position(this.size);
+    this.amounts.put(amounts, offset, count);
+    this.size += count;
+  }
+
+  /**
+   * Creates a {@link Transaction} that holds an item, e.g. so that it can be printed.
+   * 
+   * @param index The index of the item, in the order in which items were appended.
+   * @return A new transaction that holds the item.
+   */
+  Transaction get(int index) {
+    checkIndex(index);
+    return new Transaction(this.accountNos.get(index), this.transactionNos.get(index),
+        this.amounts.get(index));
+  }
+
+  /**
+   * Gets the transaction number of an item.
+   * 
+   * @param index The index of the item, in the order in which items were appended.
+   * @return The transaction number.
+   */
+  int getTransactionNo(int index) {
+    checkIndex(index);
+    return this.transactionNos.get(index);
+  }
+
+  /**
+   * Gets the account number of an item.
+   * 
+   * @param index The index of the item, in the order in which items were appended.
+   * @return The account number.
+   */
+  int getAccountNo(int index) {
+    checkIndex(index);
+    return this.accountNos.get(index);
+  }
+
+  /**
+   * Gets the amount of an item.
+   * 
+   * @param index The index of the item, in the order in which items were appended.
+   * @return The amount, in cents.
+   */
+  int getAmount(int index) {
+    checkIndex(index);
+    return this.amounts.get(index);
+  }
+
+  /**
+   * Sums the amounts of the items in each transaction, reading only the transaction number and
+   * amount columns.
+   * 
+   * @return The sum of each transaction, keyed by transaction number.
+   */
+  IntLongMap sumByTransaction() {
+    IntLongMap sums = new IntLongMap();
+    IntBuffer numbers = this.transactionNos;
+    IntBuffer values = this.amounts;
+    for (int index = 0; index < this.size; index++) {
+      sums.add(numbers.get(index), values.get(index));
+    }
+    return sums;
+  }
+
+  /**
+   * Visits the items of the given transactions, in the order in which they were appended.
+   * 
+   * @param selected Selects the transactions whose items are visited: an item is visited if its
+   * transaction number is mapped to a value other than 0.
+   * @param visitor The visitor.
+   */
+  void scan(IntLongMap selected, ItemVisitor visitor) {
+    IntBuffer numbers = this.transactionNos;
+    for (int index = 0; index < this.size; index++) {
+      int transactionNo = numbers.get(index);
+      if (selected.get(transactionNo) != 0) {
+        visitor.visit(transactionNo, this.accountNos.get(index), this.amounts.get(index));
+      }
+    }
+  }
+
+  /**
+   * Makes sure that the columns have room for the given number of items.
+   * 
+   * @param required The number of items.
+   */
+  private void ensureCapacity(long required) {
+    if (required <= this.capacity) {
+      return;
+    }
+    if (required > MAX_CAPACITY) {
+      throw new IllegalStateException("Too many items: " + required);
+    }
+    int newCapacity = (int) Math.min(MAX_CAPACITY, Math.max(required, this.capacity * 2L));
+    this.transactionNos = grow(this.transactionNos, newCapacity);
+    this.accountNos = grow(this.accountNos, newCapacity);
+    this.amounts = grow(this.amounts, newCapacity);
+    this.capacity = newCapacity;
+  }
+
+  /**
+   * Copies the items in a column into a larger column.
+   * 
+   * @param column The column.
+   * @param newCapacity The number of items for which there is room in the new column.
+   * @return The new column.
+   */
+  private IntBuffer grow(IntBuffer column, int newCapacity) {
+    IntBuffer items = column.duplicate();
+    items.position(0);
+    items.limit(this.size);
+    IntBuffer grown = allocate(newCapacity);
+    grown.put(items);
+    return grown;
+  }
+
+  /**
+   * Throws an exception if there is no item at the given index.
+   * 
+   * @param index The index of an item.
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + this.size);
+    }
+  }
+
+  /**
+   * Allocates a column outside of the heap.
+   * 
+   * @param capacity The number of items for which there is room in the column.
+   * @return The column.
+   */
+  private static IntBuffer allocate(int capacity) {
+    return ByteBuffer.allocateDirect(capacity * (Integer.SIZE / Byte.SIZE))
+        .order(ByteOrder.nativeOrder()).asIntBuffer();
+  }
+}
@@ -46,14 +46,14 @@ final class TreeLevel extends Kata {
   public void processLines() {
     while (!lines.isEmpty()) {
       StringBuffer buffer = new StringBuffer();
-      String line = lines.remove(0) + " ";
+      String line = lines.next() + " ";
       buffer.append(line);
       while (!line.contains("()") && !lines.isEmpty()) {
-        line = lines.remove(0) + " ";
+        line = lines.next() + " ";
         buffer.append(line);
       }
 
-      System.out.println(getLevelOrder(buffer.toString()));
+      out.println(getLevelOrder(buffer.toString()));
     }
   }
 
@@ -200,10 +200,10 @@ final class TreeLevel extends Kata {
     String filename = TreeLevel.class.getResource("example.kata").getPath();
 
     TreeLevel treeLevel = new TreeLevel();
-    treeLevel.setLines(KataUtils.readLines(filename));
+    treeLevel.setLines(KataUtils.openLines(filename));
 
     if (treeLevel.getLines() != null) {
-      treeLevel.processLines();
+      treeLevel.run();
     }
   }
 }
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.arbitrage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.katas.common.CollectingResultSink;
+import org.katas.common.Combinatorics;
+
+/**
+ * JUnit tests for the {@link ArbitrageDetector} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestArbitrageDetector {
+
+  /**
+   * Tests the tables in the example file.
+   */
+  @Test
+  public void testExamples() {
+    double[][] table1 = { { 1.0, 1.2, .89 }, { .88, 1.0, 5.1 }, { 1.1, 0.15, 1.0 } };
+    assertEquals("should find 121", "121: 1.056",
+        ArbitrageDetector.findBestExchange(table1).toString());
+    double[][] table2 = { { 1.0, 2.0 }, { 0.45, 1.0 } };
+    assertNull("should find no sequence", ArbitrageDetector.findBestExchange(table2));
+  }
+
+  /**
+   * Tests that ties are broken by exchange sequence when every rate is the same.
+   */
+  @Test
+  public void testTies() {
+    double[][] table = new double[4][4];
+    for (int row = 0; row < table.length; row++) {
+      Arrays.fill(table[row], 1.1);
+      table[row][row] = 1.0;
+    }
+    assertEquals("should find 121", findByExhaustiveSearch(table),
+        ArbitrageDetector.findBestExchange(table).toString());
+
+    // Exchanging back and forth loses money, so the shortest sequences have three exchanges.
+    for (int row = 0; row < table.length; row++) {
+      for (int col = 0; col < row; col++) {
+        table[row][col] = 0.9;
+      }
+    }
+    assertEquals("should find 1231", findByExhaustiveSearch(table),
+        ArbitrageDetector.findBestExchange(table).toString());
+  }
+
+  /**
+   * Tests that the same sequences are found as by evaluating every permutation of every subset of
+   * currencies, both in tables with many profitable sequences and in nearly fair tables, whose
+   * shortest profitable sequences can be long.
+   */
+  @Test
+  public void testSameAsExhaustiveSearch() {
+    Random random = new Random(42);
+    for (int trial = 0; trial < 600; trial++) {
+      int size = 2 + trial % 6;
+      double[][] table = new double[size][size];
+      double[] values = new double[size];
+      for (int index = 0; index < size; index++) {
+        values[index] = 0.5 + random.nextDouble();
+      }
+      double noise = (trial % 3 == 0) ? 0.75 : 0.02;
+      for (int row = 0; row < size; row++) {
+        for (int col = 0; col < size; col++) {
+          double rate = values[col] / values[row] * (1 + noise * (random.nextDouble() - 0.5));
+          if (trial % 3 == 2 && col < row) {
+            // Exchanging back and forth loses money, so the shortest sequences are longer.
+            rate = 0.999 / table[col][row];
+          }
+          table[row][col] = (row == col) ? 1.0 : Math.round(rate * 10000) / 10000.0;
+        }
+      }
+      assertEquals("should find same sequence in table " + trial, findByExhaustiveSearch(table),
+          String.valueOf(ArbitrageDetector.findBestExchange(table)));
+    }
+  }
+
+  /**
+   * Tests that the only profitable sequence of a table is found when it visits every currency, so
+   * that the first hops of walks of every length are needed to reconstruct it.
+   */
+  @Test
+  public void testLongestCycle() {
+    int size = 40;
+    ExchangeTable table = new ExchangeTable(size);
+    int[] sequence = new int[size];
+    StringBuilder expected = new StringBuilder();
+    for (int from = 0; from < size; from++) {
+      for (int to = 0; to < size; to++) {
+        if (from != to) {
+          table.setRate(from, to, (to == (from + 1) % size) ? 1.001 : 0.5);
+        }
+      }
+      sequence[from] = from;
+      expected.append(ArbitrageDetector.label(from));
+    }
+    expected.append(ArbitrageDetector.label(0));
+
+    CurrencyExchange exchange = ArbitrageDetector.findBestExchange(table);
+    assertEquals("should visit every currency", expected.toString(),
+        exchange.getExchangeSequence());
+    assertEquals("should multiply rates in order", table.calculateProfit(sequence, size),
+        exchange.getProfit(), 0.0);
+  }
+
+  /**
+   * Tests that many tables solved in parallel are printed in the same order as when they are
+   * solved one after another, and that a table with an invalid rate is skipped.
+   */
+  @Test
+  public void testParallelOrder() {
+    Random random = new Random(42);
+    List<String> lines = new ArrayList<String>();
+    for (int table = 0; table < 500; table++) {
+      int size = 2 + table % 4;
+      lines.add(Integer.toString(size));
+      for (int row = 0; row < size; row++) {
+        StringBuilder builder = new StringBuilder();
+        for (int col = 0; col < size - 1; col++) {
+          builder.append(col == 0 ? "" : " ").append(0.5 + random.nextInt(1000) / 1000.0);
+        }
+        lines.add(table == 250 && row == 1 ? "x" : builder.toString());
+      }
+    }
+
+    List<String> expected = solve(lines, 1);
+    // Every table is followed by a blank line, and the output ends with a line break.
+    assertEquals("should print all but one table", 499 * 2 + 1, expected.size());
+    assertEquals("should print same output", expected, solve(lines, 4));
+  }
+
+  /**
+   * Solves the tables in the given lines, printing only the exchange sequences.
+   * 
+   * @param lines The lines that contain the tables.
+   * @param parallelism The number of tables that can be solved at the same time.
+   * @return The lines that were printed.
+   */
+  private static List<String> solve(List<String> lines, int parallelism) {
+    Arbitrage arbitrage = new Arbitrage();
+    CollectingResultSink sink = new CollectingResultSink();
+    arbitrage.setParallelism(parallelism);
+    arbitrage.setPrintTables(false);
+    arbitrage.setResultSink(sink);
+    arbitrage.setLines(lines);
+    arbitrage.processLines();
+    return sink.getLines();
+  }
+
+  /**
+   * Finds the best exchange sequence the way that {@link Arbitrage} used to: by evaluating every
+   * permutation of every subset of currencies, keeping the shortest sequences, and then keeping the
+   * most profitable one.
+   * 
+   * @param table The table containing the exchange rates.
+   * @return The best exchange sequence, or "null" if there is none.
+   */
+  private static String findByExhaustiveSearch(double[][] table) {
+    char[] currencies = new char[table.length];
+    for (int index = 0; index < currencies.length; index++) {
+      currencies[index] = ArbitrageDetector.label(index);
+    }
+    List<String> sequences = new ArrayList<String>();
+    for (char[] sequence : Combinatorics.subsets(currencies, 2, currencies.length)) {
+      do {
+        sequences.add(new String(sequence) + sequence[0]);
+      }
+      while (Combinatorics.nextPermutation(sequence));
+    }
+    Collections.sort(sequences);
+
+    ExchangeTable exchangeTable = new ExchangeTable(table);
+    List<CurrencyExchange> exchanges = new ArrayList<CurrencyExchange>();
+    for (String sequence : sequences) {
+      int[] indexes = new int[sequence.length() - 1];
+      for (int index = 0; index < indexes.length; index++) {
+        indexes[index] = sequence.charAt(index) - '1';
+      }
+      double profit = exchangeTable.calculateProfit(indexes, indexes.length);
+      if (profit > 1.00) {
+        exchanges.add(new CurrencyExchange(sequence, profit));
+      }
+    }
+
+    Collections.sort(exchanges);
+    for (int index = 0; index < exchanges.size() - 1; index++) {
+      if (exchanges.get(index).getExchangeSequence().length() < exchanges.get(index + 1)
+          .getExchangeSequence().length()) {
+        exchanges.remove(index + 1);
+        index--;
+      }
+    }
+    for (int index = 0; index < exchanges.size() - 1; index++) {
+      if (Double.compare(exchanges.get(index).getProfit(), exchanges.get(index + 1).getProfit())
+          == 0) {
+        exchanges.remove(index + 1);
+        index--;
+      }
+    }
+    return exchanges.isEmpty() ? "null" : exchanges.get(exchanges.size() - 1).toString();
+  }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.arbitrage;
+
+import static org.junit.Assert.assertEquals;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Test;
+import org.katas.common.CollectingResultSink;
+
+/**
+ * JUnit tests for the {@link ArbitrageMonitor} and {@link RateFeed} classes.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestArbitrageMonitor {
+
+  /**
+   * Tests that after every update, the profitable cycles are the same as those found in the
+   * updated table from scratch, and that the changes that were reported account for the difference.
+   */
+  @Test
+  public void testUpdates() {
+    Random random = new Random(42);
+    for (int maxLength = 2; maxLength <= 4; maxLength++) {
+      int size = 7;
+      ExchangeTable table = new ExchangeTable(size);
+      for (int from = 0; from < size; from++) {
+        for (int to = 0; to < size; to++) {
+          if (from != to) {
+            table.setRate(from, to, 0.6 + random.nextDouble() * 0.8);
+          }
+        }
+      }
+
+      ArbitrageMonitor monitor = new ArbitrageMonitor(table, maxLength);
+      for (int update = 0; update < 300; update++) {
+        TreeSet<String> before = sequences(monitor.getProfitableExchanges());
+        int from = random.nextInt(size);
+        int to = (from + 1 + random.nextInt(size - 1)) % size;
+        RateChange change = monitor.update(from, to, 0.6 + random.nextDouble() * 0.8);
+
+        List<CurrencyExchange> expected =
+            new ArbitrageMonitor(monitor.getTable(), maxLength).getProfitableExchanges();
+        assertEquals("should track same cycles", expected, monitor.getProfitableExchanges());
+
+        TreeSet<String> after = sequences(expected);
+        before.addAll(sequences(change.getAdded()));
+        before.removeAll(sequences(change.getRemoved()));
+        assertEquals("should report changes", after, before);
+      }
+    }
+  }
+
+  /**
+   * Tests replaying a log of rate updates.
+   */
+  @Test
+  public void testRateFeed() {
+    RateFeed feed = new RateFeed();
+    CollectingResultSink sink = new CollectingResultSink();
+    feed.setResultSink(sink);
+    feed.setLines(Arrays.asList("3", "1.2 .89", ".88 5.1", "1.1 0.15", "1 2 1.0", "2 1 1.05"));
+    feed.run();
+    List<String> lines = sink.getLines();
+    assertEquals("should start with 121", "Best: 121: 1.056", lines.get(0));
+    assertEquals("should remove 121", "  - 121: 1.056", lines.get(2));
+    assertEquals("should add 121", "  + 121: 1.05", lines.get(4));
+    assertEquals("should end with 121", "Best: 121: 1.05", lines.get(5));
+  }
+
+  /**
+   * Gets the exchange sequences of the given exchanges.
+   * 
+   * @param exchanges The exchanges.
+   * @return The exchange sequences.
+   */
+  private static TreeSet<String> sequences(List<CurrencyExchange> exchanges) {
+    TreeSet<String> sequences = new TreeSet<String>();
+    for (CurrencyExchange exchange : exchanges) {
+      sequences.add(exchange.getExchangeSequence());
+    }
+    return sequences;
+  }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.arbitrage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link ArbitrageRanker} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestArbitrageRanker {
+
+  /**
+   * Tests the tables in the example file.
+   */
+  @Test
+  public void testExamples() {
+    double[][] table1 = { { 1.0, 1.2, .89 }, { .88, 1.0, 5.1 }, { 1.1, 0.15, 1.0 } };
+    List<CurrencyExchange> exchanges =
+        ArbitrageRanker.findTopExchanges(new ExchangeTable(table1), 3, 2);
+    assertEquals("should find two sequences", 2, exchanges.size());
+    assertTrue("should rank by profit",
+        exchanges.get(0).getProfit() >= exchanges.get(1).getProfit());
+    double[][] table2 = { { 1.0, 2.0 }, { 0.45, 1.0 } };
+    assertTrue("should find no sequence",
+        ArbitrageRanker.findTopExchanges(new ExchangeTable(table2), 2, 5).isEmpty());
+  }
+
+  /**
+   * Tests that every profitable sequence is found when the number of sequences to find has no
+   * practical limit.
+   */
+  @Test
+  public void testUnlimitedCount() {
+    double[][] table = { { 1.0, 1.2, .89 }, { .88, 1.0, 5.1 }, { 1.1, 0.15, 1.0 } };
+    List<CurrencyExchange> all =
+        ArbitrageRanker.findTopExchanges(new ExchangeTable(table), 3, Integer.MAX_VALUE);
+    assertEquals("should find same sequences as with an exact count",
+        ArbitrageRanker.findTopExchanges(new ExchangeTable(table), 3, all.size()), all);
+    assertEquals("should find no more sequences", all,
+        ArbitrageRanker.findTopExchanges(new ExchangeTable(table), 3, all.size() + 1));
+  }
+
+  /**
+   * Tests that the same sequences are found as by evaluating every cycle of up to the maximum
+   * length, for many different lengths and numbers of sequences.
+   */
+  @Test
+  public void testSameAsExhaustiveSearch() {
+    Random random = new Random(42);
+    for (int trial = 0; trial < 300; trial++) {
+      int size = 2 + trial % 7;
+      ExchangeTable table = new ExchangeTable(size);
+      for (int from = 0; from < size; from++) {
+        for (int to = 0; to < size; to++) {
+          if (from != to) {
+            double rate = (trial % 2 == 0) ? 0.6 + random.nextDouble() * 0.8 : 1.1;
+            table.setRate(from, to, Math.round(rate * 100) / 100.0);
+          }
+        }
+      }
+      int maxLength = 2 + trial % 4;
+      int count = (trial % 3 == 0) ? 1 : 1 + random.nextInt(20);
+
+      List<CurrencyExchange> expected =
+          new ArbitrageMonitor(table, maxLength).getProfitableExchanges();
+      Collections.sort(expected, new Comparator<CurrencyExchange>() {
+        @Override
+        public int compare(CurrencyExchange exchange1, CurrencyExchange exchange2) {
+          int compare = Double.compare(exchange2.getProfit(), exchange1.getProfit());
+          return (compare != 0) ? compare
+              : exchange1.getExchangeSequence().compareTo(exchange2.getExchangeSequence());
+        }
+      });
+      expected = expected.subList(0, Math.min(count, expected.size()));
+      assertEquals("should find same sequences in table " + trial, expected,
+          ArbitrageRanker.findTopExchanges(table, maxLength, count));
+    }
+  }
+}
@@ -18,7 +18,9 @@ package org.katas.calculator;
 import static org.junit.Assert.assertEquals;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import org.junit.Test;
+import org.katas.common.CollectingResultSink;
 
 /**
  * JUnit tests for the Crazy Calculator kata.
@@ -56,4 +58,50 @@ public class TestCrazyCalculator {
     assertEquals("should be 3", 3, Integer.parseInt(results.get(4)));
   }
 
+  /**
+   * Tests that many sets of rules and expressions solved in parallel are printed in the same order
+   * as when they are solved one after another.
+   */
+  @Test
+  public void testParallelOrder() {
+    Random random = new Random(42);
+    List<String> lines = new ArrayList<>();
+    lines.add("200");
+    lines.add("");
+    for (int calculation = 0; calculation < 200; calculation++) {
+      for (String ops : new String[] { "+@", "-+", "*-", "//" }) {
+        lines.add(ops + (1 + random.nextInt(3)) + (random.nextBoolean() ? "L" : "R"));
+      }
+      for (int expression = 0; expression < 5; expression++) {
+        StringBuilder builder = new StringBuilder().append(1 + random.nextInt(9));
+        for (int operand = random.nextInt(6); operand > 0; operand--) {
+          builder.append("@+-".charAt(random.nextInt(3))).append(1 + random.nextInt(9));
+        }
+        lines.add(builder.toString());
+      }
+      lines.add("");
+    }
+
+    String expected = solve(lines, 1);
+    assertEquals("should print every expression", 200 * 5, expected.split(" = ").length - 1);
+    assertEquals("should print same output", expected, solve(lines, 4));
+  }
+
+  /**
+   * Solves the calculations in the given lines.
+   * 
+   * @param lines The lines that contain the calculations.
+   * @param parallelism The number of calculations that can be solved at the same time.
+   * @return The output.
+   */
+  private static String solve(List<String> lines, int parallelism) {
+    CrazyCalculator calculator = new CrazyCalculator();
+    CollectingResultSink sink = new CollectingResultSink();
+    calculator.setParallelism(parallelism);
+    calculator.setResultSink(sink);
+    calculator.setLines(lines);
+    calculator.processLines();
+    return sink.getOutput();
+  }
+
 }
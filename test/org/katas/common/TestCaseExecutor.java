@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link CaseExecutor} class, through a {@link MultiCaseKata} whose cases are
+ * numbers that take different amounts of time to solve, so that they finish out of order.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestCaseExecutor {
+
+  /** The numbers of cases that are solved at the same time in the tests. */
+  private static final int[] PARALLELISMS = { 1, 2, 4 };
+
+  /**
+   * Tests that the output of the cases is printed in the order in which they were read in.
+   */
+  @Test
+  public void testOrder() {
+    List<String> lines = cases(200);
+    for (int parallelism : PARALLELISMS) {
+      NumberKata kata = new NumberKata(lines, parallelism);
+      kata.processLines();
+      assertEquals("should print in order with parallelism " + parallelism, output(200),
+          kata.sink.getOutput());
+      assertEquals("should count cases", 200, kata.getCaseCount());
+    }
+  }
+
+  /**
+   * Tests that no more than a few cases per worker are read in before the output of the earliest
+   * one is printed, and that no more cases are solved at the same time than the parallelism.
+   */
+  @Test
+  public void testBoundedInFlight() {
+    for (int parallelism : PARALLELISMS) {
+      NumberKata kata = new NumberKata(cases(200), parallelism);
+      kata.processLines();
+      int bound = (parallelism == 1) ? 1 : parallelism * CaseExecutor.CASES_PER_WORKER;
+      assertTrue("should bound cases in flight with parallelism " + parallelism,
+          kata.maxUnprinted <= bound);
+      assertTrue("should bound cases being solved with parallelism " + parallelism,
+          kata.maxSolving.get() <= parallelism);
+    }
+  }
+
+  /**
+   * Tests that a case that cannot be solved stops the kata with its exception, after the output
+   * of every case before it, and of no case after it, has been printed.
+   */
+  @Test
+  public void testFailingCase() {
+    List<String> lines = cases(50);
+    lines.set(20, "-1");
+    for (int parallelism : PARALLELISMS) {
+      NumberKata kata = new NumberKata(lines, parallelism);
+      try {
+        kata.processLines();
+        fail("should fail with parallelism " + parallelism);
+      }
+      catch (IllegalArgumentException e) {
+        assertEquals("should report case", "Cannot solve case 21", e.getMessage());
+      }
+      assertEquals("should print cases before failure", output(20), kata.sink.getOutput());
+    }
+  }
+
+  /**
+   * Tests that a case that cannot be read in stops the kata with its exception, after the output
+   * of every case before it has been printed.
+   */
+  @Test
+  public void testUnreadableCase() {
+    List<String> lines = cases(50);
+    lines.set(30, "unreadable");
+    for (int parallelism : PARALLELISMS) {
+      NumberKata kata = new NumberKata(lines, parallelism);
+      try {
+        kata.processLines();
+        fail("should fail with parallelism " + parallelism);
+      }
+      catch (IllegalStateException e) {
+        assertEquals("should report line", "Cannot read case: unreadable", e.getMessage());
+      }
+      assertEquals("should print cases before failure", output(30), kata.sink.getOutput());
+    }
+  }
+
+  /**
+   * Creates the lines of the given number of cases, whose numbers are 0, 1, 2, and so on.
+   * 
+   * @param count The number of cases.
+   * @return The lines, one per case.
+   */
+  private static List<String> cases(int count) {
+    List<String> lines = new ArrayList<String>();
+    for (int number = 0; number < count; number++) {
+      lines.add(Integer.toString(number));
+    }
+    return lines;
+  }
+
+  /**
+   * Gets the output of the first cases created by {@link #cases(int)}.
+   * 
+   * @param count The number of cases.
+   * @return The output of the cases, in order.
+   */
+  private static String output(int count) {
+    StringBuilder builder = new StringBuilder();
+    for (int number = 0; number < count; number++) {
+      builder.append(number + 1).append(": ").append(number).append('\n');
+    }
+    return builder.toString();
+  }
+
+  /**
+   * A result sink that counts the results that have been printed.
+   */
+  private static final class CountingResultSink extends CollectingResultSink {
+
+    private int printed;
+
+    /** {@inheritDoc} */
+    @Override
+    public void print(CharSequence chars) {
+      super.print(chars);
+      this.printed++;
+    }
+  }
+
+  /**
+   * A kata whose cases are numbers, one per line. Later cases are solved faster than earlier ones,
+   * and a negative number cannot be solved.
+   */
+  private static final class NumberKata extends MultiCaseKata<Integer> {
+
+    private final CountingResultSink sink = new CountingResultSink();
+    private final AtomicInteger solving = new AtomicInteger();
+    private final AtomicInteger maxSolving = new AtomicInteger();
+    private int read;
+    private int maxUnprinted;
+
+    /**
+     * Creates a new NumberKata.
+     * 
+     * @param lines The lines that contain the cases.
+     * @param parallelism The number of cases that can be solved at the same time.
+     */
+    NumberKata(List<String> lines, int parallelism) {
+      setLines(lines);
+      setResultSink(this.sink);
+      setParallelism(parallelism);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Integer readCase() {
+      if (this.lines.isEmpty()) {
+        return null;
+      }
+      String line = this.lines.next();
+      if (!line.matches("-?\\d+")) {
+        throw new IllegalStateException("Cannot read case: " + line);
+      }
+      this.read++;
+      this.maxUnprinted = Math.max(this.maxUnprinted, this.read - this.sink.printed);
+      return Integer.valueOf(line);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected String solveCase(int caseNumber, Integer number) {
+      int solvingNow = this.solving.incrementAndGet();
+      try {
+        while (solvingNow > this.maxSolving.get()) {
+          this.maxSolving.compareAndSet(this.maxSolving.get(), solvingNow);
+        }
+        Thread.sleep(2 - Math.abs(number) % 3);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while solving case " + caseNumber, e);
+      }
+      finally {
+        this.solving.decrementAndGet();
+      }
+      if (number < 0) {
+        throw new IllegalArgumentException("Cannot solve case " + caseNumber);
+      }
+      return caseNumber + ": " + number + "\n";
+    }
+  }
+}
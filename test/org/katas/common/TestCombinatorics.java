@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link Combinatorics} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestCombinatorics {
+
+  /**
+   * Tests that each distinct permutation is generated once and in sorted order, and that its rank
+   * is its position in that order.
+   */
+  @Test
+  public void testPermutations() {
+    List<String> permutations = new ArrayList<String>();
+    for (char[] permutation : Combinatorics.permutations("baca".toCharArray())) {
+      assertEquals(new String(permutation), permutations.size(),
+          Combinatorics.rank(permutation));
+      permutations.add(new String(permutation));
+    }
+    assertEquals("should be 12 permutations", 12, permutations.size());
+    assertEquals("first should be aabc", "aabc", permutations.get(0));
+    assertEquals("last should be cbaa", "cbaa", permutations.get(11));
+  }
+
+  /**
+   * Tests that only the subsets within the given sizes are generated.
+   */
+  @Test
+  public void testSubsets() {
+    List<String> subsets = new ArrayList<String>();
+    for (char[] subset : Combinatorics.subsets("abcd".toCharArray(), 2, 3)) {
+      subsets.add(new String(subset));
+    }
+    assertEquals("should be 10 subsets", 10, subsets.size());
+    assertEquals("first should be ab", "ab", subsets.get(0));
+    assertEquals("last should be bcd", "bcd", subsets.get(9));
+  }
+}
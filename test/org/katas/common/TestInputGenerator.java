@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link InputGenerator} enum.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestInputGenerator {
+
+  /**
+   * Tests that the same seed always produces the same input and that a different seed does not.
+   */
+  @Test
+  public void testSeed() {
+    for (InputGenerator generator : InputGenerator.values()) {
+      List<String> lines = generator.generateLines(20, 1);
+      assertEquals(generator.name(), lines, generator.generateLines(20, 1));
+      assertFalse(generator.name(), lines.equals(generator.generateLines(20, 2)));
+    }
+  }
+
+  /**
+   * Tests that a generated field is as large as requested and has one line per row.
+   */
+  @Test
+  public void testMinesweeper() {
+    List<String> lines = InputGenerator.MINESWEEPER.generateLines(5, 42);
+    assertEquals("should be 6 lines", 6, lines.size());
+    assertEquals("first line should be size of field", "5 5", lines.get(0));
+    assertEquals("each row should have 5 squares", 9, lines.get(5).length());
+  }
+}
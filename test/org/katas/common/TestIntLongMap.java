@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link IntLongMap} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestIntLongMap {
+
+  /**
+   * Tests that the map holds the same values as a <code>HashMap</code> while it grows, with keys
+   * that are negative, zero, and multiples of large powers of two.
+   */
+  @Test
+  public void testSameAsHashMap() {
+    Random random = new Random(42);
+    IntLongMap map = new IntLongMap();
+    Map<Integer, Long> expected = new HashMap<Integer, Long>();
+    for (int count = 0; count < 100000; count++) {
+      int key = random.nextInt(5000) - 1000;
+      if (count % 7 == 0) {
+        key <<= 16;
+      }
+      long amount = random.nextInt(2001) - 1000;
+      Long value = expected.get(key);
+      expected.put(key, (value == null ? 0 : value) + amount);
+      assertEquals("should add amount", (long) expected.get(key), map.add(key, amount));
+    }
+    map.put(Integer.MIN_VALUE, Long.MAX_VALUE);
+    expected.put(Integer.MIN_VALUE, Long.MAX_VALUE);
+
+    assertEquals("should have same size", expected.size(), map.size());
+    for (Map.Entry<Integer, Long> entry : expected.entrySet()) {
+      assertEquals("should map key", (long) entry.getValue(), map.get(entry.getKey()));
+    }
+    int[] keys = map.keys();
+    Arrays.sort(keys);
+    int[] expectedKeys = new int[expected.size()];
+    int index = 0;
+    for (int key : expected.keySet()) {
+      expectedKeys[index++] = key;
+    }
+    Arrays.sort(expectedKeys);
+    assertTrue("should have same keys", Arrays.equals(expectedKeys, keys));
+    assertFalse("should not contain key", map.containsKey(5000));
+    assertEquals("should get 0 for missing key", 0, map.get(5000));
+  }
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import static org.junit.Assert.assertEquals;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link KataRunner} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestKataRunner {
+
+  /**
+   * Tests that a kata can be found by its fully qualified name, by its name relative to
+   * org.katas, or by its simple name in any case.
+   * 
+   * @throws Exception If a kata cannot be found.
+   */
+  @Test
+  public void testFindKata() throws Exception {
+    String name = "org.katas.minesweeper.Minesweeper";
+    assertEquals(name, KataRunner.findKata(name).getName());
+    assertEquals(name, KataRunner.findKata("minesweeper.Minesweeper").getName());
+    assertEquals(name, KataRunner.findKata("MINESWEEPER").getName());
+  }
+
+  /**
+   * Tests running a kata on a stream.
+   * 
+   * @throws Exception If the kata cannot be found.
+   */
+  @Test
+  public void testRunStream() throws Exception {
+    byte[] input = "bca\n#\n".getBytes(StandardCharsets.US_ASCII);
+    CollectingResultSink sink = new CollectingResultSink();
+    KataRunner runner =
+        new KataRunner(KataRunner.findKata("Permalex"), StandardCharsets.US_ASCII, 1);
+    KataRunner.Throughput throughput = runner.run(new ByteArrayInputStream(input), sink);
+    assertEquals("4", sink.getOutput().trim());
+    assertEquals("should be 2 lines", 2, throughput.getLines());
+    assertEquals("should be 6 bytes", 6, throughput.getBytes());
+  }
+
+  /**
+   * Tests that the results of the files in a directory are printed in order of file name, even
+   * though more files are processed than may be in flight at a time.
+   * 
+   * @throws Exception If the kata cannot be found or the files cannot be written.
+   */
+  @Test
+  public void testRunDirectory() throws Exception {
+    File directory = Files.createTempDirectory("katas").toFile();
+    StringBuilder expected = new StringBuilder();
+    try {
+      for (int index = 0; index < 20; index++) {
+        String name = String.format("input%02d.txt", index);
+        Files.write(new File(directory, name).toPath(), Arrays.asList("cba", "#"),
+            StandardCharsets.US_ASCII);
+        expected.append("==> ").append(name).append(" <==\n6\n");
+      }
+      CollectingResultSink sink = new CollectingResultSink();
+      KataRunner runner =
+          new KataRunner(KataRunner.findKata("Permalex"), StandardCharsets.US_ASCII, 3);
+      KataRunner.Throughput throughput = runner.run(directory, sink);
+      assertEquals("should print files in order", expected.toString(),
+          sink.getOutput().replace(System.lineSeparator(), "\n"));
+      assertEquals("should count all lines", 40, throughput.getLines());
+    }
+    finally {
+      for (File file : directory.listFiles()) {
+        Files.delete(file.toPath());
+      }
+      Files.delete(directory.toPath());
+    }
+  }
+}
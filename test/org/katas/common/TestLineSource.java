@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.Closeable;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link LineSource} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestLineSource {
+
+  /**
+   * Tests that peeking at a line does not consume it, and that only consumed lines are counted.
+   */
+  @Test
+  public void testPeekAndNext() {
+    LineSource lines = new LineSource(Arrays.asList("a", "b", "c"));
+    assertEquals("should peek at first line", "a", lines.peek());
+    assertEquals("should peek at same line", "a", lines.peek());
+    assertEquals("should not count peeked line", 0, lines.getLineCount());
+    assertEquals("should consume peeked line", "a", lines.next());
+    assertEquals("should consume second line", "b", lines.next());
+    assertEquals("should peek at last line", "c", lines.peek());
+    assertEquals("should count consumed lines", 2, lines.getLineCount());
+    assertEquals("should return remaining lines", Arrays.asList("c"), lines.toList());
+    assertTrue("should be empty", lines.isEmpty());
+    assertFalse("should have no more lines", lines.hasNext());
+  }
+
+  /**
+   * Tests that lines are read in lazily from a reader, including an empty line and a last line
+   * without a line break.
+   */
+  @Test
+  public void testReader() {
+    LineSource lines = new LineSource(new StringReader("first\r\n\nlast"));
+    assertEquals("should read first line", "first", lines.next());
+    assertEquals("should read empty line", "", lines.next());
+    assertEquals("should read last line", "last", lines.peek());
+    assertEquals("should read last line", "last", lines.next());
+    assertTrue("should be empty", lines.isEmpty());
+  }
+
+  /**
+   * Tests that a closeable iterator is closed once its last line has been read in.
+   */
+  @Test
+  public void testClosesIterator() {
+    final boolean[] closed = new boolean[1];
+    class ClosingIterator implements Iterator<String>, Closeable {
+      private final Iterator<String> lines = Arrays.asList("only").iterator();
+
+      @Override
+      public boolean hasNext() {
+        return this.lines.hasNext();
+      }
+
+      @Override
+      public String next() {
+        return this.lines.next();
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void close() {
+        closed[0] = true;
+      }
+    }
+    LineSource lines = new LineSource(new ClosingIterator());
+    assertEquals("should read line", "only", lines.next());
+    assertFalse("should not close before end is seen", closed[0]);
+    assertFalse("should have no more lines", lines.hasNext());
+    assertTrue("should close at end", closed[0]);
+  }
+
+  /**
+   * Tests that peeking past the last line is reported.
+   */
+  @Test(expected = NoSuchElementException.class)
+  public void testPeekPastEnd() {
+    LineSource lines = new LineSource(Arrays.asList("a"));
+    lines.next();
+    lines.peek();
+  }
+
+  /**
+   * Tests that lines cannot be removed.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testRemove() {
+    new LineSource(Arrays.asList("a")).remove();
+  }
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link MappedLineReader} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestMappedLineReader {
+
+  private static final String TEXT =
+      "one\r\ntwo\n\nthree\rfour\r\na much longer line than the window\r\r\nlast";
+
+  private File file;
+
+  /**
+   * Creates the file that is read in by a test.
+   * 
+   * @throws IOException If the file could not be created.
+   */
+  @Before
+  public void init() throws IOException {
+    file = File.createTempFile("lines", ".txt");
+  }
+
+  /**
+   * Deletes the file that was read in by a test.
+   */
+  @After
+  public void cleanUp() {
+    assertTrue("should delete file", file.delete());
+  }
+
+  /**
+   * Tests that lines are split exactly like {@link BufferedReader#readLine()} splits them, for
+   * windows that are small enough that lines and line breaks are split across windows, including
+   * a CRLF whose two bytes are in different windows and a last line without a line break.
+   * 
+   * @throws IOException If the file could not be written or read.
+   */
+  @Test
+  public void testWindowBoundaries() throws IOException {
+    Files.write(file.toPath(), TEXT.getBytes(StandardCharsets.US_ASCII));
+    List<String> expected = readAll(TEXT);
+    for (int windowSize = 2; windowSize <= TEXT.length() + 1; windowSize++) {
+      assertEquals("window of " + windowSize + " bytes", expected,
+          readAll(StandardCharsets.US_ASCII, windowSize));
+    }
+  }
+
+  /**
+   * Tests that a file that ends with a line break does not have an empty last line, and that an
+   * empty file has no lines.
+   * 
+   * @throws IOException If the file could not be written or read.
+   */
+  @Test
+  public void testFinalLineBreak() throws IOException {
+    Files.write(file.toPath(), "a\nb\r\n".getBytes(StandardCharsets.US_ASCII));
+    List<String> expected = new ArrayList<String>();
+    expected.add("a");
+    expected.add("b");
+    assertEquals("should not add empty line", expected, readAll(StandardCharsets.US_ASCII, 3));
+
+    Files.write(file.toPath(), new byte[0]);
+    assertTrue("should be empty", readAll(StandardCharsets.US_ASCII, 4).isEmpty());
+  }
+
+  /**
+   * Tests that a UTF-16 file with a little-endian byte order mark is decoded.
+   * 
+   * @throws IOException If the file could not be written or read.
+   */
+  @Test
+  public void testUtf16() throws IOException {
+    String text = "caf\u00E9\r\n\u20AC\n";
+    ByteBuffer bytes = ByteBuffer.allocate(2 + 2 * text.length());
+    bytes.put((byte) 0xFF).put((byte) 0xFE).put(text.getBytes(StandardCharsets.UTF_16LE));
+    Files.write(file.toPath(), bytes.array());
+    assertEquals("should decode lines", readAll(text), readAll(StandardCharsets.UTF_16, 4));
+  }
+
+  /**
+   * Tests that the position of each line can be saved with {@link MappedLineReader#getPosition()}
+   * and read in again after {@link MappedLineReader#setPosition(long)}.
+   * 
+   * @throws IOException If the file could not be written or read.
+   */
+  @Test
+  public void testSetPosition() throws IOException {
+    Files.write(file.toPath(), TEXT.getBytes(StandardCharsets.US_ASCII));
+    try (MappedLineReader reader = new MappedLineReader(file.getPath(),
+        StandardCharsets.US_ASCII, 8)) {
+      List<Long> positions = new ArrayList<Long>();
+      List<String> lines = new ArrayList<String>();
+      while (reader.hasNext()) {
+        positions.add(reader.getPosition());
+        lines.add(reader.next());
+      }
+      assertEquals("should be at end of file", reader.getFileSize(), reader.getPosition());
+      for (int index = lines.size() - 1; index >= 0; index--) {
+        reader.setPosition(positions.get(index));
+        assertEquals("should read line again", lines.get(index), reader.next());
+      }
+      reader.setPosition(reader.getFileSize());
+      assertFalse("should have no more lines", reader.hasNext());
+    }
+  }
+
+  /**
+   * Tests that a position past the end of the file is rejected.
+   * 
+   * @throws IOException If the file could not be written or read.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPosition() throws IOException {
+    Files.write(file.toPath(), "a".getBytes(StandardCharsets.US_ASCII));
+    try (MappedLineReader reader = new MappedLineReader(file.getPath(),
+        StandardCharsets.US_ASCII)) {
+      reader.setPosition(2);
+    }
+  }
+
+  /**
+   * Reads in all of the lines in the file.
+   * 
+   * @param charset The charset of the file.
+   * @param windowSize The number of bytes mapped at a time.
+   * @return The lines in the file.
+   * @throws IOException If the file could not be read.
+   */
+  private List<String> readAll(Charset charset, int windowSize) throws IOException {
+    List<String> lines = new ArrayList<String>();
+    try (MappedLineReader reader = new MappedLineReader(file.getPath(), charset, windowSize)) {
+      while (reader.hasNext()) {
+        lines.add(reader.next());
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Splits text into lines with a <code>BufferedReader</code>.
+   * 
+   * @param text The text.
+   * @return The lines in the text.
+   * @throws IOException Never.
+   */
+  private static List<String> readAll(String text) throws IOException {
+    List<String> lines = new ArrayList<String>();
+    BufferedReader reader = new BufferedReader(new StringReader(text));
+    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+      lines.add(line);
+    }
+    return lines;
+  }
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link Metrics} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestMetrics {
+
+  /**
+   * Disables metrics after each test.
+   */
+  @After
+  public void tearDown() {
+    Metrics.setEnabled(false);
+    Metrics.reset();
+  }
+
+  /**
+   * Tests that nothing is recorded while metrics are disabled.
+   */
+  @Test
+  public void testDisabled() {
+    Counter counter = Metrics.counter("TestMetrics.disabled");
+    counter.increment();
+    assertEquals("should not be counted", 0, counter.getCount());
+  }
+
+  /**
+   * Tests that percentiles are within about 3% of the actual values.
+   */
+  @Test
+  public void testHistogram() {
+    Metrics.setEnabled(true);
+    Histogram histogram = Metrics.histogram("TestMetrics.histogram");
+    for (int value = 1; value <= 10000; value++) {
+      histogram.record(value);
+    }
+    assertEquals("count should be 10000", 10000, histogram.getCount());
+    assertEquals("max should be 10000", 10000, histogram.getMax());
+    assertEquals("mean should be 5000.5", 5000.5, histogram.getMean(), 0.0);
+    assertTrue("median should be about 5000", Math.abs(histogram.getPercentile50() - 5000) < 150);
+    assertTrue("p99 should be about 9900", Math.abs(histogram.getPercentile99() - 9900) < 300);
+    assertTrue(Metrics.dump(Metrics.Format.TEXT).contains("TestMetrics.histogram: count=10000"));
+  }
+
+  /**
+   * A kata that processes its input in a single pass.
+   */
+  private static final class SinglePassKata extends Kata {
+    @Override
+    public void processLines() {
+      for (String line : this.lines) {
+        this.out.println(line.toUpperCase());
+      }
+    }
+  }
+
+  /**
+   * A kata whose cases are the lines of its input.
+   */
+  private static final class LineCaseKata extends MultiCaseKata<String> {
+    @Override
+    protected String readCase() {
+      return this.lines.isEmpty() ? null : this.lines.next();
+    }
+
+    @Override
+    protected String solveCase(int caseNumber, String testCase) {
+      return caseNumber + ": " + testCase + "\n";
+    }
+  }
+
+  /**
+   * Tests that a kata that processes its input in a single pass reports the same metrics as a kata
+   * whose cases are solved one at a time.
+   */
+  @Test
+  public void testPhases() {
+    Metrics.setEnabled(true);
+    Kata[] katas = { new SinglePassKata(), new LineCaseKata() };
+    for (Kata kata : katas) {
+      kata.setLines(Arrays.asList("a", "b", "c"));
+      kata.setResultSink(new CollectingResultSink());
+      kata.run();
+      String name = kata.getClass().getSimpleName();
+      for (String phase : new String[] { ".run", ".output", ".parse", ".compute" }) {
+        assertTrue(name + phase + " should be recorded",
+            Metrics.timer(name + phase).getCount() > 0);
+      }
+    }
+    assertEquals("should count one case", 1, Metrics.counter("SinglePassKata.cases").getCount());
+    assertEquals("should count each case", 3, Metrics.counter("LineCaseKata.cases").getCount());
+  }
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link PrimitiveTokenizer} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestPrimitiveTokenizer {
+
+  /**
+   * Tests parsing integers, including the smallest and largest ones.
+   */
+  @Test
+  public void testInts() {
+    PrimitiveTokenizer tokenizer = new PrimitiveTokenizer(" ");
+    tokenizer.reset("  1 -2  +3 -2147483648 2147483647 ");
+    assertEquals("should be 5 tokens", 5, tokenizer.countTokens());
+    assertArrayEquals(new int[] { 1, -2, 3, Integer.MIN_VALUE, Integer.MAX_VALUE },
+        tokenizer.remainingInts());
+    assertFalse("should be no more tokens", tokenizer.hasMoreTokens());
+  }
+
+  /**
+   * Tests that doubles are parsed exactly like {@link Double#parseDouble(String)}.
+   */
+  @Test
+  public void testDoubles() {
+    String[] tokens = { "0", "-0.0", "1.1", ".5", "5.", "0.0000000000000000000001",
+        "3.14159265358979", "1234567890.123456789", "1e10", "-Infinity" };
+    PrimitiveTokenizer tokenizer = new PrimitiveTokenizer(" ");
+    for (String token : tokens) {
+      assertEquals(token, Double.valueOf(Double.parseDouble(token)),
+          Double.valueOf(tokenizer.reset(token).nextDouble()));
+    }
+  }
+
+  /**
+   * Tests that the first character of each token is returned.
+   */
+  @Test
+  public void testChars() {
+    PrimitiveTokenizer tokenizer = new PrimitiveTokenizer(" \t");
+    assertArrayEquals(new char[] { 'A', 'b', 'C' }, tokenizer.reset("A\tbc  C").remainingChars());
+  }
+
+  /**
+   * Tests that an invalid integer is reported.
+   */
+  @Test(expected = NumberFormatException.class)
+  public void testInvalidInt() {
+    new PrimitiveTokenizer(" ").reset("1 2x 3").remainingInts();
+  }
+
+  /**
+   * Tests that an integer that is too large is reported.
+   */
+  @Test(expected = NumberFormatException.class)
+  public void testOverflow() {
+    new PrimitiveTokenizer(" ").reset("2147483648").nextInt();
+  }
+
+}
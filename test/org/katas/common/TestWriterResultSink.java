@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.StringWriter;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link WriterResultSink} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestWriterResultSink {
+
+  /**
+   * A writer that counts how many times characters are written to it and how many times it is
+   * flushed.
+   */
+  private static final class CountingWriter extends StringWriter {
+    private int writes;
+    private int flushes;
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+      this.writes++;
+      super.write(chars, offset, length);
+    }
+
+    @Override
+    public void write(String string) {
+      this.writes++;
+      super.write(string);
+    }
+
+    @Override
+    public void flush() {
+      this.flushes++;
+      super.flush();
+    }
+  }
+
+  /**
+   * Tests that results are only written to the writer when the buffer is full or when the sink is
+   * flushed.
+   */
+  @Test
+  public void testBuffering() {
+    CountingWriter writer = new CountingWriter();
+    WriterResultSink sink = new WriterResultSink(writer, 8);
+    sink.print("abc");
+    sink.print('d');
+    sink.print(42);
+    assertEquals("should not write until buffer is full", 0, writer.writes);
+    sink.print(new StringBuilder("xyz"));
+    assertEquals("should write full buffer once", 1, writer.writes);
+    assertEquals("should write buffer in order", "abcd42", writer.toString());
+    sink.print((CharSequence) null);
+    assertEquals("should still buffer", 1, writer.writes);
+    sink.flush();
+    assertEquals("should write rest of buffer", "abcd42xyznull", writer.toString());
+    assertEquals("should flush writer", 1, writer.flushes);
+    sink.flush();
+    assertEquals("should not write empty buffer", 2, writer.writes);
+  }
+
+  /**
+   * Tests that a result that is larger than the buffer is written directly, after the results that
+   * are in the buffer.
+   */
+  @Test
+  public void testLargeResult() {
+    CountingWriter writer = new CountingWriter();
+    WriterResultSink sink = new WriterResultSink(writer, 4);
+    sink.print("ab");
+    sink.println("0123456789");
+    sink.flush();
+    assertEquals("should keep order", "ab0123456789" + System.lineSeparator(), writer.toString());
+    assertTrue("should not split large result", writer.writes <= 3);
+  }
+
+  /**
+   * Tests that a buffer that is too small is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBufferSize() {
+    new WriterResultSink(new StringWriter(), 0);
+  }
+}
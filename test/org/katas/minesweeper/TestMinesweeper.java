@@ -16,8 +16,12 @@
 package org.katas.minesweeper;
 
 import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
+import org.katas.common.CollectingResultSink;
+import org.katas.common.InputGenerator;
 
 /**
  * JUnit tests for the {@link Minesweeper} class.
@@ -194,4 +198,36 @@ public class TestMinesweeper {
     assertEquals(ONE, 1, this.minesweeper.getSquareAt(3, 3).getNumSurroundingMines());
   }
 
+  /**
+   * Tests that many fields solved in parallel are printed in the same order as when they are solved
+   * one after another.
+   */
+  @Test
+  public void testParallelOrder() {
+    List<String> lines = new ArrayList<String>();
+    for (int size = 1; size <= 40; size++) {
+      lines.addAll(InputGenerator.MINESWEEPER.generateLines(size, size));
+    }
+    String expected = solve(lines, 1);
+    assertEquals("should print every field", 40, expected.split("Field #").length - 1);
+    assertEquals("should print same output", expected, solve(lines, 4));
+  }
+
+  /**
+   * Solves the fields in the given lines.
+   * 
+   * @param lines The lines that contain the fields.
+   * @param parallelism The number of fields that can be solved at the same time.
+   * @return The output.
+   */
+  private static String solve(List<String> lines, int parallelism) {
+    Minesweeper minesweeper = new Minesweeper();
+    CollectingResultSink sink = new CollectingResultSink();
+    minesweeper.setParallelism(parallelism);
+    minesweeper.setResultSink(sink);
+    minesweeper.setLines(lines);
+    minesweeper.processLines();
+    return sink.getOutput();
+  }
+
 }
@@ -15,6 +15,7 @@
  ******************************************************************************/
 package org.katas.primes;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
@@ -61,4 +62,56 @@ public class TestConsecutivePrimes {
     assertEquals("should have no representations", "[]", primes.getResults(0));
   }
 
+  /**
+   * Tests that recently queried numbers are found in the cache and that the least recently queried
+   * numbers are evicted once the cache is full.
+   */
+  @Test
+  public void testCache() {
+    // Room for about 10 numbers.
+    ConsecutivePrimes primes = new ConsecutivePrimes(1000);
+    ResultCache cache = primes.getCache();
+    for (int number = 1; number <= 100; number++) {
+      primes.getCount(number);
+    }
+    assertEquals("should be 100 misses", 100, cache.getMissCount());
+    assertTrue("cache should be full", cache.getBytes() <= 1000 && cache.size() >= 9);
+
+    assertEquals("should have three representations", "[2, 3, 5, 7, 11, 13] [11, 13, 17] [41]",
+        primes.getResults(41));
+    assertEquals("41 should have been evicted", 101, cache.getMissCount());
+    primes.getCount(41);
+    assertEquals("41 should be in the cache", 1, cache.getHitCount());
+  }
+
+  /**
+   * Tests that the {@link ConsecutivePrimes#getCounts(int...)} method returns the same counts as
+   * the {@link ConsecutivePrimes#getCount(int)} method.
+   */
+  @Test
+  public void testBatch() {
+    ConsecutivePrimes primes = new ConsecutivePrimes();
+    assertArrayEquals(new int[] { 1, 2, 3, 0, 0 }, primes.getCounts(2, 53, 41, 20, 0));
+
+    int[] numbers = new int[2000];
+    for (int index = 0; index < numbers.length; index++) {
+      numbers[index] = numbers.length - index;
+    }
+    int[] counts = primes.getCounts(numbers);
+    ConsecutivePrimes single = new ConsecutivePrimes();
+    for (int index = 0; index < numbers.length; index++) {
+      assertEquals("count of " + numbers[index], single.getCount(numbers[index]).intValue(),
+          counts[index]);
+    }
+  }
+
+  /**
+   * Tests that a batch with a number that is too large for the counts array is rejected before
+   * anything is allocated.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBatchTooLarge() {
+    new ConsecutivePrimes().getCounts(2, Integer.MAX_VALUE);
+  }
+
 }
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.primes;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link PrimeSieve} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestPrimeSieve {
+
+  /**
+   * Tests counting primes across several segments, sieving a little at a time and then a lot.
+   */
+  @Test
+  public void testCountTo() {
+    PrimeSieve sieve = new PrimeSieve();
+    assertEquals("should be no primes", 0, sieve.countTo(1));
+    assertEquals("should be 4 primes", 4, sieve.countTo(10));
+    assertEquals("should be 25 primes", 25, sieve.countTo(100));
+    assertEquals("should be 78498 primes", 78498, sieve.countTo(1000000));
+    assertEquals("should be 664579 primes", 664579, sieve.countTo(10000000));
+    assertEquals("should still be 25 primes", 25, sieve.countTo(100));
+    assertEquals("last prime should be 9999991", 9999991, sieve.get(664578));
+  }
+
+  /**
+   * Tests that sieving in parallel finds the same primes as sieving on one thread, both from
+   * scratch and when extending a table that was partially sieved.
+   */
+  @Test
+  public void testParallel() {
+    PrimeSieve sequential = new PrimeSieve();
+    sequential.sieveTo(20000000);
+
+    PrimeSieve parallel = new PrimeSieve();
+    parallel.setParallelism(4);
+    assertEquals("should be 78498 primes", 78498, parallel.countTo(1000000));
+    assertEquals("should be 1270607 primes", 1270607, parallel.countTo(20000000));
+    int[] expected = Arrays.copyOf(sequential.getPrimes(), sequential.size());
+    assertArrayEquals("primes should match", expected,
+        Arrays.copyOf(parallel.getPrimes(), parallel.size()));
+  }
+}
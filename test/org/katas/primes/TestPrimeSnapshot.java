@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.primes;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * JUnit tests for the {@link PrimeSnapshot} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestPrimeSnapshot {
+
+  /**
+   * Tests saving a table, extending it, and loading it into a new sieve.
+   * 
+   * @throws IOException If the snapshot cannot be written or read in.
+   */
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    File file = File.createTempFile("primes", ".bin");
+    file.deleteOnExit();
+    assertTrue("should delete empty file", file.delete());
+
+    PrimeSieve sieve = new PrimeSieve();
+    PrimeSnapshot snapshot = new PrimeSnapshot(file);
+    assertFalse("should not load missing file", snapshot.load(sieve));
+    sieve.sieveTo(1000000);
+    assertTrue("should save table", snapshot.save(sieve));
+    assertFalse("should not save table again", snapshot.save(sieve));
+    sieve.sieveTo(2000000);
+    assertTrue("should append to table", snapshot.save(sieve));
+    assertEquals("should have header and primes", PrimeSnapshot.HEADER_BYTES + 4L * 148933
+        + 8L * (148933 / PrimeSnapshot.CHUNK_SIZE), file.length());
+
+    PrimeSieve loaded = new PrimeSieve();
+    assertTrue("should load table", new PrimeSnapshot(file).load(loaded));
+    assertEquals("should be sieved to 2000000", 2000000, loaded.getLimit());
+    assertEquals("should read in primes as needed", 0, loaded.size());
+    assertEquals("should be 148933 primes", 148933, loaded.countTo(2000000));
+    assertArrayEquals("primes should match", Arrays.copyOf(sieve.getPrimes(), sieve.size()),
+        Arrays.copyOf(loaded.getPrimes(), loaded.size()));
+    assertEquals("should be 664579 primes", 664579, loaded.countTo(10000000));
+  }
+
+  /**
+   * Tests that the primes in a corrupt chunk of a snapshot are found again by sieving.
+   * 
+   * @throws IOException If the snapshot cannot be written.
+   */
+  @Test
+  public void testCorrupt() throws IOException {
+    File file = File.createTempFile("primes", ".bin");
+    file.deleteOnExit();
+    PrimeSieve sieve = new PrimeSieve();
+    sieve.sieveTo(1000000);
+    new PrimeSnapshot(file).save(sieve);
+
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.seek(PrimeSnapshot.HEADER_BYTES + PrimeSnapshot.CHUNK_BYTES + 4 * 1000);
+      raf.writeInt(7919);
+    }
+    PrimeSieve loaded = new PrimeSieve();
+    assertTrue("should load header", new PrimeSnapshot(file).load(loaded));
+    assertEquals("should read in first chunk", 1229, loaded.countTo(10000));
+    assertEquals("should sieve corrupt chunk again", 78498, loaded.countTo(1000000));
+    assertArrayEquals("primes should match", Arrays.copyOf(sieve.getPrimes(), sieve.size()),
+        Arrays.copyOf(loaded.getPrimes(), loaded.size()));
+  }
+
+  /**
+   * Tests that a snapshot whose limit was changed is rejected, rather than treating the primes up
+   * to the new limit as if they were in the file.
+   * 
+   * @throws IOException If the snapshot cannot be written.
+   */
+  @Test
+  public void testChangedLimit() throws IOException {
+    File file = File.createTempFile("primes", ".bin");
+    file.deleteOnExit();
+    PrimeSieve sieve = new PrimeSieve();
+    sieve.sieveTo(1000);
+    new PrimeSnapshot(file).save(sieve);
+
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.seek(8);
+      raf.writeInt(100000);
+    }
+    try {
+      new PrimeSnapshot(file).load(new PrimeSieve());
+      fail("should reject corrupt snapshot");
+    }
+    catch (IOException e) {
+      assertTrue("should report corruption", e.getMessage().contains("corrupt"));
+    }
+    ConsecutivePrimes primes = new ConsecutivePrimes(1024 * 1024, file);
+    assertEquals("should find primes again", new ConsecutivePrimes(1024 * 1024).getCount(1009),
+        primes.getCount(1009));
+
+    // The file is replaced with a valid snapshot.
+    assertTrue("should load table", new PrimeSnapshot(file).load(new PrimeSieve()));
+  }
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.roulette;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.katas.common.CollectingResultSink;
+
+/**
+ * JUnit tests for the {@link RomanRoulette} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestRomanRoulette {
+
+  /**
+   * Tests that many circles solved in parallel are printed in the same order as when they are
+   * solved one after another, and that the line <code>0 0</code> ends the input.
+   */
+  @Test
+  public void testParallelOrder() {
+    List<String> lines = new ArrayList<String>();
+    for (int n = 1; n <= 40; n++) {
+      for (int k = 1; k <= 5; k++) {
+        lines.add(n + " " + k);
+      }
+    }
+    lines.add("0 0");
+    lines.add("41 2");
+
+    String expected = solve(lines, 1);
+    assertTrue("should print circles", expected.contains("N: 40\tK: 1\tPosition: "));
+    assertFalse("should stop at 0 0", expected.contains("N: 41"));
+    assertEquals("should print same output", expected, solve(lines, 4));
+  }
+
+  /**
+   * Solves the circles in the given lines.
+   * 
+   * @param lines The lines that contain N and K of each circle.
+   * @param parallelism The number of circles that can be solved at the same time.
+   * @return The output.
+   */
+  private static String solve(List<String> lines, int parallelism) {
+    RomanRoulette roulette = new RomanRoulette(1);
+    CollectingResultSink sink = new CollectingResultSink();
+    roulette.setParallelism(parallelism);
+    roulette.setResultSink(sink);
+    roulette.setLines(lines);
+    roulette.processLines();
+    return sink.getOutput();
+  }
+}
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.squares;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.katas.common.CollectingResultSink;
+import org.katas.common.InputGenerator;
+
+/**
+ * JUnit tests for the {@link Squares} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestSquares {
+
+  /**
+   * Tests that many problems solved in parallel are printed in the same order as when they are
+   * solved one after another.
+   */
+  @Test
+  public void testParallelOrder() {
+    List<String> lines = new ArrayList<String>();
+    for (int problem = 0; problem < 40; problem++) {
+      // Only grids of up to 9 by 9 points can be followed by another problem.
+      lines.addAll(InputGenerator.SQUARES.generateLines(2 + problem % 8, problem));
+    }
+    String expected = solve(lines, 1);
+    assertEquals("should print every problem", 40, expected.split("Problem #").length - 1);
+    assertEquals("should print same output", expected, solve(lines, 4));
+  }
+
+  /**
+   * Solves the problems in the given lines.
+   * 
+   * @param lines The lines that contain the problems.
+   * @param parallelism The number of problems that can be solved at the same time.
+   * @return The output.
+   */
+  private static String solve(List<String> lines, int parallelism) {
+    Squares squares = new Squares();
+    CollectingResultSink sink = new CollectingResultSink();
+    squares.setParallelism(parallelism);
+    squares.setResultSink(sink);
+    squares.setLines(lines);
+    squares.processLines();
+    return sink.getOutput();
+  }
+}
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.katas.common.CollectingResultSink;
+import org.katas.common.InputGenerator;
+import org.katas.common.KataUtils;
+
+/**
+ * Ledgers shared by the tests of the transaction package, and the ways of reconciling them that the
+ * tests compare. The results of reconciling a ledger in memory on one shard are the reference that
+ * every other way of reconciling it must match, and they are checked in turn against
+ * {@link #reconcileIndependently(List)}, which shares no code with the classes under test.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+final class LedgerFixture {
+
+  /** The number of items in a generated ledger. */
+  static final int ITEMS = 20000;
+
+  /** The seed of the generated ledger that most tests use. */
+  static final long SEED = 42;
+
+  /** The number of shards that is compared with one shard. */
+  static final int SHARDS = 4;
+
+  /**
+   * This class cannot be instantiated nor extended.
+   */
+  private LedgerFixture() {
+    // Empty constructor.
+  }
+
+  /**
+   * Generates the ledger that most tests use, about one transaction in ten of which is out of
+   * balance.
+   * 
+   * @return The lines of the ledger, which can be modified.
+   */
+  static List<String> generate() {
+    return generate(SEED);
+  }
+
+  /**
+   * Generates a ledger, e.g. one that must differ from the ledger that most tests use.
+   * 
+   * @param seed The seed.
+   * @return The lines of the ledger, which can be modified.
+   */
+  static List<String> generate(long seed) {
+    return new ArrayList<String>(InputGenerator.TRANSACTIONS.generateLines(ITEMS, seed));
+  }
+
+  /**
+   * Creates a small ledger with two accounts, 111 and 211, followed by the given lines.
+   * 
+   * @param items The lines that follow the list of accounts, usually ending with
+   * <code>000000 0</code>.
+   * @return The lines of the ledger, which can be modified.
+   */
+  static List<String> ledger(String... items) {
+    List<String> lines = new ArrayList<String>();
+    lines.add("111Cash");
+    lines.add("211Accounts Payable");
+    lines.add("000No such account");
+    lines.addAll(Arrays.asList(items));
+    return lines;
+  }
+
+  /**
+   * Reconciles a ledger in memory on one shard.
+   * 
+   * @param ledger The lines of the ledger, which are not modified.
+   * @return The transactions that are out of balance.
+   */
+  static String reconcile(List<String> ledger) {
+    return reconcile(ledger, 1);
+  }
+
+  /**
+   * Reconciles a ledger in memory.
+   * 
+   * @param ledger The lines of the ledger, which are not modified.
+   * @param shards The number of shards.
+   * @return The transactions that are out of balance.
+   */
+  static String reconcile(List<String> ledger, int shards) {
+    TransactionProcessing tp = new TransactionProcessing();
+    tp.setParallelism(shards);
+    tp.setLines(new ArrayList<String>(ledger));
+    return tp.process();
+  }
+
+  /**
+   * Reconciles a ledger in memory on one shard and checks that some transaction is out of balance,
+   * so that comparing the results with those of another way of reconciling it means something.
+   * 
+   * @param ledger The lines of the ledger, which are not modified.
+   * @return The transactions that are out of balance.
+   */
+  static String reconcileUnbalanced(List<String> ledger) {
+    String results = reconcile(ledger);
+    assertTrue("should find transactions out of balance", results.contains("Out of Balance"));
+    assertEquals("should match independent reconciliation", reconcileIndependently(ledger),
+        results);
+    return results;
+  }
+
+  /**
+   * Reconciles a ledger the simple way, the way that {@link TransactionProcessing} used to: every
+   * item is kept in a map of transactions, amounts are formatted with
+   * {@link KataUtils#getBalanceAsString(long)}, and lines are padded with
+   * {@link String#format(String, Object...)}. The ledger must be well formed, apart from lines that
+   * do not have exactly two fields, which are skipped.
+   * 
+   * @param ledger The lines of the ledger.
+   * @return The transactions that are out of balance.
+   */
+  static String reconcileIndependently(List<String> ledger) {
+    Map<Integer, String> accounts = new HashMap<Integer, String>();
+    int index = 0;
+    for (; !ledger.get(index).contains("000"); index++) {
+      accounts.put(Integer.valueOf(ledger.get(index).substring(0, 3)),
+          ledger.get(index).substring(3));
+    }
+    Map<Integer, List<String>> lines = new TreeMap<Integer, List<String>>();
+    Map<Integer, Long> sums = new HashMap<Integer, Long>();
+    for (String line : ledger.subList(index + 1, ledger.size())) {
+      String[] fields = line.trim().split(" +");
+      if (fields.length != 2) {
+        continue;
+      }
+      int info = Integer.parseInt(fields[0]);
+      if (info == 0) {
+        break;
+      }
+      Integer transactionNo = info / 1000;
+      int accountNo = info % 1000;
+      long amount = Long.parseLong(fields[1]);
+      if (!lines.containsKey(transactionNo)) {
+        lines.put(transactionNo, new ArrayList<String>());
+        sums.put(transactionNo, 0L);
+      }
+      lines.get(transactionNo).add(format(accountNo + " " + accounts.get(accountNo), amount));
+      sums.put(transactionNo, sums.get(transactionNo) + amount);
+    }
+
+    StringBuilder builder = new StringBuilder();
+    for (Integer transactionNo : lines.keySet()) {
+      if (sums.get(transactionNo) != 0) {
+        builder.append("*** Transaction " + transactionNo + " is out of balance ***\n");
+        for (String line : lines.get(transactionNo)) {
+          builder.append(line);
+        }
+        builder.append(format("999 Out of Balance", Math.abs(sums.get(transactionNo))));
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Formats a line of a report: a label followed by an amount in dollars that is right-aligned in
+   * a column that is 50 characters wide.
+   * 
+   * @param label The label.
+   * @param amount The amount, in cents.
+   * @return The line, which ends with a line break.
+   */
+  private static String format(String label, long amount) {
+    String dollars = KataUtils.getBalanceAsString(amount);
+    return label + String.format("%" + (50 - label.length()) + "s", dollars) + "\n";
+  }
+
+  /**
+   * Writes a ledger to a new temporary file, which the caller must delete.
+   * 
+   * @param ledger The lines of the ledger.
+   * @return The ledger file.
+   * @throws IOException If the file could not be written.
+   */
+  static File write(List<String> ledger) throws IOException {
+    File file = File.createTempFile("ledger", ".kata");
+    Files.write(file.toPath(), ledger, StandardCharsets.US_ASCII);
+    return file;
+  }
+
+  /**
+   * Reconciles a ledger file with {@link TransactionProcessing#processStreaming(String)}.
+   * 
+   * @param tp The instance that reconciles the ledger, whose result sink is replaced.
+   * @param file The ledger file.
+   * @return The output, which ends with a line break.
+   * @throws IOException If the ledger could not be read.
+   */
+  static String reconcileStreaming(TransactionProcessing tp, File file) throws IOException {
+    CollectingResultSink sink = new CollectingResultSink();
+    tp.setResultSink(sink);
+    tp.processStreaming(file.getPath());
+    return sink.getOutput();
+  }
+
+  /**
+   * Reconciles a ledger file with
+   * {@link TransactionProcessing#processCheckpointed(String, File, boolean)}.
+   * 
+   * @param tp The instance that reconciles the ledger, whose result sink is replaced.
+   * @param file The ledger file.
+   * @param checkpoint The checkpoint file.
+   * @param appendOnly True to keep the checkpoint for the next run.
+   * @return The output, which ends with a line break.
+   * @throws IOException If the ledger or checkpoint could not be read or written.
+   */
+  static String reconcileCheckpointed(TransactionProcessing tp, File file, File checkpoint,
+      boolean appendOnly) throws IOException {
+    CollectingResultSink sink = new CollectingResultSink();
+    tp.setResultSink(sink);
+    tp.processCheckpointed(file.getPath(), checkpoint, appendOnly);
+    return sink.getOutput();
+  }
+
+  /**
+   * Checks that a ledger is reconciled as expected independently, in memory on one shard and on
+   * several, and from a file by streaming it and with a checkpoint.
+   * 
+   * @param expected The transactions that are out of balance.
+   * @param ledger The lines of the ledger.
+   * @throws IOException If the ledger or checkpoint could not be written or read.
+   */
+  static void assertReconciled(String expected, List<String> ledger) throws IOException {
+    assertEquals("should match independent reconciliation", expected,
+        reconcileIndependently(ledger));
+    assertEquals("should reconcile on one shard", expected, reconcile(ledger));
+    assertEquals("should reconcile on several shards", expected, reconcile(ledger, SHARDS));
+    File file = write(ledger);
+    File checkpoint = new File(file.getPath() + ".checkpoint");
+    try {
+      assertEquals("should reconcile by streaming", expected + "\n",
+          reconcileStreaming(new TransactionProcessing(), file));
+      assertEquals("should reconcile with a checkpoint", expected + "\n",
+          reconcileCheckpointed(new TransactionProcessing(), file, checkpoint, false));
+    }
+    finally {
+      assertTrue("should delete ledger", file.delete());
+      Files.deleteIfExists(checkpoint.toPath());
+    }
+  }
+}
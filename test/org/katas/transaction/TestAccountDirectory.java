@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.katas.common.Fnv1a;
+
+/**
+ * JUnit tests for the {@link AccountDirectory} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestAccountDirectory {
+
+  /**
+   * Tests that accounts are found by number, both in memory and after the directory has been saved
+   * and memory-mapped, and that the last of two accounts with the same number is kept.
+   * 
+   * @throws IOException If the directory could not be saved or opened.
+   */
+  @Test
+  public void testLookup() throws IOException {
+    List<Account> accounts = Arrays.asList(new Account(211, "Accounts Payable"),
+        new Account(111, "Cash"), new Account(315, "Caf\u00E9 \u20AC \uD83D\uDCB0"),
+        new Account(111, "Petty Cash"));
+    File file = File.createTempFile("accounts", ".dir");
+    try {
+      AccountDirectory.of(accounts).save(file);
+      for (AccountDirectory directory : Arrays.asList(AccountDirectory.of(accounts),
+          AccountDirectory.open(file))) {
+        assertEquals("should contain accounts", 3, directory.size());
+        assertEquals("should not find account", -1, directory.indexOf(100));
+        assertEquals("should sort accounts", 111, directory.getAccountNo(0));
+        assertEquals("should keep last account", "Petty Cash",
+            directory.getAccountDescr(directory.indexOf(111)));
+        assertEquals("should find account", "Accounts Payable",
+            directory.getAccountDescr(directory.indexOf(211)));
+        assertEquals("should decode description", "Caf\u00E9 \u20AC \uD83D\uDCB0",
+            directory.getAccountDescr(directory.indexOf(315)));
+      }
+    }
+    finally {
+      assertTrue("should delete directory", file.delete());
+    }
+  }
+
+  /**
+   * Tests that reconciling a ledger with a directory file gives the same results as reconciling
+   * it with the list of accounts at the beginning of the ledger.
+   * 
+   * @throws IOException If the ledger or directory could not be written or read.
+   */
+  @Test
+  public void testDirectoryFile() throws IOException {
+    List<String> lines = LedgerFixture.generate();
+    String results = LedgerFixture.reconcileUnbalanced(lines);
+    File ledger = LedgerFixture.write(lines);
+    File file = File.createTempFile("accounts", ".dir");
+    try {
+      TransactionProcessing.buildAccountDirectory(ledger.getPath(), file);
+      long endOffset = 0;
+      for (String line : lines.subList(0, lines.indexOf("000No such account"))) {
+        endOffset += line.length() + System.lineSeparator().length();
+      }
+      assertEquals("should find end of accounts", endOffset,
+          AccountDirectory.open(file).getEndOffset());
+      TransactionProcessing tp = new TransactionProcessing();
+      tp.setAccountDirectory(file);
+      tp.setLines(new ArrayList<String>(lines));
+      assertEquals("should find same transactions", results, tp.process());
+      assertEquals("should find same transactions", results + "\n",
+          LedgerFixture.reconcileStreaming(tp, ledger));
+
+      // A ledger whose list of accounts ends somewhere else has the list skipped line by line.
+      lines.add(0, "999Suspense");
+      Files.write(ledger.toPath(), lines, StandardCharsets.US_ASCII);
+      assertEquals("should find same transactions", results + "\n",
+          LedgerFixture.reconcileStreaming(tp, ledger));
+    }
+    finally {
+      assertTrue("should delete ledger", ledger.delete());
+      assertTrue("should delete directory", file.delete());
+    }
+  }
+
+  /**
+   * Tests that an item whose account is not in the list of accounts fails the reconciliation if
+   * its transaction is out of balance, whether the accounts are read in from the ledger or from a
+   * directory file, and is ignored if its transaction is balanced.
+   * 
+   * @throws IOException If the ledger or directory could not be written or read.
+   */
+  @Test
+  public void testUnknownAccount() throws IOException {
+    LedgerFixture.assertReconciled("", LedgerFixture.ledger("100111 5", "100999 -5", "000000 0"));
+
+    List<String> lines = LedgerFixture.ledger("100111 5", "100999 -5", "200999 3", "000000 0");
+    for (int shards : new int[] { 1, LedgerFixture.SHARDS }) {
+      try {
+        LedgerFixture.reconcile(lines, shards);
+        fail("should reject unknown account on " + shards + " shards");
+      }
+      catch (IllegalArgumentException e) {
+        assertEquals("should name account", "No such account: 999", e.getMessage());
+      }
+    }
+
+    File ledger = LedgerFixture.write(lines);
+    File file = File.createTempFile("accounts", ".dir");
+    try {
+      TransactionProcessing.buildAccountDirectory(ledger.getPath(), file);
+      TransactionProcessing mapped = new TransactionProcessing();
+      mapped.setAccountDirectory(file);
+      for (TransactionProcessing tp : Arrays.asList(new TransactionProcessing(), mapped)) {
+        try {
+          LedgerFixture.reconcileStreaming(tp, ledger);
+          fail("should reject unknown account when streaming");
+        }
+        catch (IllegalArgumentException e) {
+          assertEquals("should name account", "No such account: 999", e.getMessage());
+        }
+      }
+    }
+    finally {
+      assertTrue("should delete ledger", ledger.delete());
+      assertTrue("should delete directory", file.delete());
+    }
+  }
+
+  /**
+   * Tests that a directory file is rejected if its contents do not match its checksum, or if an
+   * entry points outside of the pool of descriptions.
+   * 
+   * @throws IOException If the directory could not be saved.
+   */
+  @Test
+  public void testCorruptFile() throws IOException {
+    File file = File.createTempFile("accounts", ".dir");
+    try {
+      AccountDirectory.of(Arrays.asList(new Account(111, "Cash"), new Account(211, "Payable")))
+          .save(file);
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      bytes[bytes.length - 1] ^= 1;
+      assertCorrupt(file, bytes);
+
+      // The description of the second account is longer than the pool, but the checksum matches.
+      bytes[bytes.length - 1] ^= 1;
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      buffer.putInt(AccountDirectory.HEADER_BYTES + AccountDirectory.ENTRY_BYTES + 8, 100);
+      buffer.limit(24);
+      long hash = Fnv1a.update(Fnv1a.OFFSET_BASIS, buffer);
+      buffer.limit(bytes.length).position(32);
+      buffer.putLong(24, Fnv1a.update(hash, buffer));
+      assertCorrupt(file, bytes);
+    }
+    finally {
+      assertTrue("should delete directory", file.delete());
+    }
+  }
+
+  /**
+   * Writes the given contents to a directory file and checks that opening it fails.
+   * 
+   * @param file The directory file.
+   * @param bytes The contents of the file.
+   * @throws IOException If the file could not be written.
+   */
+  private static void assertCorrupt(File file, byte[] bytes) throws IOException {
+    Files.write(file.toPath(), bytes);
+    try {
+      AccountDirectory.open(file);
+      fail("should reject corrupt directory");
+    }
+    catch (IOException e) {
+      assertTrue("should report corruption", e.getMessage().contains("corrupt"));
+    }
+  }
+}
@@ -15,9 +15,16 @@
  ******************************************************************************/
 package org.katas.transaction;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
@@ -85,4 +92,284 @@ public class TestTransactionProcessing {
     }
   }
 
+  /**
+   * Tests the exact report for a small ledger whose expected output was worked out by hand: the
+   * transactions that are out of balance are printed in order of transaction number, each with its
+   * items in the order in which they appear, and the amount by which a transaction is out of
+   * balance is printed without its sign. A negative amount of less than a dollar but at least ten
+   * cents is printed without a leading zero, as it always has been by
+   * {@link org.katas.common.KataUtils#getBalanceAsString(long)}.
+   * 
+   * @throws IOException If the ledger or checkpoint could not be written or read.
+   */
+  @Test
+  public void testReport() throws IOException {
+    List<String> ledger = LedgerFixture.ledger("300111 5", "200211 -250", "100111 700",
+        "300211 -12", "200111 100", "100211 -700", "000000 0");
+    String expected = "*** Transaction 200 is out of balance ***\n"
+        + "211 Accounts Payable                         -2.50\n"
+        + "111 Cash                                      1.00\n"
+        + "999 Out of Balance                            1.50\n"
+        + "*** Transaction 300 is out of balance ***\n"
+        + "111 Cash                                      0.05\n"
+        + "211 Accounts Payable                          -.12\n"
+        + "999 Out of Balance                            0.07\n";
+    LedgerFixture.assertReconciled(expected, ledger);
+  }
+
+  /**
+   * Tests that reconciling a generated ledger on several shards gives the same results, in the same
+   * order, as reconciling it on one.
+   */
+  @Test
+  public void testParallel() {
+    List<String> ledger = LedgerFixture.generate();
+    String expected = LedgerFixture.reconcileUnbalanced(ledger);
+    assertEquals("should find same transactions", expected,
+        LedgerFixture.reconcile(ledger, LedgerFixture.SHARDS));
+  }
+
+  /**
+   * Tests that a ledger with fewer transactions than shards, so that some shards get no items, is
+   * reconciled the same way as on one shard.
+   */
+  @Test
+  public void testMoreShardsThanTransactions() {
+    List<String> ledger = LedgerFixture.ledger("100111 5", "200211 3", "100211 -4", "000000 0");
+    String expected = LedgerFixture.reconcileUnbalanced(ledger);
+    assertEquals("should find same transactions", expected, LedgerFixture.reconcile(ledger, 16));
+  }
+
+  /**
+   * Tests that lines after <code>000000 0</code> are not parsed when a ledger is reconciled on
+   * several shards, even though they are read in with the batch that ends the ledger or in batches
+   * that are parsed ahead of it.
+   */
+  @Test
+  public void testInvalidLinesAfterEnd() {
+    List<String> ledger = LedgerFixture.generate();
+    String expected = LedgerFixture.reconcileUnbalanced(ledger);
+    for (int line = 0; line < LedgerFixture.ITEMS; line++) {
+      ledger.add("xxxxxx 0");
+    }
+    assertEquals("should ignore lines after end", expected,
+        LedgerFixture.reconcile(ledger, LedgerFixture.SHARDS));
+  }
+
+  /**
+   * Tests that the {@link TransactionProcessing#processStreaming(String)} method prints the same
+   * transactions as the {@link TransactionProcessing#process()} method returns for a generated
+   * ledger, whose transactions are spread across the whole file.
+   * 
+   * @throws IOException If the ledger could not be written or read.
+   */
+  @Test
+  public void testStreaming() throws IOException {
+    List<String> ledger = LedgerFixture.generate();
+    String expected = LedgerFixture.reconcileUnbalanced(ledger);
+    File file = LedgerFixture.write(ledger);
+    try {
+      assertEquals("should find same transactions", expected + "\n",
+          LedgerFixture.reconcileStreaming(tp, file));
+    }
+    finally {
+      assertTrue("should delete ledger", file.delete());
+    }
+  }
+
+  /**
+   * Tests that a ledger without any items, whether or not it ends with <code>000000 0</code>, has
+   * no transactions out of balance however it is reconciled.
+   * 
+   * @throws IOException If the ledger could not be written or read.
+   */
+  @Test
+  public void testEmptyLedger() throws IOException {
+    LedgerFixture.assertReconciled("", LedgerFixture.ledger("000000 0"));
+    LedgerFixture.assertReconciled("", LedgerFixture.ledger());
+  }
+
+  /**
+   * Tests that a ledger whose transactions are all balanced, and which is long enough to be read in
+   * and parsed in several batches, has no transactions out of balance however it is reconciled.
+   * 
+   * @throws IOException If the ledger could not be written or read.
+   */
+  @Test
+  public void testBalancedLedger() throws IOException {
+    List<String> ledger = LedgerFixture.ledger();
+    for (int item = 0; item < LedgerFixture.ITEMS / 2; item++) {
+      int transactionNo = 1 + item % (LedgerScanner.MAX_TRANSACTIONS - 1);
+      ledger.add(String.format("%03d111 %d", transactionNo, item + 1));
+      ledger.add(String.format("%03d211 %d", transactionNo, -(item + 1)));
+    }
+    ledger.add("000000 0");
+    LedgerFixture.assertReconciled("", ledger);
+  }
+
+  /**
+   * Tests that the items that follow <code>000000 0</code> are ignored when a ledger is reconciled
+   * in memory, by streaming it, or with a checkpoint, but are treated as appended to the ledger
+   * when it is reconciled with a checkpoint in append-only mode.
+   * 
+   * @throws IOException If the ledger or checkpoint could not be written or read.
+   */
+  @Test
+  public void testItemsAfterEnd() throws IOException {
+    List<String> ledger = LedgerFixture.generate();
+    String expected = LedgerFixture.reconcileUnbalanced(ledger);
+    String account = ledger.get(0).substring(0, 3);
+    List<String> items = Arrays.asList("999" + account + " 5", "001" + account + " -7");
+    List<String> appended = new ArrayList<>(ledger);
+    appended.remove("000000 0");
+    appended.addAll(items);
+    ledger.addAll(items);
+    assertEquals("should ignore items after end", expected, LedgerFixture.reconcile(ledger));
+    assertEquals("should ignore items after end on several shards", expected,
+        LedgerFixture.reconcile(ledger, LedgerFixture.SHARDS));
+
+    File file = LedgerFixture.write(ledger);
+    File checkpoint = new File(file.getPath() + ".checkpoint");
+    try {
+      assertEquals("should ignore items after end when streaming", expected + "\n",
+          LedgerFixture.reconcileStreaming(tp, file));
+      assertEquals("should ignore items after end with a checkpoint", expected + "\n",
+          LedgerFixture.reconcileCheckpointed(tp, file, checkpoint, false));
+      String results = LedgerFixture.reconcile(appended);
+      assertEquals("should include items appended after end", results + "\n",
+          LedgerFixture.reconcileCheckpointed(tp, file, checkpoint, true));
+    }
+    finally {
+      assertTrue("should delete ledger", file.delete());
+      Files.deleteIfExists(checkpoint.toPath());
+    }
+  }
+
+  /**
+   * Tests that the {@link TransactionProcessing#processCheckpointed(String, File, boolean)} method
+   * resumes from the checkpoint that was saved for the beginning of a ledger once the rest of the
+   * ledger has been appended, and prints the same transactions as the
+   * {@link TransactionProcessing#process()} method returns.
+   * 
+   * @throws IOException If the ledger or checkpoint could not be written or read.
+   */
+  @Test
+  public void testCheckpointed() throws IOException {
+    List<String> ledger = LedgerFixture.generate();
+    String expected = LedgerFixture.reconcileUnbalanced(ledger);
+    int half = ledger.size() / 2;
+    File file = LedgerFixture.write(ledger.subList(0, half));
+    File checkpoint = new File(file.getPath() + ".checkpoint");
+    try {
+      tp.setCheckpointInterval(1000);
+      LedgerFixture.reconcileCheckpointed(tp, file, checkpoint, true);
+      assertTrue("should keep checkpoint", checkpoint.isFile());
+
+      Files.write(file.toPath(), ledger.subList(half, ledger.size()), StandardCharsets.US_ASCII,
+          StandardOpenOption.APPEND);
+      TransactionProcessing second = new TransactionProcessing();
+      assertEquals("should find same transactions", expected + "\n",
+          LedgerFixture.reconcileCheckpointed(second, file, checkpoint, false));
+      assertTrue("should delete checkpoint", !checkpoint.exists());
+
+      // A checkpoint for a ledger that has since been rewritten is ignored.
+      Files.write(file.toPath(), ledger.subList(0, half), StandardCharsets.US_ASCII);
+      LedgerFixture.reconcileCheckpointed(tp, file, checkpoint, true);
+      List<String> rewritten = LedgerFixture.generate(LedgerFixture.SEED + 1);
+      Files.write(file.toPath(), rewritten, StandardCharsets.US_ASCII);
+      assertEquals("should start over", LedgerFixture.reconcile(rewritten) + "\n",
+          LedgerFixture.reconcileCheckpointed(second, file, checkpoint, false));
+    }
+    finally {
+      assertTrue("should delete ledger", file.delete());
+      Files.deleteIfExists(checkpoint.toPath());
+    }
+  }
+
+  /**
+   * Tests that the {@link TransactionProcessing#processCheckpointed(String, File, boolean)} method
+   * skips the list of accounts with the help of a directory file, both on a first run, when there
+   * is no checkpoint yet, and on a run that resumes from a checkpoint.
+   * 
+   * @throws IOException If the ledger, directory, or checkpoint could not be written or read.
+   */
+  @Test
+  public void testCheckpointedWithDirectory() throws IOException {
+    List<String> ledger = LedgerFixture.generate();
+    String expected = LedgerFixture.reconcileUnbalanced(ledger);
+    File file = LedgerFixture.write(ledger);
+    File directory = File.createTempFile("accounts", ".dir");
+    File checkpoint = new File(file.getPath() + ".checkpoint");
+    try {
+      TransactionProcessing.buildAccountDirectory(file.getPath(), directory);
+      tp.setAccountDirectory(directory);
+      assertEquals("should find same transactions without a checkpoint", expected + "\n",
+          LedgerFixture.reconcileCheckpointed(tp, file, checkpoint, false));
+
+      int half = ledger.size() / 2;
+      Files.write(file.toPath(), ledger.subList(0, half), StandardCharsets.US_ASCII);
+      tp.setCheckpointInterval(1000);
+      LedgerFixture.reconcileCheckpointed(tp, file, checkpoint, true);
+      assertTrue("should keep checkpoint", checkpoint.isFile());
+      Files.write(file.toPath(), ledger.subList(half, ledger.size()), StandardCharsets.US_ASCII,
+          StandardOpenOption.APPEND);
+      TransactionProcessing second = new TransactionProcessing();
+      second.setAccountDirectory(directory);
+      assertEquals("should find same transactions from a checkpoint", expected + "\n",
+          LedgerFixture.reconcileCheckpointed(second, file, checkpoint, false));
+      assertTrue("should delete checkpoint", !checkpoint.exists());
+    }
+    finally {
+      assertTrue("should delete ledger", file.delete());
+      assertTrue("should delete directory", directory.delete());
+      Files.deleteIfExists(checkpoint.toPath());
+    }
+  }
+
+  /**
+   * Tests that a run of the
+   * {@link TransactionProcessing#processCheckpointed(String, File, boolean)} method that is
+   * aborted partway through the ledger resumes from its last checkpoint and prints the same
+   * transactions as a run that was never interrupted.
+   * 
+   * @throws IOException If the ledger or checkpoint could not be written or read.
+   */
+  @Test
+  public void testInterrupted() throws IOException {
+    List<String> ledger = LedgerFixture.generate();
+    String expected = LedgerFixture.reconcileUnbalanced(ledger);
+
+    // A malformed item two thirds of the way through aborts the first run.
+    List<String> corrupt = new ArrayList<>(ledger);
+    int bad = corrupt.size() * 2 / 3;
+    while (corrupt.get(bad).startsWith("000")) {
+      bad++;
+    }
+    corrupt.set(bad, "xxxxxx 0");
+    File file = LedgerFixture.write(corrupt);
+    File checkpoint = new File(file.getPath() + ".checkpoint");
+    try {
+      tp.setCheckpointInterval(100);
+      try {
+        LedgerFixture.reconcileCheckpointed(tp, file, checkpoint, false);
+        fail("Expected the run to be aborted");
+      }
+      catch (NumberFormatException e) {
+        assertTrue("should keep checkpoint", checkpoint.isFile());
+      }
+
+      Files.write(file.toPath(), ledger, StandardCharsets.US_ASCII);
+      long offset = new LedgerCheckpoint(checkpoint, file).load(new LedgerReconciler());
+      assertTrue("should resume partway through", offset > 0 && offset < file.length());
+      assertEquals("should find same transactions", expected + "\n",
+          LedgerFixture.reconcileCheckpointed(new TransactionProcessing(), file, checkpoint,
+              false));
+      assertTrue("should delete checkpoint", !checkpoint.exists());
+    }
+    finally {
+      assertTrue("should delete ledger", file.delete());
+      Files.deleteIfExists(checkpoint.toPath());
+    }
+  }
+
 }
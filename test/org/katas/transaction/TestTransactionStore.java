@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (C) 2012 BJ Peter DeLaCruz
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package org.katas.transaction;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.katas.common.IntLongMap;
+
+/**
+ * JUnit tests for the {@link TransactionStore} class.
+ * 
+ * @author BJ Peter DeLaCruz <bjpeter@hawaii.edu>
+ */
+public class TestTransactionStore {
+
+  /**
+   * Tests that items appended one at a time and in columns are kept in order while the store
+   * grows, and that they are summed and scanned by transaction.
+   */
+  @Test
+  public void testAppendSumAndScan() {
+    Random random = new Random(42);
+    TransactionStore store = new TransactionStore();
+    int[] transactionNos = new int[100000];
+    int[] accountNos = new int[transactionNos.length];
+    int[] amounts = new int[transactionNos.length];
+    long[] sums = new long[LedgerScanner.MAX_TRANSACTIONS];
+    for (int index = 0; index < transactionNos.length; index++) {
+      transactionNos[index] = random.nextInt(50);
+      accountNos[index] = random.nextInt(1000);
+      amounts[index] = random.nextInt();
+      sums[transactionNos[index]] += amounts[index];
+      if (index < 3000) {
+        store.append(transactionNos[index], accountNos[index], amounts[index]);
+      }
+    }
+    store.append(transactionNos, accountNos, amounts, 0, 0);
+    store.append(transactionNos, accountNos, amounts, 3000, transactionNos.length - 3000);
+
+    assertEquals("should contain all items", transactionNos.length, store.size());
+    for (int index = 0; index < transactionNos.length; index += 997) {
+      assertEquals("should keep transaction", transactionNos[index], store.getTransactionNo(index));
+      assertEquals("should keep account", accountNos[index], store.getAccountNo(index));
+      assertEquals("should keep amount", amounts[index], store.getAmount(index));
+      assertEquals("should create transaction", amounts[index], store.get(index).getBalance());
+    }
+    IntLongMap totals = store.sumByTransaction();
+    for (int number = 0; number < 50; number++) {
+      assertEquals("should sum transaction " + number, sums[number], totals.get(number));
+    }
+
+    IntLongMap selected = new IntLongMap();
+    selected.put(7, 1);
+    final List<Integer> visited = new ArrayList<Integer>();
+    store.scan(selected, new TransactionStore.ItemVisitor() {
+      @Override
+      public void visit(int transactionNo, int accountNo, int amount) {
+        assertEquals("should visit selected transaction", 7, transactionNo);
+        visited.add(amount);
+      }
+    });
+    List<Integer> expected = new ArrayList<Integer>();
+    for (int index = 0; index < transactionNos.length; index++) {
+      if (transactionNos[index] == 7) {
+        expected.add(amounts[index]);
+      }
+    }
+    assertEquals("should visit items in order", expected, visited);
+  }
+}